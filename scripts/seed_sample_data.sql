@@ -151,8 +151,22 @@ VALUES ('Suporte', TRUE, @q3b, @now, @now, NULL)
 ON DUPLICATE KEY UPDATE id=LAST_INSERT_ID(id);
 SET @o3b4 := LAST_INSERT_ID();
 
--- Votos (presentes, 7 dias atrás e 30 dias atrás) para preencher dashboards
-INSERT INTO votes (survey_id, question_id, option_id, ip_address, user_agent, created_at, response_session_id)
+-- Votos (presentes, 7 dias atrás e 30 dias atrás) para preencher dashboards.
+-- Ids de votes e response_sessions vêm de id_generators (V6), nunca do AUTO_INCREMENT: a aplicação reserva blocos
+-- nessa tabela e colidiria com ids gerados pelo banco. Os votos passam por uma tabela temporária e recebem ids de
+-- um bloco reservado aqui, com a linha do gerador travada até o COMMIT.
+CREATE TEMPORARY TABLE seed_votes (
+    seq INT AUTO_INCREMENT PRIMARY KEY,
+    survey_id BIGINT NOT NULL,
+    question_id BIGINT NOT NULL,
+    option_id BIGINT NOT NULL,
+    ip_address VARCHAR(50),
+    user_agent VARCHAR(500),
+    created_at DATETIME NOT NULL,
+    response_session_id BIGINT
+);
+
+INSERT INTO seed_votes (survey_id, question_id, option_id, ip_address, user_agent, created_at, response_session_id)
 VALUES
 -- Satisfação Mobile
 (@s1, @q1a, @o1a1, '192.168.0.10', 'Mozilla/5.0', @now, NULL),
@@ -200,7 +214,21 @@ VALUES
 (@s3, @q3a, @o3a3, '172.16.0.23', 'Firefox', @d7, NULL),
 (@s3, @q3b, @o3b1, '172.16.0.24', 'Chrome (Windows)', @d30, NULL),
 (@s3, @q3b, @o3b2, '172.16.0.25', 'Safari (Mac)', @d7, NULL),
-(@s3, @q3b, @o3b4, '172.16.0.26', 'Edge', @d30, NULL)
-ON DUPLICATE KEY UPDATE id=id;
+(@s3, @q3b, @o3b4, '172.16.0.26', 'Edge', @d30, NULL);
+
+SELECT next_val INTO @vote_id FROM id_generators WHERE name = 'votes' FOR UPDATE;
+SELECT COUNT(*) INTO @vote_count FROM seed_votes;
+UPDATE id_generators SET next_val = @vote_id + @vote_count WHERE name = 'votes';
+
+INSERT INTO votes (id, survey_id, question_id, option_id, ip_address, user_agent, created_at, response_session_id)
+SELECT @vote_id + seq - 1, survey_id, question_id, option_id, ip_address, user_agent, created_at, response_session_id
+FROM seed_votes;
+
+DROP TEMPORARY TABLE seed_votes;
+
+-- Versão dos dados das pesquisas semeadas, lida pelo cache de exportações (V13)
+INSERT INTO survey_data_versions (survey_id, version)
+SELECT id, 1 FROM surveys WHERE id IN (@s1, @s2, @s3)
+ON DUPLICATE KEY UPDATE version = version + 1;
 
 COMMIT;
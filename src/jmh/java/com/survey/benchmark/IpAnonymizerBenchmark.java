@@ -0,0 +1,84 @@
+package com.survey.benchmark;
+
+import com.survey.service.IpAnonymizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a anonimização antiga do ResponseSessionPrivacyService (split/join por regex e MessageDigest criado
+ * a cada chamada) com o {@link IpAnonymizer}. Rode com {@code -prof gc} para ver gc.alloc.rate.norm (bytes por
+ * operação): no anonymizer resta apenas a String devolvida.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IpAnonymizerBenchmark {
+
+    private static final String IPV4 = "203.0.113.42";
+    private static final String IPV6 = "2001:0db8:85a3:0000:0000:8a2e:0370:7334";
+    private static final String SALT = "survey-privacy-default-salt";
+
+    private final IpAnonymizer anonymizer = new IpAnonymizer(24, 48, SALT);
+
+    @Benchmark
+    public String legacyTruncateIpv4() {
+        return legacyTruncate(IPV4);
+    }
+
+    @Benchmark
+    public String legacyTruncateIpv6() {
+        return legacyTruncate(IPV6);
+    }
+
+    @Benchmark
+    public String legacyHash() throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] hashBytes = digest.digest((SALT + IPV4).getBytes(StandardCharsets.UTF_8));
+        String hashHex = Base64.getEncoder().encodeToString(hashBytes)
+                .substring(0, Math.min(16, Base64.getEncoder().encodeToString(hashBytes).length()));
+        return "hashed:" + hashHex;
+    }
+
+    @Benchmark
+    public String maskIpv4() {
+        return anonymizer.mask(IPV4);
+    }
+
+    @Benchmark
+    public String maskIpv6() {
+        return anonymizer.mask(IPV6);
+    }
+
+    @Benchmark
+    public String hmac() {
+        return anonymizer.hmac(IPV4, "hashed:");
+    }
+
+    private static String legacyTruncate(String ip) {
+        if (ip.contains(".")) {
+            String[] parts = ip.split("\\.");
+            if (parts.length == 4) {
+                parts[3] = "0";
+                return String.join(".", parts);
+            }
+        }
+        if (ip.contains(":")) {
+            String[] parts = ip.split(":");
+            if (parts.length > 0) {
+                parts[parts.length - 1] = "0000";
+                return String.join(":", parts);
+            }
+        }
+        return "unknown";
+    }
+}
@@ -0,0 +1,141 @@
+package com.survey.benchmark;
+
+import com.survey.service.ExportFormat;
+import com.survey.service.RawRowWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Vazão da escrita das linhas cruas de sessões (as 16 colunas do export CSV/NDJSON) em linhas por segundo, sem gzip e
+ * com gzip no nível padrão e no mais rápido, descartando os bytes: mede só formatação, codificação UTF-8 e compressão, sem o banco. Os valores vêm de
+ * arrays pré-sorteados para imitar a leitura coluna a coluna do cursor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RawRowWriterBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final String[] COLUMNS = {"id", "survey_id", "question_id", "status", "device_type",
+            "operating_system", "browser", "source", "country", "state", "city", "started_at", "completed_at",
+            "created_at", "ip_address", "user_agent"};
+    private static final String[] DEVICES = {"desktop", "mobile", "tablet", null};
+    private static final String[] SYSTEMS = {"Windows", "Android", "iOS", "macOS", "Linux", null};
+    private static final String[] BROWSERS = {"Chrome", "Safari", "Firefox", "Edge"};
+    private static final String[] CITIES = {"São Paulo", "Rio de Janeiro", "Belo Horizonte", "Porto Alegre"};
+    private static final String[] AGENTS = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0 Safari/537.36",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Mobile/15E148"};
+
+    @Param({"CSV", "NDJSON"})
+    public ExportFormat format;
+
+    private String[] devices;
+    private String[] systems;
+    private String[] browsers;
+    private String[] cities;
+    private String[] agents;
+    private LocalDateTime[] createdAt;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        devices = new String[ROWS];
+        systems = new String[ROWS];
+        browsers = new String[ROWS];
+        cities = new String[ROWS];
+        agents = new String[ROWS];
+        createdAt = new LocalDateTime[ROWS];
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < ROWS; i++) {
+            devices[i] = DEVICES[random.nextInt(DEVICES.length)];
+            systems[i] = SYSTEMS[random.nextInt(SYSTEMS.length)];
+            browsers[i] = BROWSERS[random.nextInt(BROWSERS.length)];
+            cities[i] = CITIES[random.nextInt(CITIES.length)];
+            agents[i] = AGENTS[random.nextInt(AGENTS.length)];
+            createdAt[i] = start.plusSeconds(i * 7L);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void plain() throws IOException {
+        write(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void gzipDefaultLevel() throws IOException {
+        gzip(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Nível usado pelo export ({@code app.exports.raw.gzip-level=1}).
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void gzipBestSpeed() throws IOException {
+        gzip(Deflater.BEST_SPEED);
+    }
+
+    private void gzip(int level) throws IOException {
+        GZIPOutputStream out = new GZIPOutputStream(OutputStream.nullOutputStream(), 64 * 1024) {
+            {
+                def.setLevel(level);
+            }
+        };
+        write(out);
+        out.finish();
+    }
+
+    private void write(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RawRowWriter rows = RawRowWriter.of(format, writer, COLUMNS);
+        rows.begin();
+        for (int i = 0; i < ROWS; i++) {
+            rows.startRow();
+            rows.number(1_000_000L + i);
+            rows.number(42);
+            if (i % 3 == 0) {
+                rows.nullValue();
+            } else {
+                rows.number(i % 20);
+            }
+            rows.text(i % 3 == 0 ? "COMPLETED" : "ABANDONED");
+            rows.text(devices[i]);
+            rows.text(systems[i]);
+            rows.text(browsers[i]);
+            rows.text("google");
+            rows.text("BR");
+            rows.text("SP");
+            rows.text(cities[i]);
+            rows.timestamp(createdAt[i].minusSeconds(40));
+            rows.timestamp(i % 3 == 0 ? createdAt[i] : null);
+            rows.timestamp(createdAt[i]);
+            rows.text("203.0.113.0");
+            rows.text(agents[i]);
+            rows.endRow();
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,210 @@
+package com.survey.benchmark;
+
+import com.survey.entity.Question;
+import com.survey.entity.ResponseSession;
+import com.survey.entity.ResponseStatus;
+import com.survey.service.ResponseSessionScanner.SessionRow;
+import com.survey.service.SessionAggregator;
+import com.survey.service.SessionAggregator.AudienceDimension;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Compara as pipelines de stream que os dashboards usavam sobre as sessões carregadas (um groupingBy por
+ * dimensão, ~20 passadas somando dashboard e audiência) com uma única passada do {@link SessionAggregator}
+ * alimentando os dois endpoints. As sessões são sintéticas, em ordem de criação e com dimensões sorteadas; o
+ * agregador lê as mesmas sessões como {@link SessionRow}, a projeção do cursor de sessões.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SessionAggregatorBenchmark {
+
+    private static final String[] DEVICES = {"desktop", "mobile", "tablet", null};
+    private static final String[] SYSTEMS = {"Windows", "Android", "iOS", "macOS", "Linux", null};
+    private static final String[] BROWSERS = {"Chrome", "Safari", "Firefox", "Edge", "Opera", "Samsung Internet"};
+    private static final String[] SOURCES = {"direct", "google", "facebook", "instagram", "email", ""};
+    private static final String[] COUNTRIES = {"BR", "PT", "US", "AR", "unknown"};
+    private static final String[] STATES = {"SP", "RJ", "MG", "RS", "PR", "BA", "PE", "SC", null};
+    private static final String[] CITIES = {"São Paulo", "Rio de Janeiro", "Belo Horizonte", "Porto Alegre",
+            "Curitiba", "Salvador", "Recife", "Florianópolis", "Campinas", "Niterói"};
+
+    @Param({"1000000"})
+    public int sessions;
+
+    private List<ResponseSession> data;
+    private List<SessionRow> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        Random random = new Random(42);
+        List<Question> questions = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            Question question = new Question();
+            question.setId(id);
+            question.setTexto("Pergunta " + id);
+            questions.add(question);
+        }
+        Field createdAt = ResponseSession.class.getDeclaredField("createdAt");
+        createdAt.setAccessible(true);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        long spanSeconds = Duration.ofDays(30).toSeconds();
+        data = new ArrayList<>(sessions);
+        rows = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            ResponseSession session = new ResponseSession();
+            LocalDateTime created = start.plusSeconds(spanSeconds * i / sessions);
+            int roll = random.nextInt(10);
+            ResponseStatus status = roll < 6 ? ResponseStatus.COMPLETED
+                    : roll < 9 ? ResponseStatus.ABANDONED : ResponseStatus.STARTED;
+            session.setStatus(status);
+            session.setStartedAt(created.minusSeconds(random.nextInt(300)));
+            if (status == ResponseStatus.COMPLETED) {
+                session.setCompletedAt(created);
+            } else if (status == ResponseStatus.ABANDONED) {
+                session.setQuestion(questions.get(random.nextInt(questions.size())));
+            }
+            session.setDeviceType(DEVICES[random.nextInt(DEVICES.length)]);
+            session.setOperatingSystem(SYSTEMS[random.nextInt(SYSTEMS.length)]);
+            session.setBrowser(BROWSERS[random.nextInt(BROWSERS.length)]);
+            session.setSource(SOURCES[random.nextInt(SOURCES.length)]);
+            session.setCountry(COUNTRIES[random.nextInt(COUNTRIES.length)]);
+            session.setState(STATES[random.nextInt(STATES.length)]);
+            session.setCity(CITIES[random.nextInt(CITIES.length)]);
+            createdAt.set(session, created);
+            data.add(session);
+            rows.add(new SessionRow((long) i, 1L,
+                    session.getQuestion() != null ? session.getQuestion().getId() : null,
+                    session.getQuestion() != null ? session.getQuestion().getTexto() : null,
+                    status, session.getDeviceType(), session.getOperatingSystem(), session.getBrowser(),
+                    session.getSource(), session.getCountry(), session.getState(), session.getCity(),
+                    session.getStartedAt(), session.getCompletedAt(), created, null, null));
+        }
+    }
+
+    @Benchmark
+    public void legacyStreams(Blackhole blackhole) {
+        List<ResponseSession> sessions = data;
+        // getSurveyDashboard
+        long total = sessions.size();
+        blackhole.consume(total);
+        blackhole.consume(sessions.stream().filter(s -> s.getStatus() == ResponseStatus.COMPLETED).count());
+        blackhole.consume(sessions.stream().filter(s -> s.getStatus() == ResponseStatus.ABANDONED).count());
+        blackhole.consume(sessions.stream()
+                .filter(s -> s.getStartedAt() != null && s.getCompletedAt() != null)
+                .mapToDouble(s -> Duration.between(s.getStartedAt(), s.getCompletedAt()).toSeconds())
+                .average()
+                .orElse(0));
+        Map<Long, Long> abandonmentByQuestion = sessions.stream()
+                .filter(s -> s.getStatus() == ResponseStatus.ABANDONED && s.getQuestion() != null)
+                .collect(Collectors.groupingBy(s -> s.getQuestion().getId(), Collectors.counting()));
+        blackhole.consume(abandonmentByQuestion.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .flatMap(id -> sessions.stream()
+                        .map(ResponseSession::getQuestion)
+                        .filter(q -> q != null && q.getId().equals(id))
+                        .map(Question::getTexto)
+                        .findFirst())
+                .orElse(null));
+        Map<String, Long> deviceCounts = groupBy(sessions, ResponseSession::getDeviceType);
+        blackhole.consume(deviceCounts.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse("unknown"));
+        Map<LocalDate, Long> daily = sessions.stream()
+                .collect(Collectors.groupingBy(s -> s.getCreatedAt().toLocalDate(), Collectors.counting()));
+        blackhole.consume(daily);
+        Map<Integer, Long> hourly = sessions.stream()
+                .collect(Collectors.groupingBy(s -> s.getCreatedAt().getHour(), Collectors.counting()));
+        blackhole.consume(hourly);
+        blackhole.consume(groupBy(sessions, ResponseSession::getOperatingSystem));
+        blackhole.consume(groupBy(sessions, ResponseSession::getBrowser));
+        blackhole.consume(groupBy(sessions, ResponseSession::getSource));
+        blackhole.consume(groupBy(sessions, ResponseSession::getCountry));
+        blackhole.consume(groupBy(sessions, ResponseSession::getState));
+        blackhole.consume(groupBy(sessions, ResponseSession::getCity));
+
+        // getSurveyAudience (as dimensões eram agrupadas de novo)
+        blackhole.consume(groupBy(sessions, ResponseSession::getDeviceType));
+        blackhole.consume(groupBy(sessions, ResponseSession::getOperatingSystem));
+        blackhole.consume(groupBy(sessions, ResponseSession::getBrowser));
+        blackhole.consume(groupBy(sessions, ResponseSession::getSource));
+        blackhole.consume(groupBy(sessions, ResponseSession::getCountry));
+        blackhole.consume(groupBy(sessions, ResponseSession::getState));
+        blackhole.consume(groupBy(sessions, ResponseSession::getCity));
+        blackhole.consume(sessions.stream()
+                .collect(Collectors.groupingBy(s -> String.format("%02d:00", s.getCreatedAt().getHour()),
+                        Collectors.counting())));
+        blackhole.consume(sessions.stream()
+                .collect(Collectors.groupingBy(s -> s.getCreatedAt().getDayOfWeek().name(), Collectors.counting())));
+        blackhole.consume(sessions.stream()
+                .filter(s -> s.getStatus() == ResponseStatus.ABANDONED && s.getStartedAt() != null)
+                .mapToDouble(s -> {
+                    LocalDateTime endTime = s.getCompletedAt() != null ? s.getCompletedAt() : s.getCreatedAt();
+                    return Duration.between(s.getStartedAt(), endTime != null ? endTime : s.getStartedAt()).toSeconds();
+                })
+                .average()
+                .orElse(0));
+        blackhole.consume(sessions.stream()
+                .filter(s -> s.getStartedAt() != null && s.getCompletedAt() != null)
+                .mapToLong(s -> Duration.between(s.getStartedAt(), s.getCompletedAt()).toSeconds())
+                .filter(seconds -> seconds < 5)
+                .count());
+    }
+
+    @Benchmark
+    public void onePassAggregator(Blackhole blackhole) {
+        SessionAggregator summary = new SessionAggregator();
+        for (SessionRow row : rows) {
+            summary.add(row);
+        }
+        blackhole.consume(summary.total());
+        blackhole.consume(summary.completionRate());
+        blackhole.consume(summary.abandonmentRate());
+        blackhole.consume(summary.averageDurationSeconds());
+        blackhole.consume(summary.averageAbandonmentSeconds());
+        blackhole.consume(summary.fastResponses());
+        blackhole.consume(summary.mostAbandonedQuestionId());
+        blackhole.consume(summary.predominant(AudienceDimension.DEVICE));
+        for (AudienceDimension dimension : AudienceDimension.values()) {
+            blackhole.consume(summary.counts(dimension));
+        }
+        blackhole.consume(summary.daily());
+        blackhole.consume(summary.hourOfDay());
+        blackhole.consume(summary.dayOfWeek());
+    }
+
+    private static Map<String, Long> groupBy(List<ResponseSession> sessions,
+                                             Function<ResponseSession, String> getter) {
+        return sessions.stream()
+                .collect(Collectors.groupingBy(s -> normalize(getter.apply(s)), Collectors.counting()));
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return "unknown";
+        }
+        return value.trim();
+    }
+}
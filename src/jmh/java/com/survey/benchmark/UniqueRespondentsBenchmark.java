@@ -0,0 +1,72 @@
+package com.survey.benchmark;
+
+import com.survey.service.HyperLogLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contagem exata de IPs distintos (um {@link HashSet} com todos os IPs, como um {@code distinct()} em memória)
+ * contra o {@link HyperLogLog} de tamanho fixo. Rode com {@code -prof gc}: {@code gc.alloc.rate.norm} mostra os
+ * bytes alocados por contagem, e {@code sketchBytes} o tamanho serializado guardado por pesquisa e dia.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UniqueRespondentsBenchmark {
+
+    @Param({"1000000"})
+    public int sessions;
+
+    private String[] ips;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        ips = new String[sessions];
+        // ~60% de IPs distintos: parte dos respondentes volta mais de uma vez
+        int distinct = Math.max(1, sessions * 6 / 10);
+        for (int i = 0; i < sessions; i++) {
+            int ip = random.nextInt(distinct);
+            ips[i] = "10." + (ip >>> 16) + "." + ((ip >>> 8) & 0xFF) + "." + (ip & 0xFF);
+        }
+    }
+
+    @Benchmark
+    public int exactHashSet() {
+        Set<String> seen = new HashSet<>();
+        for (String ip : ips) {
+            seen.add(ip);
+        }
+        return seen.size();
+    }
+
+    @Benchmark
+    public long hyperLogLog() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (String ip : ips) {
+            sketch.add(ip);
+        }
+        return sketch.estimate();
+    }
+
+    @Benchmark
+    public int sketchBytes() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (String ip : ips) {
+            sketch.add(ip);
+        }
+        return sketch.toBytes().length;
+    }
+}
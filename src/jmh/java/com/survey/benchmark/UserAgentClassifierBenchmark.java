@@ -0,0 +1,102 @@
+package com.survey.benchmark;
+
+import com.survey.service.UserAgentClassifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a detecção antiga do VoteService (três toLowerCase + cadeias de contains) com o
+ * {@link UserAgentClassifier}, com cache (caso comum: poucos user-agents dominam o tráfego) e sem cache
+ * (user-agents sempre novos, cada chamada força a classificação).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserAgentClassifierBenchmark {
+
+    private static final String[] USER_AGENTS = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36 Edg/120.0.2210.91",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_2 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.2 Mobile/15E148 Safari/604.1",
+            "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.6099.144 Mobile Safari/537.36",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 14_2) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.2 Safari/605.1.15",
+            "Mozilla/5.0 (X11; Ubuntu; Linux x86_64; rv:121.0) Gecko/20100101 Firefox/121.0",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/119.0.0.0 Safari/537.36 OPR/105.0.0.0",
+            "Mozilla/5.0 (Linux; Android 13; SM-X700) AppleWebKit/537.36 (KHTML, like Gecko) SamsungBrowser/23.0 Chrome/115.0.0.0 Safari/537.36"
+    };
+
+    private UserAgentClassifier cached;
+    private UserAgentClassifier uncached;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cached = new UserAgentClassifier(1000, new SimpleMeterRegistry());
+        // com uma única entrada, cada user-agent diferente do anterior é classificado de novo
+        uncached = new UserAgentClassifier(1, new SimpleMeterRegistry());
+    }
+
+    private String nextUserAgent() {
+        next = (next + 1) % USER_AGENTS.length;
+        return USER_AGENTS[next];
+    }
+
+    @Benchmark
+    public void legacyContains(Blackhole blackhole) {
+        String userAgent = nextUserAgent();
+        blackhole.consume(legacyDevice(userAgent));
+        blackhole.consume(legacyOperatingSystem(userAgent));
+        blackhole.consume(legacyBrowser(userAgent));
+    }
+
+    @Benchmark
+    public UserAgentClassifier.UserAgentInfo classifierUncached() {
+        return uncached.classify(nextUserAgent());
+    }
+
+    @Benchmark
+    public UserAgentClassifier.UserAgentInfo classifierCached() {
+        return cached.classify(nextUserAgent());
+    }
+
+    private static String legacyDevice(String userAgent) {
+        String ua = userAgent.toLowerCase();
+        if (ua.contains("mobile")) {
+            if (ua.contains("tablet") || ua.contains("ipad")) {
+                return "tablet";
+            }
+            return "mobile";
+        }
+        return "desktop";
+    }
+
+    private static String legacyOperatingSystem(String userAgent) {
+        String ua = userAgent.toLowerCase();
+        if (ua.contains("windows")) return "Windows";
+        if (ua.contains("mac os") || ua.contains("macintosh")) return "macOS";
+        if (ua.contains("android")) return "Android";
+        if (ua.contains("iphone") || ua.contains("ipad") || ua.contains("ios")) return "iOS";
+        if (ua.contains("linux")) return "Linux";
+        return "unknown";
+    }
+
+    private static String legacyBrowser(String userAgent) {
+        String ua = userAgent.toLowerCase();
+        if (ua.contains("chrome")) return "Chrome";
+        if (ua.contains("safari") && !ua.contains("chrome")) return "Safari";
+        if (ua.contains("firefox")) return "Firefox";
+        if (ua.contains("edge")) return "Edge";
+        if (ua.contains("opera") || ua.contains("opr")) return "Opera";
+        if (ua.contains("msie") || ua.contains("trident")) return "Internet Explorer";
+        return "unknown";
+    }
+}
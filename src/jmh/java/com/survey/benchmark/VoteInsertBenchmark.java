@@ -0,0 +1,194 @@
+package com.survey.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a gravação de respostas (sessão + voto) linha a linha com chaves geradas pelo banco, como o Hibernate
+ * faz com IDENTITY, contra ids reservados em bloco na tabela id_generators e inserts agrupados em lote.
+ *
+ * Roda contra H2 em memória migrado pelo Flyway; no MySQL com {@code rewriteBatchedStatements=true} o ganho do
+ * lote é maior, pois cada lote vira um único INSERT multi-valor e a ida e volta de rede deixa de ser por linha.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VoteInsertBenchmark {
+
+    private static final int RESPONSES = 500;
+    private static final int ROWS = RESPONSES * 2;
+
+    private static final String INSERT_SESSION_IDENTITY = "INSERT INTO response_sessions "
+            + "(survey_id, question_id, ip_address, user_agent, status, started_at, completed_at, created_at) "
+            + "VALUES (?, ?, ?, ?, 'COMPLETED', ?, ?, ?)";
+    private static final String INSERT_VOTE_IDENTITY = "INSERT INTO votes "
+            + "(survey_id, question_id, option_id, response_session_id, ip_address, user_agent, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SESSION_POOLED = "INSERT INTO response_sessions "
+            + "(id, survey_id, question_id, ip_address, user_agent, status, started_at, completed_at, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, 'COMPLETED', ?, ?, ?)";
+    private static final String INSERT_VOTE_POOLED = "INSERT INTO votes "
+            + "(id, survey_id, question_id, option_id, response_session_id, ip_address, user_agent, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private Connection connection;
+    private long surveyId;
+    private long questionId;
+    private long optionId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=MySQL";
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        connection = DriverManager.getConnection(url, "sa", "");
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO surveys (titulo, ativo, data_validade, created_at, updated_at) "
+                    + "VALUES ('Benchmark', TRUE, NULL, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+            surveyId = lastId(statement, "surveys");
+            statement.executeUpdate("INSERT INTO questions (texto, ordem, survey_id, created_at, updated_at) "
+                    + "VALUES ('Pergunta', 1, " + surveyId + ", CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+            questionId = lastId(statement, "questions");
+            statement.executeUpdate("INSERT INTO options (texto, ativo, question_id, created_at, updated_at) "
+                    + "VALUES ('Opção', TRUE, " + questionId + ", CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+            optionId = lastId(statement, "options");
+        }
+        connection.commit();
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM votes");
+            statement.executeUpdate("DELETE FROM response_sessions");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void identityRowByRow() throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement sessions = connection.prepareStatement(INSERT_SESSION_IDENTITY,
+                Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement votes = connection.prepareStatement(INSERT_VOTE_IDENTITY)) {
+            for (int i = 0; i < RESPONSES; i++) {
+                sessions.setLong(1, surveyId);
+                sessions.setLong(2, questionId);
+                sessions.setString(3, "203.0.113.0");
+                sessions.setString(4, "JMH");
+                sessions.setTimestamp(5, now);
+                sessions.setTimestamp(6, now);
+                sessions.setTimestamp(7, now);
+                sessions.executeUpdate();
+                long sessionId;
+                try (ResultSet keys = sessions.getGeneratedKeys()) {
+                    keys.next();
+                    sessionId = keys.getLong(1);
+                }
+                votes.setLong(1, surveyId);
+                votes.setLong(2, questionId);
+                votes.setLong(3, optionId);
+                votes.setLong(4, sessionId);
+                votes.setString(5, "203.0.113.0");
+                votes.setString(6, "JMH");
+                votes.setTimestamp(7, now);
+                votes.executeUpdate();
+            }
+        }
+        connection.commit();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void pooledBatch() throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long sessionId = reserve("response_sessions", RESPONSES);
+        long voteId = reserve("votes", RESPONSES);
+        try (PreparedStatement sessions = connection.prepareStatement(INSERT_SESSION_POOLED);
+             PreparedStatement votes = connection.prepareStatement(INSERT_VOTE_POOLED)) {
+            for (int i = 0; i < RESPONSES; i++) {
+                sessions.setLong(1, sessionId + i);
+                sessions.setLong(2, surveyId);
+                sessions.setLong(3, questionId);
+                sessions.setString(4, "203.0.113.0");
+                sessions.setString(5, "JMH");
+                sessions.setTimestamp(6, now);
+                sessions.setTimestamp(7, now);
+                sessions.setTimestamp(8, now);
+                sessions.addBatch();
+
+                votes.setLong(1, voteId + i);
+                votes.setLong(2, surveyId);
+                votes.setLong(3, questionId);
+                votes.setLong(4, optionId);
+                votes.setLong(5, sessionId + i);
+                votes.setString(6, "203.0.113.0");
+                votes.setString(7, "JMH");
+                votes.setTimestamp(8, now);
+                votes.addBatch();
+            }
+            sessions.executeBatch();
+            votes.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private long reserve(String sequence, int count) throws SQLException {
+        long first;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT next_val FROM id_generators WHERE name = ? FOR UPDATE")) {
+            select.setString(1, sequence);
+            try (ResultSet rs = select.executeQuery()) {
+                rs.next();
+                first = rs.getLong(1);
+            }
+        }
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE id_generators SET next_val = ? WHERE name = ?")) {
+            update.setLong(1, first + count);
+            update.setString(2, sequence);
+            update.executeUpdate();
+        }
+        return first;
+    }
+
+    private static long lastId(Statement statement, String table) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT MAX(id) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package com.survey.config;
 
 import com.survey.repository.ResponseSessionRepository;
+import com.survey.service.ResponseRollupStore;
+import com.survey.service.SurveyDataVersions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Limpeza periódica de sessões antigas para ensaio de operação (dev).
@@ -20,20 +24,32 @@ public class RetentionCleanupTask {
     private static final Logger LOGGER = LoggerFactory.getLogger(RetentionCleanupTask.class);
 
     private final ResponseSessionRepository responseSessionRepository;
+    private final ResponseRollupStore rollupStore;
+    private final SurveyDataVersions dataVersions;
     private final int retentionDays;
 
     public RetentionCleanupTask(ResponseSessionRepository responseSessionRepository,
+                                ResponseRollupStore rollupStore,
+                                SurveyDataVersions dataVersions,
                                 @Value("${app.privacy.retention-days:90}") int retentionDays) {
         this.responseSessionRepository = responseSessionRepository;
+        this.rollupStore = rollupStore;
+        this.dataVersions = dataVersions;
         this.retentionDays = retentionDays;
     }
 
     @Scheduled(cron = "${app.privacy.cleanup-cron:0 0 3 * * *}")
+    @Transactional
     public void purgeOldSessions() {
         LocalDateTime threshold = LocalDateTime.now().minusDays(retentionDays);
+        // Pesquisas afetadas mudam de versão na mesma transação, para o cache de exportações
+        List<Long> surveyIds = responseSessionRepository.findSurveyIdsCreatedBefore(threshold);
         long deleted = responseSessionRepository.deleteByCreatedAtBefore(threshold);
+        dataVersions.bump(surveyIds);
         if (deleted > 0) {
             LOGGER.info("Retention cleanup removed {} response sessions older than {} days", deleted, retentionDays);
         }
+        // Mantém os dashboards coerentes com as sessões brutas que restaram
+        rollupStore.purgeBefore(threshold);
     }
 }
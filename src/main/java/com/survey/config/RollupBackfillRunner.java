@@ -0,0 +1,35 @@
+package com.survey.config;
+
+import com.survey.service.ResponseRollupStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reconstrói o agregado horário dos dashboards na subida quando iniciado com
+ * {@code --app.dashboard.rollup.backfill=all} (desde a sessão mais antiga) ou com uma data ISO
+ * ({@code --app.dashboard.rollup.backfill=2025-01-01T00:00:00}).
+ */
+@Component
+public class RollupBackfillRunner implements CommandLineRunner {
+
+    private final ResponseRollupStore rollupStore;
+    private final String backfill;
+
+    public RollupBackfillRunner(ResponseRollupStore rollupStore,
+                                @Value("${app.dashboard.rollup.backfill:}") String backfill) {
+        this.rollupStore = rollupStore;
+        this.backfill = backfill;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (backfill == null || backfill.isBlank()) {
+            return;
+        }
+        LocalDateTime from = "all".equalsIgnoreCase(backfill.trim()) ? null : LocalDateTime.parse(backfill.trim());
+        rollupStore.backfill(from, null);
+    }
+}
@@ -2,6 +2,7 @@ package com.survey.config;
 
 import com.survey.security.CustomUserDetailsService;
 import com.survey.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -33,12 +34,18 @@ public class SecurityConfig {
                 .authenticationProvider(authenticationProvider)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Redespacho assíncrono do stream SSE: a requisição original já foi autorizada
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/health").permitAll()
                         .requestMatchers("/api/docs/**", "/api/swagger-ui/**", "/api/actuator/**").hasRole("ADMIN")
+                        // Exportações cruas e assíncronas ficam antes da leitura pública das pesquisas
+                        .requestMatchers(HttpMethod.GET, "/api/surveys/*/export.csv", "/api/surveys/*/export.ndjson",
+                                "/api/surveys/*/export.parquet").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/surveys/*/exports").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/surveys/**", "/api/questions/**", "/api/options/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/votes/**").permitAll()
-                        .requestMatchers("/api/admin/**", "/api/dashboard/**").hasRole("ADMIN")
+                        .requestMatchers("/api/admin/**", "/api/dashboard/**", "/api/exports/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -3,35 +3,83 @@ package com.survey.controller;
 import com.survey.dto.DashboardOverviewResponse;
 import com.survey.dto.SurveyAudienceResponse;
 import com.survey.dto.SurveyDashboardResponse;
-import com.survey.service.DashboardService;
+import com.survey.dto.SurveySeriesResponse;
+import com.survey.service.DashboardOverviewSnapshot;
+import com.survey.service.DashboardResultCache;
+import com.survey.service.DashboardSeriesService;
+import com.survey.service.DashboardStreamHub;
+import com.survey.service.ResponseRollupStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/dashboard")
 @PreAuthorize("hasRole('ADMIN')")
 public class DashboardController {
 
-    private final DashboardService dashboardService;
+    private final DashboardResultCache resultCache;
+    private final DashboardOverviewSnapshot overviewSnapshot;
+    private final ResponseRollupStore rollupStore;
+    private final DashboardStreamHub streamHub;
+    private final DashboardSeriesService seriesService;
 
-    public DashboardController(DashboardService dashboardService) {
-        this.dashboardService = dashboardService;
+    public DashboardController(DashboardResultCache resultCache,
+                               DashboardOverviewSnapshot overviewSnapshot,
+                               ResponseRollupStore rollupStore,
+                               DashboardStreamHub streamHub,
+                               DashboardSeriesService seriesService) {
+        this.resultCache = resultCache;
+        this.overviewSnapshot = overviewSnapshot;
+        this.rollupStore = rollupStore;
+        this.streamHub = streamHub;
+        this.seriesService = seriesService;
     }
 
     @GetMapping("/overview")
+    @Operation(summary = "Overview global",
+            description = "Servido a partir de um snapshot recalculado em segundo plano (veja generatedAt). "
+                    + "Responde 304 quando o If-None-Match coincide com o ETag.")
     public ResponseEntity<DashboardOverviewResponse> getOverview() {
-        return ResponseEntity.ok(dashboardService.getOverview());
+        DashboardOverviewSnapshot.Snapshot snapshot = overviewSnapshot.get();
+        // Com ETag na resposta, o Spring devolve 304 sozinho quando o If-None-Match coincide
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(snapshot.response());
+    }
+
+    @PostMapping("/rollup/backfill")
+    @Operation(summary = "Reconstrói o agregado horário",
+            description = "Recalcula as horas do agregado usado pelos dashboards; sem parâmetros, desde a sessão mais antiga.",
+            parameters = {
+                    @Parameter(name = "from", description = "Início ISO (padrão: sessão mais antiga)"),
+                    @Parameter(name = "to", description = "Fim ISO (padrão: última hora fechada)")
+            })
+    public ResponseEntity<Map<String, Integer>> backfillRollup(
+            @org.springframework.web.bind.annotation.RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime from,
+            @org.springframework.web.bind.annotation.RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime to) {
+        return ResponseEntity.ok(Map.of("hours", rollupStore.backfill(from, to)));
     }
 
     @GetMapping("/surveys/{id}")
     @Operation(summary = "Dashboard da pesquisa",
-            description = "Retorna métricas, séries temporais e estatísticas de opções para a pesquisa.",
+            description = "Retorna métricas, séries temporais e estatísticas de opções para a pesquisa. "
+                    + "Servido de cache enquanto não houver novas respostas; responde 304 quando o If-None-Match "
+                    + "coincide com o ETag.",
             parameters = {
                     @Parameter(name = "from", description = "Início do intervalo ISO (ex.: 2025-12-01T00:00:00)"),
                     @Parameter(name = "to", description = "Fim do intervalo ISO (ex.: 2025-12-31T23:59:59)")
@@ -43,12 +91,19 @@ public class DashboardController {
             @org.springframework.web.bind.annotation.RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime to,
             @org.springframework.web.bind.annotation.RequestParam(defaultValue = "false") boolean includeDeleted) {
-        return ResponseEntity.ok(dashboardService.getSurveyDashboard(id, from, to, includeDeleted));
+        DashboardResultCache.Cached<SurveyDashboardResponse> result =
+                resultCache.getDashboard(id, from, to, includeDeleted);
+        return ResponseEntity.ok()
+                .eTag(result.etag())
+                .cacheControl(resultCache.cacheControl())
+                .body(result.response());
     }
 
     @GetMapping("/surveys/{id}/audience")
     @Operation(summary = "Audiência da pesquisa",
-            description = "Distribuição por device/OS/browser/origem/geo e horários de pico.",
+            description = "Distribuição por device/OS/browser/origem/geo e horários de pico. "
+                    + "Servido de cache enquanto não houver novas respostas; responde 304 quando o If-None-Match "
+                    + "coincide com o ETag.",
             parameters = {
                     @Parameter(name = "from", description = "Início do intervalo ISO"),
                     @Parameter(name = "to", description = "Fim do intervalo ISO")
@@ -60,6 +115,40 @@ public class DashboardController {
             @org.springframework.web.bind.annotation.RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime to,
             @org.springframework.web.bind.annotation.RequestParam(defaultValue = "false") boolean includeDeleted) {
-        return ResponseEntity.ok(dashboardService.getSurveyAudience(id, from, to, includeDeleted));
+        DashboardResultCache.Cached<SurveyAudienceResponse> result =
+                resultCache.getAudience(id, from, to, includeDeleted);
+        return ResponseEntity.ok()
+                .eTag(result.etag())
+                .cacheControl(resultCache.cacheControl())
+                .body(result.response());
+    }
+
+    @GetMapping("/surveys/{id}/series")
+    @Operation(summary = "Série temporal da pesquisa",
+            description = "Respostas por intervalo no fuso pedido, com zeros nos intervalos vazios.",
+            parameters = {
+                    @Parameter(name = "granularity", description = "minute, hour, day (padrão) ou week"),
+                    @Parameter(name = "tz", description = "Fuso IANA (ex.: America/Sao_Paulo); padrão UTC"),
+                    @Parameter(name = "from", description = "Início ISO, horário local no fuso"),
+                    @Parameter(name = "to", description = "Fim ISO exclusivo, horário local no fuso (padrão: agora)")
+            })
+    public ResponseEntity<SurveySeriesResponse> getSurveySeries(
+            @org.springframework.web.bind.annotation.PathVariable Long id,
+            @org.springframework.web.bind.annotation.RequestParam(defaultValue = "day") String granularity,
+            @org.springframework.web.bind.annotation.RequestParam(required = false) String tz,
+            @org.springframework.web.bind.annotation.RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime from,
+            @org.springframework.web.bind.annotation.RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime to) {
+        return ResponseEntity.ok(seriesService.getSeries(id, granularity, tz, from, to));
+    }
+
+    @GetMapping(path = "/surveys/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream ao vivo da pesquisa",
+            description = "Server-Sent Events: um evento 'delta' por intervalo com as respostas por status, votos por "
+                    + "opção e contagens de audiência gravados desde o anterior, mais heartbeats. "
+                    + "Responde 503 quando o limite de conexões foi atingido.")
+    public SseEmitter streamSurveyDashboard(@org.springframework.web.bind.annotation.PathVariable Long id) {
+        return streamHub.subscribe(id);
     }
 }
@@ -0,0 +1,197 @@
+package com.survey.controller;
+
+import com.survey.dto.ExportJobResponse;
+import com.survey.service.ExportArtifactCache;
+import com.survey.service.ExportFormat;
+import com.survey.service.ExportJobService;
+import com.survey.service.SurveyRawExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api")
+@PreAuthorize("hasRole('ADMIN')")
+public class ExportController {
+
+    private final ExportJobService exportJobService;
+    private final SurveyRawExportService rawExportService;
+    private final ExportArtifactCache exportCache;
+
+    public ExportController(ExportJobService exportJobService,
+                            SurveyRawExportService rawExportService,
+                            ExportArtifactCache exportCache) {
+        this.exportJobService = exportJobService;
+        this.rawExportService = rawExportService;
+        this.exportCache = exportCache;
+    }
+
+    @GetMapping("/surveys/{id}/export.csv")
+    @Operation(summary = "Linhas cruas em CSV",
+            description = "Sessões (dataset=sessions) ou votos (dataset=votes) em streaming, com gzip quando o "
+                    + "cliente envia Accept-Encoding: gzip.")
+    public ResponseEntity<StreamingResponseBody> exportCsv(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "sessions") String dataset,
+            @RequestParam(defaultValue = "false") boolean includeDeleted,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return streamRaw(id, dataset, includeDeleted, ExportFormat.CSV, acceptEncoding);
+    }
+
+    @GetMapping("/surveys/{id}/export.ndjson")
+    @Operation(summary = "Linhas cruas em NDJSON",
+            description = "Um objeto JSON por linha; mesmos parâmetros e gzip do CSV.")
+    public ResponseEntity<StreamingResponseBody> exportNdjson(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "sessions") String dataset,
+            @RequestParam(defaultValue = "false") boolean includeDeleted,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return streamRaw(id, dataset, includeDeleted, ExportFormat.NDJSON, acceptEncoding);
+    }
+
+    @GetMapping("/surveys/{id}/export.parquet")
+    @Operation(summary = "Linhas cruas em Parquet",
+            description = "Sessões ou votos em colunas, com dicionário nas categorias e datas como TIMESTAMP. "
+                    + "Só para pesquisas até app.exports.parquet.sync-max-rows linhas; acima disso, use o job "
+                    + "assíncrono com format=parquet. Servido do cache enquanto os dados não mudam; responde 304 "
+                    + "quando o If-None-Match coincide com o ETag.")
+    public ResponseEntity<StreamingResponseBody> exportParquet(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "sessions") String dataset,
+            @RequestParam(defaultValue = "false") boolean includeDeleted,
+            WebRequest webRequest) throws IOException {
+        SurveyRawExportService.Dataset rawDataset = SurveyRawExportService.Dataset.parse(dataset);
+        ExportArtifactCache.Artifact artifact =
+                exportCache.resolve(id, ExportFormat.PARQUET, rawDataset, includeDeleted);
+        if (webRequest.checkNotModified(artifact.etag())) {
+            exportCache.notModified(artifact);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(artifact.etag()).build();
+        }
+        // Páginas já comprimidas dentro do arquivo: sem Content-Encoding
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExportFormat.PARQUET.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(id, rawDataset, ExportFormat.PARQUET))
+                .eTag(artifact.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate());
+        Optional<ExportArtifactCache.CachedFile> cached = exportCache.open(artifact);
+        if (cached.isPresent()) {
+            InputStream stream = cached.get().stream();
+            return response.contentLength(cached.get().sizeBytes()).body(out -> {
+                try (stream) {
+                    stream.transferTo(out);
+                }
+            });
+        }
+        rawExportService.checkSyncParquet(id, rawDataset);
+        return response.body(out -> exportCache.write(artifact, out,
+                target -> rawExportService.writeParquet(id, rawDataset, target, rows -> { })));
+    }
+
+    @PostMapping("/surveys/{id}/exports")
+    @Operation(summary = "Enfileira uma exportação",
+            description = "Gera o arquivo em segundo plano e devolve o job (202) para consulta em /api/exports/{jobId}. "
+                    + "Pedidos iguais enquanto o job está em andamento recebem o mesmo job; fila cheia responde 503. "
+                    + "Nos formatos csv, ndjson e parquet, dataset escolhe sessões ou votos.")
+    public ResponseEntity<ExportJobResponse> submit(@PathVariable Long id,
+                                                    @RequestParam(defaultValue = "xlsx") String format,
+                                                    @RequestParam(defaultValue = "sessions") String dataset,
+                                                    @RequestParam(defaultValue = "false") boolean includeDeleted) {
+        ExportJobResponse job = exportJobService.submit(id, format, dataset, includeDeleted);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/exports/" + job.getJobId()))
+                .body(job);
+    }
+
+    @GetMapping("/exports/{jobId}")
+    @Operation(summary = "Situação da exportação", description = "Status, progresso e, quando pronto, o link de download.")
+    public ResponseEntity<ExportJobResponse> getJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(exportJobService.get(jobId));
+    }
+
+    @GetMapping("/exports/{jobId}/file")
+    @Operation(summary = "Baixa o arquivo exportado", description = "Disponível até a expiração do job.")
+    public ResponseEntity<Resource> download(@PathVariable String jobId) {
+        ExportJobService.ExportFile file = exportJobService.file(jobId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(file.contentType()))
+                .contentLength(file.sizeBytes())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.fileName()).build().toString())
+                .body(new FileSystemResource(file.path()));
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamRaw(Long id,
+                                                            String datasetName,
+                                                            boolean includeDeleted,
+                                                            ExportFormat format,
+                                                            String acceptEncoding) {
+        SurveyRawExportService.Dataset dataset = SurveyRawExportService.Dataset.parse(datasetName);
+        rawExportService.checkSurvey(id, includeDeleted);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(id, dataset, format))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!gzip) {
+            return response.body(out -> rawExportService.write(id, dataset, format, out, rows -> { }));
+        }
+        // Compressão na própria escrita: o servidor não precisa bufferizar a resposta para comprimir
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(out -> rawExportService.writeGzip(id, dataset, format, out, rows -> { }));
+    }
+
+    private static String attachment(Long id, SurveyRawExportService.Dataset dataset, ExportFormat format) {
+        return ContentDisposition.attachment()
+                .filename("survey-" + id + "-" + dataset.name().toLowerCase(Locale.ROOT) + "." + format.extension())
+                .build().toString();
+    }
+
+    /**
+     * {@code gzip} ou {@code *} no Accept-Encoding, exceto com {@code q=0}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim().replace(" ", "");
+                if (parameter.matches("q=0(\\.0{0,3})?")) {
+                    refused = true;
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
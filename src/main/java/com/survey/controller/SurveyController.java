@@ -4,31 +4,44 @@ import com.survey.dto.PagedResponse;
 import com.survey.dto.SurveyDetailsResponseDTO;
 import com.survey.dto.SurveyRequestDTO;
 import com.survey.dto.SurveyResponseDTO;
+import com.survey.service.ExportArtifactCache;
+import com.survey.service.ExportFormat;
+import com.survey.service.SurveyExportService;
 import com.survey.service.SurveyService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/surveys")
 public class SurveyController {
 
     private final SurveyService surveyService;
-    private final com.survey.service.SurveyExportService surveyExportService;
+    private final SurveyExportService surveyExportService;
+    private final ExportArtifactCache exportCache;
 
     @Autowired
-    public SurveyController(SurveyService surveyService, com.survey.service.SurveyExportService surveyExportService) {
+    public SurveyController(SurveyService surveyService,
+                            SurveyExportService surveyExportService,
+                            ExportArtifactCache exportCache) {
         this.surveyService = surveyService;
         this.surveyExportService = surveyExportService;
+        this.exportCache = exportCache;
     }
 
     @GetMapping
@@ -74,13 +87,35 @@ public class SurveyController {
     }
 
     @GetMapping("/{id}/export")
-    public ResponseEntity<byte[]> exportSurvey(@PathVariable Long id,
-                                               @RequestParam(defaultValue = "false") boolean includeDeleted) {
-        byte[] bytes = surveyExportService.exportSurveyAsXlsx(id, includeDeleted);
+    public ResponseEntity<StreamingResponseBody> exportSurvey(@PathVariable Long id,
+                                                              @RequestParam(defaultValue = "false") boolean includeDeleted,
+                                                              WebRequest webRequest) throws IOException {
+        // Pesquisa inexistente ainda responde 404; sem mudança nos dados desde o último download, 304 ou o arquivo em cache
+        ExportArtifactCache.Artifact artifact = exportCache.resolve(id, ExportFormat.XLSX, null, includeDeleted);
+        if (webRequest.checkNotModified(artifact.etag())) {
+            exportCache.notModified(artifact);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(artifact.etag()).build();
+        }
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+        headers.setContentType(MediaType.parseMediaType(ExportFormat.XLSX.contentType()));
         headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=survey-" + id + ".xlsx");
-        return ResponseEntity.ok().headers(headers).body(bytes);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .headers(headers)
+                .eTag(artifact.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate());
+        Optional<ExportArtifactCache.CachedFile> cached = exportCache.open(artifact);
+        if (cached.isPresent()) {
+            InputStream stream = cached.get().stream();
+            return response.contentLength(cached.get().sizeBytes()).body(out -> {
+                try (stream) {
+                    stream.transferTo(out);
+                }
+            });
+        }
+        // As sessões são escritas direto na resposta (e no cache), sem montar um byte[]
+        SurveyExportService.XlsxExport export = surveyExportService.prepareXlsx(id, includeDeleted);
+        return response.body(out -> exportCache.write(artifact, out,
+                target -> surveyExportService.writeXlsx(export, target)));
     }
 
     @PostMapping("/batch")
@@ -1,5 +1,7 @@
 package com.survey.controller;
 
+import com.survey.dto.VoteBatchRequestDTO;
+import com.survey.dto.VoteBatchResponseDTO;
 import com.survey.dto.VoteRequestDTO;
 import com.survey.dto.VoteResponseDTO;
 import com.survey.service.VoteService;
@@ -11,6 +13,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -70,18 +73,84 @@ public class VoteController {
             responses = {
                     @ApiResponse(responseCode = "201", description = "Voto registrado",
                             content = @Content(schema = @Schema(implementation = VoteResponseDTO.class))),
-                    @ApiResponse(responseCode = "400", description = "Validação/negócio violado")
+                    @ApiResponse(responseCode = "202", description = "Voto aceito para gravação em lote (ingestão assíncrona)",
+                            content = @Content(schema = @Schema(implementation = VoteResponseDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Validação/negócio violado"),
+                    @ApiResponse(responseCode = "429", description = "Limite de votos por IP, rede ou pesquisa excedido; respeitar Retry-After"),
+                    @ApiResponse(responseCode = "503", description = "Fila de votos cheia; respeitar Retry-After")
             }
     )
     public ResponseEntity<VoteResponseDTO> registerVote(@Valid @RequestBody VoteRequestDTO requestDTO,
                                                         HttpServletRequest request) {
         String ip = request.getRemoteAddr();
         String userAgent = request.getHeader("User-Agent");
-        if (!voteRateLimiter.allow(ip)) {
-            return ResponseEntity.status(429).build();
+        VoteRateLimiter.Decision decision = voteRateLimiter.tryAcquire(ip, requestDTO.getSurveyId());
+        if (!decision.allowed()) {
+            return tooManyRequests(decision);
+        }
+        VoteResponseDTO response = voteService.isAsyncIngestionEnabled()
+                ? voteService.enqueueVote(requestDTO, ip, userAgent)
+                : voteService.registerVote(requestDTO, ip, userAgent);
+        if (response.isQueued()) {
+            return ResponseEntity.accepted().body(response);
         }
-        VoteResponseDTO response = voteService.registerVote(requestDTO, ip, userAgent);
         URI location = URI.create(String.format("/api/votes/%d", response.getVoteId()));
         return ResponseEntity.created(location).body(response);
     }
+
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Registrar resposta completa",
+            description = "Registra todas as respostas de um respondente numa única sessão. Cada pergunta pode aparecer uma vez.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    content = @Content(schema = @Schema(implementation = VoteBatchRequestDTO.class),
+                            examples = {
+                                    @ExampleObject(name = "Resposta completa",
+                                            value = """
+                                                    {
+                                                      "surveyId": 1,
+                                                      "answers": [
+                                                        { "questionId": 10, "optionId": 100 },
+                                                        { "questionId": 11, "optionId": 104 }
+                                                      ],
+                                                      "deviceType": "mobile",
+                                                      "source": "email",
+                                                      "status": "COMPLETED"
+                                                    }
+                                                    """)
+                            })
+            ),
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Resposta registrada",
+                            content = @Content(schema = @Schema(implementation = VoteBatchResponseDTO.class))),
+                    @ApiResponse(responseCode = "202", description = "Resposta aceita para gravação em lote (ingestão assíncrona)",
+                            content = @Content(schema = @Schema(implementation = VoteBatchResponseDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Validação/negócio violado"),
+                    @ApiResponse(responseCode = "429", description = "Limite de votos por IP, rede ou pesquisa excedido; respeitar Retry-After"),
+                    @ApiResponse(responseCode = "503", description = "Fila de votos cheia; respeitar Retry-After")
+            }
+    )
+    public ResponseEntity<VoteBatchResponseDTO> registerResponse(@Valid @RequestBody VoteBatchRequestDTO requestDTO,
+                                                                 HttpServletRequest request) {
+        String ip = request.getRemoteAddr();
+        String userAgent = request.getHeader("User-Agent");
+        VoteRateLimiter.Decision decision = voteRateLimiter.tryAcquire(ip, requestDTO.getSurveyId());
+        if (!decision.allowed()) {
+            return tooManyRequests(decision);
+        }
+        VoteBatchResponseDTO response = voteService.isAsyncIngestionEnabled()
+                ? voteService.enqueueResponse(requestDTO, ip, userAgent)
+                : voteService.registerResponse(requestDTO, ip, userAgent);
+        if (response.isQueued()) {
+            return ResponseEntity.accepted().body(response);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    private static <T> ResponseEntity<T> tooManyRequests(VoteRateLimiter.Decision decision) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()))
+                .build();
+    }
 }
@@ -10,17 +10,20 @@ public class DashboardOverviewResponse {
     private Rates rates;
     private double averageResponseTimeSeconds;
     private Rankings rankings;
+    private LocalDateTime generatedAt;
 
     public DashboardOverviewResponse(Totals totals,
                                      Growth growth,
                                      Rates rates,
                                      double averageResponseTimeSeconds,
-                                     Rankings rankings) {
+                                     Rankings rankings,
+                                     LocalDateTime generatedAt) {
         this.totals = totals;
         this.growth = growth;
         this.rates = rates;
         this.averageResponseTimeSeconds = averageResponseTimeSeconds;
         this.rankings = rankings;
+        this.generatedAt = generatedAt;
     }
 
     public Totals getTotals() {
@@ -43,6 +46,13 @@ public class DashboardOverviewResponse {
         return rankings;
     }
 
+    /**
+     * Momento em que os números foram calculados (o overview é servido a partir de um snapshot).
+     */
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
     public static class Totals {
         private long totalSurveys;
         private long activeSurveys;
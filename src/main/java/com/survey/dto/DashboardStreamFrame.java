@@ -0,0 +1,85 @@
+package com.survey.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremento enviado pelo stream ao vivo do dashboard: o que foi gravado desde o frame anterior da pesquisa.
+ * O cliente soma estes valores aos obtidos em {@code GET /api/dashboard/surveys/{id}}.
+ */
+public class DashboardStreamFrame {
+
+    private Long surveyId;
+    private LocalDateTime generatedAt;
+    private long responses;
+    private Map<String, Long> responsesByStatus;
+    private List<OptionDelta> options;
+    private Map<String, Map<String, Long>> audience;
+
+    public DashboardStreamFrame(Long surveyId,
+                                LocalDateTime generatedAt,
+                                long responses,
+                                Map<String, Long> responsesByStatus,
+                                List<OptionDelta> options,
+                                Map<String, Map<String, Long>> audience) {
+        this.surveyId = surveyId;
+        this.generatedAt = generatedAt;
+        this.responses = responses;
+        this.responsesByStatus = responsesByStatus;
+        this.options = options;
+        this.audience = audience;
+    }
+
+    public Long getSurveyId() {
+        return surveyId;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public long getResponses() {
+        return responses;
+    }
+
+    public Map<String, Long> getResponsesByStatus() {
+        return responsesByStatus;
+    }
+
+    public List<OptionDelta> getOptions() {
+        return options;
+    }
+
+    /**
+     * Contagens novas por dimensão (devices, operatingSystems, browsers, sources, countries, states, cities),
+     * só com valores já conhecidos na gravação.
+     */
+    public Map<String, Map<String, Long>> getAudience() {
+        return audience;
+    }
+
+    public static class OptionDelta {
+        private Long questionId;
+        private Long optionId;
+        private long votes;
+
+        public OptionDelta(Long questionId, Long optionId, long votes) {
+            this.questionId = questionId;
+            this.optionId = optionId;
+            this.votes = votes;
+        }
+
+        public Long getQuestionId() {
+            return questionId;
+        }
+
+        public Long getOptionId() {
+            return optionId;
+        }
+
+        public long getVotes() {
+            return votes;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.survey.dto;
+
+import java.util.List;
+
+/**
+ * Percentis e distribuição de uma duração em segundos, calculados de um histograma (exato até 255 s, erro de até
+ * 1% acima disso). Sem amostras, todos os valores são zero.
+ */
+public class DurationStats {
+
+    private long count;
+    private long p50Seconds;
+    private long p90Seconds;
+    private long p99Seconds;
+    private long maxSeconds;
+    private List<Bucket> histogram;
+
+    public DurationStats(long count,
+                         long p50Seconds,
+                         long p90Seconds,
+                         long p99Seconds,
+                         long maxSeconds,
+                         List<Bucket> histogram) {
+        this.count = count;
+        this.p50Seconds = p50Seconds;
+        this.p90Seconds = p90Seconds;
+        this.p99Seconds = p99Seconds;
+        this.maxSeconds = maxSeconds;
+        this.histogram = histogram;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getP50Seconds() {
+        return p50Seconds;
+    }
+
+    public long getP90Seconds() {
+        return p90Seconds;
+    }
+
+    public long getP99Seconds() {
+        return p99Seconds;
+    }
+
+    public long getMaxSeconds() {
+        return maxSeconds;
+    }
+
+    public List<Bucket> getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Faixa {@code [fromSeconds, toSeconds)}; a última faixa não tem {@code toSeconds}.
+     */
+    public static class Bucket {
+        private String label;
+        private long fromSeconds;
+        private Long toSeconds;
+        private long count;
+
+        public Bucket(String label, long fromSeconds, Long toSeconds, long count) {
+            this.label = label;
+            this.fromSeconds = fromSeconds;
+            this.toSeconds = toSeconds;
+            this.count = count;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public long getFromSeconds() {
+            return fromSeconds;
+        }
+
+        public Long getToSeconds() {
+            return toSeconds;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
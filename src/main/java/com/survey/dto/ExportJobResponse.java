@@ -0,0 +1,135 @@
+package com.survey.dto;
+
+import java.time.Instant;
+
+/**
+ * Situação de um job de exportação assíncrona. {@code downloadUrl} só vem preenchido quando o arquivo está pronto;
+ * {@code dataset} só existe nos formatos de linhas cruas.
+ */
+public class ExportJobResponse {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private String jobId;
+    private Long surveyId;
+    private String format;
+    private String dataset;
+    private boolean includeDeleted;
+    private Status status;
+    private double progress;
+    private long rowsWritten;
+    private long totalRows;
+    private Long sizeBytes;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private Instant expiresAt;
+    private String downloadUrl;
+    private String error;
+
+    public ExportJobResponse(String jobId,
+                             Long surveyId,
+                             String format,
+                             String dataset,
+                             boolean includeDeleted,
+                             Status status,
+                             double progress,
+                             long rowsWritten,
+                             long totalRows,
+                             Long sizeBytes,
+                             Instant createdAt,
+                             Instant startedAt,
+                             Instant finishedAt,
+                             Instant expiresAt,
+                             String downloadUrl,
+                             String error) {
+        this.jobId = jobId;
+        this.surveyId = surveyId;
+        this.format = format;
+        this.dataset = dataset;
+        this.includeDeleted = includeDeleted;
+        this.status = status;
+        this.progress = progress;
+        this.rowsWritten = rowsWritten;
+        this.totalRows = totalRows;
+        this.sizeBytes = sizeBytes;
+        this.createdAt = createdAt;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.expiresAt = expiresAt;
+        this.downloadUrl = downloadUrl;
+        this.error = error;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public Long getSurveyId() {
+        return surveyId;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public String getDataset() {
+        return dataset;
+    }
+
+    public boolean isIncludeDeleted() {
+        return includeDeleted;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Fração de 0 a 1 das sessões já escritas.
+     */
+    public double getProgress() {
+        return progress;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * Sessões contadas ao iniciar o job; respostas gravadas durante a escrita podem fazer o total real passar dele.
+     */
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public String getDownloadUrl() {
+        return downloadUrl;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
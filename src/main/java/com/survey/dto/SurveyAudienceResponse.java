@@ -15,7 +15,9 @@ public class SurveyAudienceResponse {
     private List<CategoryValue> peakHours;
     private List<CategoryValue> peakDays;
     private double averageAbandonmentTimeSeconds;
+    private DurationStats abandonmentTime;
     private long uniqueRespondents;
+    private double uniqueRespondentsRelativeError;
     private long duplicateResponses;
     private List<String> suspiciousIndicators;
 
@@ -29,7 +31,9 @@ public class SurveyAudienceResponse {
                                   List<CategoryValue> peakHours,
                                   List<CategoryValue> peakDays,
                                   double averageAbandonmentTimeSeconds,
+                                  DurationStats abandonmentTime,
                                   long uniqueRespondents,
+                                  double uniqueRespondentsRelativeError,
                                   long duplicateResponses,
                                   List<String> suspiciousIndicators) {
         this.devices = devices;
@@ -42,7 +46,9 @@ public class SurveyAudienceResponse {
         this.peakHours = peakHours;
         this.peakDays = peakDays;
         this.averageAbandonmentTimeSeconds = averageAbandonmentTimeSeconds;
+        this.abandonmentTime = abandonmentTime;
         this.uniqueRespondents = uniqueRespondents;
+        this.uniqueRespondentsRelativeError = uniqueRespondentsRelativeError;
         this.duplicateResponses = duplicateResponses;
         this.suspiciousIndicators = suspiciousIndicators;
     }
@@ -87,10 +93,22 @@ public class SurveyAudienceResponse {
         return averageAbandonmentTimeSeconds;
     }
 
+    public DurationStats getAbandonmentTime() {
+        return abandonmentTime;
+    }
+
     public long getUniqueRespondents() {
         return uniqueRespondents;
     }
 
+    /**
+     * Erro padrão relativo da estimativa de {@code uniqueRespondents} (HyperLogLog); ~95% das estimativas ficam a
+     * até duas vezes esse valor do número real.
+     */
+    public double getUniqueRespondentsRelativeError() {
+        return uniqueRespondentsRelativeError;
+    }
+
     public long getDuplicateResponses() {
         return duplicateResponses;
     }
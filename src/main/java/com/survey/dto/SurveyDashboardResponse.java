@@ -11,17 +11,20 @@ public class SurveyDashboardResponse {
     private List<QuestionStats> questions;
     private TimeSeries timeSeries;
     private Audience audience;
+    private ResponseTimes responseTimes;
     private List<String> limitations;
 
     public SurveyDashboardResponse(Overview overview,
                                    List<QuestionStats> questions,
                                    TimeSeries timeSeries,
                                    Audience audience,
+                                   ResponseTimes responseTimes,
                                    List<String> limitations) {
         this.overview = overview;
         this.questions = questions;
         this.timeSeries = timeSeries;
         this.audience = audience;
+        this.responseTimes = responseTimes;
         this.limitations = limitations;
     }
 
@@ -41,6 +44,10 @@ public class SurveyDashboardResponse {
         return audience;
     }
 
+    public ResponseTimes getResponseTimes() {
+        return responseTimes;
+    }
+
     public List<String> getLimitations() {
         return limitations;
     }
@@ -253,4 +260,22 @@ public class SurveyDashboardResponse {
             return cities;
         }
     }
+
+    public static class ResponseTimes {
+        private DurationStats completion;
+        private DurationStats abandonment;
+
+        public ResponseTimes(DurationStats completion, DurationStats abandonment) {
+            this.completion = completion;
+            this.abandonment = abandonment;
+        }
+
+        public DurationStats getCompletion() {
+            return completion;
+        }
+
+        public DurationStats getAbandonment() {
+            return abandonment;
+        }
+    }
 }
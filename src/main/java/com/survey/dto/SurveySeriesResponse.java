@@ -0,0 +1,83 @@
+package com.survey.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Série temporal de respostas de uma pesquisa no fuso pedido, com um ponto por intervalo (inclusive os vazios).
+ */
+public class SurveySeriesResponse {
+
+    private Long surveyId;
+    private String granularity;
+    private String timeZone;
+    private OffsetDateTime from;
+    private OffsetDateTime to;
+    private long total;
+    private List<Point> points;
+
+    public SurveySeriesResponse(Long surveyId,
+                                String granularity,
+                                String timeZone,
+                                OffsetDateTime from,
+                                OffsetDateTime to,
+                                long total,
+                                List<Point> points) {
+        this.surveyId = surveyId;
+        this.granularity = granularity;
+        this.timeZone = timeZone;
+        this.from = from;
+        this.to = to;
+        this.total = total;
+        this.points = points;
+    }
+
+    public Long getSurveyId() {
+        return surveyId;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public String getTimeZone() {
+        return timeZone;
+    }
+
+    public OffsetDateTime getFrom() {
+        return from;
+    }
+
+    public OffsetDateTime getTo() {
+        return to;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public List<Point> getPoints() {
+        return points;
+    }
+
+    public static class Point {
+        private OffsetDateTime start;
+        private long responses;
+
+        public Point(OffsetDateTime start, long responses) {
+            this.start = start;
+            this.responses = responses;
+        }
+
+        /**
+         * Início do intervalo no fuso pedido (o offset acompanha o horário de verão).
+         */
+        public OffsetDateTime getStart() {
+            return start;
+        }
+
+        public long getResponses() {
+            return responses;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.survey.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resposta completa de um respondente: todas as perguntas respondidas de uma pesquisa numa única sessão.
+ */
+public class VoteBatchRequestDTO extends ResponseMetadataDTO {
+
+    public static final int MAX_ANSWERS = 200;
+
+    @NotNull
+    @Schema(example = "1", description = "ID da pesquisa")
+    private Long surveyId;
+
+    @Valid
+    @NotEmpty
+    @Size(max = MAX_ANSWERS)
+    @Schema(description = "Uma opção por pergunta respondida")
+    private List<Answer> answers = new ArrayList<>();
+
+    public VoteBatchRequestDTO() {
+    }
+
+    public VoteBatchRequestDTO(Long surveyId, List<Answer> answers) {
+        this.surveyId = surveyId;
+        this.answers = answers;
+    }
+
+    public Long getSurveyId() {
+        return surveyId;
+    }
+
+    public void setSurveyId(Long surveyId) {
+        this.surveyId = surveyId;
+    }
+
+    public List<Answer> getAnswers() {
+        return answers;
+    }
+
+    public void setAnswers(List<Answer> answers) {
+        this.answers = answers;
+    }
+
+    public static class Answer {
+
+        @NotNull
+        @Schema(example = "10", description = "ID da pergunta dentro da pesquisa")
+        private Long questionId;
+
+        @NotNull
+        @Schema(example = "100", description = "ID da opção selecionada")
+        private Long optionId;
+
+        public Answer() {
+        }
+
+        public Answer(Long questionId, Long optionId) {
+            this.questionId = questionId;
+            this.optionId = optionId;
+        }
+
+        public Long getQuestionId() {
+            return questionId;
+        }
+
+        public void setQuestionId(Long questionId) {
+            this.questionId = questionId;
+        }
+
+        public Long getOptionId() {
+            return optionId;
+        }
+
+        public void setOptionId(Long optionId) {
+            this.optionId = optionId;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.survey.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Resposta retornada após registrar uma resposta completa.
+ */
+public class VoteBatchResponseDTO {
+    @Schema(example = "33")
+    private Long sessionId;
+    @Schema(example = "[15, 16, 17]", description = "IDs dos votos, na ordem das respostas enviadas.")
+    private List<Long> voteIds;
+    @Schema(example = "session-33", description = "Token antifraude (quando a coleta de audiência está ativa).")
+    private String antifraudToken;
+    @Schema(example = "false", description = "Verdadeiro quando a resposta foi aceita para gravação assíncrona (HTTP 202).")
+    private boolean queued;
+
+    public VoteBatchResponseDTO(Long sessionId, List<Long> voteIds, String antifraudToken) {
+        this.sessionId = sessionId;
+        this.voteIds = voteIds;
+        this.antifraudToken = antifraudToken;
+    }
+
+    public static VoteBatchResponseDTO queued() {
+        VoteBatchResponseDTO response = new VoteBatchResponseDTO(null, List.of(), null);
+        response.queued = true;
+        return response;
+    }
+
+    public Long getSessionId() {
+        return sessionId;
+    }
+
+    public List<Long> getVoteIds() {
+        return voteIds;
+    }
+
+    public String getAntifraudToken() {
+        return antifraudToken;
+    }
+
+    public boolean isQueued() {
+        return queued;
+    }
+}
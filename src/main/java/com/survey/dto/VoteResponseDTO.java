@@ -12,6 +12,8 @@ public class VoteResponseDTO {
     private Long sessionId;
     @Schema(example = "session-33", description = "Token antifraude (quando a coleta de audiência está ativa).")
     private String antifraudToken;
+    @Schema(example = "false", description = "Verdadeiro quando o voto foi aceito para gravação assíncrona (HTTP 202).")
+    private boolean queued;
 
     public VoteResponseDTO(Long voteId, Long sessionId, String antifraudToken) {
         this.voteId = voteId;
@@ -19,6 +21,12 @@ public class VoteResponseDTO {
         this.antifraudToken = antifraudToken;
     }
 
+    public static VoteResponseDTO queued() {
+        VoteResponseDTO response = new VoteResponseDTO(null, null, null);
+        response.queued = true;
+        return response;
+    }
+
     public Long getVoteId() {
         return voteId;
     }
@@ -30,4 +38,8 @@ public class VoteResponseDTO {
     public String getAntifraudToken() {
         return antifraudToken;
     }
+
+    public boolean isQueued() {
+        return queued;
+    }
 }
@@ -9,7 +9,10 @@ import java.time.LocalDateTime;
 public class ResponseSession {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Blocos de IDs (pooled-lo) em id_generators: permite batch de inserts, ao contrário de IDENTITY
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "response_session_id")
+    @TableGenerator(name = "response_session_id", table = "id_generators", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "response_sessions", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -35,6 +38,9 @@ public class ResponseSession {
     @Column(name = "browser", length = 100)
     private String browser;
 
+    @Column(name = "browser_version", length = 20)
+    private String browserVersion;
+
     @Column(name = "traffic_source", length = 100)
     private String source;
 
@@ -125,6 +131,14 @@ public class ResponseSession {
         this.browser = browser;
     }
 
+    public String getBrowserVersion() {
+        return browserVersion;
+    }
+
+    public void setBrowserVersion(String browserVersion) {
+        this.browserVersion = browserVersion;
+    }
+
     public String getSource() {
         return source;
     }
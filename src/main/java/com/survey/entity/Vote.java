@@ -8,7 +8,10 @@ import java.time.LocalDateTime;
 public class Vote {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Blocos de IDs (pooled-lo) em id_generators: permite batch de inserts, ao contrário de IDENTITY
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "vote_id")
+    @TableGenerator(name = "vote_id", table = "id_generators", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "votes", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -32,7 +35,7 @@ public class Vote {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
-    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "response_session_id")
     private ResponseSession responseSession;
 
@@ -0,0 +1,18 @@
+package com.survey.exception;
+
+/**
+ * Sinaliza que a API está temporariamente sem capacidade (ex.: fila de votos cheia).
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
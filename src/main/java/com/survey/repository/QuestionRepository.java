@@ -30,4 +30,7 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
 
     @Query(value = "SELECT * FROM questions WHERE survey_id = :surveyId ORDER BY ordem ASC", nativeQuery = true)
     List<Question> findBySurveyIdIncludingDeleted(@Param("surveyId") Long surveyId);
+
+    @Query(value = "SELECT texto FROM questions WHERE id = :id", nativeQuery = true)
+    Optional<String> findTextoByIdIncludingDeleted(@Param("id") Long id);
 }
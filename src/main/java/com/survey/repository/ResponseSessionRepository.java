@@ -4,6 +4,7 @@ import com.survey.entity.ResponseSession;
 import com.survey.entity.ResponseStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,6 +15,8 @@ public interface ResponseSessionRepository extends JpaRepository<ResponseSession
 
     long countByStatus(ResponseStatus status);
 
+    long countBySurveyId(Long surveyId);
+
     @Query("SELECT AVG(function('TIMESTAMPDIFF', SECOND, rs.startedAt, rs.completedAt)) " +
             "FROM ResponseSession rs WHERE rs.startedAt IS NOT NULL AND rs.completedAt IS NOT NULL")
     Double averageCompletionSeconds();
@@ -31,13 +34,93 @@ public interface ResponseSessionRepository extends JpaRepository<ResponseSession
         Long getAbandoned();
     }
 
-    List<ResponseSession> findBySurveyIdAndCreatedAtBetween(Long surveyId, LocalDateTime start, LocalDateTime end);
+    String FACET_TIMED = "started_at IS NOT NULL AND completed_at IS NOT NULL";
+    String FACET_DURATION = "TIMESTAMPDIFF(SECOND, started_at, completed_at)";
+    String FACET_FILTER = " FROM response_sessions WHERE survey_id = :surveyId AND created_at >= :start AND created_at < :end";
+    String FACET_COUNT = ", COUNT(*) AS responses, 0 AS timedResponses, 0 AS durationSeconds, "
+            + "0 AS elapsedResponses, 0 AS elapsedSeconds" + FACET_FILTER;
+
+    /**
+     * Contagens agrupadas por faceta numa única consulta (um ramo de UNION ALL por faceta, já que o MySQL não tem
+     * GROUPING SETS): volume proporcional aos valores distintos, não às sessões. Só a faceta STATUS traz as somas
+     * de duração; QUESTION conta apenas abandonos; dimensões vazias viram {@code unknown}.
+     *
+     * @param end limite exclusivo
+     */
+    @Query(value = "SELECT 'STATUS' AS facet, COALESCE(status, 'UNKNOWN') AS label, COUNT(*) AS responses, "
+            + "SUM(CASE WHEN " + FACET_TIMED + " THEN 1 ELSE 0 END) AS timedResponses, "
+            + "SUM(CASE WHEN " + FACET_TIMED + " THEN " + FACET_DURATION + " ELSE 0 END) AS durationSeconds, "
+            + "SUM(CASE WHEN started_at IS NOT NULL THEN 1 ELSE 0 END) AS elapsedResponses, "
+            + "SUM(CASE WHEN started_at IS NOT NULL "
+            + "THEN TIMESTAMPDIFF(SECOND, started_at, COALESCE(completed_at, created_at)) ELSE 0 END) AS elapsedSeconds"
+            + FACET_FILTER + " GROUP BY COALESCE(status, 'UNKNOWN')"
+            + " UNION ALL SELECT 'QUESTION', CONCAT(question_id, '')" + FACET_COUNT
+            + " AND status = 'ABANDONED' AND question_id IS NOT NULL GROUP BY question_id"
+            + " UNION ALL SELECT 'HOUR', CONCAT(HOUR(created_at), '')" + FACET_COUNT + " GROUP BY CONCAT(HOUR(created_at), '')"
+            + " UNION ALL SELECT 'DATE', CONCAT(CAST(created_at AS DATE), '')" + FACET_COUNT
+            + " GROUP BY CONCAT(CAST(created_at AS DATE), '')"
+            + " UNION ALL SELECT 'DEVICE', COALESCE(NULLIF(TRIM(device_type), ''), 'unknown')" + FACET_COUNT
+            + " GROUP BY COALESCE(NULLIF(TRIM(device_type), ''), 'unknown')"
+            + " UNION ALL SELECT 'OPERATING_SYSTEM', COALESCE(NULLIF(TRIM(operating_system), ''), 'unknown')" + FACET_COUNT
+            + " GROUP BY COALESCE(NULLIF(TRIM(operating_system), ''), 'unknown')"
+            + " UNION ALL SELECT 'BROWSER', COALESCE(NULLIF(TRIM(browser), ''), 'unknown')" + FACET_COUNT
+            + " GROUP BY COALESCE(NULLIF(TRIM(browser), ''), 'unknown')"
+            + " UNION ALL SELECT 'SOURCE', COALESCE(NULLIF(TRIM(traffic_source), ''), 'unknown')" + FACET_COUNT
+            + " GROUP BY COALESCE(NULLIF(TRIM(traffic_source), ''), 'unknown')"
+            + " UNION ALL SELECT 'COUNTRY', COALESCE(NULLIF(TRIM(country), ''), 'unknown')" + FACET_COUNT
+            + " GROUP BY COALESCE(NULLIF(TRIM(country), ''), 'unknown')"
+            + " UNION ALL SELECT 'STATE', COALESCE(NULLIF(TRIM(state), ''), 'unknown')" + FACET_COUNT
+            + " GROUP BY COALESCE(NULLIF(TRIM(state), ''), 'unknown')"
+            + " UNION ALL SELECT 'CITY', COALESCE(NULLIF(TRIM(city), ''), 'unknown')" + FACET_COUNT
+            + " GROUP BY COALESCE(NULLIF(TRIM(city), ''), 'unknown')",
+            nativeQuery = true)
+    List<FacetCount> aggregateFacets(@Param("surveyId") Long surveyId,
+                                     @Param("start") LocalDateTime start,
+                                     @Param("end") LocalDateTime end);
+
+    /**
+     * Linha de {@link #aggregateFacets}: {@code facet} é STATUS, QUESTION (id), HOUR (0-23), DATE (ISO) ou uma
+     * dimensão de audiência (DEVICE, OPERATING_SYSTEM, BROWSER, SOURCE, COUNTRY, STATE, CITY).
+     */
+    interface FacetCount {
+        String getFacet();
+        String getLabel();
+        Long getResponses();
+        Long getTimedResponses();
+        Long getDurationSeconds();
+        Long getElapsedResponses();
+        Long getElapsedSeconds();
+    }
+
+    String FACET_ELAPSED = "TIMESTAMPDIFF(SECOND, started_at, COALESCE(completed_at, created_at))";
+
+    /**
+     * Durações agrupadas por segundo para os histogramas dos dashboards: COMPLETION entre as sessões com início e
+     * conclusão, ABANDONMENT (até a conclusão ou a gravação) entre as abandonadas com início.
+     *
+     * @param end limite exclusivo
+     */
+    @Query(value = "SELECT 'COMPLETION' AS kind, " + FACET_DURATION + " AS seconds, COUNT(*) AS responses"
+            + FACET_FILTER + " AND " + FACET_TIMED + " GROUP BY " + FACET_DURATION
+            + " UNION ALL SELECT 'ABANDONMENT', " + FACET_ELAPSED + ", COUNT(*)" + FACET_FILTER
+            + " AND status = 'ABANDONED' AND started_at IS NOT NULL GROUP BY " + FACET_ELAPSED,
+            nativeQuery = true)
+    List<DurationCount> aggregateDurations(@Param("surveyId") Long surveyId,
+                                           @Param("start") LocalDateTime start,
+                                           @Param("end") LocalDateTime end);
 
-    List<ResponseSession> findBySurveyId(Long surveyId);
+    interface DurationCount {
+        String getKind();
+        Long getSeconds();
+        Long getResponses();
+    }
 
     void deleteBySurveyId(Long surveyId);
 
     void deleteByQuestionId(Long questionId);
 
+    @Query("SELECT DISTINCT rs.survey.id FROM ResponseSession rs WHERE rs.createdAt < :threshold")
+    List<Long> findSurveyIdsCreatedBefore(@Param("threshold") LocalDateTime threshold);
+
     long deleteByCreatedAtBefore(LocalDateTime threshold);
 }
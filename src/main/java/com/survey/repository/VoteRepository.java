@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface VoteRepository extends JpaRepository<Vote, Long> {
@@ -19,6 +20,15 @@ public interface VoteRepository extends JpaRepository<Vote, Long> {
                                                                       String userAgent,
                                                                       java.time.LocalDateTime createdAfter);
 
+    /**
+     * Usado pela verificação de votos duplicados entre instâncias; coberto por idx_votes_duplicate.
+     */
+    boolean existsBySurveyIdAndQuestionIdInAndIpAddressAndUserAgentAndCreatedAtAfter(Long surveyId,
+                                                                                     Collection<Long> questionIds,
+                                                                                     String ipAddress,
+                                                                                     String userAgent,
+                                                                                     java.time.LocalDateTime createdAfter);
+
     void deleteBySurveyId(Long surveyId);
 
     interface VoteSummary {
@@ -2,8 +2,10 @@ package com.survey.service;
 
 import com.survey.dto.VoteSummaryResponseDTO;
 import com.survey.repository.VoteRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -12,12 +14,21 @@ import java.util.stream.Collectors;
 public class AnalyticsService {
 
     private final VoteRepository voteRepository;
+    private final VoteTallyStore tallyStore;
+    private final boolean liveTalliesEnabled;
 
-    public AnalyticsService(VoteRepository voteRepository) {
+    public AnalyticsService(VoteRepository voteRepository,
+                            VoteTallyStore tallyStore,
+                            @Value("${app.analytics.tallies.enabled:true}") boolean liveTalliesEnabled) {
         this.voteRepository = voteRepository;
+        this.tallyStore = tallyStore;
+        this.liveTalliesEnabled = liveTalliesEnabled;
     }
 
     public VoteSummaryResponseDTO summarizeVotes(Long surveyId) {
+        if (liveTalliesEnabled) {
+            return summarizeFromTallies(surveyId);
+        }
         List<VoteRepository.VoteSummary> summaries = voteRepository.summarizeBySurvey(surveyId);
 
         Map<Long, List<VoteRepository.VoteSummary>> grouped = summaries.stream()
@@ -38,4 +49,25 @@ public class AnalyticsService {
 
         return new VoteSummaryResponseDTO(surveyId, questions);
     }
+
+    private VoteSummaryResponseDTO summarizeFromTallies(Long surveyId) {
+        Map<Long, List<VoteTallyStore.OptionCount>> grouped = tallyStore.counts(surveyId).stream()
+                .collect(Collectors.groupingBy(VoteTallyStore.OptionCount::questionId, LinkedHashMap::new,
+                        Collectors.toList()));
+
+        List<VoteSummaryResponseDTO.QuestionVotes> questions = grouped.entrySet().stream()
+                .map(entry -> new VoteSummaryResponseDTO.QuestionVotes(
+                        entry.getKey(),
+                        entry.getValue().get(0).questionText(),
+                        entry.getValue().stream()
+                                .map(item -> new VoteSummaryResponseDTO.OptionVotes(
+                                        item.optionId(),
+                                        item.optionText(),
+                                        item.total()))
+                                .collect(Collectors.toList())
+                ))
+                .collect(Collectors.toList());
+
+        return new VoteSummaryResponseDTO(surveyId, questions);
+    }
 }
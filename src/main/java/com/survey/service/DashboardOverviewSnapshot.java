@@ -0,0 +1,180 @@
+package com.survey.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.survey.dto.DashboardOverviewResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.HexFormat;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Snapshot imutável do overview global dos dashboards, recalculado em segundo plano a cada
+ * {@code app.dashboard.overview.refresh-interval-ms}. As leituras devolvem o snapshot atual sem tocar no banco;
+ * se ele passou de {@code max-age-ms} (job atrasado ou falhando), continua sendo servido e um recálculo é
+ * disparado de forma assíncrona (stale-while-revalidate). Só a primeira leitura, antes de existir snapshot,
+ * calcula de forma síncrona.
+ *
+ * O ETag é fraco ({@code W/}): é o hash do conteúdo sem {@code generatedAt}, então recálculos que não mudam os
+ * números mantêm o ETag, mas o corpo não é idêntico byte a byte.
+ */
+@Component
+public class DashboardOverviewSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DashboardOverviewSnapshot.class);
+
+    private final DashboardService dashboardService;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final long maxAgeMillis;
+    private final Executor refresher;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final Timer refreshTimer;
+    private final Counter staleCounter;
+    private final Counter failureCounter;
+
+    @Autowired
+    public DashboardOverviewSnapshot(DashboardService dashboardService,
+                                     ObjectMapper objectMapper,
+                                     Clock clock,
+                                     @Value("${app.dashboard.overview.max-age-ms:120000}") long maxAgeMillis,
+                                     MeterRegistry meterRegistry) {
+        this(dashboardService, objectMapper, clock, maxAgeMillis, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-overview-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }), meterRegistry);
+    }
+
+    DashboardOverviewSnapshot(DashboardService dashboardService,
+                              ObjectMapper objectMapper,
+                              Clock clock,
+                              long maxAgeMillis,
+                              Executor refresher,
+                              MeterRegistry meterRegistry) {
+        this.dashboardService = dashboardService;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.maxAgeMillis = Math.max(0, maxAgeMillis);
+        this.refresher = refresher;
+        this.refreshTimer = Timer.builder("dashboard.overview.refresh.latency")
+                .description("Tempo de recálculo do overview global")
+                .register(meterRegistry);
+        this.staleCounter = meterRegistry.counter("dashboard.overview.stale");
+        this.failureCounter = meterRegistry.counter("dashboard.overview.refresh.failures");
+        Gauge.builder("dashboard.overview.age.seconds", this, DashboardOverviewSnapshot::ageSeconds)
+                .description("Idade do snapshot do overview servido")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Snapshot atual; passado de {@code max-age-ms}, agenda um recálculo e devolve o antigo mesmo assim.
+     */
+    public Snapshot get() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            return loadFirst();
+        }
+        if (clock.millis() - snapshot.computedAtMillis() > maxAgeMillis) {
+            staleCounter.increment();
+            refreshAsync();
+        }
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.overview.refresh-interval-ms:60000}",
+            initialDelayString = "${app.dashboard.overview.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        if (refreshing.compareAndSet(false, true)) {
+            refreshQuietly();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (refresher instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private synchronized Snapshot loadFirst() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    private void refreshAsync() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refresher.execute(this::refreshQuietly);
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * Recálculo em segundo plano: uma falha mantém o snapshot anterior, que segue sendo servido.
+     */
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            LOGGER.warn("Dashboard overview refresh failed; keeping previous snapshot", e);
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private Snapshot refresh() {
+        long startedAt = clock.millis();
+        DashboardOverviewResponse response = refreshTimer.record(dashboardService::getOverview);
+        Snapshot snapshot = new Snapshot(response, etag(response), startedAt);
+        current.set(snapshot);
+        return snapshot;
+    }
+
+    private String etag(DashboardOverviewResponse response) {
+        ObjectNode tree = objectMapper.valueToTree(response);
+        tree.remove("generatedAt");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(tree));
+            return "W/\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Falha ao calcular ETag do overview", e);
+        }
+    }
+
+    private double ageSeconds() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? (clock.millis() - snapshot.computedAtMillis()) / 1000.0 : 0;
+    }
+
+    /**
+     * @param etag             ETag fraco ({@code W/"..."}), pronto para o cabeçalho
+     * @param computedAtMillis início do cálculo, base da idade do snapshot
+     */
+    public record Snapshot(DashboardOverviewResponse response, String etag, long computedAtMillis) {
+    }
+}
@@ -0,0 +1,244 @@
+package com.survey.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.survey.dto.SurveyAudienceResponse;
+import com.survey.dto.SurveyDashboardResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache dos resultados de dashboard e audiência por pesquisa, indexado por (pesquisa, from, to, includeDeleted).
+ *
+ * Um {@code to} ausente ou ainda não passado é arredondado para cima até o fim do intervalo de
+ * {@code app.dashboard.cache.bucket-seconds}, para que leituras repetidas de "até agora" caiam na mesma chave.
+ * Cada entrada guarda a versão de dados da pesquisa (incrementada após o commit de cada voto ou resposta) e a
+ * geração da estrutura em {@link SurveyStructureCache} (alterada por edições, remoções e restaurações): se
+ * qualquer uma mudou, a entrada é recalculada. Um cálculo iniciado antes de um commit guarda a versão anterior e
+ * já nasce obsoleto. O TTL cobre o que não passa por essas versões nesta instância (votos gravados por outras
+ * instâncias, enriquecimento assíncrono de sessões, limpeza de retenção) e o tamanho é limitado com descarte da
+ * entrada menos usada.
+ *
+ * O ETag é o hash do conteúdo, calculado uma vez por entrada: um recálculo que não muda os números mantém o ETag.
+ */
+@Component
+public class DashboardResultCache {
+
+    private final DashboardService dashboardService;
+    private final SurveyStructureCache structureCache;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Duration ttl;
+    private final Duration bucket;
+    private final CacheControl cacheControl;
+    private final Map<Key, Entry> entries;
+    private final ConcurrentMap<Long, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+    private final Counter evictionCounter;
+    private final MeterRegistry meterRegistry;
+
+    public DashboardResultCache(DashboardService dashboardService,
+                                SurveyStructureCache structureCache,
+                                ObjectMapper objectMapper,
+                                Clock clock,
+                                @Value("${app.dashboard.cache.ttl-seconds:120}") long ttlSeconds,
+                                @Value("${app.dashboard.cache.max-entries:500}") int maxEntries,
+                                @Value("${app.dashboard.cache.bucket-seconds:60}") long bucketSeconds,
+                                @Value("${app.dashboard.cache.client-max-age-seconds:0}") long clientMaxAgeSeconds,
+                                MeterRegistry meterRegistry) {
+        this.dashboardService = dashboardService;
+        this.structureCache = structureCache;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.ttl = Duration.ofSeconds(Math.max(1, ttlSeconds));
+        this.bucket = Duration.ofSeconds(Math.max(1, bucketSeconds));
+        this.cacheControl = clientMaxAgeSeconds > 0
+                ? CacheControl.maxAge(clientMaxAgeSeconds, TimeUnit.SECONDS).cachePrivate()
+                : CacheControl.noCache().cachePrivate();
+        this.meterRegistry = meterRegistry;
+        int capacity = Math.max(1, maxEntries);
+        this.evictionCounter = meterRegistry.counter("dashboard.cache.evictions");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > capacity) {
+                    evictionCounter.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("dashboard.cache.size", this, DashboardResultCache::size)
+                .description("Resultados de dashboard e audiência em cache")
+                .register(meterRegistry);
+        Gauge.builder("dashboard.cache.hit.ratio", this, DashboardResultCache::hitRatio)
+                .description("Fração das leituras de dashboard e audiência servidas do cache desde a subida")
+                .register(meterRegistry);
+    }
+
+    public Cached<SurveyDashboardResponse> getDashboard(Long surveyId,
+                                                        LocalDateTime from,
+                                                        LocalDateTime to,
+                                                        boolean includeDeleted) {
+        LocalDateTime end = snap(to);
+        return lookup(new Key(Kind.DASHBOARD, surveyId, from, end, includeDeleted),
+                () -> dashboardService.getSurveyDashboard(surveyId, from, end, includeDeleted));
+    }
+
+    public Cached<SurveyAudienceResponse> getAudience(Long surveyId,
+                                                      LocalDateTime from,
+                                                      LocalDateTime to,
+                                                      boolean includeDeleted) {
+        LocalDateTime end = snap(to);
+        return lookup(new Key(Kind.AUDIENCE, surveyId, from, end, includeDeleted),
+                () -> dashboardService.getSurveyAudience(surveyId, from, end, includeDeleted));
+    }
+
+    /**
+     * Cabeçalho para as respostas: sem {@code client-max-age-seconds}, o navegador revalida sempre com o ETag.
+     */
+    public CacheControl cacheControl() {
+        return cacheControl;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onVotesRecorded(VotesRecordedEvent event) {
+        for (VotesRecordedEvent.RecordedVote vote : event.votes()) {
+            bump(vote.surveyId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onResponsesRecorded(ResponsesRecordedEvent event) {
+        for (ResponsesRecordedEvent.RecordedResponse response : event.responses()) {
+            bump(response.surveyId());
+        }
+    }
+
+    long version(Long surveyId) {
+        return versions.getOrDefault(surveyId, 0L);
+    }
+
+    private void bump(Long surveyId) {
+        if (surveyId != null) {
+            versions.merge(surveyId, 1L, Long::sum);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Cached<T> lookup(Key key, Supplier<T> loader) {
+        Instant now = clock.instant();
+        long version = version(key.surveyId());
+        long generation = structureCache.generation(key.surveyId());
+        lookups.incrementAndGet();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && entry.version() == version && entry.generation() == generation
+                && entry.expiresAt().isAfter(now)) {
+            hits.incrementAndGet();
+            count(key, "hit");
+            return (Cached<T>) entry.cached();
+        }
+        count(key, entry == null ? "miss" : "stale");
+
+        // Calculado fora do lock: leituras simultâneas da mesma chave podem calcular em dobro, sem bloquear as demais
+        T response = loader.get();
+        Cached<T> cached = new Cached<>(response, etag(response));
+        synchronized (entries) {
+            entries.put(key, new Entry(cached, version, generation, now.plus(ttl)));
+        }
+        return cached;
+    }
+
+    /**
+     * Arredonda para cima um fim ausente ou no intervalo aberto; fins já passados são mantidos como vieram.
+     */
+    private LocalDateTime snap(LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now(clock.withZone(ZoneId.systemDefault()));
+        LocalDateTime end = to != null ? to : now;
+        long bucketSeconds = bucket.toSeconds();
+        LocalDateTime openBucket = floor(now, bucketSeconds);
+        if (end.isBefore(openBucket)) {
+            return end;
+        }
+        LocalDateTime floor = floor(end, bucketSeconds);
+        return floor.equals(end) ? end : floor.plusSeconds(bucketSeconds);
+    }
+
+    private static LocalDateTime floor(LocalDateTime value, long bucketSeconds) {
+        long secondOfDay = value.toLocalTime().toSecondOfDay();
+        return value.toLocalDate().atStartOfDay().plusSeconds(secondOfDay - secondOfDay % bucketSeconds);
+    }
+
+    private void count(Key key, String result) {
+        meterRegistry.counter("dashboard.cache", "endpoint", key.kind().tag, "result", result).increment();
+    }
+
+    private String etag(Object response) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(response));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Falha ao calcular ETag do dashboard", e);
+        }
+    }
+
+    private double size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private double hitRatio() {
+        long total = lookups.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    private enum Kind {
+        DASHBOARD("dashboard"),
+        AUDIENCE("audience");
+
+        private final String tag;
+
+        Kind(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private record Key(Kind kind, Long surveyId, LocalDateTime from, LocalDateTime to, boolean includeDeleted) {
+    }
+
+    private record Entry(Cached<?> cached, long version, long generation, Instant expiresAt) {
+    }
+
+    /**
+     * @param etag ETag forte, já entre aspas
+     */
+    public record Cached<T>(T response, String etag) {
+    }
+}
@@ -0,0 +1,207 @@
+package com.survey.service;
+
+import com.survey.dto.SurveySeriesResponse;
+import com.survey.exception.BusinessException;
+import com.survey.exception.ResourceNotFoundException;
+import com.survey.repository.SurveyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Série temporal de respostas por minuto, hora, dia ou semana no fuso do cliente.
+ *
+ * Os números vêm de contagens já agrupadas por hora ({@link ResponseRollupStore#readHourlyCounts}; por minuto
+ * direto das sessões), gravadas no fuso {@code app.dashboard.storage-zone}: cada contagem é convertida para o
+ * instante e somada ao intervalo do fuso pedido, e os intervalos sem respostas saem com zero. O número de pontos é
+ * limitado a {@code app.dashboard.series.max-points}. Em fusos com deslocamento fracionário (ex.: +05:30) as
+ * contagens horárias caem inteiras no intervalo em que a hora começa.
+ */
+@Service
+public class DashboardSeriesService {
+
+    private final SurveyRepository surveyRepository;
+    private final ResponseRollupStore rollupStore;
+    private final Clock clock;
+    private final int maxPoints;
+    private final ZoneId storageZone;
+
+    @Autowired
+    public DashboardSeriesService(SurveyRepository surveyRepository,
+                                  ResponseRollupStore rollupStore,
+                                  Clock clock,
+                                  @Value("${app.dashboard.series.max-points:2000}") int maxPoints,
+                                  @Value("${app.dashboard.storage-zone:}") String storageZone) {
+        this(surveyRepository, rollupStore, clock, maxPoints,
+                storageZone == null || storageZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(storageZone));
+    }
+
+    DashboardSeriesService(SurveyRepository surveyRepository,
+                           ResponseRollupStore rollupStore,
+                           Clock clock,
+                           int maxPoints,
+                           ZoneId storageZone) {
+        this.surveyRepository = surveyRepository;
+        this.rollupStore = rollupStore;
+        this.clock = clock;
+        this.maxPoints = Math.max(1, maxPoints);
+        this.storageZone = storageZone;
+    }
+
+    /**
+     * @param granularity minute, hour, day ou week (semanas começam na segunda-feira)
+     * @param tz          fuso IANA (padrão UTC); {@code from} e {@code to} são horários locais nesse fuso
+     * @param from        início (padrão: {@code to} menos o período padrão da granularidade); a resposta traz o
+     *                    início do primeiro intervalo, pois {@code total} e os pontos cobrem intervalos inteiros
+     * @param to          fim exclusivo (padrão: agora)
+     */
+    public SurveySeriesResponse getSeries(Long surveyId,
+                                          String granularity,
+                                          String tz,
+                                          LocalDateTime from,
+                                          LocalDateTime to) {
+        if (!surveyRepository.existsById(surveyId)) {
+            throw new ResourceNotFoundException("Pesquisa não encontrada com id: " + surveyId);
+        }
+        Granularity unit = Granularity.parse(granularity);
+        ZoneId zone = zone(tz);
+        ZonedDateTime end = to != null ? to.atZone(zone) : ZonedDateTime.now(clock.withZone(zone));
+        ZonedDateTime start = from != null ? from.atZone(zone) : end.minus(unit.defaultSpan);
+        if (!start.isBefore(end)) {
+            throw new BusinessException("O início da série deve ser anterior ao fim");
+        }
+
+        List<ZonedDateTime> buckets = buckets(unit, start, end);
+        Instant[] starts = new Instant[buckets.size()];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = buckets.get(i).toInstant();
+        }
+        LocalDateTime storedFrom = LocalDateTime.ofInstant(starts[0], storageZone);
+        LocalDateTime storedTo = LocalDateTime.ofInstant(end.toInstant(), storageZone);
+        NavigableMap<LocalDateTime, Long> counts = unit == Granularity.MINUTE
+                ? rollupStore.readMinuteCounts(surveyId, storedFrom, storedTo)
+                : rollupStore.readHourlyCounts(surveyId, storedFrom, storedTo);
+
+        long[] responses = new long[starts.length];
+        long total = 0;
+        for (Map.Entry<LocalDateTime, Long> count : counts.entrySet()) {
+            Instant instant = count.getKey().atZone(storageZone).toInstant();
+            int index = Arrays.binarySearch(starts, instant);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            if (index >= 0) {
+                responses[index] += count.getValue();
+                total += count.getValue();
+            }
+        }
+
+        List<SurveySeriesResponse.Point> points = new ArrayList<>(starts.length);
+        for (int i = 0; i < starts.length; i++) {
+            points.add(new SurveySeriesResponse.Point(buckets.get(i).toOffsetDateTime(), responses[i]));
+        }
+        return new SurveySeriesResponse(surveyId, unit.name().toLowerCase(Locale.ROOT), zone.getId(),
+                buckets.get(0).toOffsetDateTime(), end.toOffsetDateTime(), total, points);
+    }
+
+    /**
+     * Inícios dos intervalos que cobrem {@code [start, end)}, recusando séries acima de {@code max-points}.
+     */
+    private List<ZonedDateTime> buckets(Granularity unit, ZonedDateTime start, ZonedDateTime end) {
+        long estimate = Duration.between(start, end).toMinutes() / unit.approximateMinutes + 1;
+        if (estimate > maxPoints + 1) {
+            throw tooManyPoints(unit);
+        }
+        List<ZonedDateTime> buckets = new ArrayList<>();
+        for (ZonedDateTime bucket = unit.truncate(start); bucket.isBefore(end); bucket = unit.next(bucket)) {
+            if (buckets.size() == maxPoints) {
+                throw tooManyPoints(unit);
+            }
+            buckets.add(bucket);
+        }
+        return buckets;
+    }
+
+    private BusinessException tooManyPoints(Granularity unit) {
+        return new BusinessException("O intervalo gera mais de " + maxPoints + " pontos com granularidade "
+                + unit.name().toLowerCase(Locale.ROOT) + "; reduza o intervalo ou use uma granularidade maior");
+    }
+
+    private static ZoneId zone(String tz) {
+        if (tz == null || tz.isBlank()) {
+            return ZoneOffset.UTC;
+        }
+        try {
+            return ZoneId.of(tz.trim());
+        } catch (DateTimeException e) {
+            throw new BusinessException("Fuso horário inválido: " + tz);
+        }
+    }
+
+    enum Granularity {
+        MINUTE(1, Duration.ofDays(1)),
+        HOUR(60, Duration.ofDays(7)),
+        DAY(24 * 60, Duration.ofDays(90)),
+        WEEK(7 * 24 * 60, Duration.ofDays(364));
+
+        private final long approximateMinutes;
+        private final Duration defaultSpan;
+
+        Granularity(long approximateMinutes, Duration defaultSpan) {
+            this.approximateMinutes = approximateMinutes;
+            this.defaultSpan = defaultSpan;
+        }
+
+        static Granularity parse(String value) {
+            if (value == null || value.isBlank()) {
+                return DAY;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException("Granularidade inválida: " + value + " (use minute, hour, day ou week)");
+            }
+        }
+
+        ZonedDateTime truncate(ZonedDateTime value) {
+            return switch (this) {
+                case MINUTE -> value.truncatedTo(ChronoUnit.MINUTES);
+                case HOUR -> value.truncatedTo(ChronoUnit.HOURS);
+                case DAY -> value.toLocalDate().atStartOfDay(value.getZone());
+                case WEEK -> value.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                        .atStartOfDay(value.getZone());
+            };
+        }
+
+        /**
+         * Próximo intervalo: minutos e horas avançam no instante (a hora repetida no fim do horário de verão vira
+         * dois pontos), dias e semanas no calendário local.
+         */
+        ZonedDateTime next(ZonedDateTime bucket) {
+            return switch (this) {
+                case MINUTE -> bucket.plusMinutes(1);
+                case HOUR -> truncate(bucket.plusHours(1));
+                case DAY -> bucket.toLocalDate().plusDays(1).atStartOfDay(bucket.getZone());
+                case WEEK -> bucket.toLocalDate().plusWeeks(1).atStartOfDay(bucket.getZone());
+            };
+        }
+    }
+}
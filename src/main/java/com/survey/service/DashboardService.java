@@ -3,15 +3,15 @@ package com.survey.service;
 import com.survey.dto.DashboardOverviewResponse;
 import com.survey.dto.SurveyAudienceResponse;
 import com.survey.dto.SurveyDashboardResponse;
-import com.survey.entity.ResponseSession;
 import com.survey.entity.ResponseStatus;
 import com.survey.entity.Survey;
+import com.survey.repository.QuestionRepository;
 import com.survey.repository.ResponseSessionRepository;
 import com.survey.repository.SurveyRepository;
 import com.survey.repository.VoteRepository;
+import com.survey.service.SessionAggregator.AudienceDimension;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.List;
@@ -25,13 +25,19 @@ public class DashboardService {
     private final SurveyRepository surveyRepository;
     private final ResponseSessionRepository responseSessionRepository;
     private final VoteRepository voteRepository;
+    private final QuestionRepository questionRepository;
+    private final ResponseRollupStore rollupStore;
 
     public DashboardService(SurveyRepository surveyRepository,
                             ResponseSessionRepository responseSessionRepository,
-                            VoteRepository voteRepository) {
+                            VoteRepository voteRepository,
+                            QuestionRepository questionRepository,
+                            ResponseRollupStore rollupStore) {
         this.surveyRepository = surveyRepository;
         this.responseSessionRepository = responseSessionRepository;
         this.voteRepository = voteRepository;
+        this.questionRepository = questionRepository;
+        this.rollupStore = rollupStore;
     }
 
     public DashboardOverviewResponse getOverview() {
@@ -105,7 +111,7 @@ public class DashboardService {
                 nearExpiration
         );
 
-        return new DashboardOverviewResponse(totals, growth, rates, avgResponseTime, rankings);
+        return new DashboardOverviewResponse(totals, growth, rates, avgResponseTime, rankings, now);
     }
 
     public SurveyDashboardResponse getSurveyDashboard(Long surveyId,
@@ -126,47 +132,20 @@ public class DashboardService {
             end = tmp;
         }
 
-        List<ResponseSession> sessions = responseSessionRepository
-                .findBySurveyIdAndCreatedAtBetween(surveyId, start, end);
+        SessionAggregator summary = summarize(surveyId, start, end);
 
-        long totalResponses = sessions.size();
-        long completed = sessions.stream().filter(s -> s.getStatus() == ResponseStatus.COMPLETED).count();
-        long abandoned = sessions.stream().filter(s -> s.getStatus() == ResponseStatus.ABANDONED).count();
-        double completionRate = totalResponses == 0 ? 0 : (double) completed / totalResponses;
-        double abandonmentRate = totalResponses == 0 ? 0 : (double) abandoned / totalResponses;
-        double averageResponseTime = sessions.stream()
-                .filter(s -> s.getStartedAt() != null && s.getCompletedAt() != null)
-                .mapToDouble(s -> java.time.Duration.between(s.getStartedAt(), s.getCompletedAt()).toSeconds())
-                .average()
-                .orElse(0);
-
-        Map<Long, Long> abandonmentByQuestion = sessions.stream()
-                .filter(s -> s.getStatus() == ResponseStatus.ABANDONED && s.getQuestion() != null)
-                .collect(Collectors.groupingBy(s -> s.getQuestion().getId(), Collectors.counting()));
-        String mostAbandonedQuestion = abandonmentByQuestion.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(entry -> entry.getKey())
-                .flatMap(id -> sessions.stream()
-                        .map(ResponseSession::getQuestion)
-                        .filter(q -> q != null && q.getId().equals(id))
-                        .map(q -> q.getTexto())
-                        .findFirst())
-                .orElse(null);
-
-        Map<String, Long> deviceCounts = sessions.stream()
-                .collect(Collectors.groupingBy(s -> normalize(s.getDeviceType()), Collectors.counting()));
-        String predominantDevice = deviceCounts.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("unknown");
+        Long mostAbandonedQuestionId = summary.mostAbandonedQuestionId();
+        String mostAbandonedQuestion = mostAbandonedQuestionId == null
+                ? null
+                : questionRepository.findTextoByIdIncludingDeleted(mostAbandonedQuestionId).orElse(null);
 
         SurveyDashboardResponse.Overview overview = new SurveyDashboardResponse.Overview(
-                totalResponses,
-                completionRate,
-                abandonmentRate,
-                averageResponseTime,
+                summary.total(),
+                summary.completionRate(),
+                summary.abandonmentRate(),
+                summary.averageDurationSeconds(),
                 mostAbandonedQuestion,
-                predominantDevice
+                summary.predominant(AudienceDimension.DEVICE)
         );
 
         List<SurveyDashboardResponse.QuestionStats> questionStats = voteRepository.aggregateBySurvey(surveyId)
@@ -195,49 +174,33 @@ public class DashboardService {
                 })
                 .collect(Collectors.toList());
 
-        Map<LocalDate, Long> daily = sessions.stream()
-                .collect(Collectors.groupingBy(s -> s.getCreatedAt().toLocalDate(), Collectors.counting()));
-        List<SurveyDashboardResponse.DayPoint> dailySeries = daily.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
+        List<SurveyDashboardResponse.DayPoint> dailySeries = summary.daily().entrySet().stream()
                 .map(entry -> new SurveyDashboardResponse.DayPoint(entry.getKey(), entry.getValue()))
                 .collect(Collectors.toList());
 
-        Map<Integer, Long> hourly = sessions.stream()
-                .collect(Collectors.groupingBy(s -> s.getCreatedAt().getHour(), Collectors.counting()));
-        List<SurveyDashboardResponse.HourPoint> hourlySeries = hourly.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
+        List<SurveyDashboardResponse.HourPoint> hourlySeries = summary.hourOfDay().entrySet().stream()
                 .map(entry -> new SurveyDashboardResponse.HourPoint(String.format("%02d:00", entry.getKey()), entry.getValue()))
                 .collect(Collectors.toList());
 
         SurveyDashboardResponse.TimeSeries timeSeries = new SurveyDashboardResponse.TimeSeries(dailySeries, hourlySeries);
 
-        Map<String, Long> osCounts = sessions.stream()
-                .collect(Collectors.groupingBy(s -> normalize(s.getOperatingSystem()), Collectors.counting()));
-        Map<String, Long> browserCounts = sessions.stream()
-                .collect(Collectors.groupingBy(s -> normalize(s.getBrowser()), Collectors.counting()));
-        Map<String, Long> sourceCounts = sessions.stream()
-                .collect(Collectors.groupingBy(s -> normalize(s.getSource()), Collectors.counting()));
-        Map<String, Long> countryCounts = sessions.stream()
-                .collect(Collectors.groupingBy(s -> normalize(s.getCountry()), Collectors.counting()));
-        Map<String, Long> stateCounts = sessions.stream()
-                .collect(Collectors.groupingBy(s -> normalize(s.getState()), Collectors.counting()));
-        Map<String, Long> cityCounts = sessions.stream()
-                .collect(Collectors.groupingBy(s -> normalize(s.getCity()), Collectors.counting()));
-
         SurveyDashboardResponse.Audience audience = new SurveyDashboardResponse.Audience(
-                deviceCounts,
-                osCounts,
-                browserCounts,
-                sourceCounts,
-                countryCounts,
-                stateCounts,
-                cityCounts
+                summary.counts(AudienceDimension.DEVICE),
+                summary.counts(AudienceDimension.OPERATING_SYSTEM),
+                summary.counts(AudienceDimension.BROWSER),
+                summary.counts(AudienceDimension.SOURCE),
+                summary.counts(AudienceDimension.COUNTRY),
+                summary.counts(AudienceDimension.STATE),
+                summary.counts(AudienceDimension.CITY)
         );
 
         // Feature not available due to single-choice votes today
         List<String> limitations = List.of("Combinações de alternativas ainda não estão disponíveis para perguntas de múltipla escolha.");
 
-        return new SurveyDashboardResponse(overview, questionStats, timeSeries, audience, limitations);
+        SurveyDashboardResponse.ResponseTimes responseTimes = new SurveyDashboardResponse.ResponseTimes(
+                summary.completionTime(), summary.abandonmentTime());
+
+        return new SurveyDashboardResponse(overview, questionStats, timeSeries, audience, responseTimes, limitations);
     }
 
     private DashboardOverviewResponse.SurveyMetric toMetric(Long surveyId,
@@ -264,13 +227,6 @@ public class DashboardService {
         return (double) numerator / denominator;
     }
 
-    private String normalize(String value) {
-        if (value == null || value.isBlank()) {
-            return "unknown";
-        }
-        return value.trim();
-    }
-
     public SurveyAudienceResponse getSurveyAudience(Long surveyId,
                                                     LocalDateTime from,
                                                     LocalDateTime to,
@@ -291,81 +247,59 @@ public class DashboardService {
             end = tmp;
         }
 
-        List<ResponseSession> sessions = responseSessionRepository
-                .findBySurveyIdAndCreatedAtBetween(surveyId, start, end);
-
-        Map<String, Long> devices = sessions.stream()
-                .collect(Collectors.groupingBy(s -> normalize(s.getDeviceType()), Collectors.counting()));
-        Map<String, Long> os = sessions.stream()
-                .collect(Collectors.groupingBy(s -> normalize(s.getOperatingSystem()), Collectors.counting()));
-        Map<String, Long> browsers = sessions.stream()
-                .collect(Collectors.groupingBy(s -> normalize(s.getBrowser()), Collectors.counting()));
-        Map<String, Long> sources = sessions.stream()
-                .collect(Collectors.groupingBy(s -> normalize(s.getSource()), Collectors.counting()));
-        Map<String, Long> countries = sessions.stream()
-                .collect(Collectors.groupingBy(s -> normalize(s.getCountry()), Collectors.counting()));
-        Map<String, Long> states = sessions.stream()
-                .collect(Collectors.groupingBy(s -> normalize(s.getState()), Collectors.counting()));
-        Map<String, Long> cities = sessions.stream()
-                .collect(Collectors.groupingBy(s -> normalize(s.getCity()), Collectors.counting()));
-
-        List<SurveyAudienceResponse.CategoryValue> peakHours = sessions.stream()
-                .collect(Collectors.groupingBy(s -> String.format("%02d:00", s.getCreatedAt().getHour()), Collectors.counting()))
-                .entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+        SessionAggregator summary = summarize(surveyId, start, end);
+
+        List<SurveyAudienceResponse.CategoryValue> peakHours = summary.hourOfDay().entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed())
                 .limit(5)
-                .map(entry -> new SurveyAudienceResponse.CategoryValue(entry.getKey(), entry.getValue()))
+                .map(entry -> new SurveyAudienceResponse.CategoryValue(String.format("%02d:00", entry.getKey()), entry.getValue()))
                 .collect(Collectors.toList());
 
-        List<SurveyAudienceResponse.CategoryValue> peakDays = sessions.stream()
-                .collect(Collectors.groupingBy(s -> s.getCreatedAt().getDayOfWeek().name(), Collectors.counting()))
-                .entrySet().stream()
+        List<SurveyAudienceResponse.CategoryValue> peakDays = summary.dayOfWeek().entrySet().stream()
                 .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
                 .limit(7)
                 .map(entry -> new SurveyAudienceResponse.CategoryValue(entry.getKey(), entry.getValue()))
                 .collect(Collectors.toList());
 
-        double avgAbandonSeconds = sessions.stream()
-                .filter(s -> s.getStatus() == ResponseStatus.ABANDONED && s.getStartedAt() != null)
-                .mapToDouble(s -> {
-                    LocalDateTime endTime = s.getCompletedAt() != null ? s.getCompletedAt() : s.getCreatedAt();
-                    if (endTime == null) {
-                        endTime = s.getStartedAt();
-                    }
-                    return java.time.Duration.between(s.getStartedAt(), endTime).toSeconds();
-                })
-                .average()
-                .orElse(0);
-
-        long uniqueRespondents = sessions.stream()
-                .map(s -> normalize(s.getIpAddress()))
-                .distinct()
-                .count();
-        long duplicateResponses = Math.max(0, sessions.size() - uniqueRespondents);
-
-        long fastResponses = sessions.stream()
-                .filter(s -> s.getStartedAt() != null && s.getCompletedAt() != null)
-                .mapToLong(s -> java.time.Duration.between(s.getStartedAt(), s.getCompletedAt()).toSeconds())
-                .filter(seconds -> seconds < 5)
-                .count();
+        double avgAbandonSeconds = summary.averageAbandonmentSeconds();
+
+        // Estimativa por HyperLogLog: sketches diários do agregado mais as pontas; um IP por sessão limita ao total
+        long uniqueRespondents = summary.total() == 0
+                ? 0
+                : Math.min(summary.total(), rollupStore.readRespondents(surveyId, start, end).estimate());
+        double uniqueRespondentsError = summary.total() == 0 ? 0 : HyperLogLog.RELATIVE_STANDARD_ERROR;
+        long duplicateResponses = Math.max(0, summary.total() - uniqueRespondents);
+
+        long fastResponses = summary.fastResponses();
         List<String> suspicious = fastResponses > 0
                 ? List.of("Foram detectadas " + fastResponses + " respostas com tempo inferior a 5 segundos.")
                 : List.of();
 
         return new SurveyAudienceResponse(
-                devices,
-                os,
-                browsers,
-                sources,
-                countries,
-                states,
-                cities,
+                summary.counts(AudienceDimension.DEVICE),
+                summary.counts(AudienceDimension.OPERATING_SYSTEM),
+                summary.counts(AudienceDimension.BROWSER),
+                summary.counts(AudienceDimension.SOURCE),
+                summary.counts(AudienceDimension.COUNTRY),
+                summary.counts(AudienceDimension.STATE),
+                summary.counts(AudienceDimension.CITY),
                 peakHours,
                 peakDays,
                 avgAbandonSeconds,
+                summary.abandonmentTime(),
                 uniqueRespondents,
+                uniqueRespondentsError,
                 duplicateResponses,
                 suspicious
         );
     }
+
+    private SessionAggregator summarize(Long surveyId, LocalDateTime start, LocalDateTime end) {
+        SessionAggregator summary = new SessionAggregator();
+        for (ResponseRollupStore.FacetRow row : rollupStore.readFacets(surveyId, start, end)) {
+            summary.add(row);
+        }
+        summary.add(rollupStore.readDurations(surveyId, start, end));
+        return summary;
+    }
 }
@@ -0,0 +1,417 @@
+package com.survey.service;
+
+import com.survey.dto.DashboardStreamFrame;
+import com.survey.entity.ResponseStatus;
+import com.survey.exception.ResourceNotFoundException;
+import com.survey.exception.ServiceOverloadedException;
+import com.survey.repository.SurveyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stream ao vivo dos dashboards por pesquisa (Server-Sent Events).
+ *
+ * Votos e sessões gravados são somados, após o commit, num acumulador por pesquisa com assinantes; a cada
+ * {@code frame-interval-ms} o acumulador vira no máximo um frame {@code delta} por pesquisa, enviado a todos os
+ * assinantes dela. Cada assinante tem uma fila limitada a {@code queue-capacity} frames, esvaziada por um pool
+ * de {@code sender-threads}: quem não consome a tempo e enche a fila é desconectado (o cliente reconecta e
+ * recarrega o dashboard completo). Um comentário de heartbeat a cada {@code heartbeat-ms} mantém proxies e
+ * balanceadores com a conexão aberta. O total de conexões é limitado a {@code max-subscribers}.
+ */
+@Component
+public class DashboardStreamHub implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DashboardStreamHub.class);
+
+    private static final String[] AUDIENCE_KEYS = {
+            "devices", "operatingSystems", "browsers", "sources", "countries", "states", "cities"};
+
+    private final SurveyRepository surveyRepository;
+    private final UserAgentClassifier userAgentClassifier;
+    private final Clock clock;
+    private final long frameIntervalMs;
+    private final long heartbeatMs;
+    private final int maxSubscribers;
+    private final int queueCapacity;
+    private final long emitterTimeoutMs;
+    private final Executor senders;
+    private final ConcurrentMap<Long, Channel> channels;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter framesCounter;
+    private final Counter evictionCounter;
+    private final Counter rejectedCounter;
+
+    private volatile ScheduledExecutorService ticker;
+    private volatile boolean running;
+    private long lastHeartbeat;
+
+    @Autowired
+    public DashboardStreamHub(SurveyRepository surveyRepository,
+                              UserAgentClassifier userAgentClassifier,
+                              Clock clock,
+                              @Value("${app.dashboard.stream.frame-interval-ms:1000}") long frameIntervalMs,
+                              @Value("${app.dashboard.stream.heartbeat-ms:15000}") long heartbeatMs,
+                              @Value("${app.dashboard.stream.max-subscribers:500}") int maxSubscribers,
+                              @Value("${app.dashboard.stream.queue-capacity:32}") int queueCapacity,
+                              @Value("${app.dashboard.stream.sender-threads:2}") int senderThreads,
+                              @Value("${app.dashboard.stream.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+                              MeterRegistry meterRegistry) {
+        this(surveyRepository, userAgentClassifier, clock, frameIntervalMs, heartbeatMs, maxSubscribers,
+                queueCapacity,
+                Executors.newFixedThreadPool(Math.max(1, senderThreads), daemon("dashboard-stream-sender")),
+                emitterTimeoutMs, meterRegistry);
+    }
+
+    DashboardStreamHub(SurveyRepository surveyRepository,
+                       UserAgentClassifier userAgentClassifier,
+                       Clock clock,
+                       long frameIntervalMs,
+                       long heartbeatMs,
+                       int maxSubscribers,
+                       int queueCapacity,
+                       Executor senders,
+                       long emitterTimeoutMs,
+                       MeterRegistry meterRegistry) {
+        this(surveyRepository, userAgentClassifier, clock, frameIntervalMs, heartbeatMs, maxSubscribers,
+                queueCapacity, senders, emitterTimeoutMs, meterRegistry, new ConcurrentHashMap<>());
+    }
+
+    DashboardStreamHub(SurveyRepository surveyRepository,
+                       UserAgentClassifier userAgentClassifier,
+                       Clock clock,
+                       long frameIntervalMs,
+                       long heartbeatMs,
+                       int maxSubscribers,
+                       int queueCapacity,
+                       Executor senders,
+                       long emitterTimeoutMs,
+                       MeterRegistry meterRegistry,
+                       ConcurrentMap<Long, Channel> channels) {
+        this.surveyRepository = surveyRepository;
+        this.userAgentClassifier = userAgentClassifier;
+        this.channels = channels;
+        this.clock = clock;
+        this.frameIntervalMs = Math.max(50, frameIntervalMs);
+        this.heartbeatMs = Math.max(1000, heartbeatMs);
+        this.maxSubscribers = Math.max(1, maxSubscribers);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.senders = senders;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.framesCounter = meterRegistry.counter("dashboard.stream.frames");
+        this.evictionCounter = meterRegistry.counter("dashboard.stream.evictions");
+        this.rejectedCounter = meterRegistry.counter("dashboard.stream.rejected");
+        Gauge.builder("dashboard.stream.subscribers", subscribers, AtomicInteger::get)
+                .description("Conexões abertas no stream ao vivo dos dashboards")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abre uma conexão SSE para a pesquisa.
+     *
+     * @throws ResourceNotFoundException  quando a pesquisa não existe
+     * @throws ServiceOverloadedException quando o limite de conexões foi atingido
+     */
+    public SseEmitter subscribe(Long surveyId) {
+        if (!surveyRepository.existsById(surveyId)) {
+            throw new ResourceNotFoundException("Pesquisa não encontrada com id: " + surveyId);
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        register(surveyId, emitter);
+        return emitter;
+    }
+
+    void register(Long surveyId, SseEmitter emitter) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            rejectedCounter.increment();
+            throw new ServiceOverloadedException("Limite de conexões do stream de dashboards atingido",
+                    (int) Math.max(1, heartbeatMs / 1000));
+        }
+        Subscriber subscriber = new Subscriber(surveyId, emitter, new ArrayBlockingQueue<>(queueCapacity));
+        // A inclusão fica dentro do compute: fora dele, remove() poderia descartar o canal vazio entre a busca e o
+        // add, e o assinante ficaria num canal que não está mais no mapa (sem frames nem heartbeat).
+        channels.compute(surveyId, (id, channel) -> {
+            Channel target = channel != null ? channel : new Channel(id);
+            target.subscribers.add(subscriber);
+            return target;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        enqueue(subscriber, SseEmitter.event().name("ready").reconnectTime(frameIntervalMs)
+                .data(Map.of("surveyId", surveyId, "frameIntervalMs", frameIntervalMs)));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onVotesRecorded(VotesRecordedEvent event) {
+        for (VotesRecordedEvent.RecordedVote vote : event.votes()) {
+            Channel channel = channels.get(vote.surveyId());
+            if (channel != null) {
+                channel.recordVote(vote.questionId(), vote.optionId());
+            }
+        }
+    }
+
+    /**
+     * Com enriquecimento assíncrono as colunas derivadas ainda estão vazias no evento; o user-agent é classificado
+     * aqui (com cache), só para pesquisas com assinantes, para que a audiência do frame não caia toda em "unknown".
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onResponsesRecorded(ResponsesRecordedEvent event) {
+        for (ResponsesRecordedEvent.RecordedResponse response : event.responses()) {
+            Channel channel = channels.get(response.surveyId());
+            if (channel != null) {
+                PendingResponse.PendingSession session = response.session();
+                channel.recordSession(session,
+                        session.needsEnrichment() ? userAgentClassifier.classify(response.userAgent()) : null);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.get();
+    }
+
+    /**
+     * Um ciclo do stream: envia o frame acumulado de cada pesquisa e, quando vence, o heartbeat.
+     */
+    void tick() {
+        LocalDateTime now = LocalDateTime.now(clock.withZone(ZoneId.systemDefault()));
+        for (Channel channel : channels.values()) {
+            DashboardStreamFrame frame = channel.drain(now);
+            if (frame == null) {
+                continue;
+            }
+            framesCounter.increment();
+            for (Subscriber subscriber : channel.subscribers) {
+                enqueue(subscriber, SseEmitter.event().name("delta").data(frame, MediaType.APPLICATION_JSON));
+            }
+        }
+        long millis = clock.millis();
+        if (millis - lastHeartbeat >= heartbeatMs) {
+            lastHeartbeat = millis;
+            for (Channel channel : channels.values()) {
+                for (Subscriber subscriber : channel.subscribers) {
+                    enqueue(subscriber, SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.queue.offer(event)) {
+            evictionCounter.increment();
+            LOGGER.debug("Dashboard stream subscriber for survey {} evicted (slow consumer)", subscriber.surveyId);
+            remove(subscriber);
+            subscriber.emitter.complete();
+            return;
+        }
+        scheduleSend(subscriber);
+    }
+
+    private void scheduleSend(Subscriber subscriber) {
+        if (!subscriber.sending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> send(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectou: o emitter já está encerrado ou será encerrado pelo container
+            remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.sending.set(false);
+        }
+        if (!subscriber.queue.isEmpty()) {
+            scheduleSend(subscriber);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.removed.compareAndSet(false, true)) {
+            return;
+        }
+        subscribers.decrementAndGet();
+        subscriber.queue.clear();
+        channels.computeIfPresent(subscriber.surveyId, (surveyId, channel) -> {
+            channel.subscribers.remove(subscriber);
+            return channel.subscribers.isEmpty() ? null : channel;
+        });
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(daemon("dashboard-stream-ticker"));
+        scheduler.scheduleWithFixedDelay(this::safeTick, frameIntervalMs, frameIntervalMs, TimeUnit.MILLISECONDS);
+        ticker = scheduler;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        ticker.shutdownNow();
+        for (Channel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                remove(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+        if (senders instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void safeTick() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Dashboard stream tick failed", e);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + sequence.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Subscriber(Long surveyId,
+                              SseEmitter emitter,
+                              BlockingQueue<SseEmitter.SseEventBuilder> queue,
+                              AtomicBoolean sending,
+                              AtomicBoolean removed) {
+
+        private Subscriber(Long surveyId, SseEmitter emitter, BlockingQueue<SseEmitter.SseEventBuilder> queue) {
+            this(surveyId, emitter, queue, new AtomicBoolean(), new AtomicBoolean());
+        }
+    }
+
+    private record OptionKey(Long questionId, Long optionId) {
+    }
+
+    /**
+     * Assinantes e incremento acumulado de uma pesquisa; o acumulador é trocado a cada frame.
+     */
+    static final class Channel {
+        private final Long surveyId;
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private Map<String, Long> byStatus = new HashMap<>();
+        private Map<OptionKey, Long> options = new LinkedHashMap<>();
+        private List<Map<String, Long>> audience = emptyAudience();
+
+        private Channel(Long surveyId) {
+            this.surveyId = surveyId;
+        }
+
+        private synchronized void recordVote(Long questionId, Long optionId) {
+            options.merge(new OptionKey(questionId, optionId), 1L, Long::sum);
+        }
+
+        private synchronized void recordSession(PendingResponse.PendingSession session,
+                                                UserAgentClassifier.UserAgentInfo agent) {
+            ResponseStatus status = session.status();
+            byStatus.merge(status != null ? status.name() : "UNKNOWN", 1L, Long::sum);
+            String[] values = {session.deviceType(), session.operatingSystem(), session.browser(), session.source(),
+                    session.country(), session.state(), session.city()};
+            if (agent != null) {
+                values[0] = values[0] != null ? values[0] : agent.deviceType();
+                values[1] = values[1] != null ? values[1] : agent.operatingSystem();
+                values[2] = values[2] != null ? values[2] : agent.browser();
+            }
+            for (int i = 0; i < values.length; i++) {
+                // Mesma normalização do dashboard: vazio ou ausente conta como "unknown"
+                audience.get(i).merge(SessionAggregator.normalize(values[i]), 1L, Long::sum);
+            }
+        }
+
+        private synchronized DashboardStreamFrame drain(LocalDateTime now) {
+            if (byStatus.isEmpty() && options.isEmpty()) {
+                return null;
+            }
+            long responses = byStatus.values().stream().mapToLong(Long::longValue).sum();
+            List<DashboardStreamFrame.OptionDelta> optionDeltas = new ArrayList<>(options.size());
+            options.forEach((key, votes) ->
+                    optionDeltas.add(new DashboardStreamFrame.OptionDelta(key.questionId(), key.optionId(), votes)));
+            Map<String, Map<String, Long>> audienceDeltas = new LinkedHashMap<>();
+            for (int i = 0; i < AUDIENCE_KEYS.length; i++) {
+                audienceDeltas.put(AUDIENCE_KEYS[i], audience.get(i));
+            }
+            DashboardStreamFrame frame = new DashboardStreamFrame(surveyId, now, responses, byStatus,
+                    optionDeltas, audienceDeltas);
+            byStatus = new HashMap<>();
+            options = new LinkedHashMap<>();
+            audience = emptyAudience();
+            return frame;
+        }
+
+        private static List<Map<String, Long>> emptyAudience() {
+            List<Map<String, Long>> maps = new ArrayList<>(AUDIENCE_KEYS.length);
+            for (int i = 0; i < AUDIENCE_KEYS.length; i++) {
+                maps.add(new HashMap<>());
+            }
+            return maps;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.survey.service;
+
+import com.survey.exception.BusinessException;
+import com.survey.repository.VoteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bloqueia votos repetidos do mesmo respondente dentro de {@code app.votes.duplicate-window-minutes} (0 desativa).
+ *
+ * O respondente é identificado pela impressão digital pesquisa + pergunta + IP anonimizado + hash do user-agent;
+ * a pergunta entra na chave para que quem responde uma pergunta por vez em {@code POST /api/votes} não seja
+ * bloqueado na segunda. As impressões ficam em memória em fatias de tempo ({@value #SLICES} por janela, descartadas
+ * inteiras ao expirar), limitadas a {@code max-entries} no total: acima disso as fatias mais antigas saem antes
+ * do prazo. Um filtro de Bloom opcional por fatia evita a busca nos conjuntos quando a impressão certamente não
+ * está lá.
+ *
+ * Com várias instâncias, {@code db-check} consulta também o banco (índice idx_votes_duplicate) antes de registrar.
+ */
+@Component
+public class DuplicateVoteGuard {
+
+    static final int SLICES = 10;
+    private static final int BLOOM_HASHES = 3;
+
+    private final long windowMinutes;
+    private final long sliceMillis;
+    private final int maxEntries;
+    private final int bloomBits;
+    private final boolean dbCheck;
+    private final VoteRepository voteRepository;
+    private final Clock clock;
+    private final AtomicReferenceArray<Slice> slices = new AtomicReferenceArray<>(SLICES + 1);
+    private final AtomicInteger size = new AtomicInteger();
+    private final Counter blockedCounter;
+    private final Counter evictionCounter;
+
+    public DuplicateVoteGuard(@Value("${app.votes.duplicate-window-minutes:10}") long windowMinutes,
+                              @Value("${app.votes.duplicate.max-entries:1000000}") int maxEntries,
+                              @Value("${app.votes.duplicate.bloom-bits:0}") int bloomBits,
+                              @Value("${app.votes.duplicate.db-check:false}") boolean dbCheck,
+                              VoteRepository voteRepository,
+                              Clock clock,
+                              MeterRegistry meterRegistry) {
+        this.windowMinutes = Math.max(0, windowMinutes);
+        this.sliceMillis = Math.max(1, this.windowMinutes * 60_000 / SLICES);
+        this.maxEntries = Math.max(1, maxEntries);
+        this.bloomBits = bloomBits > 0 ? Math.max(64, bloomBits) : 0;
+        this.dbCheck = dbCheck;
+        this.voteRepository = voteRepository;
+        this.clock = clock;
+        this.blockedCounter = meterRegistry.counter("vote.duplicate.blocked");
+        this.evictionCounter = meterRegistry.counter("vote.duplicate.evictions");
+        Gauge.builder("vote.duplicate.fingerprints", size, AtomicInteger::get)
+                .description("Impressões de votos recentes em memória")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return windowMinutes > 0;
+    }
+
+    /**
+     * Verificação só em memória, feita antes de qualquer acesso ao banco.
+     *
+     * @throws BusinessException quando alguma das perguntas já foi respondida pelo respondente dentro da janela
+     */
+    public void verify(Long surveyId, Collection<Long> questionIds, String ipAddress, String userAgent) {
+        if (!isEnabled()) {
+            return;
+        }
+        long respondent = respondent(surveyId, ipAddress, userAgent);
+        long epoch = epoch();
+        for (Long questionId : questionIds) {
+            if (seen(fingerprint(respondent, questionId), epoch)) {
+                reject();
+            }
+        }
+    }
+
+    /**
+     * Registra as impressões do voto já validado. Com {@code db-check}, consulta o banco antes.
+     *
+     * @throws BusinessException quando outra requisição do mesmo respondente registrou primeiro
+     */
+    public void register(Long surveyId, Collection<Long> questionIds, String ipAddress, String userAgent) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (dbCheck && voteRepository.existsBySurveyIdAndQuestionIdInAndIpAddressAndUserAgentAndCreatedAtAfter(
+                surveyId, questionIds, ipAddress, userAgent,
+                LocalDateTime.now(clock.withZone(ZoneId.systemDefault())).minusMinutes(windowMinutes))) {
+            reject();
+        }
+        long respondent = respondent(surveyId, ipAddress, userAgent);
+        long epoch = epoch();
+        Slice current = currentSlice(epoch);
+        List<Long> added = new ArrayList<>(questionIds.size());
+        for (Long questionId : questionIds) {
+            long fingerprint = fingerprint(respondent, questionId);
+            if (seenBefore(fingerprint, epoch) || !current.add(fingerprint)) {
+                added.forEach(current::remove);
+                size.addAndGet(-added.size());
+                reject();
+            }
+            added.add(fingerprint);
+            if (size.incrementAndGet() > maxEntries) {
+                evictOldest(epoch);
+            }
+        }
+        // Só a fatia atual sobrou e ela já ocupa todo o limite: o voto passa sem ser lembrado
+        if (size.get() > maxEntries) {
+            added.forEach(current::remove);
+            size.addAndGet(-added.size());
+            evictionCounter.increment(added.size());
+        }
+    }
+
+    /**
+     * Desfaz {@link #register} quando a gravação falha, para que o respondente possa tentar de novo.
+     */
+    public void forget(Long surveyId, Collection<Long> questionIds, String ipAddress, String userAgent) {
+        if (!isEnabled()) {
+            return;
+        }
+        Slice current = slices.get(index(epoch()));
+        if (current == null) {
+            return;
+        }
+        long respondent = respondent(surveyId, ipAddress, userAgent);
+        for (Long questionId : questionIds) {
+            if (current.remove(fingerprint(respondent, questionId))) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    private void reject() {
+        blockedCounter.increment();
+        throw new BusinessException("Voto já registrado recentemente para esta pergunta");
+    }
+
+    private boolean seen(long fingerprint, long epoch) {
+        Slice current = slices.get(index(epoch));
+        return (current != null && current.epoch == epoch && current.contains(fingerprint))
+                || seenBefore(fingerprint, epoch);
+    }
+
+    private boolean seenBefore(long fingerprint, long epoch) {
+        for (long previous = epoch - SLICES; previous < epoch; previous++) {
+            Slice slice = slices.get(index(previous));
+            if (slice != null && slice.epoch == previous && slice.contains(fingerprint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Slice currentSlice(long epoch) {
+        int index = index(epoch);
+        while (true) {
+            Slice slice = slices.get(index);
+            if (slice != null && slice.epoch == epoch) {
+                return slice;
+            }
+            Slice fresh = new Slice(epoch, bloomBits);
+            if (slices.compareAndSet(index, slice, fresh)) {
+                if (slice != null) {
+                    size.addAndGet(-slice.fingerprints.size());
+                }
+                return fresh;
+            }
+        }
+    }
+
+    private void evictOldest(long epoch) {
+        for (long oldest = epoch - SLICES; oldest < epoch && size.get() > maxEntries; oldest++) {
+            int index = index(oldest);
+            Slice slice = slices.get(index);
+            if (slice != null && slice.epoch <= oldest && slices.compareAndSet(index, slice, null)) {
+                size.addAndGet(-slice.fingerprints.size());
+                evictionCounter.increment();
+            }
+        }
+    }
+
+    private long epoch() {
+        return clock.millis() / sliceMillis;
+    }
+
+    private static int index(long epoch) {
+        return (int) Math.floorMod(epoch, (long) SLICES + 1);
+    }
+
+    private static long respondent(Long surveyId, String ipAddress, String userAgent) {
+        long hash = mix(surveyId != null ? surveyId : 0L);
+        hash = hash * 31 + hash(ipAddress);
+        return hash * 31 + hash(userAgent);
+    }
+
+    private static long fingerprint(long respondent, Long questionId) {
+        return mix(respondent ^ mix(questionId != null ? questionId : 0L));
+    }
+
+    /**
+     * FNV-1a de 64 bits.
+     */
+    private static long hash(String value) {
+        if (value == null) {
+            return 0L;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Finalizador do MurmurHash3: espalha os bits antes do uso no Bloom e no conjunto.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static final class Slice {
+        private final long epoch;
+        private final Set<Long> fingerprints = ConcurrentHashMap.newKeySet();
+        private final AtomicLongArray bloom;
+        private final int bloomBits;
+
+        private Slice(long epoch, int bloomBits) {
+            this.epoch = epoch;
+            this.bloomBits = bloomBits;
+            this.bloom = bloomBits > 0 ? new AtomicLongArray((bloomBits + 63) / 64) : null;
+        }
+
+        private boolean contains(long fingerprint) {
+            if (bloom != null && !mightContain(fingerprint)) {
+                return false;
+            }
+            return fingerprints.contains(fingerprint);
+        }
+
+        private boolean add(long fingerprint) {
+            if (bloom != null) {
+                for (int i = 0; i < BLOOM_HASHES; i++) {
+                    int bit = bit(fingerprint, i);
+                    long mask = 1L << (bit & 63);
+                    long word;
+                    do {
+                        word = bloom.get(bit >>> 6);
+                    } while ((word & mask) == 0 && !bloom.compareAndSet(bit >>> 6, word, word | mask));
+                }
+            }
+            return fingerprints.add(fingerprint);
+        }
+
+        /**
+         * Os bits do Bloom não são desligados; a fatia inteira é descartada ao expirar.
+         */
+        private boolean remove(long fingerprint) {
+            return fingerprints.remove(fingerprint);
+        }
+
+        private boolean mightContain(long fingerprint) {
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = bit(fingerprint, i);
+                if ((bloom.get(bit >>> 6) & (1L << (bit & 63))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Hashing duplo (Kirsch-Mitzenmacher) a partir das duas metades da impressão.
+         */
+        private int bit(long fingerprint, int i) {
+            int combined = (int) fingerprint + i * (int) (fingerprint >>> 32);
+            return Math.floorMod(combined, bloomBits);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.survey.service;
+
+import com.survey.exception.ResourceNotFoundException;
+import com.survey.service.SurveyRawExportService.Dataset;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Cache em disco dos arquivos de exportação síncrona (XLSX e Parquet), endereçados pelo conteúdo: o nome do arquivo
+ * e o ETag são o hash de (pesquisa, formato, conjunto, includeDeleted, versão dos dados). A versão é lida do banco
+ * a cada pedido numa única consulta que não varre votos nem sessões: os {@code updated_at}/{@code deleted_at} de
+ * pesquisa, perguntas e opções e a linha da pesquisa em {@code survey_data_versions}, incrementada por
+ * {@link SurveyDataVersions} na transação de cada gravação ou remoção de votos e sessões. Assim pega também o que
+ * foi gravado por outras instâncias, pela limpeza de retenção e pelo enriquecimento assíncrono de sessões. Qualquer
+ * mudança gera outro hash; arquivos de versões antigas só deixam de ser lidos e saem pelo LRU.
+ *
+ * Na falta, o arquivo é gerado uma vez: vai para a resposta e, ao mesmo tempo, para um {@code .part} renomeado ao
+ * terminar. O total em disco é limitado a {@code app.exports.cache.max-bytes} com descarte do arquivo menos usado
+ * (0 desliga o armazenamento e mantém só o ETag). Pedidos simultâneos de uma chave ausente podem gerar em dobro,
+ * sem bloquear os demais. O índice fica em memória: arquivos de execuções anteriores são apagados na subida (só os
+ * com nome de arquivo do cache; o resto do diretório não é tocado).
+ */
+@Component
+public class ExportArtifactCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportArtifactCache.class);
+
+    private static final String VERSION_SQL = "SELECT s.updated_at, s.deleted_at, "
+            + "(SELECT MAX(q.updated_at) FROM questions q WHERE q.survey_id = s.id), "
+            + "(SELECT MAX(q.deleted_at) FROM questions q WHERE q.survey_id = s.id), "
+            + "(SELECT MAX(o.updated_at) FROM options o JOIN questions q ON q.id = o.question_id "
+            + "WHERE q.survey_id = s.id), "
+            + "(SELECT MAX(o.deleted_at) FROM options o JOIN questions q ON q.id = o.question_id "
+            + "WHERE q.survey_id = s.id), "
+            + "(SELECT d.version FROM survey_data_versions d WHERE d.survey_id = s.id) "
+            + "FROM surveys s WHERE s.id = ?";
+
+    /**
+     * {@code <hash>.<extensão>} e os {@code .part} em escrita ({@code <hash>.<extensão>.<uuid>.part}).
+     */
+    private static final Pattern CACHE_FILE = Pattern.compile("[0-9a-f]{32}\\.[a-z]+(\\.[0-9a-f-]{36}\\.part)?");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path dir;
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+    private final Counter evictionCounter;
+    private final Counter bytesSavedCounter;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ExportArtifactCache(JdbcTemplate jdbcTemplate,
+                               @Value("${app.exports.cache.dir:${java.io.tmpdir}/survey-exports/cache}") String dir,
+                               @Value("${app.exports.cache.max-bytes:1073741824}") long maxBytes,
+                               MeterRegistry meterRegistry) {
+        this(jdbcTemplate, Paths.get(dir), maxBytes, meterRegistry);
+    }
+
+    ExportArtifactCache(JdbcTemplate jdbcTemplate, Path dir, long maxBytes, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dir = dir;
+        this.maxBytes = Math.max(0, maxBytes);
+        this.meterRegistry = meterRegistry;
+        this.evictionCounter = meterRegistry.counter("export.cache.evictions");
+        this.bytesSavedCounter = Counter.builder("export.cache.bytes.saved")
+                .description("Bytes de exportação não gerados de novo (acertos) ou não enviados (304)")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        prepareDirectory();
+        Gauge.builder("export.cache.size.bytes", this, ExportArtifactCache::sizeBytes)
+                .description("Bytes de exportações no cache em disco")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("export.cache.entries", this, ExportArtifactCache::entryCount)
+                .description("Arquivos de exportação no cache em disco")
+                .register(meterRegistry);
+        Gauge.builder("export.cache.hit.ratio", this, ExportArtifactCache::hitRatio)
+                .description("Fração das exportações servidas do cache ou com 304 desde a subida")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lê a versão atual dos dados e monta o endereço do arquivo; barato perto de gerar a exportação.
+     *
+     * @param dataset conjunto das linhas cruas; {@code null} no XLSX
+     * @throws ResourceNotFoundException quando a pesquisa não existe (ou está removida sem {@code includeDeleted})
+     */
+    public Artifact resolve(Long surveyId, ExportFormat format, Dataset dataset, boolean includeDeleted) {
+        List<String> version = jdbcTemplate.query(VERSION_SQL, (resultSet, rowNum) -> version(resultSet), surveyId);
+        if (version.isEmpty() || (!includeDeleted && version.get(0).startsWith("deleted"))) {
+            throw new ResourceNotFoundException("Pesquisa não encontrada com id: " + surveyId);
+        }
+        String key = surveyId + "|" + format.name() + "|" + (dataset == null ? "" : dataset.name()) + "|"
+                + includeDeleted + "|" + version.get(0);
+        return new Artifact(hash(key), format);
+    }
+
+    /**
+     * Registra uma resposta 304: o cliente já tem esta versão.
+     */
+    public void notModified(Artifact artifact) {
+        lookups.incrementAndGet();
+        hits.incrementAndGet();
+        count(artifact, "not_modified");
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(artifact.id());
+        }
+        if (entry != null) {
+            bytesSavedCounter.increment(entry.sizeBytes());
+        }
+    }
+
+    /**
+     * Abre o arquivo em cache, se houver. O arquivo é aberto sob o lock do índice, então um descarte concorrente não
+     * o tira de quem já o abriu; quem recebe o stream deve fechá-lo.
+     */
+    public Optional<CachedFile> open(Artifact artifact) throws IOException {
+        lookups.incrementAndGet();
+        synchronized (entries) {
+            Entry entry = entries.get(artifact.id());
+            if (entry != null) {
+                try {
+                    InputStream stream = Files.newInputStream(entry.path());
+                    hits.incrementAndGet();
+                    count(artifact, "hit");
+                    bytesSavedCounter.increment(entry.sizeBytes());
+                    return Optional.of(new CachedFile(stream, entry.sizeBytes()));
+                } catch (NoSuchFileException e) {
+                    // Apagado por fora: vale como falta
+                    remove(artifact.id());
+                }
+            }
+        }
+        count(artifact, "miss");
+        return Optional.empty();
+    }
+
+    /**
+     * Gera o arquivo em {@code out} (sem fechá-lo) e guarda uma cópia no cache quando a geração termina sem erro.
+     */
+    public void write(Artifact artifact, OutputStream out, ArtifactWriter writer) throws IOException {
+        if (maxBytes == 0) {
+            writer.write(out);
+            return;
+        }
+        Path target = dir.resolve(artifact.id() + "." + artifact.format().extension());
+        Path part = dir.resolve(target.getFileName() + "." + UUID.randomUUID() + ".part");
+        long size;
+        try (OutputStream file = Files.newOutputStream(part)) {
+            TeeOutputStream tee = new TeeOutputStream(out, file);
+            writer.write(tee);
+            tee.flush();
+            size = tee.written;
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(part);
+            throw e;
+        }
+        if (size > maxBytes) {
+            deleteQuietly(part);
+            return;
+        }
+        synchronized (entries) {
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Entry previous = entries.put(artifact.id(), new Entry(target, size));
+            totalBytes += size - (previous == null ? 0 : previous.sizeBytes());
+            evict();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Entry entry = eldest.next().getValue();
+            eldest.remove();
+            totalBytes -= entry.sizeBytes();
+            deleteQuietly(entry.path());
+            evictionCounter.increment();
+        }
+    }
+
+    private void remove(String id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            totalBytes -= entry.sizeBytes();
+        }
+    }
+
+    /**
+     * Valores da linha numa string só; {@code deleted} na frente quando a pesquisa está removida.
+     */
+    private static String version(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metadata = resultSet.getMetaData();
+        StringBuilder version = new StringBuilder(resultSet.getString(2) == null ? "live" : "deleted");
+        for (int i = 1; i <= metadata.getColumnCount(); i++) {
+            version.append('|').append(resultSet.getString(i));
+        }
+        return version.toString();
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private void count(Artifact artifact, String result) {
+        meterRegistry.counter("export.cache", "format", artifact.format().name().toLowerCase(Locale.ROOT),
+                "result", result).increment();
+    }
+
+    private void prepareDirectory() {
+        try {
+            Files.createDirectories(dir);
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(dir, path -> Files.isRegularFile(path)
+                    && CACHE_FILE.matcher(path.getFileName().toString()).matches())) {
+                for (Path leftover : leftovers) {
+                    deleteQuietly(leftover);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível preparar o cache de exportações " + dir, e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete cached export {}", path, e);
+        }
+    }
+
+    private double sizeBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    private double entryCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private double hitRatio() {
+        long total = lookups.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    /**
+     * Escreve ao mesmo tempo na resposta e no arquivo do cache.
+     */
+    private static final class TeeOutputStream extends FilterOutputStream {
+
+        private final OutputStream copy;
+        private long written;
+
+        private TeeOutputStream(OutputStream out, OutputStream copy) {
+            super(out);
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            copy.write(b);
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            copy.write(b, off, len);
+            written += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+            copy.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // A resposta é fechada por quem a abriu; o arquivo, pelo cache
+            flush();
+        }
+    }
+
+    private record Entry(Path path, long sizeBytes) {
+    }
+
+    @FunctionalInterface
+    public interface ArtifactWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Endereço de uma exportação numa versão dos dados.
+     *
+     * @param id hash hexadecimal da chave com a versão; nome do arquivo no cache
+     */
+    public record Artifact(String id, ExportFormat format) {
+
+        /**
+         * ETag forte, já entre aspas: muda com a versão dos dados, não com a geração do arquivo.
+         */
+        public String etag() {
+            return "\"" + id + "\"";
+        }
+    }
+
+    /**
+     * Arquivo aberto para leitura; quem recebe fecha o stream.
+     */
+    public record CachedFile(InputStream stream, long sizeBytes) {
+    }
+}
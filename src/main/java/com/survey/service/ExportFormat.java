@@ -0,0 +1,46 @@
+package com.survey.service;
+
+import com.survey.exception.BusinessException;
+
+import java.util.Locale;
+
+/**
+ * Formatos de arquivo das exportações. CSV e NDJSON trazem só as linhas cruas, escritas por {@link RawRowWriter};
+ * Parquet traz as mesmas linhas em colunas, escritas por {@link ParquetStreamWriter}.
+ */
+public enum ExportFormat {
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+    CSV("csv", "text/csv;charset=UTF-8"),
+    NDJSON("ndjson", "application/x-ndjson"),
+    PARQUET("parquet", "application/vnd.apache.parquet");
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * Aceita o nome do formato sem diferenciar maiúsculas; ausente vale XLSX.
+     */
+    public static ExportFormat parse(String value) {
+        if (value == null || value.isBlank()) {
+            return XLSX;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Formato de exportação inválido: " + value);
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.survey.service;
+
+import com.survey.dto.ExportJobResponse;
+import com.survey.dto.ExportJobResponse.Status;
+import com.survey.exception.BusinessException;
+import com.survey.exception.ResourceNotFoundException;
+import com.survey.exception.ServiceOverloadedException;
+import com.survey.repository.ResponseSessionRepository;
+import com.survey.repository.SurveyRepository;
+import com.survey.service.SurveyRawExportService.Dataset;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Exportações assíncronas: {@link #submit} enfileira o job num executor limitado ({@code app.exports.jobs.threads}
+ * threads e {@code queue-capacity} posições; cheio, responde 503 com Retry-After) e devolve o id para consulta.
+ * Pedidos iguais (pesquisa, formato, conjunto e includeDeleted) enquanto um job está na fila ou rodando recebem o
+ * mesmo job. XLSX gera a planilha completa; CSV, NDJSON e Parquet, as sessões ou votos crus de
+ * {@link SurveyRawExportService}.
+ *
+ * O arquivo é escrito em {@code app.exports.storage-dir} num {@code .part} renomeado ao terminar, então só
+ * arquivos completos são servidos. Jobs terminados (com sucesso ou não) e seus arquivos expiram após
+ * {@code ttl-minutes} e são removidos pela limpeza periódica. O estado dos jobs fica em memória nesta instância:
+ * arquivos de execuções anteriores são apagados na subida.
+ */
+@Component
+public class ExportJobService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportJobService.class);
+    private static final Pattern JOB_FILE = Pattern.compile("[0-9a-f-]{36}\\.[a-z.]+");
+
+    private final SurveyExportService exportService;
+    private final SurveyRawExportService rawExportService;
+    private final SurveyRepository surveyRepository;
+    private final ResponseSessionRepository responseSessionRepository;
+    private final Clock clock;
+    private final Path storageDir;
+    private final Duration ttl;
+    private final int retryAfterSeconds;
+    private final Executor executor;
+    private final ConcurrentMap<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<JobKey, Job> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ExportJobService(SurveyExportService exportService,
+                            SurveyRawExportService rawExportService,
+                            SurveyRepository surveyRepository,
+                            ResponseSessionRepository responseSessionRepository,
+                            Clock clock,
+                            @Value("${app.exports.storage-dir:${java.io.tmpdir}/survey-exports}") String storageDir,
+                            @Value("${app.exports.jobs.threads:2}") int threads,
+                            @Value("${app.exports.jobs.queue-capacity:20}") int queueCapacity,
+                            @Value("${app.exports.jobs.ttl-minutes:60}") long ttlMinutes,
+                            @Value("${app.exports.jobs.retry-after-seconds:30}") int retryAfterSeconds,
+                            MeterRegistry meterRegistry) {
+        this(exportService, rawExportService, surveyRepository, responseSessionRepository, clock, Paths.get(storageDir),
+                newExecutor(threads, queueCapacity), Duration.ofMinutes(Math.max(1, ttlMinutes)), retryAfterSeconds,
+                meterRegistry);
+    }
+
+    ExportJobService(SurveyExportService exportService,
+                     SurveyRawExportService rawExportService,
+                     SurveyRepository surveyRepository,
+                     ResponseSessionRepository responseSessionRepository,
+                     Clock clock,
+                     Path storageDir,
+                     Executor executor,
+                     Duration ttl,
+                     int retryAfterSeconds,
+                     MeterRegistry meterRegistry) {
+        this.exportService = exportService;
+        this.rawExportService = rawExportService;
+        this.surveyRepository = surveyRepository;
+        this.responseSessionRepository = responseSessionRepository;
+        this.clock = clock;
+        this.storageDir = storageDir;
+        this.executor = executor;
+        this.ttl = ttl;
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+        this.meterRegistry = meterRegistry;
+        prepareStorage();
+        Gauge.builder("export.jobs.queued", this, service -> service.countByStatus(Status.QUEUED))
+                .description("Jobs de exportação aguardando thread")
+                .register(meterRegistry);
+        Gauge.builder("export.jobs.running", this, service -> service.countByStatus(Status.RUNNING))
+                .description("Jobs de exportação em execução")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enfileira a exportação ou devolve o job igual ainda em andamento.
+     *
+     * @throws ResourceNotFoundException quando a pesquisa não existe
+     * @throws ServiceOverloadedException quando a fila de exportações está cheia
+     */
+    public ExportJobResponse submit(Long surveyId, String format, boolean includeDeleted) {
+        return submit(surveyId, format, null, includeDeleted);
+    }
+
+    /**
+     * Como {@link #submit(Long, String, boolean)}, escolhendo o conjunto das linhas cruas (sessões ou votos); o XLSX
+     * ignora {@code dataset}.
+     */
+    public ExportJobResponse submit(Long surveyId, String format, String dataset, boolean includeDeleted) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        Dataset rawDataset = exportFormat == ExportFormat.XLSX ? null : Dataset.parse(dataset);
+        boolean exists = includeDeleted
+                ? surveyRepository.findByIdIncludingDeleted(surveyId).isPresent()
+                : surveyRepository.existsById(surveyId);
+        if (!exists) {
+            throw new ResourceNotFoundException("Pesquisa não encontrada com id: " + surveyId);
+        }
+
+        JobKey key = new JobKey(surveyId, exportFormat, rawDataset, includeDeleted);
+        Job job = new Job(UUID.randomUUID().toString(), key, clock.instant());
+        Job existing = inFlight.putIfAbsent(key, job);
+        if (existing != null) {
+            count("deduplicated");
+            return toResponse(existing);
+        }
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            // Quem já recebeu este job por deduplicação passa a vê-lo como falho
+            job.fail("Fila de exportações cheia", clock.instant().plus(ttl), clock.instant());
+            inFlight.remove(key, job);
+            count("rejected");
+            throw new ServiceOverloadedException("Fila de exportações cheia; tente novamente em instantes",
+                    retryAfterSeconds);
+        }
+        return toResponse(job);
+    }
+
+    /**
+     * @throws ResourceNotFoundException quando o job não existe ou já expirou
+     */
+    public ExportJobResponse get(String jobId) {
+        return toResponse(find(jobId));
+    }
+
+    /**
+     * Arquivo de um job concluído.
+     *
+     * @throws ResourceNotFoundException quando o job não existe ou já expirou
+     * @throws BusinessException quando o job ainda não terminou ou falhou
+     */
+    public ExportFile file(String jobId) {
+        Job job = find(jobId);
+        if (job.status != Status.COMPLETED) {
+            throw new BusinessException("Exportação ainda não disponível: " + job.status);
+        }
+        JobKey key = job.key;
+        String name = key.dataset() == null
+                ? "survey-" + key.surveyId()
+                : "survey-" + key.surveyId() + "-" + key.dataset().name().toLowerCase(Locale.ROOT);
+        return new ExportFile(job.file, name + "." + key.format().extension(), key.format().contentType(),
+                job.sizeBytes);
+    }
+
+    /**
+     * Remove jobs terminados há mais de {@code ttl-minutes} e os respectivos arquivos.
+     */
+    @Scheduled(fixedDelayString = "${app.exports.jobs.cleanup-interval-ms:60000}",
+            initialDelayString = "${app.exports.jobs.cleanup-interval-ms:60000}")
+    public void purgeExpired() {
+        Instant now = clock.instant();
+        for (Job job : jobs.values()) {
+            if (job.isExpired(now) && jobs.remove(job.id, job)) {
+                deleteQuietly(job.file);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    private void run(Job job) {
+        JobKey key = job.key;
+        Path target = storageDir.resolve(job.id + "." + key.format().extension());
+        Path part = storageDir.resolve(target.getFileName() + ".part");
+        job.start(clock.instant());
+        long startNanos = System.nanoTime();
+        String result = "failed";
+        try {
+            write(job, part);
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            job.complete(target, Files.size(target), clock.instant().plus(ttl), clock.instant());
+            result = "completed";
+        } catch (Exception e) {
+            LOGGER.warn("Export job {} for survey {} failed", job.id, key.surveyId(), e);
+            deleteQuietly(part);
+            job.fail(e instanceof ResourceNotFoundException ? e.getMessage() : "Falha ao gerar a exportação",
+                    clock.instant().plus(ttl), clock.instant());
+        } finally {
+            inFlight.remove(key, job);
+            count(result);
+            Timer.builder("export.jobs.duration")
+                    .description("Tempo de execução dos jobs de exportação")
+                    .tag("format", key.format().name().toLowerCase())
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void write(Job job, Path part) throws IOException {
+        JobKey key = job.key;
+        if (key.format() == ExportFormat.XLSX) {
+            SurveyExportService.XlsxExport export = exportService.prepareXlsx(key.surveyId(), key.includeDeleted());
+            job.totalRows = responseSessionRepository.countBySurveyId(key.surveyId());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part))) {
+                exportService.writeXlsx(export, out, rows -> job.rowsWritten = rows);
+            }
+            return;
+        }
+        rawExportService.checkSurvey(key.surveyId(), key.includeDeleted());
+        job.totalRows = rawExportService.count(key.surveyId(), key.dataset());
+        try (OutputStream out = Files.newOutputStream(part)) {
+            rawExportService.write(key.surveyId(), key.dataset(), key.format(), out, rows -> job.rowsWritten = rows);
+        }
+    }
+
+    private Job find(String jobId) {
+        Job job = jobId == null ? null : jobs.get(jobId);
+        if (job == null || job.isExpired(clock.instant())) {
+            throw new ResourceNotFoundException("Exportação não encontrada: " + jobId);
+        }
+        return job;
+    }
+
+    private ExportJobResponse toResponse(Job job) {
+        Status status = job.status;
+        long rows = job.rowsWritten;
+        long total = job.totalRows;
+        double progress = status == Status.COMPLETED ? 1.0
+                : total <= 0 ? 0.0 : Math.min(1.0, (double) rows / total);
+        JobKey key = job.key;
+        return new ExportJobResponse(job.id, key.surveyId(), key.format().name(),
+                key.dataset() == null ? null : key.dataset().name(), key.includeDeleted(), status,
+                progress, rows, total, job.sizeBytes, job.createdAt, job.startedAt, job.finishedAt, job.expiresAt,
+                status == Status.COMPLETED ? "/api/exports/" + job.id + "/file" : null, job.error);
+    }
+
+    private double countByStatus(Status status) {
+        return jobs.values().stream().filter(job -> job.status == status).count();
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("export.jobs", "result", result).increment();
+    }
+
+    private void prepareStorage() {
+        try {
+            Files.createDirectories(storageDir);
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(storageDir,
+                    path -> JOB_FILE.matcher(path.getFileName().toString()).matches())) {
+                for (Path leftover : leftovers) {
+                    deleteQuietly(leftover);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível preparar o diretório de exportações " + storageDir, e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete export file {}", path, e);
+        }
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads, int queueCapacity) {
+        AtomicInteger sequence = new AtomicInteger();
+        int size = Math.max(1, threads);
+        return new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+            Thread thread = new Thread(runnable, "export-job-" + sequence.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private record JobKey(Long surveyId, ExportFormat format, Dataset dataset, boolean includeDeleted) {
+    }
+
+    /**
+     * Estado mutável de um job; escrito só pela thread do job e lido pelas consultas de status.
+     */
+    private static final class Job {
+        private final String id;
+        private final JobKey key;
+        private final Instant createdAt;
+        private volatile Status status = Status.QUEUED;
+        private volatile long rowsWritten;
+        private volatile long totalRows;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile Instant expiresAt;
+        private volatile Path file;
+        private volatile Long sizeBytes;
+        private volatile String error;
+
+        private Job(String id, JobKey key, Instant createdAt) {
+            this.id = id;
+            this.key = key;
+            this.createdAt = createdAt;
+        }
+
+        private void start(Instant now) {
+            startedAt = now;
+            status = Status.RUNNING;
+        }
+
+        private void complete(Path file, long sizeBytes, Instant expiresAt, Instant now) {
+            this.file = file;
+            this.sizeBytes = sizeBytes;
+            this.expiresAt = expiresAt;
+            this.finishedAt = now;
+            this.status = Status.COMPLETED;
+        }
+
+        private void fail(String error, Instant expiresAt, Instant now) {
+            this.error = error;
+            this.expiresAt = expiresAt;
+            this.finishedAt = now;
+            this.status = Status.FAILED;
+        }
+
+        private boolean isExpired(Instant now) {
+            Instant expiry = expiresAt;
+            return expiry != null && !expiry.isAfter(now);
+        }
+    }
+
+    /**
+     * Arquivo pronto para download, com o nome sugerido ao cliente.
+     */
+    public record ExportFile(Path path, String fileName, String contentType, long sizeBytes) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.survey.service;
+
+/**
+ * Sketch HyperLogLog para estimar respondentes distintos sem guardar os valores: 2^{@value #PRECISION}
+ * registradores com o maior "rank" visto de um hash de 64 bits, erro padrão relativo de
+ * {@link #RELATIVE_STANDARD_ERROR} (~1,6%). Abaixo de 2,5 × registradores usa contagem linear, praticamente exata
+ * para poucas dezenas de valores.
+ *
+ * A união é o máximo por registrador: sketches de dias diferentes se combinam em qualquer intervalo, e somar de
+ * novo um valor já visto não muda nada, o que deixa o recálculo de uma hora do agregado idempotente.
+ *
+ * Serialização compacta: cabeçalho (formato, precisão) seguido dos registradores empacotados em 6 bits ou, com
+ * poucos registradores preenchidos, de pares (índice, rank) de 3 bytes. Não é thread-safe.
+ */
+public final class HyperLogLog {
+
+    public static final int PRECISION = 12;
+    public static final double RELATIVE_STANDARD_ERROR = 1.04 / Math.sqrt(1 << PRECISION);
+
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final int DENSE_BYTES = REGISTERS * 6 / 8;
+    private static final byte DENSE = 1;
+    private static final byte SPARSE = 2;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    /**
+     * Lê um sketch gravado por {@link #toBytes()}.
+     *
+     * @throws IllegalArgumentException quando o formato ou a precisão não são reconhecidos
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length < 2 || bytes[1] != PRECISION) {
+            throw new IllegalArgumentException("Sketch HyperLogLog inválido");
+        }
+        HyperLogLog sketch = new HyperLogLog();
+        if (bytes[0] == DENSE && bytes.length == 2 + DENSE_BYTES) {
+            for (int i = 0; i < REGISTERS; i++) {
+                sketch.registers[i] = (byte) readSixBits(bytes, 2, i);
+            }
+        } else if (bytes[0] == SPARSE && (bytes.length - 2) % 3 == 0) {
+            for (int offset = 2; offset < bytes.length; offset += 3) {
+                int index = ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+                if (index >= REGISTERS) {
+                    throw new IllegalArgumentException("Sketch HyperLogLog inválido");
+                }
+                sketch.registers[index] = bytes[offset + 2];
+            }
+        } else {
+            throw new IllegalArgumentException("Sketch HyperLogLog inválido");
+        }
+        return sketch;
+    }
+
+    public void add(String value) {
+        addHash(hash(value));
+    }
+
+    void addHash(long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Bit sentinela limita o rank a 64 - PRECISION + 1 mesmo com o restante do hash zerado
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public byte[] toBytes() {
+        int filled = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                filled++;
+            }
+        }
+        if (filled * 3 < DENSE_BYTES) {
+            byte[] bytes = new byte[2 + filled * 3];
+            bytes[0] = SPARSE;
+            bytes[1] = PRECISION;
+            int offset = 2;
+            for (int i = 0; i < REGISTERS; i++) {
+                if (registers[i] != 0) {
+                    bytes[offset] = (byte) (i >>> 8);
+                    bytes[offset + 1] = (byte) i;
+                    bytes[offset + 2] = registers[i];
+                    offset += 3;
+                }
+            }
+            return bytes;
+        }
+        byte[] bytes = new byte[2 + DENSE_BYTES];
+        bytes[0] = DENSE;
+        bytes[1] = PRECISION;
+        for (int i = 0; i < REGISTERS; i++) {
+            writeSixBits(bytes, 2, i, registers[i]);
+        }
+        return bytes;
+    }
+
+    /**
+     * FNV-1a de 64 bits sobre os chars (sem alocar o UTF-8), seguido do finalizador do MurmurHash3 para espalhar
+     * os bits altos que escolhem o registrador. Faz parte do formato gravado: mudar o hash invalida os sketches.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static int readSixBits(byte[] bytes, int base, int index) {
+        int bit = index * 6;
+        int offset = base + (bit >>> 3);
+        int word = (bytes[offset] & 0xFF) << 8;
+        if (offset + 1 < bytes.length) {
+            word |= bytes[offset + 1] & 0xFF;
+        }
+        return (word >>> (10 - (bit & 7))) & 0x3F;
+    }
+
+    private static void writeSixBits(byte[] bytes, int base, int index, int value) {
+        int bit = index * 6;
+        int offset = base + (bit >>> 3);
+        int shift = 10 - (bit & 7);
+        int word = value << shift;
+        bytes[offset] |= (byte) (word >>> 8);
+        if (offset + 1 < bytes.length) {
+            bytes[offset + 1] |= (byte) word;
+        }
+    }
+}
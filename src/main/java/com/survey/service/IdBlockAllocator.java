@@ -0,0 +1,75 @@
+package com.survey.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reserva faixas de IDs na tabela {@code id_generators}, a mesma usada pelos {@code @TableGenerator} de
+ * {@link com.survey.entity.Vote} e {@link com.survey.entity.ResponseSession}. A semântica é a do otimizador
+ * pooled-lo do Hibernate: {@code next_val} é o primeiro ID livre, então JPA e JDBC nunca geram IDs repetidos.
+ *
+ * Cada reserva roda numa transação própria (o lock da linha não fica preso à transação dos votos) e pega ao menos
+ * {@code block-size} IDs, que são consumidos em memória pelas gravações seguintes.
+ */
+@Component
+public class IdBlockAllocator {
+
+    public static final String VOTES = "votes";
+    public static final String RESPONSE_SESSIONS = "response_sessions";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNewTemplate;
+    private final int blockSize;
+    private final Map<String, Block> blocks = new HashMap<>();
+
+    public IdBlockAllocator(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.ids.block-size:500}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNewTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    /**
+     * @return o primeiro de {@code count} IDs consecutivos reservados para {@code sequence}
+     */
+    public synchronized long allocate(String sequence, int count) {
+        Block block = blocks.get(sequence);
+        if (block == null || block.end - block.next < count) {
+            long size = Math.max(count, blockSize);
+            long start = reserve(sequence, size);
+            block = new Block(start, start + size);
+            blocks.put(sequence, block);
+        }
+        long first = block.next;
+        block.next += count;
+        return first;
+    }
+
+    private long reserve(String sequence, long size) {
+        return requiresNewTemplate.execute(status -> {
+            Long current = jdbcTemplate.queryForObject(
+                    "SELECT next_val FROM id_generators WHERE name = ? FOR UPDATE", Long.class, sequence);
+            jdbcTemplate.update("UPDATE id_generators SET next_val = ? WHERE name = ?", current + size, sequence);
+            return current;
+        });
+    }
+
+    private static final class Block {
+        private long next;
+        private final long end;
+
+        private Block(long next, long end) {
+            this.next = next;
+            this.end = end;
+        }
+    }
+}
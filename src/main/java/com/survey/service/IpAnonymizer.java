@@ -0,0 +1,313 @@
+package com.survey.service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * Anonimização de endereços IP sem regex e sem {@link java.net.InetAddress} (que resolveria nomes via DNS).
+ *
+ * O texto é convertido byte a byte para os 4 ou 16 bytes do endereço num buffer reaproveitado por thread;
+ * a máscara zera os bits após o prefixo configurado e o resultado é formatado na forma canônica (RFC 5952 no
+ * IPv6). IPv4 mapeado em IPv6 ({@code ::ffff:a.b.c.d}) é tratado como IPv4. O modo HMAC usa um {@link Mac}
+ * por thread, inicializado uma única vez com a chave. Por chamada, a única alocação é a String de retorno.
+ */
+public final class IpAnonymizer {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final int ipv4PrefixBits;
+    private final int ipv6PrefixBits;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private final ThreadLocal<Mac> mac;
+
+    public IpAnonymizer(int ipv4PrefixBits, int ipv6PrefixBits, String hmacKey) {
+        this.ipv4PrefixBits = Math.max(0, Math.min(32, ipv4PrefixBits));
+        this.ipv6PrefixBits = Math.max(0, Math.min(128, ipv6PrefixBits));
+        SecretKeySpec key = new SecretKeySpec(hmacKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC indisponível para anonimização de IP", e);
+            }
+        });
+    }
+
+    /**
+     * Zera os bits do endereço após o prefixo (/24 no IPv4 e /48 no IPv6 por padrão).
+     *
+     * @return endereço mascarado em forma canônica, ou {@code null} se o texto não for um IP literal
+     */
+    public String mask(String ip) {
+        Scratch buffers = scratch.get();
+        int length = parse(ip, buffers.address);
+        if (length == 0) {
+            return null;
+        }
+        StringBuilder out = buffers.text;
+        out.setLength(0);
+        if (length == 4) {
+            applyMask(buffers.address, 12, 4, ipv4PrefixBits);
+            formatIpv4(buffers.address, 12, out);
+        } else {
+            applyMask(buffers.address, 0, 16, ipv6PrefixBits);
+            formatIpv6(buffers.address, out);
+        }
+        return out.toString();
+    }
+
+    /**
+     * HMAC-SHA256 do endereço (bytes, não o texto: formas diferentes do mesmo IP geram o mesmo valor).
+     *
+     * @return {@code prefix} + 16 caracteres hex (64 bits), ou {@code null} se o texto não for um IP literal
+     */
+    public String hmac(String ip, String prefix) {
+        Scratch buffers = scratch.get();
+        int length = parse(ip, buffers.address);
+        if (length == 0) {
+            return null;
+        }
+        Mac instance = mac.get();
+        instance.update(buffers.address, 16 - length, length);
+        try {
+            instance.doFinal(buffers.digest, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Falha ao calcular HMAC do IP", e);
+        }
+        StringBuilder out = buffers.text;
+        out.setLength(0);
+        out.append(prefix);
+        for (int i = 0; i < 8; i++) {
+            int b = buffers.digest[i] & 0xff;
+            out.append(HEX[b >>> 4]).append(HEX[b & 0x0f]);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Converte o texto para bytes em {@code address}: IPv4 ocupa os bytes 12-15.
+     *
+     * @return 4 (IPv4), 16 (IPv6) ou 0 quando inválido
+     */
+    static int parse(String ip, byte[] address) {
+        if (ip == null) {
+            return 0;
+        }
+        int start = 0;
+        int end = ip.length();
+        while (start < end && ip.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && ip.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start >= 2 && ip.charAt(start) == '[' && ip.charAt(end - 1) == ']') {
+            start++;
+            end--;
+        }
+        int zone = ip.indexOf('%', start);
+        if (zone >= 0 && zone < end) {
+            end = zone;
+        }
+        if (start >= end) {
+            return 0;
+        }
+        if (ip.indexOf(':', start) < 0 || ip.indexOf(':', start) >= end) {
+            return parseIpv4(ip, start, end, address, 12) ? 4 : 0;
+        }
+        if (!parseIpv6(ip, start, end, address)) {
+            return 0;
+        }
+        return isIpv4Mapped(address) ? 4 : 16;
+    }
+
+    private static boolean parseIpv4(String ip, int start, int end, byte[] out, int offset) {
+        int octets = 0;
+        int value = 0;
+        int digits = 0;
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? ip.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                if (++digits > 3 || value > 255) {
+                    return false;
+                }
+            } else if (c == '.') {
+                if (digits == 0 || octets == 4) {
+                    return false;
+                }
+                out[offset + octets++] = (byte) value;
+                value = 0;
+                digits = 0;
+            } else {
+                return false;
+            }
+        }
+        return octets == 4;
+    }
+
+    private static boolean parseIpv6(String ip, int start, int end, byte[] out) {
+        int position = 0;
+        int compressAt = -1;
+        int i = start;
+        if (ip.charAt(i) == ':') {
+            if (i + 1 >= end || ip.charAt(i + 1) != ':') {
+                return false;
+            }
+            compressAt = 0;
+            i += 2;
+        }
+        while (i < end) {
+            if (position >= 16) {
+                return false;
+            }
+            int groupStart = i;
+            int value = 0;
+            int digits = 0;
+            int hex;
+            while (i < end && (hex = hexValue(ip.charAt(i))) >= 0) {
+                if (++digits > 4) {
+                    return false;
+                }
+                value = (value << 4) | hex;
+                i++;
+            }
+            if (i < end && ip.charAt(i) == '.') {
+                if (position > 12 || !parseIpv4(ip, groupStart, end, out, position)) {
+                    return false;
+                }
+                position += 4;
+                break;
+            }
+            if (digits == 0) {
+                return false;
+            }
+            out[position++] = (byte) (value >>> 8);
+            out[position++] = (byte) value;
+            if (i == end) {
+                break;
+            }
+            if (ip.charAt(i) != ':' || ++i == end) {
+                return false;
+            }
+            if (ip.charAt(i) == ':') {
+                if (compressAt >= 0) {
+                    return false;
+                }
+                compressAt = position;
+                i++;
+            }
+        }
+        if (compressAt >= 0) {
+            int tail = position - compressAt;
+            if (position == 16) {
+                return false;
+            }
+            System.arraycopy(out, compressAt, out, 16 - tail, tail);
+            for (int j = compressAt; j < 16 - tail; j++) {
+                out[j] = 0;
+            }
+            return true;
+        }
+        return position == 16;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static boolean isIpv4Mapped(byte[] address) {
+        for (int i = 0; i < 10; i++) {
+            if (address[i] != 0) {
+                return false;
+            }
+        }
+        return address[10] == (byte) 0xff && address[11] == (byte) 0xff;
+    }
+
+    private static void applyMask(byte[] address, int offset, int length, int prefixBits) {
+        for (int i = 0; i < length; i++) {
+            int bitsKept = prefixBits - i * 8;
+            if (bitsKept <= 0) {
+                address[offset + i] = 0;
+            } else if (bitsKept < 8) {
+                address[offset + i] &= (byte) (0xff << (8 - bitsKept));
+            }
+        }
+    }
+
+    private static void formatIpv4(byte[] address, int offset, StringBuilder out) {
+        for (int i = 0; i < 4; i++) {
+            if (i > 0) {
+                out.append('.');
+            }
+            out.append(address[offset + i] & 0xff);
+        }
+    }
+
+    private static void formatIpv6(byte[] address, StringBuilder out) {
+        // Maior sequência (mínimo 2) de grupos zerados vira "::"; em empate, a primeira
+        int bestStart = -1;
+        int bestLength = 1;
+        for (int group = 0; group < 8; ) {
+            if (group(address, group) != 0) {
+                group++;
+                continue;
+            }
+            int runStart = group;
+            while (group < 8 && group(address, group) == 0) {
+                group++;
+            }
+            if (group - runStart > bestLength) {
+                bestStart = runStart;
+                bestLength = group - runStart;
+            }
+        }
+        for (int group = 0; group < 8; group++) {
+            if (group == bestStart) {
+                out.append("::");
+                group += bestLength - 1;
+                continue;
+            }
+            if (group > 0 && group != bestStart + bestLength) {
+                out.append(':');
+            }
+            appendHex(out, group(address, group));
+        }
+    }
+
+    private static int group(byte[] address, int group) {
+        return ((address[group * 2] & 0xff) << 8) | (address[group * 2 + 1] & 0xff);
+    }
+
+    private static void appendHex(StringBuilder out, int value) {
+        boolean started = false;
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            int nibble = (value >>> shift) & 0x0f;
+            if (nibble != 0 || started || shift == 0) {
+                out.append(HEX[nibble]);
+                started = true;
+            }
+        }
+    }
+
+    private static final class Scratch {
+        private final byte[] address = new byte[16];
+        private final byte[] digest = new byte[32];
+        private final StringBuilder text = new StringBuilder(48);
+    }
+}
@@ -36,20 +36,29 @@ public class OptionService {
 
     private final OptionRepository optionRepository;
     private final QuestionRepository questionRepository;
+    private final SurveyStructureCache structureCache;
+    private final VoteTallyStore tallyStore;
     private final Counter optionCreatedCounter;
     private final Counter optionUpdatedCounter;
     private final Counter optionDeletedCounter;
 
-    public OptionService(OptionRepository optionRepository, QuestionRepository questionRepository) {
-        this(optionRepository, questionRepository, Metrics.globalRegistry);
+    public OptionService(OptionRepository optionRepository,
+                         QuestionRepository questionRepository,
+                         SurveyStructureCache structureCache,
+                         VoteTallyStore tallyStore) {
+        this(optionRepository, questionRepository, structureCache, tallyStore, Metrics.globalRegistry);
     }
 
     @Autowired
     public OptionService(OptionRepository optionRepository,
                          QuestionRepository questionRepository,
+                         SurveyStructureCache structureCache,
+                         VoteTallyStore tallyStore,
                          MeterRegistry meterRegistry) {
         this.optionRepository = optionRepository;
         this.questionRepository = questionRepository;
+        this.structureCache = structureCache;
+        this.tallyStore = tallyStore;
         this.optionCreatedCounter = meterRegistry.counter("option.operations", "type", "create");
         this.optionUpdatedCounter = meterRegistry.counter("option.operations", "type", "update");
         this.optionDeletedCounter = meterRegistry.counter("option.operations", "type", "delete");
@@ -89,6 +98,8 @@ public class OptionService {
 
         Option option = convertToEntity(requestDTO, question);
         Option savedOption = optionRepository.save(option);
+        structureCache.invalidate(question.getSurvey().getId());
+        tallyStore.evict(question.getSurvey().getId());
         optionCreatedCounter.increment();
         LOGGER.info("Option created {} {}",
                 StructuredArguments.kv("optionId", savedOption.getId()),
@@ -112,11 +123,16 @@ public class OptionService {
             }
         }
 
+        Long previousSurveyId = option.getQuestion().getSurvey().getId();
         option.setTexto(requestDTO.getTexto());
         option.setAtivo(requestDTO.getAtivo());
         option.setQuestion(question);
 
         Option updatedOption = optionRepository.save(option);
+        structureCache.invalidate(previousSurveyId);
+        tallyStore.evict(previousSurveyId);
+        structureCache.invalidate(question.getSurvey().getId());
+        tallyStore.evict(question.getSurvey().getId());
         optionUpdatedCounter.increment();
         LOGGER.info("Option updated {} {}",
                 StructuredArguments.kv("optionId", updatedOption.getId()),
@@ -167,6 +183,8 @@ public class OptionService {
                 .collect(Collectors.toList());
 
         List<Option> savedOptions = optionRepository.saveAll(options);
+        structureCache.invalidate(question.getSurvey().getId());
+        tallyStore.evict(question.getSurvey().getId());
 
         return savedOptions.stream()
                 .map(this::convertToDTO)
@@ -180,6 +198,8 @@ public class OptionService {
         option.setAtivo(false);
         option.setDeletedAt(LocalDateTime.now());
         optionRepository.save(option);
+        structureCache.invalidate(option.getQuestion().getSurvey().getId());
+        tallyStore.evict(option.getQuestion().getSurvey().getId());
 
         optionDeletedCounter.increment();
         LOGGER.info("Option soft-deleted {}", StructuredArguments.kv("optionId", id));
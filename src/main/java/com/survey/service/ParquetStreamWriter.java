@@ -0,0 +1,505 @@
+package com.survey.service;
+
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnWriteStore;
+import org.apache.parquet.column.ColumnWriter;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.column.impl.ColumnWriteStoreV1;
+import org.apache.parquet.column.page.DictionaryPage;
+import org.apache.parquet.column.page.PageWriteStore;
+import org.apache.parquet.column.page.PageWriter;
+import org.apache.parquet.column.statistics.SizeStatistics;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.format.ColumnChunk;
+import org.apache.parquet.format.ColumnMetaData;
+import org.apache.parquet.format.ColumnOrder;
+import org.apache.parquet.format.CompressionCodec;
+import org.apache.parquet.format.ConvertedType;
+import org.apache.parquet.format.DataPageHeader;
+import org.apache.parquet.format.DictionaryPageHeader;
+import org.apache.parquet.format.FieldRepetitionType;
+import org.apache.parquet.format.FileMetaData;
+import org.apache.parquet.format.LogicalType;
+import org.apache.parquet.format.MilliSeconds;
+import org.apache.parquet.format.PageHeader;
+import org.apache.parquet.format.PageType;
+import org.apache.parquet.format.RowGroup;
+import org.apache.parquet.format.SchemaElement;
+import org.apache.parquet.format.StringType;
+import org.apache.parquet.format.TimeUnit;
+import org.apache.parquet.format.TimestampType;
+import org.apache.parquet.format.Type;
+import org.apache.parquet.format.TypeDefinedOrder;
+import org.apache.parquet.format.Util;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Types;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escritor Parquet sequencial sobre um {@link OutputStream} qualquer (resposta HTTP ou arquivo), sem Hadoop: a
+ * codificação das colunas (dicionário, níveis de definição, estatísticas) vem do {@code parquet-column} e o rodapé é
+ * montado com as estruturas Thrift do {@code parquet-format}. Esquema plano: colunas {@code INT64}, texto
+ * ({@code BYTE_ARRAY} UTF-8) e {@code TIMESTAMP(MILLIS)} local, como gravado no banco.
+ *
+ * As linhas ficam em memória só até o row group atual passar de {@code rowGroupBytes}; então as colunas são
+ * despejadas em sequência no destino e um novo row group começa. A memória é limitada pelo tamanho do row group,
+ * não pelo total de linhas. Colunas marcadas como dicionário usam {@code PLAIN_DICTIONARY} enquanto o dicionário
+ * couber na página de dicionário; acima disso o próprio {@code parquet-column} volta para {@code PLAIN}.
+ */
+public final class ParquetStreamWriter implements RowSink {
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    private static final String CREATED_BY = "survey-platform version 1.0 (build parquet-column)";
+    private static final int SIZE_CHECK_ROWS = 1000;
+
+    private final CountingOutputStream out;
+    private final MessageType schema;
+    private final List<ColumnDescriptor> columns;
+    private final ParquetProperties properties;
+    private final long rowGroupBytes;
+    private final boolean gzip;
+    private final List<RowGroup> rowGroups = new ArrayList<>();
+
+    private ChunkStore chunks;
+    private ColumnWriteStore store;
+    private ColumnWriter[] writers;
+    private long rowsInGroup;
+    private long totalRows;
+    private int column;
+
+    private ParquetStreamWriter(OutputStream out, MessageType schema, ParquetProperties properties,
+                                long rowGroupBytes, boolean gzip) throws IOException {
+        this.out = new CountingOutputStream(out);
+        this.schema = schema;
+        this.columns = schema.getColumns();
+        this.properties = properties;
+        this.rowGroupBytes = Math.max(64 * 1024, rowGroupBytes);
+        this.gzip = gzip;
+        this.out.write(MAGIC);
+        startRowGroup();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public void startRow() {
+        column = 0;
+    }
+
+    @Override
+    public void nullValue() {
+        writers[column++].writeNull(0, 0);
+    }
+
+    @Override
+    public void number(long value) {
+        ColumnWriter writer = writers[column];
+        writer.write(value, 0, columns.get(column++).getMaxDefinitionLevel());
+    }
+
+    @Override
+    public void text(String value) {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        ColumnWriter writer = writers[column];
+        writer.write(Binary.fromString(value), 0, columns.get(column++).getMaxDefinitionLevel());
+    }
+
+    /**
+     * Grava a data e hora local como milissegundos desde a época, sem aplicar fuso ({@code isAdjustedToUTC=false}).
+     */
+    @Override
+    public void timestamp(LocalDateTime value) {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        number(value.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        store.endRecord();
+        rowsInGroup++;
+        if (rowsInGroup % SIZE_CHECK_ROWS == 0 && store.getBufferedSize() >= rowGroupBytes) {
+            flushRowGroup();
+            startRowGroup();
+        }
+    }
+
+    /**
+     * Fecha o último row group e escreve o rodapé; não fecha o destino.
+     */
+    public void finish() throws IOException {
+        if (rowsInGroup > 0) {
+            flushRowGroup();
+        } else {
+            // Sem linhas pendentes não há row group vazio: zero row groups é um arquivo válido
+            store.close();
+        }
+        FileMetaData metadata = new FileMetaData(1, schemaElements(), totalRows, rowGroups);
+        metadata.setCreated_by(CREATED_BY);
+        List<ColumnOrder> orders = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            orders.add(ColumnOrder.TYPE_ORDER(new TypeDefinedOrder()));
+        }
+        metadata.setColumn_orders(orders);
+        long footerStart = out.position();
+        Util.writeFileMetaData(metadata, out);
+        int footerLength = (int) (out.position() - footerStart);
+        out.write(footerLength & 0xFF);
+        out.write((footerLength >>> 8) & 0xFF);
+        out.write((footerLength >>> 16) & 0xFF);
+        out.write((footerLength >>> 24) & 0xFF);
+        out.write(MAGIC);
+        out.flush();
+    }
+
+    private void startRowGroup() {
+        chunks = new ChunkStore();
+        store = new ColumnWriteStoreV1(schema, chunks, properties);
+        writers = new ColumnWriter[columns.size()];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = store.getColumnWriter(columns.get(i));
+        }
+        rowsInGroup = 0;
+    }
+
+    private void flushRowGroup() throws IOException {
+        store.flush();
+        long groupStart = out.position();
+        long uncompressed = 0;
+        List<ColumnChunk> chunkMetadata = new ArrayList<>();
+        for (ColumnDescriptor descriptor : columns) {
+            ChunkWriter chunk = chunks.writers.get(descriptor);
+            ColumnChunk columnChunk = chunk.writeTo(out);
+            uncompressed += columnChunk.getMeta_data().getTotal_uncompressed_size();
+            chunkMetadata.add(columnChunk);
+        }
+        RowGroup rowGroup = new RowGroup(chunkMetadata, uncompressed, rowsInGroup);
+        rowGroup.setFile_offset(groupStart);
+        rowGroup.setTotal_compressed_size(out.position() - groupStart);
+        rowGroups.add(rowGroup);
+        totalRows += rowsInGroup;
+        rowsInGroup = 0;
+        store.close();
+    }
+
+    private List<SchemaElement> schemaElements() {
+        List<SchemaElement> elements = new ArrayList<>();
+        SchemaElement root = new SchemaElement(schema.getName());
+        root.setNum_children(columns.size());
+        elements.add(root);
+        for (ColumnDescriptor descriptor : columns) {
+            PrimitiveType type = descriptor.getPrimitiveType();
+            SchemaElement element = new SchemaElement(type.getName());
+            element.setType(thriftType(type));
+            element.setRepetition_type(type.isRepetition(org.apache.parquet.schema.Type.Repetition.REQUIRED)
+                    ? FieldRepetitionType.REQUIRED : FieldRepetitionType.OPTIONAL);
+            LogicalTypeAnnotation annotation = type.getLogicalTypeAnnotation();
+            if (annotation instanceof LogicalTypeAnnotation.StringLogicalTypeAnnotation) {
+                element.setLogicalType(LogicalType.STRING(new StringType()));
+                element.setConverted_type(ConvertedType.UTF8);
+            } else if (annotation instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) {
+                element.setLogicalType(LogicalType.TIMESTAMP(
+                        new TimestampType(false, TimeUnit.MILLIS(new MilliSeconds()))));
+            }
+            elements.add(element);
+        }
+        return elements;
+    }
+
+    private static Type thriftType(PrimitiveType type) {
+        return switch (type.getPrimitiveTypeName()) {
+            case INT64 -> Type.INT64;
+            case BINARY -> Type.BYTE_ARRAY;
+            default -> throw new IllegalArgumentException("Tipo não suportado: " + type);
+        };
+    }
+
+    private static org.apache.parquet.format.Encoding thriftEncoding(Encoding encoding) {
+        return org.apache.parquet.format.Encoding.valueOf(encoding.name());
+    }
+
+    /**
+     * Páginas de cada coluna do row group atual, guardadas até o row group fechar.
+     */
+    private final class ChunkStore implements PageWriteStore {
+
+        private final Map<ColumnDescriptor, ChunkWriter> writers = new LinkedHashMap<>();
+
+        @Override
+        public PageWriter getPageWriter(ColumnDescriptor descriptor) {
+            return writers.computeIfAbsent(descriptor, ChunkWriter::new);
+        }
+    }
+
+    private final class ChunkWriter implements PageWriter {
+
+        private final ColumnDescriptor descriptor;
+        private final ByteArrayOutputStream pages = new ByteArrayOutputStream();
+        private final Set<Encoding> encodings = EnumSet.noneOf(Encoding.class);
+        private final Statistics<?> statistics;
+        private byte[] dictionary;
+        private long values;
+        private long uncompressedSize;
+
+        private ChunkWriter(ColumnDescriptor descriptor) {
+            this.descriptor = descriptor;
+            this.statistics = Statistics.createStats(descriptor.getPrimitiveType());
+        }
+
+        @Override
+        @Deprecated
+        public void writePage(BytesInput bytes, int valueCount, Statistics<?> pageStatistics, Encoding rlEncoding,
+                              Encoding dlEncoding, Encoding valuesEncoding) throws IOException {
+            writePage(bytes, valueCount, -1, pageStatistics, rlEncoding, dlEncoding, valuesEncoding);
+        }
+
+        @Override
+        public void writePage(BytesInput bytes, int valueCount, int rowCount, Statistics<?> pageStatistics,
+                              Encoding rlEncoding, Encoding dlEncoding, Encoding valuesEncoding) throws IOException {
+            long rawSize = bytes.size();
+            BytesInput data = compress(bytes);
+            PageHeader header = new PageHeader(PageType.DATA_PAGE, Math.toIntExact(rawSize), Math.toIntExact(data.size()));
+            header.setData_page_header(new DataPageHeader(valueCount, thriftEncoding(valuesEncoding),
+                    thriftEncoding(dlEncoding), thriftEncoding(rlEncoding)));
+            int headerSize = writeHeader(header, pages);
+            data.writeAllTo(pages);
+            uncompressedSize += headerSize + rawSize;
+            values += valueCount;
+            encodings.add(rlEncoding);
+            encodings.add(dlEncoding);
+            encodings.add(valuesEncoding);
+            if (pageStatistics != null) {
+                statistics.mergeStatistics(pageStatistics);
+            }
+        }
+
+        /**
+         * Chamado pelo {@code parquet-column}; as estatísticas de tamanho só servem ao índice de colunas, não gravado.
+         */
+        @Override
+        public void writePage(BytesInput bytes, int valueCount, int rowCount, Statistics<?> pageStatistics,
+                              SizeStatistics sizeStatistics, Encoding rlEncoding, Encoding dlEncoding,
+                              Encoding valuesEncoding) throws IOException {
+            writePage(bytes, valueCount, rowCount, pageStatistics, rlEncoding, dlEncoding, valuesEncoding);
+        }
+
+        /**
+         * Obrigatório na interface; {@link Builder#build} recusa {@code PARQUET_2_0}, então nunca é chamado.
+         */
+        @Override
+        public void writePageV2(int rowCount, int nullCount, int valueCount, BytesInput repetitionLevels,
+                                BytesInput definitionLevels, Encoding dataEncoding, BytesInput data,
+                                Statistics<?> pageStatistics) {
+            throw new UnsupportedOperationException("PARQUET_2_0 não é suportado");
+        }
+
+        @Override
+        public void writeDictionaryPage(DictionaryPage dictionaryPage) throws IOException {
+            long rawSize = dictionaryPage.getBytes().size();
+            BytesInput data = compress(dictionaryPage.getBytes());
+            PageHeader header = new PageHeader(PageType.DICTIONARY_PAGE, Math.toIntExact(rawSize),
+                    Math.toIntExact(data.size()));
+            header.setDictionary_page_header(new DictionaryPageHeader(dictionaryPage.getDictionarySize(),
+                    thriftEncoding(dictionaryPage.getEncoding())));
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            int headerSize = writeHeader(header, buffer);
+            data.writeAllTo(buffer);
+            dictionary = buffer.toByteArray();
+            uncompressedSize += headerSize + rawSize;
+            encodings.add(dictionaryPage.getEncoding());
+        }
+
+        @Override
+        public long getMemSize() {
+            return pages.size() + (dictionary == null ? 0 : dictionary.length);
+        }
+
+        @Override
+        public long allocatedSize() {
+            return getMemSize();
+        }
+
+        @Override
+        public String memUsageString(String prefix) {
+            return prefix + " " + descriptor + " " + getMemSize() + " bytes";
+        }
+
+        /**
+         * O dicionário só existe ao fechar o row group, mas precisa vir antes das páginas de dados no arquivo.
+         */
+        private ColumnChunk writeTo(CountingOutputStream target) throws IOException {
+            long chunkStart = target.position();
+            Long dictionaryOffset = null;
+            if (dictionary != null) {
+                dictionaryOffset = chunkStart;
+                target.write(dictionary);
+            }
+            long dataOffset = target.position();
+            pages.writeTo(target);
+            long compressedSize = target.position() - chunkStart;
+
+            List<org.apache.parquet.format.Encoding> chunkEncodings = new ArrayList<>();
+            for (Encoding encoding : encodings) {
+                chunkEncodings.add(thriftEncoding(encoding));
+            }
+            ColumnMetaData metadata = new ColumnMetaData(thriftType(descriptor.getPrimitiveType()), chunkEncodings,
+                    List.of(descriptor.getPath()), gzip ? CompressionCodec.GZIP : CompressionCodec.UNCOMPRESSED,
+                    values, uncompressedSize, compressedSize, dataOffset);
+            if (dictionaryOffset != null) {
+                metadata.setDictionary_page_offset(dictionaryOffset);
+            }
+            org.apache.parquet.format.Statistics chunkStatistics = new org.apache.parquet.format.Statistics();
+            chunkStatistics.setNull_count(statistics.getNumNulls());
+            if (statistics.hasNonNullValue()) {
+                chunkStatistics.setMin_value(ByteBuffer.wrap(statistics.getMinBytes()));
+                chunkStatistics.setMax_value(ByteBuffer.wrap(statistics.getMaxBytes()));
+            }
+            metadata.setStatistics(chunkStatistics);
+            ColumnChunk chunk = new ColumnChunk(chunkStart);
+            chunk.setMeta_data(metadata);
+            return chunk;
+        }
+
+        private int writeHeader(PageHeader header, ByteArrayOutputStream target) throws IOException {
+            int before = target.size();
+            Util.writePageHeader(header, target);
+            return target.size() - before;
+        }
+
+        /**
+         * Sem compressão a página segue como veio e é copiada uma única vez, direto para o buffer do row group.
+         */
+        private BytesInput compress(BytesInput raw) throws IOException {
+            if (!gzip) {
+                return raw;
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream((int) (raw.size() / 2) + 64);
+            try (GZIPOutputStream stream = new GZIPOutputStream(compressed, 8192) {
+                {
+                    def.setLevel(Deflater.BEST_SPEED);
+                }
+            }) {
+                raw.writeAllTo(stream);
+            }
+            return BytesInput.from(compressed);
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long position;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            position++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            position += len;
+        }
+
+        private long position() {
+            return position;
+        }
+    }
+
+    /**
+     * Esquema plano montado coluna a coluna; {@link #dictionary} marca colunas de texto com poucos valores distintos.
+     */
+    public static final class Builder {
+
+        private static final int PAGE_BYTES = 1024 * 1024;
+
+        private final Types.MessageTypeBuilder schema = Types.buildMessage();
+        private final List<String> dictionaryColumns = new ArrayList<>();
+        private long rowGroupBytes = 32L * 1024 * 1024;
+        private boolean gzip = true;
+
+        private Builder() {
+        }
+
+        public Builder number(String name) {
+            schema.optional(PrimitiveType.PrimitiveTypeName.INT64).named(name);
+            return this;
+        }
+
+        public Builder text(String name) {
+            schema.optional(PrimitiveType.PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named(name);
+            return this;
+        }
+
+        public Builder dictionary(String name) {
+            dictionaryColumns.add(name);
+            return text(name);
+        }
+
+        public Builder timestamp(String name) {
+            schema.optional(PrimitiveType.PrimitiveTypeName.INT64)
+                    .as(LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MILLIS))
+                    .named(name);
+            return this;
+        }
+
+        public Builder rowGroupBytes(long rowGroupBytes) {
+            this.rowGroupBytes = rowGroupBytes;
+            return this;
+        }
+
+        public Builder gzip(boolean gzip) {
+            this.gzip = gzip;
+            return this;
+        }
+
+        public ParquetStreamWriter build(OutputStream out) throws IOException {
+            ParquetProperties.Builder properties = ParquetProperties.builder()
+                    .withWriterVersion(ParquetProperties.WriterVersion.PARQUET_1_0)
+                    .withPageSize(PAGE_BYTES)
+                    .withDictionaryPageSize(PAGE_BYTES)
+                    .withDictionaryEncoding(false);
+            for (String name : dictionaryColumns) {
+                properties.withDictionaryEncoding(name, true);
+            }
+            ParquetProperties built = properties.build();
+            // As páginas são escritas no formato V1; V2 exigiria outro cabeçalho e níveis fora da compressão
+            if (built.getWriterVersion() != ParquetProperties.WriterVersion.PARQUET_1_0) {
+                throw new IllegalStateException("PARQUET_2_0 não é suportado: só páginas V1 são escritas");
+            }
+            return new ParquetStreamWriter(out, schema.named("row"), built, rowGroupBytes, gzip);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.survey.service;
+
+import com.survey.entity.ResponseStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resposta já validada e anonimizada, pronta para ser gravada em lote por {@link VoteBatchWriter}.
+ *
+ * @param surveyId  pesquisa respondida
+ * @param ipAddress IP já anonimizado
+ * @param userAgent user-agent já normalizado
+ * @param createdAt instante de recebimento do voto (não o da gravação)
+ * @param session   sessão de resposta ou {@code null} quando a coleta de audiência está desligada
+ * @param answers   pares pergunta/opção escolhidos
+ */
+public record PendingResponse(Long surveyId,
+                              String ipAddress,
+                              String userAgent,
+                              LocalDateTime createdAt,
+                              PendingSession session,
+                              List<Answer> answers) {
+
+    public record Answer(Long questionId, Long optionId) {
+    }
+
+    public record PendingSession(Long questionId,
+                                 String deviceType,
+                                 String operatingSystem,
+                                 String browser,
+                                 String browserVersion,
+                                 String source,
+                                 String country,
+                                 String state,
+                                 String city,
+                                 ResponseStatus status,
+                                 LocalDateTime startedAt,
+                                 LocalDateTime completedAt) {
+
+        /**
+         * Colunas derivadas ainda vazias: ficam para {@link SessionEnrichmentStage} completar após o commit.
+         */
+        public boolean needsEnrichment() {
+            return deviceType == null || operatingSystem == null || browser == null || source == null
+                    || country == null;
+        }
+    }
+}
@@ -34,21 +34,29 @@ public class QuestionService {
 
     private final QuestionRepository questionRepository;
     private final SurveyRepository surveyRepository;
+    private final SurveyStructureCache structureCache;
+    private final VoteTallyStore tallyStore;
     private final Counter questionCreatedCounter;
     private final Counter questionUpdatedCounter;
     private final Counter questionDeletedCounter;
 
     public QuestionService(QuestionRepository questionRepository,
-                           SurveyRepository surveyRepository) {
-        this(questionRepository, surveyRepository, Metrics.globalRegistry);
+                           SurveyRepository surveyRepository,
+                           SurveyStructureCache structureCache,
+                           VoteTallyStore tallyStore) {
+        this(questionRepository, surveyRepository, structureCache, tallyStore, Metrics.globalRegistry);
     }
 
     @Autowired
     public QuestionService(QuestionRepository questionRepository,
                            SurveyRepository surveyRepository,
+                           SurveyStructureCache structureCache,
+                           VoteTallyStore tallyStore,
                            MeterRegistry meterRegistry) {
         this.questionRepository = questionRepository;
         this.surveyRepository = surveyRepository;
+        this.structureCache = structureCache;
+        this.tallyStore = tallyStore;
         this.questionCreatedCounter = meterRegistry.counter("question.operations", "type", "create");
         this.questionUpdatedCounter = meterRegistry.counter("question.operations", "type", "update");
         this.questionDeletedCounter = meterRegistry.counter("question.operations", "type", "delete");
@@ -84,6 +92,8 @@ public class QuestionService {
 
         Question question = convertToEntity(requestDTO, survey);
         Question savedQuestion = questionRepository.save(question);
+        structureCache.invalidate(survey.getId());
+        tallyStore.evict(survey.getId());
         questionCreatedCounter.increment();
         LOGGER.info("Question created {} {}",
                 StructuredArguments.kv("questionId", savedQuestion.getId()),
@@ -102,11 +112,16 @@ public class QuestionService {
             throw new BusinessException("Já existe outra pergunta com esta ordem nesta pesquisa");
         }
 
+        Long previousSurveyId = question.getSurvey().getId();
         question.setTexto(requestDTO.getTexto());
         question.setOrdem(requestDTO.getOrdem());
         question.setSurvey(survey);
 
         Question updatedQuestion = questionRepository.save(question);
+        structureCache.invalidate(previousSurveyId);
+        tallyStore.evict(previousSurveyId);
+        structureCache.invalidate(survey.getId());
+        tallyStore.evict(survey.getId());
         questionUpdatedCounter.increment();
         LOGGER.info("Question updated {} {}",
                 StructuredArguments.kv("questionId", updatedQuestion.getId()),
@@ -158,6 +173,8 @@ public class QuestionService {
                 .collect(Collectors.toList());
 
         List<Question> savedQuestions = questionRepository.saveAll(questions);
+        structureCache.invalidate(surveyId);
+        tallyStore.evict(surveyId);
 
         return savedQuestions.stream()
                 .map(this::convertToDTO)
@@ -171,6 +188,8 @@ public class QuestionService {
         LocalDateTime now = LocalDateTime.now();
         question.setDeletedAt(now);
         questionRepository.save(question);
+        structureCache.invalidate(question.getSurvey().getId());
+        tallyStore.evict(question.getSurvey().getId());
 
         // Opcional: mantemos histórico de sessões/respostas; apenas removemos visualização via soft delete
         questionDeletedCounter.increment();
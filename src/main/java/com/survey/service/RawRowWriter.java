@@ -0,0 +1,253 @@
+package com.survey.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+
+/**
+ * Escreve linhas cruas valor a valor, sem montar objetos por linha: CSV (RFC 4180, com cabeçalho) ou NDJSON (um
+ * objeto JSON por linha). Os nomes das colunas e os prefixos de cada campo são montados uma vez; o {@link Writer}
+ * de destino deve ser bufferizado.
+ */
+public abstract class RawRowWriter implements RowSink {
+
+    protected final Writer out;
+    protected final String[] columns;
+    protected int column;
+    private final char[] timestamp = "0000-00-00T00:00:00".toCharArray();
+
+    private RawRowWriter(Writer out, String[] columns) {
+        this.out = out;
+        this.columns = columns;
+    }
+
+    public static RawRowWriter of(ExportFormat format, Writer out, String... columns) {
+        return switch (format) {
+            case CSV -> new Csv(out, columns);
+            case NDJSON -> new NdJson(out, columns);
+            default -> throw new IllegalArgumentException("Formato sem escrita linha a linha: " + format);
+        };
+    }
+
+    /**
+     * Chamado uma vez antes da primeira linha.
+     */
+    public abstract void begin() throws IOException;
+
+    @Override
+    public abstract void startRow() throws IOException;
+
+    @Override
+    public abstract void endRow() throws IOException;
+
+    @Override
+    public abstract void nullValue() throws IOException;
+
+    @Override
+    public abstract void number(long value) throws IOException;
+
+    @Override
+    public abstract void text(String value) throws IOException;
+
+    /**
+     * Data e hora ISO-8601 sem fuso, como gravada no banco, sempre com segundos ({@code 2024-03-04T10:00:00}).
+     */
+    @Override
+    public void timestamp(LocalDateTime value) throws IOException {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        int year = value.getYear();
+        if (value.getNano() != 0 || year < 0 || year > 9999) {
+            plain(value.toString().toCharArray(), -1);
+            return;
+        }
+        // Buffer reaproveitado entre linhas: DATETIME não tem fração de segundo, então o formato é fixo
+        digits(0, 4, year);
+        digits(5, 2, value.getMonthValue());
+        digits(8, 2, value.getDayOfMonth());
+        digits(11, 2, value.getHour());
+        digits(14, 2, value.getMinute());
+        digits(17, 2, value.getSecond());
+        plain(timestamp, timestamp.length);
+    }
+
+    /**
+     * Texto que nunca precisa de escape (datas formatadas); {@code length} negativo usa o array inteiro.
+     */
+    protected abstract void plain(char[] value, int length) throws IOException;
+
+    private void digits(int offset, int width, int value) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            timestamp[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static final class Csv extends RawRowWriter {
+
+        private Csv(Writer out, String[] columns) {
+            super(out, columns);
+        }
+
+        @Override
+        public void begin() throws IOException {
+            startRow();
+            for (String name : columns) {
+                text(name);
+            }
+            endRow();
+        }
+
+        @Override
+        public void startRow() {
+            column = 0;
+        }
+
+        @Override
+        public void endRow() throws IOException {
+            out.write("\r\n");
+        }
+
+        @Override
+        public void nullValue() throws IOException {
+            separator();
+        }
+
+        @Override
+        public void number(long value) throws IOException {
+            separator();
+            out.write(Long.toString(value));
+        }
+
+        @Override
+        public void text(String value) throws IOException {
+            separator();
+            if (value == null) {
+                return;
+            }
+            if (!needsQuotes(value)) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            int start = 0;
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) == '"') {
+                    out.write(value, start, i + 1 - start);
+                    out.write('"');
+                    start = i + 1;
+                }
+            }
+            out.write(value, start, value.length() - start);
+            out.write('"');
+        }
+
+        @Override
+        protected void plain(char[] value, int length) throws IOException {
+            separator();
+            out.write(value, 0, length < 0 ? value.length : length);
+        }
+
+        private void separator() throws IOException {
+            if (column++ > 0) {
+                out.write(',');
+            }
+        }
+
+        private static boolean needsQuotes(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class NdJson extends RawRowWriter {
+
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        private final String[] prefixes;
+
+        private NdJson(Writer out, String[] columns) {
+            super(out, columns);
+            this.prefixes = new String[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                prefixes[i] = (i == 0 ? "{\"" : ",\"") + columns[i] + "\":";
+            }
+        }
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void startRow() {
+            column = 0;
+        }
+
+        @Override
+        public void endRow() throws IOException {
+            out.write("}\n");
+        }
+
+        @Override
+        public void nullValue() throws IOException {
+            out.write(prefixes[column++]);
+            out.write("null");
+        }
+
+        @Override
+        public void number(long value) throws IOException {
+            out.write(prefixes[column++]);
+            out.write(Long.toString(value));
+        }
+
+        @Override
+        public void text(String value) throws IOException {
+            if (value == null) {
+                nullValue();
+                return;
+            }
+            out.write(prefixes[column++]);
+            out.write('"');
+            int start = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    continue;
+                }
+                out.write(value, start, i - start);
+                switch (c) {
+                    case '"' -> out.write("\\\"");
+                    case '\\' -> out.write("\\\\");
+                    case '\n' -> out.write("\\n");
+                    case '\r' -> out.write("\\r");
+                    case '\t' -> out.write("\\t");
+                    default -> {
+                        out.write("\\u");
+                        out.write(HEX[(c >> 12) & 0xF]);
+                        out.write(HEX[(c >> 8) & 0xF]);
+                        out.write(HEX[(c >> 4) & 0xF]);
+                        out.write(HEX[c & 0xF]);
+                    }
+                }
+                start = i + 1;
+            }
+            out.write(value, start, value.length() - start);
+            out.write('"');
+        }
+
+        @Override
+        protected void plain(char[] value, int length) throws IOException {
+            out.write(prefixes[column++]);
+            out.write('"');
+            out.write(value, 0, length < 0 ? value.length : length);
+            out.write('"');
+        }
+    }
+}
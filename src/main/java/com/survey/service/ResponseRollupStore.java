@@ -0,0 +1,576 @@
+package com.survey.service;
+
+import com.survey.repository.ResponseSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+
+/**
+ * Mantém {@code response_rollup_hourly}: contagens e somas de duração das sessões por pesquisa, hora, status,
+ * pergunta e dimensões de audiência.
+ *
+ * Um job recalcula as horas fechadas (mais {@code grace-minutes} de tolerância para gravações write-behind e
+ * enriquecimento assíncrono) a partir da marca d'água em {@code rollup_watermarks}, refazendo também as últimas
+ * {@code recompute-hours} horas já consolidadas. Cada hora é refeita inteira numa transação que trava a marca
+ * d'água, o que torna o processo idempotente e seguro com várias instâncias. As leituras devolvem contagens por faceta
+ * (status, pergunta, hora, data e cada dimensão): o agregado cobre as horas inteiras antes da marca d'água e
+ * {@link ResponseSessionRepository#aggregateFacets} as pontas do intervalo e a cauda ainda não consolidada.
+ *
+ * Na mesma transação de cada hora também são refeitos os histogramas de duração da hora
+ * ({@code response_duration_hourly}), e os IPs da hora são somados ao {@link HyperLogLog} diário de cada pesquisa em
+ * {@code respondent_sketch_daily}. Como a união de sketches é idempotente, refazer uma hora não conta ninguém duas
+ * vezes; em contrapartida, sessões apagadas depois de consolidadas só saem do sketch com a retenção do dia.
+ */
+@Component
+public class ResponseRollupStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResponseRollupStore.class);
+
+    static final String WATERMARK = "response_rollup_hourly";
+
+    private static final String STATUS = "COALESCE(status, 'UNKNOWN')";
+    private static final String QUESTION = "COALESCE(question_id, 0)";
+    private static final String[] DIMENSION_COLUMNS = {
+            "device_type", "operating_system", "browser", "traffic_source", "country", "state", "city"};
+    private static final String DIMENSIONS = dimensions();
+    private static final String TIMED = "started_at IS NOT NULL AND completed_at IS NOT NULL";
+    private static final String DURATION = "TIMESTAMPDIFF(SECOND, started_at, completed_at)";
+    private static final String MEASURES = "COUNT(*), "
+            + "SUM(CASE WHEN " + TIMED + " THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN " + TIMED + " THEN " + DURATION + " ELSE 0 END), "
+            + "SUM(CASE WHEN started_at IS NOT NULL THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN started_at IS NOT NULL "
+            + "THEN TIMESTAMPDIFF(SECOND, started_at, COALESCE(completed_at, created_at)) ELSE 0 END)";
+
+    private static final String REFRESH_SQL = "INSERT INTO response_rollup_hourly (survey_id, bucket_hour, status, "
+            + "question_id, device_type, operating_system, browser, traffic_source, country, state, city, responses, "
+            + "timed_responses, duration_seconds, elapsed_responses, elapsed_seconds) "
+            + "SELECT survey_id, ?, " + STATUS + ", " + QUESTION + ", " + DIMENSIONS + ", " + MEASURES
+            + " FROM response_sessions WHERE created_at >= ? AND created_at < ?"
+            + " GROUP BY survey_id, " + STATUS + ", " + QUESTION + ", " + DIMENSIONS;
+
+    private static final String RESPONDENT = "COALESCE(NULLIF(TRIM(ip_address), ''), '" + SessionAggregator.UNKNOWN + "')";
+    private static final String HOUR_RESPONDENTS_SQL = "SELECT DISTINCT survey_id, " + RESPONDENT
+            + " FROM response_sessions WHERE created_at >= ? AND created_at < ?";
+    private static final String RAW_RESPONDENTS_SQL = "SELECT DISTINCT " + RESPONDENT
+            + " FROM response_sessions WHERE survey_id = ? AND created_at >= ? AND created_at < ?";
+
+    private static final String RAW_HOURS_SQL = "SELECT CAST(created_at AS DATE), HOUR(created_at), COUNT(*)"
+            + " FROM response_sessions WHERE survey_id = ? AND created_at >= ? AND created_at < ?"
+            + " GROUP BY CAST(created_at AS DATE), HOUR(created_at)";
+    private static final String RAW_MINUTES_SQL = "SELECT CAST(created_at AS DATE), HOUR(created_at), "
+            + "MINUTE(created_at), COUNT(*) FROM response_sessions WHERE survey_id = ? AND created_at >= ? "
+            + "AND created_at < ? GROUP BY CAST(created_at AS DATE), HOUR(created_at), MINUTE(created_at)";
+
+    private static final String FACET_SQL = facets();
+    private static final int FACET_BRANCHES = 4 + DIMENSION_COLUMNS.length;
+
+    private static final RowMapper<FacetRow> FACET_MAPPER = (rs, rowNum) -> new FacetRow(
+            rs.getString(1), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6),
+            rs.getLong(7));
+
+    private static final String ELAPSED = "TIMESTAMPDIFF(SECOND, started_at, COALESCE(completed_at, created_at))";
+    private static final String HOUR_DURATIONS_SQL = "SELECT survey_id, 'COMPLETION', " + DURATION + ", COUNT(*)"
+            + " FROM response_sessions WHERE created_at >= ? AND created_at < ? AND " + TIMED
+            + " GROUP BY survey_id, " + DURATION
+            + " UNION ALL SELECT survey_id, 'ABANDONMENT', " + ELAPSED + ", COUNT(*)"
+            + " FROM response_sessions WHERE created_at >= ? AND created_at < ?"
+            + " AND status = 'ABANDONED' AND started_at IS NOT NULL GROUP BY survey_id, " + ELAPSED;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ResponseSessionRepository responseSessionRepository;
+    private final boolean enabled;
+    private final long graceMinutes;
+    private final int recomputeHours;
+    private final int maxHoursPerRun;
+    private final Timer refreshTimer;
+    private final Counter hoursCounter;
+
+    private volatile LocalDateTime lastWatermark;
+
+    public ResponseRollupStore(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               ResponseSessionRepository responseSessionRepository,
+                               @Value("${app.dashboard.rollup.enabled:true}") boolean enabled,
+                               @Value("${app.dashboard.rollup.grace-minutes:10}") long graceMinutes,
+                               @Value("${app.dashboard.rollup.recompute-hours:2}") int recomputeHours,
+                               @Value("${app.dashboard.rollup.max-hours-per-run:168}") int maxHoursPerRun,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.responseSessionRepository = responseSessionRepository;
+        this.enabled = enabled;
+        this.graceMinutes = Math.max(0, graceMinutes);
+        this.recomputeHours = Math.max(0, recomputeHours);
+        this.maxHoursPerRun = Math.max(1, maxHoursPerRun);
+        this.refreshTimer = Timer.builder("dashboard.rollup.refresh.latency")
+                .description("Tempo de recálculo de uma hora do agregado de sessões")
+                .register(meterRegistry);
+        this.hoursCounter = meterRegistry.counter("dashboard.rollup.hours");
+        Gauge.builder("dashboard.rollup.lag.seconds", this, ResponseRollupStore::lagSeconds)
+                .description("Atraso da marca d'água do agregado horário em relação ao relógio")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Consolida as horas fechadas desde a marca d'água, no máximo {@code max-hours-per-run} por execução.
+     * Na primeira execução começa pela sessão mais antiga.
+     *
+     * @return horas recalculadas
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.rollup.interval-ms:60000}",
+            initialDelayString = "${app.dashboard.rollup.interval-ms:60000}")
+    public int catchUp() {
+        if (!enabled) {
+            return 0;
+        }
+        LocalDateTime closedUntil = closedUntil();
+        LocalDateTime watermark = readWatermark();
+        LocalDateTime from;
+        if (watermark != null) {
+            from = watermark.minusHours(recomputeHours);
+        } else {
+            from = oldestSessionHour();
+            if (from == null) {
+                advanceWatermark(closedUntil);
+                return 0;
+            }
+        }
+        LocalDateTime base = watermark != null ? watermark : from;
+        LocalDateTime to = min(closedUntil, base.plusHours(maxHoursPerRun));
+        int hours = 0;
+        for (LocalDateTime hour = from; hour.isBefore(to); hour = hour.plusHours(1)) {
+            refreshHour(hour, true);
+            hours++;
+        }
+        if (watermark == null || to.isAfter(watermark)) {
+            advanceWatermark(to);
+        }
+        return hours;
+    }
+
+    /**
+     * Recalcula as horas entre {@code from} e {@code to} (padrões: sessão mais antiga e última hora fechada).
+     * A marca d'água só avança quando o intervalo emenda com o que já estava consolidado.
+     *
+     * @return horas recalculadas
+     */
+    public int backfill(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime closedUntil = closedUntil();
+        LocalDateTime start = from != null ? truncate(from) : oldestSessionHour();
+        LocalDateTime end = to != null ? ceil(to) : closedUntil;
+        if (start == null || !start.isBefore(end)) {
+            return 0;
+        }
+        LocalDateTime watermark = readWatermark();
+        boolean contiguous = watermark != null ? !start.isAfter(watermark) : !hasSessionsBefore(start);
+        int hours = 0;
+        for (LocalDateTime hour = start; hour.isBefore(end); hour = hour.plusHours(1)) {
+            refreshHour(hour, contiguous && !hour.plusHours(1).isAfter(closedUntil));
+            hours++;
+        }
+        LOGGER.info("Response rollup backfill recomputed {} hours from {} to {}", hours, start, end);
+        return hours;
+    }
+
+    /**
+     * Contagens por faceta de uma pesquisa em {@code [start, end]}. Uma mesma faceta pode vir em até três
+     * linhas (ponta inicial, agregado e cauda), que devem ser somadas.
+     */
+    public List<FacetRow> readFacets(Long surveyId, LocalDateTime start, LocalDateTime end) {
+        // DATETIME do MySQL guarda no máximo microssegundos: + 1 µs torna o limite inclusivo em exclusivo
+        LocalDateTime endExclusive = end.plusNanos(1_000);
+        LocalDateTime watermark = enabled ? readWatermark() : null;
+        LocalDateTime rolledFrom = ceil(start);
+        LocalDateTime rolledTo = watermark != null ? min(watermark, truncate(end)) : null;
+        if (rolledTo == null || !rolledFrom.isBefore(rolledTo)) {
+            return raw(surveyId, start, endExclusive);
+        }
+        List<FacetRow> rows = new ArrayList<>(raw(surveyId, start, rolledFrom));
+        Object[] args = new Object[FACET_BRANCHES * 3];
+        for (int i = 0; i < args.length; i += 3) {
+            args[i] = surveyId;
+            args[i + 1] = Timestamp.valueOf(rolledFrom);
+            args[i + 2] = Timestamp.valueOf(rolledTo);
+        }
+        rows.addAll(jdbcTemplate.query(FACET_SQL, FACET_MAPPER, args));
+        rows.addAll(raw(surveyId, rolledTo, endExclusive));
+        return rows;
+    }
+
+    /**
+     * Respostas por hora (início da hora, no fuso em que {@code created_at} é gravado) em {@code [start, end)}:
+     * horas consolidadas do agregado e pontas agrupadas direto nas sessões.
+     */
+    public NavigableMap<LocalDateTime, Long> readHourlyCounts(Long surveyId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, Long> counts = new TreeMap<>();
+        LocalDateTime watermark = enabled ? readWatermark() : null;
+        LocalDateTime rolledFrom = ceil(start);
+        LocalDateTime rolledTo = watermark != null ? min(watermark, truncate(end)) : null;
+        if (rolledTo == null || !rolledFrom.isBefore(rolledTo)) {
+            addRawCounts(counts, false, surveyId, start, end);
+            return counts;
+        }
+        addRawCounts(counts, false, surveyId, start, rolledFrom);
+        jdbcTemplate.query("SELECT bucket_hour, SUM(responses) FROM response_rollup_hourly "
+                        + "WHERE survey_id = ? AND bucket_hour >= ? AND bucket_hour < ? GROUP BY bucket_hour",
+                rs -> {
+                    counts.merge(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2), Long::sum);
+                },
+                surveyId, Timestamp.valueOf(rolledFrom), Timestamp.valueOf(rolledTo));
+        addRawCounts(counts, false, surveyId, rolledTo, end);
+        return counts;
+    }
+
+    /**
+     * Respostas por minuto em {@code [start, end)}, sempre das sessões: o agregado não guarda minutos, então o
+     * chamador limita o intervalo.
+     */
+    public NavigableMap<LocalDateTime, Long> readMinuteCounts(Long surveyId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, Long> counts = new TreeMap<>();
+        addRawCounts(counts, true, surveyId, start, end);
+        return counts;
+    }
+
+    /**
+     * Histogramas de duração de uma pesquisa em {@code [start, end]}: soma dos histogramas horários já
+     * consolidados com as durações das pontas, lidas direto das sessões.
+     */
+    public Durations readDurations(Long surveyId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime endExclusive = end.plusNanos(1_000);
+        LocalDateTime watermark = enabled ? readWatermark() : null;
+        LocalDateTime rolledFrom = ceil(start);
+        LocalDateTime rolledTo = watermark != null ? min(watermark, truncate(end)) : null;
+        Durations durations = Durations.empty();
+        if (rolledTo == null || !rolledFrom.isBefore(rolledTo)) {
+            addRawDurations(durations, surveyId, start, endExclusive);
+            return durations;
+        }
+        addRawDurations(durations, surveyId, start, rolledFrom);
+        jdbcTemplate.query("SELECT kind, histogram FROM response_duration_hourly "
+                        + "WHERE survey_id = ? AND bucket_hour >= ? AND bucket_hour < ?",
+                rs -> {
+                    durations.of(rs.getString(1)).add(decode(rs.getBytes(2)));
+                },
+                surveyId, Timestamp.valueOf(rolledFrom), Timestamp.valueOf(rolledTo));
+        addRawDurations(durations, surveyId, rolledTo, endExclusive);
+        return durations;
+    }
+
+    /**
+     * Respondentes (IPs) distintos de uma pesquisa em {@code [start, end]}: união dos sketches dos dias inteiros
+     * já consolidados mais os IPs das pontas, lidos direto das sessões.
+     */
+    public HyperLogLog readRespondents(Long surveyId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime endExclusive = end.plusNanos(1_000);
+        LocalDateTime watermark = enabled ? readWatermark() : null;
+        LocalDateTime daysFrom = ceilDay(start);
+        LocalDateTime daysTo = watermark != null ? min(truncateDay(watermark), truncateDay(endExclusive)) : null;
+        HyperLogLog sketch = new HyperLogLog();
+        if (daysTo == null || !daysFrom.isBefore(daysTo)) {
+            addRawRespondents(sketch, surveyId, start, endExclusive);
+            return sketch;
+        }
+        addRawRespondents(sketch, surveyId, start, daysFrom);
+        jdbcTemplate.query("SELECT registers FROM respondent_sketch_daily "
+                        + "WHERE survey_id = ? AND bucket_date >= ? AND bucket_date < ?",
+                rs -> {
+                    sketch.merge(HyperLogLog.fromBytes(rs.getBytes(1)));
+                },
+                surveyId, Date.valueOf(daysFrom.toLocalDate()), Date.valueOf(daysTo.toLocalDate()));
+        addRawRespondents(sketch, surveyId, daysTo, endExclusive);
+        return sketch;
+    }
+
+    /**
+     * Remove as horas anteriores a {@code threshold}, acompanhando a retenção das sessões brutas. Os sketches
+     * diários saem quando o dia inteiro ficou para trás.
+     */
+    public int purgeBefore(LocalDateTime threshold) {
+        jdbcTemplate.update("DELETE FROM response_duration_hourly WHERE bucket_hour < ?",
+                Timestamp.valueOf(truncate(threshold)));
+        jdbcTemplate.update("DELETE FROM respondent_sketch_daily WHERE bucket_date < ?",
+                Date.valueOf(threshold.toLocalDate()));
+        return jdbcTemplate.update("DELETE FROM response_rollup_hourly WHERE bucket_hour < ?",
+                Timestamp.valueOf(truncate(threshold)));
+    }
+
+    LocalDateTime readWatermark() {
+        Timestamp value = jdbcTemplate.queryForObject(
+                "SELECT rolled_until FROM rollup_watermarks WHERE name = ?", Timestamp.class, WATERMARK);
+        lastWatermark = value != null ? value.toLocalDateTime() : null;
+        return lastWatermark;
+    }
+
+    private void refreshHour(LocalDateTime hour, boolean advance) {
+        Timestamp start = Timestamp.valueOf(hour);
+        Timestamp end = Timestamp.valueOf(hour.plusHours(1));
+        refreshTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT rolled_until FROM rollup_watermarks WHERE name = ? FOR UPDATE",
+                    Timestamp.class, WATERMARK);
+            jdbcTemplate.update("DELETE FROM response_rollup_hourly WHERE bucket_hour = ?", start);
+            jdbcTemplate.update(REFRESH_SQL, start, start, end);
+            refreshDurations(start, end);
+            mergeRespondents(hour, start, end);
+            if (advance) {
+                jdbcTemplate.update("UPDATE rollup_watermarks SET rolled_until = ? WHERE name = ? "
+                        + "AND (rolled_until IS NULL OR rolled_until < ?)", end, WATERMARK, end);
+            }
+        }));
+        hoursCounter.increment();
+    }
+
+    private void refreshDurations(Timestamp start, Timestamp end) {
+        Map<Long, Durations> bySurvey = new HashMap<>();
+        jdbcTemplate.query(HOUR_DURATIONS_SQL, rs -> {
+            bySurvey.computeIfAbsent(rs.getLong(1), id -> Durations.empty())
+                    .record(rs.getString(2), rs.getLong(3), rs.getLong(4));
+        }, start, end, start, end);
+        jdbcTemplate.update("DELETE FROM response_duration_hourly WHERE bucket_hour = ?", start);
+        List<Object[]> rows = new ArrayList<>();
+        bySurvey.forEach((surveyId, durations) -> {
+            if (durations.completion().getTotalCount() > 0) {
+                rows.add(new Object[]{surveyId, start, Durations.COMPLETION, encode(durations.completion())});
+            }
+            if (durations.abandonment().getTotalCount() > 0) {
+                rows.add(new Object[]{surveyId, start, Durations.ABANDONMENT, encode(durations.abandonment())});
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO response_duration_hourly (survey_id, bucket_hour, kind, histogram) "
+                    + "VALUES (?, ?, ?, ?)", rows);
+        }
+    }
+
+    private void addRawCounts(NavigableMap<LocalDateTime, Long> counts, boolean minutes, Long surveyId,
+                              LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            return;
+        }
+        jdbcTemplate.query(minutes ? RAW_MINUTES_SQL : RAW_HOURS_SQL, rs -> {
+            LocalDateTime bucket = rs.getDate(1).toLocalDate().atTime(rs.getInt(2), minutes ? rs.getInt(3) : 0);
+            counts.merge(bucket, rs.getLong(minutes ? 4 : 3), Long::sum);
+        }, surveyId, Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    private void addRawDurations(Durations durations, Long surveyId, LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            return;
+        }
+        for (ResponseSessionRepository.DurationCount count
+                : responseSessionRepository.aggregateDurations(surveyId, start, end)) {
+            durations.record(count.getKind(), count.getSeconds(), count.getResponses());
+        }
+    }
+
+    private static byte[] encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Arrays.copyOf(buffer.array(), length);
+    }
+
+    private static Histogram decode(byte[] bytes) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes), 0);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Histograma de duração inválido", e);
+        }
+    }
+
+    /**
+     * Soma os IPs da hora ao sketch do dia de cada pesquisa. Roda dentro da transação que trava a marca d'água,
+     * então a leitura e a regravação do sketch não disputam com outra instância.
+     */
+    private void mergeRespondents(LocalDateTime hour, Timestamp start, Timestamp end) {
+        Map<Long, HyperLogLog> sketches = new HashMap<>();
+        jdbcTemplate.query(HOUR_RESPONDENTS_SQL, rs -> {
+            sketches.computeIfAbsent(rs.getLong(1), id -> new HyperLogLog()).add(rs.getString(2));
+        }, start, end);
+        Date day = Date.valueOf(hour.toLocalDate());
+        sketches.forEach((surveyId, sketch) -> {
+            List<byte[]> stored = jdbcTemplate.query(
+                    "SELECT registers FROM respondent_sketch_daily WHERE survey_id = ? AND bucket_date = ?",
+                    (rs, rowNum) -> rs.getBytes(1), surveyId, day);
+            if (stored.isEmpty()) {
+                jdbcTemplate.update("INSERT INTO respondent_sketch_daily (survey_id, bucket_date, registers) "
+                        + "VALUES (?, ?, ?)", surveyId, day, sketch.toBytes());
+                return;
+            }
+            sketch.merge(HyperLogLog.fromBytes(stored.get(0)));
+            jdbcTemplate.update("UPDATE respondent_sketch_daily SET registers = ? WHERE survey_id = ? "
+                    + "AND bucket_date = ?", sketch.toBytes(), surveyId, day);
+        });
+    }
+
+    private void addRawRespondents(HyperLogLog sketch, Long surveyId, LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            return;
+        }
+        jdbcTemplate.query(RAW_RESPONDENTS_SQL, rs -> {
+            sketch.add(rs.getString(1));
+        }, surveyId, Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    private void advanceWatermark(LocalDateTime until) {
+        Timestamp value = Timestamp.valueOf(until);
+        jdbcTemplate.update("UPDATE rollup_watermarks SET rolled_until = ? WHERE name = ? "
+                + "AND (rolled_until IS NULL OR rolled_until < ?)", value, WATERMARK, value);
+    }
+
+    private List<FacetRow> raw(Long surveyId, LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            return List.of();
+        }
+        return responseSessionRepository.aggregateFacets(surveyId, start, end).stream()
+                .map(FacetRow::of)
+                .toList();
+    }
+
+    private LocalDateTime oldestSessionHour() {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM response_sessions", Timestamp.class);
+        return oldest != null ? truncate(oldest.toLocalDateTime()) : null;
+    }
+
+    private boolean hasSessionsBefore(LocalDateTime instant) {
+        Integer found = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM response_sessions WHERE created_at < ?", Integer.class,
+                Timestamp.valueOf(instant));
+        return found != null && found > 0;
+    }
+
+    private LocalDateTime closedUntil() {
+        return truncate(LocalDateTime.now().minusMinutes(graceMinutes));
+    }
+
+    private double lagSeconds() {
+        LocalDateTime watermark = lastWatermark;
+        return watermark != null ? Duration.between(watermark, LocalDateTime.now()).toSeconds() : 0;
+    }
+
+    private static LocalDateTime truncate(LocalDateTime value) {
+        return value.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static LocalDateTime ceil(LocalDateTime value) {
+        LocalDateTime hour = truncate(value);
+        return hour.equals(value) ? hour : hour.plusHours(1);
+    }
+
+    private static LocalDateTime truncateDay(LocalDateTime value) {
+        return value.truncatedTo(ChronoUnit.DAYS);
+    }
+
+    private static LocalDateTime ceilDay(LocalDateTime value) {
+        LocalDateTime day = truncateDay(value);
+        return day.equals(value) ? day : day.plusDays(1);
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static String dimensions() {
+        List<String> expressions = new ArrayList<>(DIMENSION_COLUMNS.length);
+        for (String column : DIMENSION_COLUMNS) {
+            expressions.add("COALESCE(NULLIF(TRIM(" + column + "), ''), 'unknown')");
+        }
+        return String.join(", ", expressions);
+    }
+
+    /**
+     * Mesmas facetas de {@link ResponseSessionRepository#aggregateFacets}, somando as linhas do agregado.
+     */
+    private static String facets() {
+        String filter = " FROM response_rollup_hourly WHERE survey_id = ? AND bucket_hour >= ? AND bucket_hour < ?";
+        String count = ", SUM(responses), 0, 0, 0, 0" + filter;
+        StringBuilder sql = new StringBuilder("SELECT 'STATUS', status, SUM(responses), SUM(timed_responses), "
+                + "SUM(duration_seconds), SUM(elapsed_responses), SUM(elapsed_seconds)")
+                .append(filter).append(" GROUP BY status")
+                .append(" UNION ALL SELECT 'QUESTION', CONCAT(question_id, '')").append(count)
+                .append(" AND status = 'ABANDONED' AND question_id <> 0 GROUP BY question_id")
+                .append(" UNION ALL SELECT 'HOUR', CONCAT(HOUR(bucket_hour), '')").append(count)
+                .append(" GROUP BY CONCAT(HOUR(bucket_hour), '')")
+                .append(" UNION ALL SELECT 'DATE', CONCAT(CAST(bucket_hour AS DATE), '')").append(count)
+                .append(" GROUP BY CONCAT(CAST(bucket_hour AS DATE), '')");
+        SessionAggregator.AudienceDimension[] dimensions = SessionAggregator.AudienceDimension.values();
+        for (int i = 0; i < DIMENSION_COLUMNS.length; i++) {
+            sql.append(" UNION ALL SELECT '").append(dimensions[i].name()).append("', ").append(DIMENSION_COLUMNS[i])
+                    .append(count).append(" GROUP BY ").append(DIMENSION_COLUMNS[i]);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Histogramas de duração em segundos (HdrHistogram com 2 dígitos significativos e faixa automática: exato até
+     * 255 s, erro de até 1% acima disso). Valores negativos (relógios desalinhados) contam como zero.
+     */
+    public record Durations(Histogram completion, Histogram abandonment) {
+
+        static final String COMPLETION = "COMPLETION";
+        static final String ABANDONMENT = "ABANDONMENT";
+
+        public static Durations empty() {
+            return new Durations(new Histogram(2), new Histogram(2));
+        }
+
+        void record(String kind, long seconds, long count) {
+            of(kind).recordValueWithCount(Math.max(0, seconds), count);
+        }
+
+        private Histogram of(String kind) {
+            return ABANDONMENT.equals(kind) ? abandonment : completion;
+        }
+    }
+
+    /**
+     * Contagem de um valor de faceta ({@link ResponseSessionRepository.FacetCount}). As somas de duração só vêm
+     * preenchidas na faceta STATUS.
+     *
+     * @param timedResponses   sessões com início e conclusão, base de {@code durationSeconds}
+     * @param elapsedResponses sessões com início, base de {@code elapsedSeconds} (até a conclusão ou a gravação)
+     */
+    public record FacetRow(String facet,
+                           String label,
+                           long responses,
+                           long timedResponses,
+                           long durationSeconds,
+                           long elapsedResponses,
+                           long elapsedSeconds) {
+
+        static FacetRow of(ResponseSessionRepository.FacetCount count) {
+            return new FacetRow(count.getFacet(), count.getLabel(), count.getResponses(),
+                    count.getTimedResponses(), count.getDurationSeconds(), count.getElapsedResponses(),
+                    count.getElapsedSeconds());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.survey.service;
+
+import com.survey.entity.ResponseStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Leitura das sessões brutas de uma pesquisa como projeções somente leitura ({@link SessionRow}), sem entidades
+ * gerenciadas nem contexto de persistência: o texto da pergunta vem no mesmo SELECT, evitando as cargas lazy de
+ * {@code getQuestion()}.
+ *
+ * O {@link Stream} é apoiado num cursor JDBC forward-only com {@code app.sessions.scan.fetch-size} linhas por ida
+ * ao banco, então a memória não cresce com o tamanho da pesquisa. Ele segura uma conexão até ser fechado: use
+ * sempre em try-with-resources. No MySQL o fetch size só é respeitado com {@code useCursorFetch=true} na URL.
+ */
+@Component
+public class ResponseSessionScanner {
+
+    private static final String SURVEY_SQL = "SELECT rs.id, rs.survey_id, rs.question_id, q.texto AS question_text, "
+            + "rs.status, rs.device_type, rs.operating_system, rs.browser, rs.traffic_source, "
+            + "rs.country, rs.state, rs.city, rs.started_at, rs.completed_at, rs.created_at, rs.ip_address, rs.user_agent "
+            + "FROM response_sessions rs LEFT JOIN questions q ON q.id = rs.question_id "
+            + "WHERE rs.survey_id = ? ORDER BY rs.id";
+
+    private static final RowMapper<SessionRow> ROW_MAPPER = (rs, rowNum) -> new SessionRow(
+            rs.getLong("id"),
+            rs.getLong("survey_id"),
+            rs.getObject("question_id", Long.class),
+            rs.getString("question_text"),
+            status(rs.getString("status")),
+            rs.getString("device_type"),
+            rs.getString("operating_system"),
+            rs.getString("browser"),
+            rs.getString("traffic_source"),
+            rs.getString("country"),
+            rs.getString("state"),
+            rs.getString("city"),
+            rs.getObject("started_at", LocalDateTime.class),
+            rs.getObject("completed_at", LocalDateTime.class),
+            rs.getObject("created_at", LocalDateTime.class),
+            rs.getString("ip_address"),
+            rs.getString("user_agent"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    @Autowired
+    public ResponseSessionScanner(JdbcTemplate jdbcTemplate,
+                                  @Value("${app.sessions.scan.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+
+    /**
+     * Sessões da pesquisa em ordem de id, lidas sob demanda. Precisa ser fechado.
+     */
+    public Stream<SessionRow> streamBySurvey(Long surveyId) {
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SURVEY_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, surveyId);
+            return statement;
+        }, ROW_MAPPER);
+    }
+
+    private static ResponseStatus status(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return ResponseStatus.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sessão de resposta como gravada, com o texto da pergunta (inclusive removida) em que foi abandonada.
+     */
+    public record SessionRow(Long id,
+                             Long surveyId,
+                             Long questionId,
+                             String questionText,
+                             ResponseStatus status,
+                             String deviceType,
+                             String operatingSystem,
+                             String browser,
+                             String source,
+                             String country,
+                             String state,
+                             String city,
+                             LocalDateTime startedAt,
+                             LocalDateTime completedAt,
+                             LocalDateTime createdAt,
+                             String ipAddress,
+                             String userAgent) {
+    }
+}
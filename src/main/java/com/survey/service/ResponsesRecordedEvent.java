@@ -0,0 +1,22 @@
+package com.survey.service;
+
+import java.util.List;
+
+/**
+ * Publicado quando sessões de resposta são gravadas (requisição síncrona ou lote write-behind), com os metadados
+ * conhecidos no momento da gravação. Após o commit, alimenta o stream ao vivo dos dashboards e invalida o cache de
+ * resultados da pesquisa ({@link DashboardResultCache}).
+ */
+public record ResponsesRecordedEvent(List<RecordedResponse> responses) {
+
+    public static ResponsesRecordedEvent of(Long surveyId, PendingResponse.PendingSession session, String userAgent) {
+        return new ResponsesRecordedEvent(List.of(new RecordedResponse(surveyId, session, userAgent)));
+    }
+
+    /**
+     * @param session   metadados da sessão; com enriquecimento assíncrono, as colunas derivadas ainda estão vazias
+     * @param userAgent user-agent normalizado, para quem precisar das colunas derivadas antes do enriquecimento
+     */
+    public record RecordedResponse(Long surveyId, PendingResponse.PendingSession session, String userAgent) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.survey.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Destino de linhas escritas valor a valor, na ordem das colunas: {@link RawRowWriter} (CSV e NDJSON) e
+ * {@link ParquetStreamWriter}. Texto e data {@code null} viram valor nulo.
+ */
+public interface RowSink {
+
+    void startRow() throws IOException;
+
+    void nullValue() throws IOException;
+
+    void number(long value) throws IOException;
+
+    void text(String value) throws IOException;
+
+    void timestamp(LocalDateTime value) throws IOException;
+
+    void endRow() throws IOException;
+}
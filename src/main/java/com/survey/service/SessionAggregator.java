@@ -0,0 +1,378 @@
+package com.survey.service;
+
+import com.survey.dto.DurationStats;
+import com.survey.entity.ResponseStatus;
+import org.HdrHistogram.Histogram;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Agrega sessões de resposta (ou contagens por faceta já agrupadas no banco) numa única passada: contadores
+ * primitivos por status, hora do dia e dia da semana, histogramas de duração e dimensões de audiência codificadas
+ * em dicionário (cada valor distinto recebe um código e a contagem fica num {@code long[]} indexado por ele). Só os
+ * resultados viram mapas.
+ *
+ * Usado pelos dashboards por pesquisa e pela aba Overview do XLSX. Não é thread-safe: uma instância por consulta.
+ */
+public final class SessionAggregator {
+
+    public static final String UNKNOWN = "unknown";
+
+    private static final int FAST_RESPONSE_SECONDS = 5;
+    private static final long[] DURATION_BOUNDS = {0, 5, 15, 30, 60, 120, 300, 600, 1800};
+    private static final String[] DURATION_LABELS = {
+            "<5s", "5-15s", "15-30s", "30-60s", "1-2min", "2-5min", "5-10min", "10-30min", ">=30min"};
+    private static final ResponseStatus[] STATUSES = ResponseStatus.values();
+
+    private long total;
+    private long timed;
+    private long durationSeconds;
+    private long abandonedTimed;
+    private long abandonedSeconds;
+    private final long[] byStatus = new long[STATUSES.length];
+    private final long[] byHourOfDay = new long[24];
+    private final long[] byDayOfWeek = new long[7];
+    private final Dimension[] dimensions = new Dimension[AudienceDimension.values().length];
+    private final LongCounts abandonedByQuestion = new LongCounts();
+    private final LongCounts byEpochDay = new LongCounts();
+    private final ResponseRollupStore.Durations durations = ResponseRollupStore.Durations.empty();
+
+    public SessionAggregator() {
+        for (int i = 0; i < dimensions.length; i++) {
+            dimensions[i] = new Dimension();
+        }
+    }
+
+    public void add(ResponseSessionScanner.SessionRow session) {
+        LocalDateTime startedAt = session.startedAt();
+        LocalDateTime completedAt = session.completedAt();
+        LocalDateTime createdAt = session.createdAt();
+        ResponseStatus status = session.status();
+        total++;
+        if (startedAt != null && completedAt != null) {
+            long duration = Duration.between(startedAt, completedAt).toSeconds();
+            timed++;
+            durationSeconds += duration;
+            durations.record(ResponseRollupStore.Durations.COMPLETION, duration, 1);
+        }
+        if (status != null) {
+            byStatus[status.ordinal()]++;
+            if (status == ResponseStatus.ABANDONED) {
+                if (startedAt != null) {
+                    LocalDateTime end = completedAt != null ? completedAt : createdAt != null ? createdAt : startedAt;
+                    long elapsed = Duration.between(startedAt, end).toSeconds();
+                    abandonedTimed++;
+                    abandonedSeconds += elapsed;
+                    durations.record(ResponseRollupStore.Durations.ABANDONMENT, elapsed, 1);
+                }
+                if (session.questionId() != null) {
+                    abandonedByQuestion.add(session.questionId(), 1);
+                }
+            }
+        }
+        dimensions[0].add(session.deviceType(), 1);
+        dimensions[1].add(session.operatingSystem(), 1);
+        dimensions[2].add(session.browser(), 1);
+        dimensions[3].add(session.source(), 1);
+        dimensions[4].add(session.country(), 1);
+        dimensions[5].add(session.state(), 1);
+        dimensions[6].add(session.city(), 1);
+        if (createdAt != null) {
+            byHourOfDay[createdAt.getHour()]++;
+            byDayOfWeek[createdAt.getDayOfWeek().ordinal()]++;
+            byEpochDay.add(createdAt.toLocalDate().toEpochDay(), 1);
+        }
+    }
+
+    /**
+     * Soma uma linha de {@link ResponseRollupStore#readFacets}; o total e as durações vêm da faceta STATUS.
+     */
+    public void add(ResponseRollupStore.FacetRow row) {
+        long responses = row.responses();
+        switch (row.facet()) {
+            case "STATUS" -> {
+                total += responses;
+                timed += row.timedResponses();
+                durationSeconds += row.durationSeconds();
+                ResponseStatus status = status(row.label());
+                if (status != null) {
+                    byStatus[status.ordinal()] += responses;
+                    if (status == ResponseStatus.ABANDONED) {
+                        abandonedTimed += row.elapsedResponses();
+                        abandonedSeconds += row.elapsedSeconds();
+                    }
+                }
+            }
+            case "QUESTION" -> abandonedByQuestion.add(Long.parseLong(row.label()), responses);
+            case "HOUR" -> byHourOfDay[Integer.parseInt(row.label())] += responses;
+            case "DATE" -> {
+                LocalDate day = LocalDate.parse(row.label());
+                byEpochDay.add(day.toEpochDay(), responses);
+                byDayOfWeek[day.getDayOfWeek().ordinal()] += responses;
+            }
+            default -> dimensions[AudienceDimension.valueOf(row.facet()).ordinal()].add(row.label(), responses);
+        }
+    }
+
+    /**
+     * Soma os histogramas de {@link ResponseRollupStore#readDurations}, que acompanham as facetas do mesmo intervalo.
+     */
+    public void add(ResponseRollupStore.Durations other) {
+        durations.completion().add(other.completion());
+        durations.abandonment().add(other.abandonment());
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public long count(ResponseStatus status) {
+        return byStatus[status.ordinal()];
+    }
+
+    public double completionRate() {
+        return total == 0 ? 0 : (double) count(ResponseStatus.COMPLETED) / total;
+    }
+
+    public double abandonmentRate() {
+        return total == 0 ? 0 : (double) count(ResponseStatus.ABANDONED) / total;
+    }
+
+    /**
+     * Média de segundos entre início e conclusão, entre as sessões que têm os dois.
+     */
+    public double averageDurationSeconds() {
+        return timed == 0 ? 0 : (double) durationSeconds / timed;
+    }
+
+    /**
+     * Média de segundos até o abandono (conclusão ou, na falta dela, gravação da sessão).
+     */
+    public double averageAbandonmentSeconds() {
+        return abandonedTimed == 0 ? 0 : (double) abandonedSeconds / abandonedTimed;
+    }
+
+    /**
+     * Sessões concluídas em menos de {@value #FAST_RESPONSE_SECONDS} segundos, lidas do histograma de conclusão
+     * (exato nessa faixa).
+     */
+    public long fastResponses() {
+        return durations.completion().getCountBetweenValues(0, FAST_RESPONSE_SECONDS - 1);
+    }
+
+    /**
+     * Percentis e distribuição do tempo entre início e conclusão.
+     */
+    public DurationStats completionTime() {
+        return durationStats(durations.completion());
+    }
+
+    /**
+     * Percentis e distribuição do tempo até o abandono.
+     */
+    public DurationStats abandonmentTime() {
+        return durationStats(durations.abandonment());
+    }
+
+    public Map<String, Long> counts(AudienceDimension dimension) {
+        return dimensions[dimension.ordinal()].toMap();
+    }
+
+    /**
+     * Valor mais frequente da dimensão, ou {@value #UNKNOWN} sem sessões.
+     */
+    public String predominant(AudienceDimension dimension) {
+        return dimensions[dimension.ordinal()].max();
+    }
+
+    /**
+     * @return pergunta com mais abandonos, ou {@code null} quando nenhuma sessão abandonada tem pergunta
+     */
+    public Long mostAbandonedQuestionId() {
+        return abandonedByQuestion.size == 0 ? null : abandonedByQuestion.maxKey();
+    }
+
+    public Map<LocalDate, Long> daily() {
+        Map<LocalDate, Long> daily = new TreeMap<>();
+        for (int i = 0; i < byEpochDay.size; i++) {
+            daily.put(LocalDate.ofEpochDay(byEpochDay.keys[i]), byEpochDay.counts[i]);
+        }
+        return daily;
+    }
+
+    /**
+     * Respostas por hora do dia (0-23), só as horas com respostas.
+     */
+    public Map<Integer, Long> hourOfDay() {
+        Map<Integer, Long> hourly = new TreeMap<>();
+        for (int hour = 0; hour < byHourOfDay.length; hour++) {
+            if (byHourOfDay[hour] > 0) {
+                hourly.put(hour, byHourOfDay[hour]);
+            }
+        }
+        return hourly;
+    }
+
+    /**
+     * Respostas por dia da semana ({@link DayOfWeek#name()}), só os dias com respostas.
+     */
+    public Map<String, Long> dayOfWeek() {
+        Map<String, Long> days = new HashMap<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (byDayOfWeek[day.ordinal()] > 0) {
+                days.put(day.name(), byDayOfWeek[day.ordinal()]);
+            }
+        }
+        return days;
+    }
+
+    static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return UNKNOWN;
+        }
+        return value.trim();
+    }
+
+    private static DurationStats durationStats(Histogram histogram) {
+        long count = histogram.getTotalCount();
+        List<DurationStats.Bucket> buckets = new ArrayList<>(DURATION_BOUNDS.length);
+        long counted = 0;
+        for (int i = 0; i < DURATION_BOUNDS.length; i++) {
+            long from = DURATION_BOUNDS[i];
+            Long to = i + 1 < DURATION_BOUNDS.length ? DURATION_BOUNDS[i + 1] : null;
+            long inBucket = to != null ? histogram.getCountBetweenValues(from, to - 1) : count - counted;
+            counted += inBucket;
+            buckets.add(new DurationStats.Bucket(DURATION_LABELS[i], from, to, inBucket));
+        }
+        if (count == 0) {
+            return new DurationStats(0, 0, 0, 0, 0, buckets);
+        }
+        return new DurationStats(count,
+                histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99),
+                histogram.getMaxValue(),
+                buckets);
+    }
+
+    private static ResponseStatus status(String name) {
+        for (ResponseStatus status : STATUSES) {
+            if (status.name().equals(name)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    public enum AudienceDimension {
+        DEVICE, OPERATING_SYSTEM, BROWSER, SOURCE, COUNTRY, STATE, CITY
+    }
+
+    /**
+     * Dicionário valor → código com contagens em array. O último valor visto é conferido antes do mapa, já que
+     * sessões consecutivas costumam repetir o mesmo dispositivo, país etc.
+     */
+    private static final class Dimension {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private String[] values = new String[16];
+        private long[] counts = new long[16];
+        private String lastRaw;
+        private int lastCode = -1;
+
+        private void add(String raw, long responses) {
+            int code;
+            if (lastCode >= 0 && (raw == null ? lastRaw == null : raw.equals(lastRaw))) {
+                code = lastCode;
+            } else {
+                String value = normalize(raw);
+                Integer existing = codes.get(value);
+                if (existing == null) {
+                    code = codes.size();
+                    codes.put(value, code);
+                    if (code == values.length) {
+                        values = Arrays.copyOf(values, code * 2);
+                        counts = Arrays.copyOf(counts, code * 2);
+                    }
+                    values[code] = value;
+                } else {
+                    code = existing;
+                }
+                lastRaw = raw;
+                lastCode = code;
+            }
+            counts[code] += responses;
+        }
+
+        private Map<String, Long> toMap() {
+            Map<String, Long> map = new HashMap<>();
+            for (int i = 0; i < codes.size(); i++) {
+                map.put(values[i], counts[i]);
+            }
+            return map;
+        }
+
+        private String max() {
+            int best = -1;
+            for (int i = 0; i < codes.size(); i++) {
+                if (best < 0 || counts[i] > counts[best]) {
+                    best = i;
+                }
+            }
+            return best < 0 ? UNKNOWN : values[best];
+        }
+    }
+
+    /**
+     * Contagens por chave {@code long} (dia, pergunta) em arrays paralelos; poucas chaves distintas por consulta.
+     */
+    private static final class LongCounts {
+        private final Map<Long, Integer> index = new HashMap<>();
+        private long[] keys = new long[16];
+        private long[] counts = new long[16];
+        private int size;
+        private long lastKey;
+        private int lastSlot = -1;
+
+        private void add(long key, long responses) {
+            int slot;
+            if (lastSlot >= 0 && key == lastKey) {
+                slot = lastSlot;
+            } else {
+                Integer existing = index.get(key);
+                if (existing == null) {
+                    slot = size++;
+                    index.put(key, slot);
+                    if (slot == keys.length) {
+                        keys = Arrays.copyOf(keys, slot * 2);
+                        counts = Arrays.copyOf(counts, slot * 2);
+                    }
+                    keys[slot] = key;
+                } else {
+                    slot = existing;
+                }
+                lastKey = key;
+                lastSlot = slot;
+            }
+            counts[slot] += responses;
+        }
+
+        private long maxKey() {
+            int best = 0;
+            for (int i = 1; i < size; i++) {
+                if (counts[i] > counts[best]) {
+                    best = i;
+                }
+            }
+            return keys[best];
+        }
+    }
+}
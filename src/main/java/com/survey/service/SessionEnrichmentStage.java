@@ -0,0 +1,357 @@
+package com.survey.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Segunda fase da gravação de sessões de resposta: com {@code app.sessions.enrichment.async-enabled} o voto e uma
+ * sessão mínima (user-agent bruto e o que veio na requisição) são gravados na transação do voto, e as colunas
+ * derivadas (dispositivo, sistema operacional, navegador, origem e país) são preenchidas aqui depois do commit,
+ * em UPDATEs agrupados que só completam o que ainda está nulo. Desligado, {@link VoteService} classifica tudo
+ * dentro da transação, como antes.
+ *
+ * A fila é limitada e atendida por {@code threads} workers. Lotes que falham são repetidos até
+ * {@code max-attempts} vezes; o que ficar para trás (fila cheia, falhas esgotadas, reinício da aplicação) é
+ * recuperado pela varredura periódica das sessões recentes ainda sem enriquecimento.
+ */
+@Component
+public class SessionEnrichmentStage implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionEnrichmentStage.class);
+
+    private static final long MAX_POLL_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * {@code browser_version} vem antes de {@code browser}: o MySQL avalia as atribuições em ordem e já veria o
+     * navegador preenchido. A versão só é gravada quando o navegador também veio do user-agent.
+     */
+    private static final String UPDATE_SQL = "UPDATE response_sessions SET "
+            + "device_type = COALESCE(device_type, ?), operating_system = COALESCE(operating_system, ?), "
+            + "browser_version = CASE WHEN browser IS NULL THEN ? ELSE browser_version END, "
+            + "browser = COALESCE(browser, ?), traffic_source = COALESCE(traffic_source, ?), "
+            + "country = COALESCE(country, ?) WHERE id = ?";
+
+    private static final String PENDING_SQL = "SELECT id, survey_id, user_agent FROM response_sessions "
+            + "WHERE created_at >= ? AND created_at < ? AND (device_type IS NULL OR operating_system IS NULL "
+            + "OR browser IS NULL OR traffic_source IS NULL OR country IS NULL) ORDER BY created_at LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserAgentClassifier userAgentClassifier;
+    private final boolean enabled;
+    private final int threads;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long sweepGraceSeconds;
+    private final long sweepLookbackHours;
+    private final long shutdownTimeoutMs;
+    private final BlockingQueue<Task> queue;
+    private final Timer lagTimer;
+    private final Timer updateTimer;
+    private final Counter enrichedCounter;
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+    private final Counter rejectedCounter;
+    private final Counter recoveredCounter;
+
+    private volatile boolean running;
+    private List<Thread> workers = List.of();
+
+    public SessionEnrichmentStage(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  UserAgentClassifier userAgentClassifier,
+                                  @Value("${app.sessions.enrichment.async-enabled:false}") boolean enabled,
+                                  @Value("${app.sessions.enrichment.threads:1}") int threads,
+                                  @Value("${app.sessions.enrichment.queue-capacity:10000}") int capacity,
+                                  @Value("${app.sessions.enrichment.batch-size:200}") int batchSize,
+                                  @Value("${app.sessions.enrichment.flush-interval-ms:100}") long flushIntervalMs,
+                                  @Value("${app.sessions.enrichment.max-attempts:3}") int maxAttempts,
+                                  @Value("${app.sessions.enrichment.retry-backoff-ms:200}") long retryBackoffMs,
+                                  @Value("${app.sessions.enrichment.sweep-grace-seconds:60}") long sweepGraceSeconds,
+                                  @Value("${app.sessions.enrichment.sweep-lookback-hours:24}") long sweepLookbackHours,
+                                  @Value("${app.sessions.enrichment.shutdown-timeout-ms:5000}") long shutdownTimeoutMs,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userAgentClassifier = userAgentClassifier;
+        this.enabled = enabled;
+        this.threads = Math.max(1, threads);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = Math.max(0, retryBackoffMs);
+        this.sweepGraceSeconds = Math.max(0, sweepGraceSeconds);
+        this.sweepLookbackHours = Math.max(1, sweepLookbackHours);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        Gauge.builder("session.enrichment.backlog", queue, BlockingQueue::size)
+                .description("Sessões aguardando enriquecimento")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("session.enrichment.lag")
+                .description("Tempo entre o commit da sessão e o preenchimento das colunas de audiência")
+                .register(meterRegistry);
+        this.updateTimer = Timer.builder("session.enrichment.update.latency")
+                .description("Tempo de cada lote de UPDATEs de enriquecimento")
+                .register(meterRegistry);
+        this.enrichedCounter = meterRegistry.counter("session.enrichment.enriched");
+        this.retryCounter = meterRegistry.counter("session.enrichment.retries");
+        this.failedCounter = meterRegistry.counter("session.enrichment.failed");
+        this.rejectedCounter = meterRegistry.counter("session.enrichment.rejected");
+        this.recoveredCounter = meterRegistry.counter("session.enrichment.recovered");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSessionsRecorded(SessionsRecordedEvent event) {
+        long now = System.nanoTime();
+        for (SessionsRecordedEvent.RecordedSession session : event.sessions()) {
+            offer(new Task(session.sessionId(), session.surveyId(), session.userAgent(), now));
+        }
+    }
+
+    /**
+     * Enfileira sem bloquear. Sessões recusadas (fila cheia ou estágio parado) ficam para a varredura.
+     */
+    boolean offer(Task task) {
+        if (!running || !queue.offer(task)) {
+            rejectedCounter.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public int getBacklog() {
+        return queue.size();
+    }
+
+    /**
+     * Reenfileira sessões recentes ainda sem enriquecimento, ignorando as que acabaram de ser gravadas
+     * ({@code sweep-grace-seconds}) para não competir com a fila.
+     */
+    @Scheduled(fixedDelayString = "${app.sessions.enrichment.sweep-interval-ms:60000}",
+            initialDelayString = "${app.sessions.enrichment.sweep-interval-ms:60000}")
+    public void sweep() {
+        if (!running) {
+            return;
+        }
+        int room = queue.remainingCapacity();
+        if (room == 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long enqueuedAt = System.nanoTime();
+        List<Task> pending = jdbcTemplate.query(PENDING_SQL,
+                (rs, rowNum) -> new Task(rs.getLong("id"), rs.getLong("survey_id"), rs.getString("user_agent"),
+                        enqueuedAt),
+                now.minusHours(sweepLookbackHours), now.minusSeconds(sweepGraceSeconds), Math.min(room, batchSize * 10));
+        int recovered = 0;
+        for (Task task : pending) {
+            if (!queue.offer(task)) {
+                break;
+            }
+            recovered++;
+        }
+        if (recovered > 0) {
+            recoveredCounter.increment(recovered);
+            LOGGER.info("Session enrichment sweep re-queued {} sessions", recovered);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        List<Thread> started = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::runWorker, "session-enrichment-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            started.add(worker);
+        }
+        workers = started;
+        LOGGER.info("Session enrichment stage started (threads={}, batchSize={})", threads, batchSize);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMs;
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!queue.isEmpty()) {
+            LOGGER.warn("Session enrichment stopped with {} sessions queued; the next sweep will pick them up",
+                    queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Abaixo de VoteIngestionBuffer: só para depois que o buffer de votos gravou (e publicou) o que restava
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+
+    private void runWorker() {
+        List<Task> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void collectBatch(List<Task> batch) throws InterruptedException {
+        Task first = queue.poll(MAX_POLL_WAIT_NANOS, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            Task next = queue.poll(Math.min(remaining, MAX_POLL_WAIT_NANOS), TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+    }
+
+    /**
+     * Classifica os user-agents e grava o lote numa transação, repetindo com espera crescente em caso de erro.
+     */
+    void flush(List<Task> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<UserAgentClassifier.UserAgentInfo> agents = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            agents.add(userAgentClassifier.classify(task.userAgent()));
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                updateTimer.record(() -> update(batch, agents));
+                break;
+            } catch (DataAccessException ex) {
+                if (attempt >= maxAttempts) {
+                    failedCounter.increment(batch.size());
+                    LOGGER.warn("Session enrichment batch of {} failed after {} attempts: {}",
+                            batch.size(), attempt, ex.getMessage());
+                    return;
+                }
+                retryCounter.increment();
+                if (!sleep(retryBackoffMs * attempt)) {
+                    return;
+                }
+            }
+        }
+        long now = System.nanoTime();
+        for (Task task : batch) {
+            lagTimer.record(now - task.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+        }
+        enrichedCounter.increment(batch.size());
+    }
+
+    private void update(List<Task> batch, List<UserAgentClassifier.UserAgentInfo> agents) {
+        // Em ordem de id, para que workers concorrentes travem as linhas de versão sempre na mesma sequência
+        Set<Long> surveyIds = new TreeSet<>();
+        for (Task task : batch) {
+            surveyIds.add(task.surveyId());
+        }
+        List<Object[]> versions = new ArrayList<>(surveyIds.size());
+        for (Long surveyId : surveyIds) {
+            versions.add(new Object[]{surveyId});
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    UserAgentClassifier.UserAgentInfo agent = agents.get(i);
+                    ps.setString(1, agent.deviceType());
+                    ps.setString(2, agent.operatingSystem());
+                    ps.setString(3, agent.browserVersion());
+                    ps.setString(4, agent.browser());
+                    ps.setString(5, UserAgentClassifier.UNKNOWN);
+                    ps.setString(6, UserAgentClassifier.UNKNOWN);
+                    ps.setLong(7, batch.get(i).sessionId());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+            // Versão dos dados das pesquisas do lote, na mesma transação (ver SurveyDataVersions)
+            jdbcTemplate.batchUpdate(SurveyDataVersions.BUMP_SQL, versions);
+        });
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * @param enqueuedAtNanos {@link System#nanoTime()} do commit (ou da varredura), base da métrica de atraso
+     */
+    record Task(Long sessionId, Long surveyId, String userAgent, long enqueuedAtNanos) {
+    }
+}
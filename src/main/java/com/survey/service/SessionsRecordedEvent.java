@@ -0,0 +1,17 @@
+package com.survey.service;
+
+import java.util.List;
+
+/**
+ * Publicado quando sessões de resposta são gravadas sem as colunas derivadas de audiência (enriquecimento
+ * assíncrono ligado). {@link SessionEnrichmentStage} as completa somente após o commit.
+ */
+public record SessionsRecordedEvent(List<RecordedSession> sessions) {
+
+    public static SessionsRecordedEvent of(Long sessionId, Long surveyId, String userAgent) {
+        return new SessionsRecordedEvent(List.of(new RecordedSession(sessionId, surveyId, userAgent)));
+    }
+
+    public record RecordedSession(Long sessionId, Long surveyId, String userAgent) {
+    }
+}
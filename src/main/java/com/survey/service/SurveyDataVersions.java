@@ -0,0 +1,42 @@
+package com.survey.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Versão dos dados de cada pesquisa ({@code survey_data_versions}, migração V13), incrementada por quem grava ou
+ * apaga votos e sessões, dentro da mesma transação. O {@link ExportArtifactCache} lê essa linha pela chave primária
+ * em vez de contar votos e sessões a cada pedido.
+ */
+@Component
+public class SurveyDataVersions {
+
+    static final String BUMP_SQL = "INSERT INTO survey_data_versions (survey_id, version) "
+            + "VALUES (?, 1) ON DUPLICATE KEY UPDATE version = version + 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SurveyDataVersions(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Incrementa a versão das pesquisas em ordem de id, para que transações concorrentes travem as linhas sempre na
+     * mesma sequência. Deve rodar na transação que alterou os dados.
+     */
+    public void bump(Collection<Long> surveyIds) {
+        if (surveyIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> versions = new ArrayList<>(surveyIds.size());
+        for (Long surveyId : new TreeSet<>(surveyIds)) {
+            versions.add(new Object[]{surveyId});
+        }
+        jdbcTemplate.batchUpdate(BUMP_SQL, versions);
+    }
+}
@@ -1,18 +1,22 @@
 package com.survey.service;
 
+import com.survey.dto.DurationStats;
 import com.survey.entity.Option;
 import com.survey.entity.Question;
 import com.survey.entity.Survey;
-import com.survey.entity.ResponseSession;
+import com.survey.entity.ResponseStatus;
 import com.survey.exception.ResourceNotFoundException;
 import com.survey.repository.OptionRepository;
 import com.survey.repository.QuestionRepository;
 import com.survey.repository.SurveyRepository;
 import com.survey.repository.VoteRepository;
-import com.survey.repository.ResponseSessionRepository;
+import com.survey.service.ResponseSessionScanner.SessionRow;
+import com.survey.service.SessionAggregator.AudienceDimension;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFChart;
 import org.apache.poi.xssf.usermodel.XSSFClientAnchor;
 import org.apache.poi.xssf.usermodel.XSSFDrawing;
@@ -32,15 +36,20 @@ import org.apache.poi.xddf.usermodel.chart.XDDFDataSourcesFactory;
 import org.apache.poi.xddf.usermodel.chart.XDDFNumericalDataSource;
 import org.apache.poi.xddf.usermodel.chart.XDDFValueAxis;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class SurveyExportService {
@@ -49,21 +58,30 @@ public class SurveyExportService {
     private final QuestionRepository questionRepository;
     private final OptionRepository optionRepository;
     private final VoteRepository voteRepository;
-    private final ResponseSessionRepository responseSessionRepository;
+    private final ResponseSessionScanner sessionScanner;
+    private final int rowWindow;
 
     public SurveyExportService(SurveyRepository surveyRepository,
                                QuestionRepository questionRepository,
                                OptionRepository optionRepository,
                                VoteRepository voteRepository,
-                               ResponseSessionRepository responseSessionRepository) {
+                               ResponseSessionScanner sessionScanner,
+                               @Value("${app.exports.xlsx.row-window:100}") int rowWindow) {
         this.surveyRepository = surveyRepository;
         this.questionRepository = questionRepository;
         this.optionRepository = optionRepository;
         this.voteRepository = voteRepository;
-        this.responseSessionRepository = responseSessionRepository;
+        this.sessionScanner = sessionScanner;
+        this.rowWindow = Math.max(1, rowWindow);
     }
 
-    public byte[] exportSurveyAsXlsx(Long surveyId, boolean includeDeleted) {
+    /**
+     * Carrega pesquisa, estrutura e votos agregados (proporcionais à estrutura, não às respostas) e valida a
+     * pesquisa antes de a resposta HTTP começar; as sessões só são lidas em {@link #writeXlsx}.
+     *
+     * @throws ResourceNotFoundException quando a pesquisa não existe
+     */
+    public XlsxExport prepareXlsx(Long surveyId, boolean includeDeleted) {
         Survey survey = includeDeleted
                 ? surveyRepository.findByIdIncludingDeleted(surveyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pesquisa não encontrada com id: " + surveyId))
@@ -82,26 +100,54 @@ public class SurveyExportService {
                         .collect(Collectors.groupingBy(o -> o.getQuestion().getId()));
 
         List<VoteRepository.QuestionOptionCount> voteCounts = voteRepository.aggregateBySurvey(surveyId);
-        List<ResponseSession> sessions = responseSessionRepository.findBySurveyId(surveyId);
-
-        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            writeOverviewSheet(workbook, survey, sessions, voteCounts);
-            writeSurveySheet(workbook, survey);
-            writeStructureSheet(workbook, questions, optionsGrouped);
-            writeVotesSheet(workbook, voteCounts, survey.getTitulo());
-            writeSessionsSheet(workbook, sessions);
+        return new XlsxExport(survey, questions, optionsGrouped, voteCounts);
+    }
+
+    /**
+     * Escreve o XLSX em {@code out} com memória constante. As abas pequenas (Survey, Estrutura e Votos, com o
+     * gráfico, que o modo streaming não sabe criar) são montadas num {@link XSSFWorkbook} usado como modelo; Overview
+     * e Sessions são abas SXSSF que mantêm só {@code app.exports.xlsx.row-window} linhas em memória e despejam o
+     * resto em arquivos temporários compactados, removidos ao final. As sessões vêm do cursor numa única passada.
+     */
+    public void writeXlsx(XlsxExport export, OutputStream out) throws IOException {
+        writeXlsx(export, out, rows -> { });
+    }
+
+    /**
+     * Como {@link #writeXlsx(XlsxExport, OutputStream)}, avisando {@code progress} com o total de sessões já
+     * escritas na aba Sessions.
+     */
+    public void writeXlsx(XlsxExport export, OutputStream out, LongConsumer progress) throws IOException {
+        XSSFWorkbook template = new XSSFWorkbook();
+        writeSurveySheet(template, export.survey());
+        writeStructureSheet(template, export.questions(), export.optionsGrouped());
+        writeVotesSheet(template, export.voteCounts(), export.survey().getTitulo());
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(template, rowWindow);
+        workbook.setCompressTempFiles(true);
+        try {
+            // Overview só é preenchida depois da passada sobre as sessões e volta a ser a primeira aba no fim
+            Sheet overviewSheet = workbook.createSheet("Overview");
+            SessionAggregator summary = new SessionAggregator();
+            Map<Long, String> questionTexts = new HashMap<>();
+            try (Stream<SessionRow> sessions = sessionScanner.streamBySurvey(export.survey().getId())) {
+                writeSessionsSheet(workbook, sessions, summary, questionTexts, progress);
+            }
+            writeOverviewSheet(overviewSheet, export.survey(), summary, questionTexts, export.voteCounts());
+            workbook.setSheetOrder("Overview", 0);
+            workbook.setActiveSheet(0);
             workbook.write(out);
-            return out.toByteArray();
-        } catch (IOException e) {
-            throw new IllegalStateException("Erro ao gerar XLSX", e);
+        } finally {
+            workbook.dispose();
+            workbook.close();
         }
     }
 
-    private void writeOverviewSheet(XSSFWorkbook workbook,
+    private void writeOverviewSheet(Sheet sheet,
                                     Survey survey,
-                                    List<ResponseSession> sessions,
+                                    SessionAggregator summary,
+                                    Map<Long, String> questionTexts,
                                     List<VoteRepository.QuestionOptionCount> voteCounts) {
-        Sheet sheet = workbook.createSheet("Overview");
         Row header = sheet.createRow(0);
         header.createCell(0).setCellValue("Métrica");
         header.createCell(1).setCellValue("Valor");
@@ -113,37 +159,28 @@ public class SurveyExportService {
         rowIdx = writeMetric(sheet, rowIdx, "Ativo", Boolean.TRUE.equals(survey.getAtivo()) ? "sim" : "não");
         rowIdx = writeMetric(sheet, rowIdx, "Data validade", formatDateTime(survey.getDataValidade()));
 
-        long totalResponses = sessions.size();
-        long completed = sessions.stream().filter(s -> s.getStatus() == com.survey.entity.ResponseStatus.COMPLETED).count();
-        long abandoned = sessions.stream().filter(s -> s.getStatus() == com.survey.entity.ResponseStatus.ABANDONED).count();
-        double avgResponseTime = sessions.stream()
-                .filter(s -> s.getStartedAt() != null && s.getCompletedAt() != null)
-                .mapToDouble(s -> java.time.Duration.between(s.getStartedAt(), s.getCompletedAt()).toSeconds())
-                .average()
-                .orElse(0);
+        long totalResponses = summary.total();
+        long completed = summary.count(ResponseStatus.COMPLETED);
+        long abandoned = summary.count(ResponseStatus.ABANDONED);
 
         rowIdx = writeMetric(sheet, rowIdx, "Respostas totais", String.valueOf(totalResponses));
         rowIdx = writeMetric(sheet, rowIdx, "Completas", String.valueOf(completed));
         rowIdx = writeMetric(sheet, rowIdx, "Abandonadas", String.valueOf(abandoned));
-        rowIdx = writeMetric(sheet, rowIdx, "Taxa conclusão", totalResponses == 0 ? "0%" : String.format("%.2f%%", (double) completed / totalResponses * 100));
-        rowIdx = writeMetric(sheet, rowIdx, "Taxa abandono", totalResponses == 0 ? "0%" : String.format("%.2f%%", (double) abandoned / totalResponses * 100));
-        rowIdx = writeMetric(sheet, rowIdx, "Tempo médio (s)", String.format("%.2f", avgResponseTime));
-
-        String predominantDevice = sessions.stream()
-                .collect(Collectors.groupingBy(s -> nullSafe(s.getDeviceType()), Collectors.counting()))
-                .entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("unknown");
-        rowIdx = writeMetric(sheet, rowIdx, "Dispositivo predominante", predominantDevice);
-
-        String mostAbandonedQuestion = sessions.stream()
-                .filter(s -> s.getStatus() == com.survey.entity.ResponseStatus.ABANDONED && s.getQuestion() != null)
-                .collect(Collectors.groupingBy(s -> s.getQuestion().getTexto(), Collectors.counting()))
-                .entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("");
+        rowIdx = writeMetric(sheet, rowIdx, "Taxa conclusão", totalResponses == 0 ? "0%" : String.format("%.2f%%", summary.completionRate() * 100));
+        rowIdx = writeMetric(sheet, rowIdx, "Taxa abandono", totalResponses == 0 ? "0%" : String.format("%.2f%%", summary.abandonmentRate() * 100));
+        rowIdx = writeMetric(sheet, rowIdx, "Tempo médio (s)", String.format("%.2f", summary.averageDurationSeconds()));
+        DurationStats completionTime = summary.completionTime();
+        rowIdx = writeMetric(sheet, rowIdx, "Tempo p50 (s)", String.valueOf(completionTime.getP50Seconds()));
+        rowIdx = writeMetric(sheet, rowIdx, "Tempo p90 (s)", String.valueOf(completionTime.getP90Seconds()));
+        rowIdx = writeMetric(sheet, rowIdx, "Tempo p99 (s)", String.valueOf(completionTime.getP99Seconds()));
+        rowIdx = writeMetric(sheet, rowIdx, "Tempo até abandono p50 (s)",
+                String.valueOf(summary.abandonmentTime().getP50Seconds()));
+        rowIdx = writeMetric(sheet, rowIdx, "Dispositivo predominante", summary.predominant(AudienceDimension.DEVICE));
+
+        Long mostAbandonedQuestionId = summary.mostAbandonedQuestionId();
+        String mostAbandonedQuestion = mostAbandonedQuestionId == null
+                ? ""
+                : nullSafe(questionTexts.get(mostAbandonedQuestionId));
         rowIdx = writeMetric(sheet, rowIdx, "Pergunta com mais abandono", mostAbandonedQuestion);
 
         long totalVotes = voteCounts.stream().mapToLong(VoteRepository.QuestionOptionCount::getTotal).sum();
@@ -279,7 +316,15 @@ public class SurveyExportService {
         }
     }
 
-    private void writeSessionsSheet(XSSFWorkbook workbook, List<ResponseSession> sessions) {
+    /**
+     * Escreve as sessões à medida que o cursor avança, alimentando na mesma passada o agregado da aba Overview e os
+     * textos das perguntas em que houve abandono.
+     */
+    private void writeSessionsSheet(Workbook workbook,
+                                    Stream<SessionRow> sessions,
+                                    SessionAggregator summary,
+                                    Map<Long, String> questionTexts,
+                                    LongConsumer progress) {
         Sheet sheet = workbook.createSheet("Sessions");
         Row header = sheet.createRow(0);
         String[] cols = {"Session ID", "Survey ID", "Question ID", "Status", "Device", "OS", "Browser", "Source",
@@ -288,24 +333,32 @@ public class SurveyExportService {
             header.createCell(i).setCellValue(cols[i]);
         }
         int rowIdx = 1;
-        for (ResponseSession s : sessions) {
+        for (Iterator<SessionRow> iterator = sessions.iterator(); iterator.hasNext(); ) {
+            SessionRow s = iterator.next();
+            summary.add(s);
+            if (s.questionId() != null && s.questionText() != null) {
+                questionTexts.putIfAbsent(s.questionId(), s.questionText());
+            }
             Row row = sheet.createRow(rowIdx++);
-            row.createCell(0).setCellValue(s.getId());
-            row.createCell(1).setCellValue(s.getSurvey() != null ? s.getSurvey().getId() : null);
-            row.createCell(2).setCellValue(s.getQuestion() != null ? s.getQuestion().getId() : null);
-            row.createCell(3).setCellValue(s.getStatus() != null ? s.getStatus().name() : "");
-            row.createCell(4).setCellValue(nullSafe(s.getDeviceType()));
-            row.createCell(5).setCellValue(nullSafe(s.getOperatingSystem()));
-            row.createCell(6).setCellValue(nullSafe(s.getBrowser()));
-            row.createCell(7).setCellValue(nullSafe(s.getSource()));
-            row.createCell(8).setCellValue(nullSafe(s.getCountry()));
-            row.createCell(9).setCellValue(nullSafe(s.getState()));
-            row.createCell(10).setCellValue(nullSafe(s.getCity()));
-            row.createCell(11).setCellValue(formatDateTime(s.getStartedAt()));
-            row.createCell(12).setCellValue(formatDateTime(s.getCompletedAt()));
-            row.createCell(13).setCellValue(formatDateTime(s.getCreatedAt()));
-            row.createCell(14).setCellValue(nullSafe(s.getIpAddress()));
-            row.createCell(15).setCellValue(nullSafe(s.getUserAgent()));
+            row.createCell(0).setCellValue(s.id());
+            row.createCell(1).setCellValue(s.surveyId());
+            if (s.questionId() != null) {
+                row.createCell(2).setCellValue(s.questionId());
+            }
+            row.createCell(3).setCellValue(s.status() != null ? s.status().name() : "");
+            row.createCell(4).setCellValue(nullSafe(s.deviceType()));
+            row.createCell(5).setCellValue(nullSafe(s.operatingSystem()));
+            row.createCell(6).setCellValue(nullSafe(s.browser()));
+            row.createCell(7).setCellValue(nullSafe(s.source()));
+            row.createCell(8).setCellValue(nullSafe(s.country()));
+            row.createCell(9).setCellValue(nullSafe(s.state()));
+            row.createCell(10).setCellValue(nullSafe(s.city()));
+            row.createCell(11).setCellValue(formatDateTime(s.startedAt()));
+            row.createCell(12).setCellValue(formatDateTime(s.completedAt()));
+            row.createCell(13).setCellValue(formatDateTime(s.createdAt()));
+            row.createCell(14).setCellValue(nullSafe(s.ipAddress()));
+            row.createCell(15).setCellValue(nullSafe(s.userAgent()));
+            progress.accept(rowIdx - 1);
         }
     }
 
@@ -319,4 +372,14 @@ public class SurveyExportService {
         }
         return value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
     }
+
+    /**
+     * Dados da exportação carregados antes do streaming. A escrita roda fora da thread da requisição e só lê campos
+     * simples das entidades (o id da pergunta de cada opção já vem agrupado), sem cargas lazy.
+     */
+    public record XlsxExport(Survey survey,
+                             List<Question> questions,
+                             Map<Long, List<Option>> optionsGrouped,
+                             List<VoteRepository.QuestionOptionCount> voteCounts) {
+    }
 }
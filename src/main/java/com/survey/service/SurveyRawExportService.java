@@ -0,0 +1,299 @@
+package com.survey.service;
+
+import com.survey.exception.BusinessException;
+import com.survey.exception.ResourceNotFoundException;
+import com.survey.repository.SurveyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.function.LongConsumer;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportação das linhas cruas de {@code response_sessions} ou {@code votes} de uma pesquisa em CSV, NDJSON ou Parquet.
+ *
+ * As linhas saem de um cursor JDBC forward-only ({@code app.sessions.scan.fetch-size} linhas por ida ao banco)
+ * direto para o {@link RawRowWriter}, coluna a coluna pelo índice, sem entidades nem objetos por linha; a escrita
+ * passa por um único buffer de {@code app.exports.raw.buffer-bytes}. A memória não cresce com o tamanho da pesquisa.
+ * No Parquet ({@link ParquetStreamWriter}) a memória fica limitada ao row group em montagem
+ * ({@code app.exports.parquet.row-group-bytes}).
+ */
+@Service
+public class SurveyRawExportService {
+
+    private static final String SESSIONS_SQL = "SELECT id, survey_id, question_id, status, device_type, "
+            + "operating_system, browser, browser_version, traffic_source, country, state, city, started_at, "
+            + "completed_at, created_at, ip_address, user_agent FROM response_sessions WHERE survey_id = ? ORDER BY id";
+    private static final Column[] SESSION_COLUMNS = {
+            Column.number("id"), Column.number("survey_id"), Column.number("question_id"), Column.category("status"),
+            Column.category("device_type"), Column.category("operating_system"), Column.category("browser"),
+            Column.category("browser_version"), Column.category("source"), Column.category("country"), Column.category("state"), Column.category("city"),
+            Column.timestamp("started_at"), Column.timestamp("completed_at"), Column.timestamp("created_at"),
+            Column.text("ip_address"), Column.text("user_agent")};
+
+    private static final String VOTES_SQL = "SELECT id, survey_id, question_id, option_id, response_session_id, "
+            + "created_at, ip_address, user_agent FROM votes WHERE survey_id = ? ORDER BY id";
+    private static final String SESSIONS_COUNT_SQL = "SELECT COUNT(*) FROM response_sessions WHERE survey_id = ?";
+    private static final String VOTES_COUNT_SQL = "SELECT COUNT(*) FROM votes WHERE survey_id = ?";
+    private static final Column[] VOTE_COLUMNS = {
+            Column.number("id"), Column.number("survey_id"), Column.number("question_id"),
+            Column.number("option_id"), Column.number("response_session_id"), Column.timestamp("created_at"),
+            Column.text("ip_address"), Column.text("user_agent")};
+
+    private final SurveyRepository surveyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+    private final int bufferChars;
+    private final int gzipLevel;
+    private final long parquetRowGroupBytes;
+    private final boolean parquetGzip;
+    private final long parquetSyncMaxRows;
+
+    public SurveyRawExportService(SurveyRepository surveyRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${app.sessions.scan.fetch-size:1000}") int fetchSize,
+                                  @Value("${app.exports.raw.buffer-bytes:65536}") int bufferBytes,
+                                  @Value("${app.exports.raw.gzip-level:1}") int gzipLevel,
+                                  @Value("${app.exports.parquet.row-group-bytes:33554432}") long parquetRowGroupBytes,
+                                  @Value("${app.exports.parquet.compression:gzip}") String parquetCompression,
+                                  @Value("${app.exports.parquet.sync-max-rows:100000}") long parquetSyncMaxRows) {
+        this.surveyRepository = surveyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = Math.max(1, fetchSize);
+        this.bufferChars = Math.max(1024, bufferBytes);
+        this.gzipLevel = Math.max(Deflater.BEST_SPEED, Math.min(Deflater.BEST_COMPRESSION, gzipLevel));
+        this.parquetRowGroupBytes = parquetRowGroupBytes;
+        this.parquetGzip = !"uncompressed".equalsIgnoreCase(parquetCompression.trim());
+        this.parquetSyncMaxRows = parquetSyncMaxRows;
+    }
+
+    /**
+     * Valida a pesquisa antes de a resposta começar.
+     *
+     * @throws ResourceNotFoundException quando a pesquisa não existe
+     */
+    public void checkSurvey(Long surveyId, boolean includeDeleted) {
+        boolean exists = includeDeleted
+                ? surveyRepository.findByIdIncludingDeleted(surveyId).isPresent()
+                : surveyRepository.existsById(surveyId);
+        if (!exists) {
+            throw new ResourceNotFoundException("Pesquisa não encontrada com id: " + surveyId);
+        }
+    }
+
+    /**
+     * Quantidade de linhas do conjunto, para o progresso dos jobs e o limite do Parquet síncrono.
+     */
+    public long count(Long surveyId, Dataset dataset) {
+        Long rows = jdbcTemplate.queryForObject(dataset == Dataset.VOTES ? VOTES_COUNT_SQL : SESSIONS_COUNT_SQL,
+                Long.class, surveyId);
+        return rows == null ? 0 : rows;
+    }
+
+    /**
+     * O Parquet síncrono monta cada row group antes de enviá-lo, então fica restrito a pesquisas pequenas; as maiores
+     * vão para o job assíncrono.
+     *
+     * @throws BusinessException quando o conjunto passa de {@code app.exports.parquet.sync-max-rows} linhas
+     */
+    public void checkSyncParquet(Long surveyId, Dataset dataset) {
+        long rows = count(surveyId, dataset);
+        if (rows > parquetSyncMaxRows) {
+            throw new BusinessException("Pesquisa com " + rows + " linhas excede o limite de " + parquetSyncMaxRows
+                    + " para exportação Parquet síncrona; use POST /api/surveys/" + surveyId
+                    + "/exports?format=parquet");
+        }
+    }
+
+    /**
+     * Como {@link #write}, comprimindo em gzip durante a escrita com o nível {@code app.exports.raw.gzip-level}
+     * (padrão 1: a compressão não vira o gargalo do streaming).
+     */
+    public long writeGzip(Long surveyId,
+                          Dataset dataset,
+                          ExportFormat format,
+                          OutputStream out,
+                          LongConsumer progress) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, bufferChars) {
+            {
+                def.setLevel(gzipLevel);
+            }
+        };
+        long rows = write(surveyId, dataset, format, gzip, progress);
+        gzip.finish();
+        return rows;
+    }
+
+    /**
+     * Escreve as linhas em {@code out} em UTF-8, sem fechá-lo, avisando {@code progress} com o total já escrito.
+     * Parquet vai para {@link #writeParquet}.
+     *
+     * @return linhas escritas (sem o cabeçalho do CSV)
+     */
+    public long write(Long surveyId,
+                      Dataset dataset,
+                      ExportFormat format,
+                      OutputStream out,
+                      LongConsumer progress) throws IOException {
+        if (format == ExportFormat.PARQUET) {
+            return writeParquet(surveyId, dataset, out, progress);
+        }
+        Column[] columns = columns(dataset);
+        String[] names = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            names[i] = columns[i].name();
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), bufferChars);
+        RawRowWriter rows = RawRowWriter.of(format, writer, names);
+        rows.begin();
+        long written = scan(surveyId, dataset, resultSet -> writeRow(resultSet, columns, rows), progress);
+        writer.flush();
+        return written;
+    }
+
+    /**
+     * Escreve um arquivo Parquet completo em {@code out}, sem fechá-lo: colunas de categoria (dispositivo, sistema,
+     * navegador, origem e localização) com dicionário, datas como {@code TIMESTAMP(MILLIS)} sem fuso e row groups de
+     * até {@code app.exports.parquet.row-group-bytes}, com páginas em gzip ou sem compressão
+     * ({@code app.exports.parquet.compression}).
+     *
+     * @return linhas escritas
+     */
+    public long writeParquet(Long surveyId,
+                             Dataset dataset,
+                             OutputStream out,
+                             LongConsumer progress) throws IOException {
+        Column[] columns = columns(dataset);
+        ParquetStreamWriter.Builder builder = ParquetStreamWriter.builder()
+                .rowGroupBytes(parquetRowGroupBytes)
+                .gzip(parquetGzip);
+        for (Column column : columns) {
+            switch (column.type()) {
+                case NUMBER -> builder.number(column.name());
+                case TEXT -> builder.text(column.name());
+                case CATEGORY -> builder.dictionary(column.name());
+                case TIMESTAMP -> builder.timestamp(column.name());
+            }
+        }
+        BufferedOutputStream buffered = new BufferedOutputStream(out, bufferChars);
+        ParquetStreamWriter parquet = builder.build(buffered);
+        long written = scan(surveyId, dataset, resultSet -> writeRow(resultSet, columns, parquet), progress);
+        parquet.finish();
+        buffered.flush();
+        return written;
+    }
+
+    private long scan(Long surveyId, Dataset dataset, RowHandler handler, LongConsumer progress) throws IOException {
+        long[] written = new long[1];
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        dataset == Dataset.VOTES ? VOTES_SQL : SESSIONS_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setLong(1, surveyId);
+                return statement;
+            }, resultSet -> {
+                try {
+                    handler.accept(resultSet);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                progress.accept(++written[0]);
+            });
+        } catch (UncheckedIOException e) {
+            // Cliente que desconecta no meio: o erro de escrita sobe como veio, sem virar erro de banco
+            throw e.getCause();
+        }
+        return written[0];
+    }
+
+    private static Column[] columns(Dataset dataset) {
+        return dataset == Dataset.VOTES ? VOTE_COLUMNS : SESSION_COLUMNS;
+    }
+
+    private static void writeRow(ResultSet resultSet, Column[] columns, RowSink rows)
+            throws SQLException, IOException {
+        rows.startRow();
+        for (int i = 0; i < columns.length; i++) {
+            int index = i + 1;
+            switch (columns[i].type()) {
+                case NUMBER -> {
+                    long value = resultSet.getLong(index);
+                    if (resultSet.wasNull()) {
+                        rows.nullValue();
+                    } else {
+                        rows.number(value);
+                    }
+                }
+                case TEXT, CATEGORY -> rows.text(resultSet.getString(index));
+                case TIMESTAMP -> rows.timestamp(resultSet.getObject(index, LocalDateTime.class));
+            }
+        }
+        rows.endRow();
+    }
+
+    public enum Dataset {
+        SESSIONS, VOTES;
+
+        /**
+         * Aceita o nome sem diferenciar maiúsculas; ausente vale SESSIONS.
+         */
+        public static Dataset parse(String value) {
+            if (value == null || value.isBlank()) {
+                return SESSIONS;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException("Conjunto de dados inválido: " + value);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void accept(ResultSet resultSet) throws SQLException, IOException;
+    }
+
+    /**
+     * CATEGORY é texto com poucos valores distintos: igual a TEXT no CSV e NDJSON, com dicionário no Parquet.
+     */
+    private enum ColumnType {
+        NUMBER, TEXT, CATEGORY, TIMESTAMP
+    }
+
+    private record Column(String name, ColumnType type) {
+
+        static Column number(String name) {
+            return new Column(name, ColumnType.NUMBER);
+        }
+
+        static Column text(String name) {
+            return new Column(name, ColumnType.TEXT);
+        }
+
+        static Column category(String name) {
+            return new Column(name, ColumnType.CATEGORY);
+        }
+
+        static Column timestamp(String name) {
+            return new Column(name, ColumnType.TIMESTAMP);
+        }
+    }
+}
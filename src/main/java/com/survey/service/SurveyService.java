@@ -40,6 +40,8 @@ public class SurveyService {
     private final SurveyRepository surveyRepository;
     private final QuestionRepository questionRepository;
     private final OptionRepository optionRepository;
+    private final SurveyStructureCache structureCache;
+    private final VoteTallyStore tallyStore;
     private final Counter surveyCreatedCounter;
     private final Counter surveyUpdatedCounter;
     private final Counter surveyDeletedCounter;
@@ -48,10 +50,14 @@ public class SurveyService {
     public SurveyService(SurveyRepository surveyRepository,
                          QuestionRepository questionRepository,
                          OptionRepository optionRepository,
+                         SurveyStructureCache structureCache,
+                         VoteTallyStore tallyStore,
                          MeterRegistry meterRegistry) {
         this.surveyRepository = surveyRepository;
         this.questionRepository = questionRepository;
         this.optionRepository = optionRepository;
+        this.structureCache = structureCache;
+        this.tallyStore = tallyStore;
         this.surveyCreatedCounter = meterRegistry.counter("survey.operations", "type", "create");
         this.surveyUpdatedCounter = meterRegistry.counter("survey.operations", "type", "update");
         this.surveyDeletedCounter = meterRegistry.counter("survey.operations", "type", "delete");
@@ -158,6 +164,8 @@ public class SurveyService {
         survey.setDataValidade(requestDTO.getDataValidade());
 
         Survey updatedSurvey = surveyRepository.save(survey);
+        structureCache.invalidate(id);
+        tallyStore.evict(id);
         surveyUpdatedCounter.increment();
         LOGGER.info("Survey updated {} {}",
                 StructuredArguments.kv("surveyId", updatedSurvey.getId()),
@@ -228,6 +236,8 @@ public class SurveyService {
             questionRepository.saveAll(questions);
         }
 
+        structureCache.invalidate(id);
+        tallyStore.evict(id);
         surveyDeletedCounter.increment();
         LOGGER.info("Survey soft-deleted {}", StructuredArguments.kv("surveyId", id));
     }
@@ -261,6 +271,8 @@ public class SurveyService {
         }
 
         Survey restored = surveyRepository.save(survey);
+        structureCache.invalidate(id);
+        tallyStore.evict(id);
         return convertToDTO(restored);
     }
 
@@ -0,0 +1,214 @@
+package com.survey.service;
+
+import com.survey.entity.Option;
+import com.survey.entity.Question;
+import com.survey.entity.Survey;
+import com.survey.repository.OptionRepository;
+import com.survey.repository.QuestionRepository;
+import com.survey.repository.SurveyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache em memória da estrutura de cada pesquisa (status, validade, perguntas e opções) usado na validação de votos.
+ *
+ * Os snapshots são imutáveis e substituídos por inteiro. Cada invalidação incrementa a geração da pesquisa;
+ * um carregamento iniciado antes de uma invalidação não é publicado, evitando que um snapshot antigo volte ao cache.
+ * Dentro de uma transação a invalidação é repetida após o término, para que leituras concorrentes feitas antes do
+ * commit não fiquem em cache. O TTL é uma rede de segurança para alterações feitas por outras instâncias.
+ */
+@Component
+public class SurveyStructureCache {
+
+    private final SurveyRepository surveyRepository;
+    private final QuestionRepository questionRepository;
+    private final OptionRepository optionRepository;
+    private final Clock clock;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final ConcurrentMap<Long, CachedSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> generations = new ConcurrentHashMap<>();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter rebuildCounter;
+    private final Counter invalidationCounter;
+
+    public SurveyStructureCache(SurveyRepository surveyRepository,
+                                QuestionRepository questionRepository,
+                                OptionRepository optionRepository,
+                                Clock clock,
+                                @Value("${app.votes.structure-cache.ttl-seconds:300}") long ttlSeconds,
+                                @Value("${app.votes.structure-cache.max-entries:1000}") int maxEntries,
+                                MeterRegistry meterRegistry) {
+        this.surveyRepository = surveyRepository;
+        this.questionRepository = questionRepository;
+        this.optionRepository = optionRepository;
+        this.clock = clock;
+        this.ttl = Duration.ofSeconds(Math.max(1, ttlSeconds));
+        this.maxEntries = Math.max(1, maxEntries);
+        this.hitCounter = meterRegistry.counter("survey.structure.cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("survey.structure.cache", "result", "miss");
+        this.rebuildCounter = meterRegistry.counter("survey.structure.cache.rebuilds");
+        this.invalidationCounter = meterRegistry.counter("survey.structure.cache.invalidations");
+        Gauge.builder("survey.structure.cache.size", snapshots, Map::size)
+                .description("Pesquisas com estrutura em cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retorna o snapshot da pesquisa, carregando-o do banco quando ausente ou expirado.
+     *
+     * @return vazio quando a pesquisa não existe (ou foi removida); ausências não são cacheadas
+     */
+    public Optional<SurveySnapshot> get(Long surveyId) {
+        Instant now = clock.instant();
+        CachedSnapshot cached = snapshots.get(surveyId);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            hitCounter.increment();
+            return Optional.of(cached.snapshot());
+        }
+        missCounter.increment();
+
+        long generation = generations.getOrDefault(surveyId, 0L);
+        Optional<SurveySnapshot> loaded = load(surveyId);
+        loaded.ifPresent(snapshot -> publish(surveyId, generation, new CachedSnapshot(snapshot, now.plus(ttl))));
+        return loaded;
+    }
+
+    /**
+     * Descarta o snapshot da pesquisa. Chamado pelos serviços que alteram pesquisa, perguntas ou opções.
+     */
+    public void invalidate(Long surveyId) {
+        if (surveyId == null) {
+            return;
+        }
+        evict(surveyId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(surveyId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Geração atual da pesquisa: muda a cada invalidação, permitindo que caches derivados (como o de resultados dos
+     * dashboards) detectem alterações de estrutura sem serem chamados pelos serviços de cadastro.
+     */
+    public long generation(Long surveyId) {
+        return generations.getOrDefault(surveyId, 0L);
+    }
+
+    public void invalidateAll() {
+        snapshots.keySet().forEach(this::evict);
+    }
+
+    private void evict(Long surveyId) {
+        generations.merge(surveyId, 1L, Long::sum);
+        snapshots.remove(surveyId);
+        invalidationCounter.increment();
+    }
+
+    private void publish(Long surveyId, long generation, CachedSnapshot entry) {
+        if (snapshots.size() >= maxEntries && !snapshots.containsKey(surveyId)) {
+            evictOne();
+        }
+        snapshots.put(surveyId, entry);
+        // Uma invalidação concorrente pode ter ocorrido durante o carregamento: nesse caso o snapshot é descartado
+        if (generations.getOrDefault(surveyId, 0L) != generation) {
+            snapshots.remove(surveyId, entry);
+        }
+    }
+
+    private void evictOne() {
+        Iterator<Long> iterator = snapshots.keySet().iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private Optional<SurveySnapshot> load(Long surveyId) {
+        Optional<Survey> survey = surveyRepository.findById(surveyId);
+        if (survey.isEmpty()) {
+            return Optional.empty();
+        }
+        rebuildCounter.increment();
+
+        List<Question> questions = questionRepository.findBySurveyIdOrderByOrdemAsc(surveyId);
+        Map<Long, QuestionSnapshot> questionSnapshots = new HashMap<>();
+        for (Question question : questions) {
+            questionSnapshots.put(question.getId(),
+                    new QuestionSnapshot(question.getId(), question.getTexto(), question.getOrdem()));
+        }
+
+        Map<Long, OptionSnapshot> optionSnapshots = new HashMap<>();
+        if (!questionSnapshots.isEmpty()) {
+            for (Option option : optionRepository.findByQuestionIdIn(List.copyOf(questionSnapshots.keySet()))) {
+                optionSnapshots.put(option.getId(), new OptionSnapshot(
+                        option.getId(),
+                        option.getQuestion().getId(),
+                        option.getTexto(),
+                        !Boolean.FALSE.equals(option.getAtivo())));
+            }
+        }
+
+        Survey entity = survey.get();
+        return Optional.of(new SurveySnapshot(
+                entity.getId(),
+                !Boolean.FALSE.equals(entity.getAtivo()),
+                entity.getDataValidade(),
+                Map.copyOf(questionSnapshots),
+                Map.copyOf(optionSnapshots)));
+    }
+
+    private record CachedSnapshot(SurveySnapshot snapshot, Instant expiresAt) {
+    }
+
+    /**
+     * Estrutura imutável de uma pesquisa no momento do carregamento. Perguntas e opções removidas não aparecem.
+     */
+    public record SurveySnapshot(Long surveyId,
+                                 boolean ativo,
+                                 LocalDateTime dataValidade,
+                                 Map<Long, QuestionSnapshot> questions,
+                                 Map<Long, OptionSnapshot> options) {
+
+        public boolean isExpired(LocalDateTime now) {
+            return dataValidade != null && dataValidade.isBefore(now);
+        }
+
+        public Optional<QuestionSnapshot> question(Long questionId) {
+            return Optional.ofNullable(questions.get(questionId));
+        }
+
+        public Optional<OptionSnapshot> option(Long optionId) {
+            return Optional.ofNullable(options.get(optionId));
+        }
+    }
+
+    public record QuestionSnapshot(Long id, String texto, Integer ordem) {
+    }
+
+    public record OptionSnapshot(Long id, Long questionId, String texto, boolean ativo) {
+    }
+}
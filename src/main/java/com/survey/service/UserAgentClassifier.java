@@ -0,0 +1,223 @@
+package com.survey.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Classifica o user-agent em dispositivo, sistema operacional, navegador e versão principal do navegador
+ * (gravada em {@code response_sessions.browser_version}).
+ *
+ * O texto é percorrido uma única vez: cada token alfanumérico é casado, sem alocação e sem diferenciar maiúsculas,
+ * contra uma trie com as palavras conhecidas; a decisão final usa a precedência entre os tokens encontrados
+ * (ex.: "Edg" e "OPR" vencem "Chrome", que vence "Safari"). Como poucos user-agents dominam o tráfego,
+ * o resultado fica num cache limitado indexado pelo texto original.
+ */
+@Component
+public class UserAgentClassifier {
+
+    public static final String UNKNOWN = "unknown";
+
+    private static final Node TRIE = buildTrie();
+
+    private final int maxEntries;
+    private final ConcurrentMap<String, UserAgentInfo> cache = new ConcurrentHashMap<>();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public UserAgentClassifier(@Value("${app.votes.user-agent-cache.max-entries:2000}") int maxEntries,
+                               MeterRegistry meterRegistry) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.hitCounter = meterRegistry.counter("vote.user-agent.cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("vote.user-agent.cache", "result", "miss");
+        Gauge.builder("vote.user-agent.cache.size", cache, Map::size)
+                .description("User-agents classificados em cache")
+                .register(meterRegistry);
+    }
+
+    public UserAgentInfo classify(String userAgent) {
+        if (userAgent == null) {
+            return UserAgentInfo.UNKNOWN;
+        }
+        UserAgentInfo cached = cache.get(userAgent);
+        if (cached != null) {
+            hitCounter.increment();
+            return cached;
+        }
+        missCounter.increment();
+        UserAgentInfo parsed = parse(userAgent);
+        if (cache.size() >= maxEntries) {
+            evictOne();
+        }
+        cache.put(userAgent, parsed);
+        return parsed;
+    }
+
+    private void evictOne() {
+        Iterator<String> iterator = cache.keySet().iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Classificação sem cache.
+     */
+    static UserAgentInfo parse(String userAgent) {
+        int found = 0;
+        int[] versionAt = new int[Token.values().length];
+        int length = userAgent.length();
+        Node node = TRIE;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? userAgent.charAt(i) : ' ';
+            char lower = toLowerAlphanumeric(c);
+            if (lower != 0) {
+                node = node != null ? node.child(lower) : null;
+                continue;
+            }
+            if (node != null && node.token != null) {
+                found |= 1 << node.token.ordinal();
+                // "Chrome/120", "rv:11.0" (IE11) e "MSIE 10.0": a versão vem logo após o separador
+                if ((c == '/' || c == ':' || c == ' ') && i + 1 < length && Character.isDigit(userAgent.charAt(i + 1))) {
+                    versionAt[node.token.ordinal()] = i + 1;
+                }
+            }
+            node = TRIE;
+        }
+
+        Token browser = firstFound(found, Token.OPERA, Token.OPR, Token.EDGE, Token.EDG, Token.EDGA, Token.EDGIOS,
+                Token.SAMSUNGBROWSER, Token.FIREFOX, Token.FXIOS, Token.CHROME, Token.CRIOS, Token.SAFARI,
+                Token.MSIE, Token.TRIDENT);
+        String browserName = browser != null ? browser.label : UNKNOWN;
+        String browserVersion = browser != null ? majorVersion(userAgent, versionAt[browser.ordinal()]) : null;
+        if (browser == Token.SAFARI) {
+            // No Safari o número após "Safari/" é o build do WebKit; a versão fica em "Version/x"
+            browserVersion = majorVersion(userAgent, versionAt[Token.VERSION.ordinal()]);
+        } else if (browser == Token.TRIDENT) {
+            // "Trident/7.0" é o motor; o IE11 informa a própria versão em "rv:11.0"
+            browserVersion = majorVersion(userAgent, versionAt[Token.RV.ordinal()]);
+        }
+
+        Token os = firstFound(found, Token.IPHONE, Token.IPAD, Token.IPOD, Token.ANDROID, Token.WINDOWS,
+                Token.MACINTOSH, Token.CROS, Token.LINUX);
+        String operatingSystem = os != null ? os.label : UNKNOWN;
+
+        String deviceType;
+        if (has(found, Token.IPAD) || has(found, Token.TABLET)
+                || (has(found, Token.ANDROID) && !has(found, Token.MOBILE))) {
+            deviceType = "tablet";
+        } else if (has(found, Token.MOBILE) || has(found, Token.IPHONE) || has(found, Token.IPOD)) {
+            deviceType = "mobile";
+        } else {
+            deviceType = "desktop";
+        }
+        return new UserAgentInfo(deviceType, operatingSystem, browserName, browserVersion);
+    }
+
+    private static Token firstFound(int found, Token... candidates) {
+        for (Token candidate : candidates) {
+            if (has(found, candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean has(int found, Token token) {
+        return (found & (1 << token.ordinal())) != 0;
+    }
+
+    private static String majorVersion(String userAgent, int start) {
+        if (start <= 0) {
+            return null;
+        }
+        int end = start;
+        while (end < userAgent.length() && Character.isDigit(userAgent.charAt(end))) {
+            end++;
+        }
+        return end > start ? userAgent.substring(start, end) : null;
+    }
+
+    private static char toLowerAlphanumeric(char c) {
+        if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9') {
+            return c;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return (char) (c + ('a' - 'A'));
+        }
+        return 0;
+    }
+
+    private static Node buildTrie() {
+        Node root = new Node();
+        for (Token token : Token.values()) {
+            Node node = root;
+            for (char c : token.name().toLowerCase(Locale.ROOT).toCharArray()) {
+                node = node.childOrCreate(c);
+            }
+            node.token = token;
+        }
+        return root;
+    }
+
+    public record UserAgentInfo(String deviceType, String operatingSystem, String browser, String browserVersion) {
+
+        static final UserAgentInfo UNKNOWN = new UserAgentInfo(UserAgentClassifier.UNKNOWN,
+                UserAgentClassifier.UNKNOWN, UserAgentClassifier.UNKNOWN, null);
+    }
+
+    /**
+     * Palavras reconhecidas; o nome da constante, em minúsculas, é o token casado no user-agent.
+     */
+    private enum Token {
+        OPERA("Opera"), OPR("Opera"),
+        EDGE("Edge"), EDG("Edge"), EDGA("Edge"), EDGIOS("Edge"),
+        SAMSUNGBROWSER("Samsung Internet"),
+        FIREFOX("Firefox"), FXIOS("Firefox"),
+        CHROME("Chrome"), CRIOS("Chrome"),
+        SAFARI("Safari"), VERSION(null), RV(null),
+        MSIE("Internet Explorer"), TRIDENT("Internet Explorer"),
+        IPHONE("iOS"), IPAD("iOS"), IPOD("iOS"), ANDROID("Android"), WINDOWS("Windows"),
+        MACINTOSH("macOS"), CROS("ChromeOS"), LINUX("Linux"),
+        MOBILE(null), TABLET(null);
+
+        private final String label;
+
+        Token(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Nó da trie indexado por 'a'-'z' e '0'-'9'.
+     */
+    private static final class Node {
+        private final Node[] children = new Node[36];
+        private Token token;
+
+        private Node child(char c) {
+            return children[index(c)];
+        }
+
+        private Node childOrCreate(char c) {
+            int index = index(c);
+            if (children[index] == null) {
+                children[index] = new Node();
+            }
+            return children[index];
+        }
+
+        private static int index(char c) {
+            return c >= 'a' ? c - 'a' : 26 + (c - '0');
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.survey.service;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Grava respostas já validadas em {@code response_sessions}/{@code votes} usando batches JDBC
+ * numa única transação, sem passar pelo contexto de persistência do Hibernate. Os IDs vêm do
+ * {@link IdBlockAllocator}, então o batch não depende de chaves geradas pelo banco.
+ */
+@Component
+public class VoteBatchWriter {
+
+    private static final String INSERT_SESSION_SQL = "INSERT INTO response_sessions "
+            + "(id, survey_id, question_id, ip_address, user_agent, device_type, operating_system, browser, "
+            + "browser_version, traffic_source, country, state, city, status, started_at, completed_at, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_VOTE_SQL = "INSERT INTO votes "
+            + "(id, survey_id, question_id, option_id, ip_address, user_agent, created_at, response_session_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IdBlockAllocator idAllocator;
+    private final SurveyDataVersions dataVersions;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public VoteBatchWriter(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           IdBlockAllocator idAllocator,
+                           SurveyDataVersions dataVersions,
+                           ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.idAllocator = idAllocator;
+        this.dataVersions = dataVersions;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Insere todas as sessões e votos das respostas informadas e incrementa a versão dos dados de cada pesquisa do
+     * lote (uma linha por pesquisa, não por resposta).
+     *
+     * @return ids gerados, na mesma ordem das respostas recebidas
+     */
+    public List<WrittenResponse> write(List<PendingResponse> responses) {
+        if (responses.isEmpty()) {
+            return List.of();
+        }
+        return transactionTemplate.execute(status -> {
+            Long[] sessionIds = insertSessions(responses);
+            List<WrittenResponse> written = insertVotes(responses, sessionIds);
+            dataVersions.bump(surveyIds(responses));
+            eventPublisher.publishEvent(toEvent(responses));
+            publishRecordedResponses(responses);
+            publishSessionsToEnrich(responses, sessionIds);
+            return written;
+        });
+    }
+
+    private Long[] insertSessions(List<PendingResponse> responses) {
+        Long[] sessionIds = new Long[responses.size()];
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < responses.size(); i++) {
+            if (responses.get(i).session() != null) {
+                positions.add(i);
+            }
+        }
+        if (positions.isEmpty()) {
+            return sessionIds;
+        }
+
+        long firstId = idAllocator.allocate(IdBlockAllocator.RESPONSE_SESSIONS, positions.size());
+        for (int i = 0; i < positions.size(); i++) {
+            sessionIds[positions.get(i)] = firstId + i;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SESSION_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                int position = positions.get(i);
+                PendingResponse response = responses.get(position);
+                PendingResponse.PendingSession session = response.session();
+                ps.setLong(1, sessionIds[position]);
+                ps.setLong(2, response.surveyId());
+                setNullableLong(ps, 3, session.questionId());
+                ps.setString(4, response.ipAddress());
+                ps.setString(5, response.userAgent());
+                ps.setString(6, session.deviceType());
+                ps.setString(7, session.operatingSystem());
+                ps.setString(8, session.browser());
+                ps.setString(9, session.browserVersion());
+                ps.setString(10, session.source());
+                ps.setString(11, session.country());
+                ps.setString(12, session.state());
+                ps.setString(13, session.city());
+                ps.setString(14, session.status() != null ? session.status().name() : null);
+                ps.setObject(15, session.startedAt());
+                ps.setObject(16, session.completedAt());
+                ps.setObject(17, response.createdAt());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return positions.size();
+            }
+        });
+        return sessionIds;
+    }
+
+    private List<WrittenResponse> insertVotes(List<PendingResponse> responses, Long[] sessionIds) {
+        List<PendingResponse> owners = new ArrayList<>();
+        List<Long> ownerSessionIds = new ArrayList<>();
+        List<PendingResponse.Answer> answers = new ArrayList<>();
+        for (int i = 0; i < responses.size(); i++) {
+            for (PendingResponse.Answer answer : responses.get(i).answers()) {
+                owners.add(responses.get(i));
+                ownerSessionIds.add(sessionIds[i]);
+                answers.add(answer);
+            }
+        }
+
+        long firstId = idAllocator.allocate(IdBlockAllocator.VOTES, answers.size());
+        jdbcTemplate.batchUpdate(INSERT_VOTE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PendingResponse owner = owners.get(i);
+                PendingResponse.Answer answer = answers.get(i);
+                ps.setLong(1, firstId + i);
+                ps.setLong(2, owner.surveyId());
+                ps.setLong(3, answer.questionId());
+                ps.setLong(4, answer.optionId());
+                ps.setString(5, owner.ipAddress());
+                ps.setString(6, owner.userAgent());
+                ps.setObject(7, owner.createdAt());
+                setNullableLong(ps, 8, ownerSessionIds.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return answers.size();
+            }
+        });
+
+        List<WrittenResponse> written = new ArrayList<>(responses.size());
+        long nextVoteId = firstId;
+        for (int i = 0; i < responses.size(); i++) {
+            int count = responses.get(i).answers().size();
+            List<Long> voteIds = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                voteIds.add(nextVoteId++);
+            }
+            written.add(new WrittenResponse(sessionIds[i], voteIds));
+        }
+        return written;
+    }
+
+    private static Set<Long> surveyIds(List<PendingResponse> responses) {
+        Set<Long> surveyIds = new HashSet<>();
+        for (PendingResponse response : responses) {
+            surveyIds.add(response.surveyId());
+        }
+        return surveyIds;
+    }
+
+    private static VotesRecordedEvent toEvent(List<PendingResponse> responses) {
+        List<VotesRecordedEvent.RecordedVote> votes = new ArrayList<>();
+        for (PendingResponse response : responses) {
+            for (PendingResponse.Answer answer : response.answers()) {
+                votes.add(new VotesRecordedEvent.RecordedVote(response.surveyId(), answer.questionId(), answer.optionId()));
+            }
+        }
+        return new VotesRecordedEvent(votes);
+    }
+
+    private void publishRecordedResponses(List<PendingResponse> responses) {
+        List<ResponsesRecordedEvent.RecordedResponse> recorded = new ArrayList<>();
+        for (PendingResponse response : responses) {
+            if (response.session() != null) {
+                recorded.add(new ResponsesRecordedEvent.RecordedResponse(response.surveyId(), response.session(),
+                        response.userAgent()));
+            }
+        }
+        if (!recorded.isEmpty()) {
+            eventPublisher.publishEvent(new ResponsesRecordedEvent(recorded));
+        }
+    }
+
+    private void publishSessionsToEnrich(List<PendingResponse> responses, Long[] sessionIds) {
+        List<SessionsRecordedEvent.RecordedSession> sessions = new ArrayList<>();
+        for (int i = 0; i < responses.size(); i++) {
+            PendingResponse response = responses.get(i);
+            if (response.session() != null && response.session().needsEnrichment()) {
+                sessions.add(new SessionsRecordedEvent.RecordedSession(sessionIds[i], response.surveyId(),
+                        response.userAgent()));
+            }
+        }
+        if (!sessions.isEmpty()) {
+            eventPublisher.publishEvent(new SessionsRecordedEvent(sessions));
+        }
+    }
+
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+
+    /**
+     * Ids gravados para uma {@link PendingResponse}.
+     */
+    public record WrittenResponse(Long sessionId, List<Long> voteIds) {
+    }
+}
@@ -0,0 +1,219 @@
+package com.survey.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffer write-behind para votos: as requisições apenas enfileiram respostas já validadas e uma thread
+ * dedicada grava em lote a cada {@code flush-interval-ms} ou {@code batch-size} respostas.
+ *
+ * O ciclo de vida usa uma fase anterior à do servidor web: no shutdown o servidor para de aceitar
+ * requisições primeiro, o buffer é drenado em seguida e só depois o pool de conexões é fechado.
+ */
+@Component
+public class VoteIngestionBuffer implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VoteIngestionBuffer.class);
+
+    /**
+     * Espera máxima de cada poll; permite que o writer perceba o {@link #stop()} mesmo com intervalos de flush longos.
+     */
+    private static final long MAX_POLL_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final VoteBatchWriter batchWriter;
+    private final boolean enabled;
+    private final boolean syncFallback;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long shutdownTimeoutMs;
+    private final int retryAfterSeconds;
+    private final BlockingQueue<PendingResponse> queue;
+    private final Timer flushTimer;
+    private final Counter flushedCounter;
+    private final Counter rejectedCounter;
+    private final Counter droppedCounter;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public VoteIngestionBuffer(VoteBatchWriter batchWriter,
+                               @Value("${app.votes.ingestion.async-enabled:false}") boolean enabled,
+                               @Value("${app.votes.ingestion.sync-fallback:true}") boolean syncFallback,
+                               @Value("${app.votes.ingestion.buffer-capacity:10000}") int capacity,
+                               @Value("${app.votes.ingestion.batch-size:500}") int batchSize,
+                               @Value("${app.votes.ingestion.flush-interval-ms:200}") long flushIntervalMs,
+                               @Value("${app.votes.ingestion.shutdown-timeout-ms:10000}") long shutdownTimeoutMs,
+                               @Value("${app.votes.ingestion.retry-after-seconds:2}") int retryAfterSeconds,
+                               MeterRegistry meterRegistry) {
+        this.batchWriter = batchWriter;
+        this.enabled = enabled;
+        this.syncFallback = syncFallback;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        Gauge.builder("vote.ingestion.queue.depth", queue, BlockingQueue::size)
+                .description("Respostas aguardando gravação em lote")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("vote.ingestion.flush.latency")
+                .description("Tempo de gravação de cada lote de votos")
+                .register(meterRegistry);
+        this.flushedCounter = meterRegistry.counter("vote.ingestion.flushed");
+        this.rejectedCounter = meterRegistry.counter("vote.ingestion.rejected");
+        this.droppedCounter = meterRegistry.counter("vote.ingestion.dropped");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isSyncFallbackEnabled() {
+        return syncFallback;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * Enfileira uma resposta sem bloquear.
+     *
+     * @return false quando o buffer está cheio ou parado; o chamador decide entre fallback síncrono e 503
+     */
+    public boolean offer(PendingResponse response) {
+        if (!running) {
+            return false;
+        }
+        boolean accepted = queue.offer(response);
+        if (!accepted) {
+            rejectedCounter.increment();
+        }
+        return accepted;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "vote-ingestion-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        LOGGER.info("Vote write-behind ingestion started (batchSize={}, flushIntervalMs={})", batchSize, flushIntervalMs);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writerThread.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            LOGGER.warn("Vote ingestion writer did not finish in {} ms; {} responses still queued",
+                    shutdownTimeoutMs, queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Abaixo das fases do servidor web (DEFAULT_PHASE - 2048): para depois que ele deixa de aceitar requisições
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void runWriter() {
+        List<PendingResponse> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch);
+                flush(batch);
+                return;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Aguarda a primeira resposta e então acumula até completar o lote ou vencer o intervalo de flush.
+     */
+    private void collectBatch(List<PendingResponse> batch) throws InterruptedException {
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        PendingResponse first = queue.poll(Math.min(flushIntervalNanos, MAX_POLL_WAIT_NANOS), TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            PendingResponse next = queue.poll(Math.min(remaining, MAX_POLL_WAIT_NANOS), TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+    }
+
+    void flush(List<PendingResponse> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            flushTimer.record(() -> batchWriter.write(batch));
+            flushedCounter.increment(batch.size());
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Vote batch of {} failed, retrying one by one: {}", batch.size(), ex.getMessage());
+            flushIndividually(batch);
+        }
+    }
+
+    /**
+     * Isola respostas inválidas (ex.: pesquisa removida entre a validação e a gravação) sem perder o restante do lote.
+     */
+    private void flushIndividually(List<PendingResponse> batch) {
+        for (PendingResponse response : batch) {
+            try {
+                batchWriter.write(List.of(response));
+                flushedCounter.increment();
+            } catch (RuntimeException ex) {
+                droppedCounter.increment();
+                LOGGER.error("Dropping queued vote for survey {}: {}", response.surveyId(), ex.getMessage());
+            }
+        }
+    }
+}
@@ -1,54 +1,273 @@
 package com.survey.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.Clock;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Rate limiter simples por IP para endpoints públicos de voto.
+ * Rate limiter por token bucket para os endpoints públicos de voto.
+ *
+ * Há três limites independentes por minuto: por IP, por prefixo de rede (/24 no IPv4, /64 no IPv6) e por pesquisa;
+ * zero desativa o limite. Cada bucket guarda só o "tempo teórico de chegada" (GCRA, equivalente a um token bucket
+ * com capacidade igual ao limite) num {@link AtomicLong} atualizado por CAS, sem locks no caminho do voto.
+ *
+ * Buckets cheios equivalem a buckets novos e são removidos periodicamente. Acima de {@code max-buckets} por limite,
+ * os buckets cheios saem primeiro e, se preciso, os de acesso mais antigo (LRU aproximado por amostragem) até 90%
+ * da capacidade; um bucket removido antes de encher recomeça com a rajada completa.
  */
 @Component
 public class VoteRateLimiter {
 
-    private final int maxPerMinute;
+    static final int DEFAULT_MAX_BUCKETS = 100_000;
+    private static final long MICROS_PER_MINUTE = 60_000_000L;
+    private static final int EVICTION_SAMPLE_SIZE = 1024;
+
     private final Clock clock;
-    private final Map<String, Window> buckets = new ConcurrentHashMap<>();
+    private final Limit ipLimit;
+    private final Limit prefixLimit;
+    private final Limit surveyLimit;
+    private final Counter idleEvictionCounter;
+    private final Counter capacityEvictionCounter;
+
+    public VoteRateLimiter(int maxPerMinute, Clock clock) {
+        this(maxPerMinute, 0, 0, DEFAULT_MAX_BUCKETS, clock, new SimpleMeterRegistry());
+    }
 
+    @Autowired
     public VoteRateLimiter(@Value("${app.votes.rate-limit.max-per-minute:30}") int maxPerMinute,
-                           Clock clock) {
-        this.maxPerMinute = maxPerMinute;
+                           @Value("${app.votes.rate-limit.prefix-max-per-minute:0}") int prefixMaxPerMinute,
+                           @Value("${app.votes.rate-limit.survey-max-per-minute:0}") int surveyMaxPerMinute,
+                           @Value("${app.votes.rate-limit.max-buckets:100000}") int maxBuckets,
+                           Clock clock,
+                           MeterRegistry meterRegistry) {
         this.clock = clock;
+        int capacity = Math.max(1, maxBuckets);
+        this.ipLimit = new Limit("ip", maxPerMinute, capacity, meterRegistry);
+        this.prefixLimit = new Limit("prefix", prefixMaxPerMinute, capacity, meterRegistry);
+        this.surveyLimit = new Limit("survey", surveyMaxPerMinute, capacity, meterRegistry);
+        this.idleEvictionCounter = meterRegistry.counter("vote.rate-limit.evictions", "reason", "idle");
+        this.capacityEvictionCounter = meterRegistry.counter("vote.rate-limit.evictions", "reason", "capacity");
+        Gauge.builder("vote.rate-limit.buckets", this, VoteRateLimiter::bucketCount)
+                .description("Buckets de rate limit de votos em memória")
+                .register(meterRegistry);
     }
 
     public boolean allow(String ip) {
+        return tryAcquire(ip, null).allowed();
+    }
+
+    /**
+     * Consome um token de cada limite ativo. Se algum recusar, os tokens já consumidos são devolvidos.
+     *
+     * @param surveyId pesquisa votada; nulo ignora o limite por pesquisa
+     */
+    public Decision tryAcquire(String ip, Long surveyId) {
         if (ip == null || ip.isBlank()) {
             ip = "unknown";
         }
-        long now = clock.millis();
-        Window window = buckets.computeIfAbsent(ip, k -> new Window(now, 0));
-        synchronized (window) {
-            if (now - window.windowStart >= 60_000) {
-                window.windowStart = now;
-                window.count = 0;
+        long now = clock.millis() * 1000;
+        Limit[] limits = {ipLimit, prefixLimit, surveyLimit};
+        String[] keys = {ip, prefixLimit.enabled() ? networkPrefix(ip) : null,
+                surveyId != null ? surveyId.toString() : null};
+        for (int i = 0; i < limits.length; i++) {
+            if (!limits[i].enabled() || keys[i] == null) {
+                continue;
             }
-            if (window.count >= maxPerMinute) {
-                return false;
+            long waitMicros = limits[i].acquire(keys[i], now);
+            if (waitMicros > 0) {
+                for (int j = 0; j < i; j++) {
+                    if (limits[j].enabled() && keys[j] != null) {
+                        limits[j].refund(keys[j]);
+                    }
+                }
+                limits[i].rejectionCounter.increment();
+                return Decision.rejected(limits[i].scope, Math.max(1, (waitMicros + 999_999) / 1_000_000));
             }
-            window.count++;
-            return true;
         }
+        return Decision.ALLOWED;
     }
 
-    private static class Window {
-        long windowStart;
-        int count;
+    /**
+     * Remove buckets cheios: não guardam nenhuma informação além de um bucket recém-criado.
+     */
+    @Scheduled(fixedDelayString = "${app.votes.rate-limit.sweep-interval-ms:60000}",
+            initialDelayString = "${app.votes.rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = clock.millis() * 1000;
+        ipLimit.removeIdle(now);
+        prefixLimit.removeIdle(now);
+        surveyLimit.removeIdle(now);
+    }
+
+    int bucketCount() {
+        return ipLimit.buckets.size() + prefixLimit.buckets.size() + surveyLimit.buckets.size();
+    }
+
+    /**
+     * Prefixo de rede do IP: três primeiros octetos no IPv4 e quatro primeiros grupos no IPv6.
+     * Usa o mesmo parser em bytes do {@link IpAnonymizer} (sem {@code InetAddress}); valores que não são IPs
+     * literais são usados como estão.
+     */
+    static String networkPrefix(String ip) {
+        byte[] address = new byte[16];
+        int length = IpAnonymizer.parse(ip, address);
+        if (length == 0) {
+            return ip;
+        }
+        StringBuilder prefix = new StringBuilder(24);
+        if (length == 4) {
+            for (int i = 12; i < 15; i++) {
+                prefix.append(address[i] & 0xff).append('.');
+            }
+            return prefix.append("0/24").toString();
+        }
+        for (int i = 0; i < 8; i += 2) {
+            prefix.append(Integer.toHexString(((address[i] & 0xff) << 8) | (address[i + 1] & 0xff))).append(':');
+        }
+        return prefix.append(":/64").toString();
+    }
+
+    public record Decision(boolean allowed, String scope, long retryAfterSeconds) {
+
+        static final Decision ALLOWED = new Decision(true, null, 0);
+
+        static Decision rejected(String scope, long retryAfterSeconds) {
+            return new Decision(false, scope, retryAfterSeconds);
+        }
+    }
+
+    private final class Limit {
+        private final String scope;
+        private final long emissionIntervalMicros;
+        private final long burstToleranceMicros;
+        private final int maxBuckets;
+        private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+        private final AtomicBoolean evicting = new AtomicBoolean();
+        private final Counter rejectionCounter;
+
+        private Limit(String scope, int maxPerMinute, int maxBuckets, MeterRegistry meterRegistry) {
+            this.scope = scope;
+            this.emissionIntervalMicros = maxPerMinute > 0 ? Math.max(1, MICROS_PER_MINUTE / maxPerMinute) : 0;
+            this.burstToleranceMicros = maxPerMinute > 0 ? emissionIntervalMicros * (maxPerMinute - 1) : 0;
+            this.maxBuckets = maxBuckets;
+            this.rejectionCounter = meterRegistry.counter("vote.rate-limit.rejections", "scope", scope);
+        }
+
+        private boolean enabled() {
+            return emissionIntervalMicros > 0;
+        }
 
-        Window(long windowStart, int count) {
-            this.windowStart = windowStart;
-            this.count = count;
+        /**
+         * @return zero quando o token foi consumido; caso contrário, o tempo até o próximo token em microssegundos
+         */
+        private long acquire(String key, long now) {
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                if (buckets.size() >= maxBuckets) {
+                    evict(now);
+                }
+                bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+            }
+            bucket.lastAccess = now;
+            while (true) {
+                long current = bucket.tat.get();
+                long tat = Math.max(current, now);
+                long wait = tat - burstToleranceMicros - now;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (bucket.tat.compareAndSet(current, tat + emissionIntervalMicros)) {
+                    return 0;
+                }
+            }
+        }
+
+        private void refund(String key) {
+            Bucket bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.tat.addAndGet(-emissionIntervalMicros);
+            }
+        }
+
+        private void removeIdle(long now) {
+            Iterator<Bucket> iterator = buckets.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().tat.get() <= now) {
+                    iterator.remove();
+                    idleEvictionCounter.increment();
+                }
+            }
         }
+
+        /**
+         * Só uma thread despeja por vez; as demais seguem e podem passar do limite momentaneamente.
+         */
+        private void evict(long now) {
+            if (!evicting.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                removeIdle(now);
+                int target = maxBuckets - maxBuckets / 10;
+                int excess = buckets.size() - target;
+                if (excess <= 0) {
+                    return;
+                }
+                long cutoff = lastAccessCutoff((double) excess / buckets.size());
+                Iterator<Bucket> iterator = buckets.values().iterator();
+                while (iterator.hasNext() && buckets.size() > target) {
+                    if (iterator.next().lastAccess <= cutoff) {
+                        iterator.remove();
+                        capacityEvictionCounter.increment();
+                    }
+                }
+            } finally {
+                evicting.set(false);
+            }
+        }
+
+        /**
+         * Estima, por amostragem, o último acesso abaixo do qual está a fração mais antiga dos buckets.
+         */
+        private long lastAccessCutoff(double fraction) {
+            long[] sample = new long[EVICTION_SAMPLE_SIZE];
+            int sampled = 0;
+            int size = Math.max(1, buckets.size());
+            double probability = Math.min(1.0, (double) EVICTION_SAMPLE_SIZE / size);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (Bucket bucket : buckets.values()) {
+                if (sampled == sample.length) {
+                    break;
+                }
+                if (random.nextDouble() < probability) {
+                    sample[sampled++] = bucket.lastAccess;
+                }
+            }
+            if (sampled == 0) {
+                return Long.MAX_VALUE;
+            }
+            Arrays.sort(sample, 0, sampled);
+            int index = (int) Math.min(sampled - 1, Math.ceil(fraction * sampled));
+            return sample[index];
+        }
+    }
+
+    private static final class Bucket {
+        private final AtomicLong tat = new AtomicLong();
+        private volatile long lastAccess;
     }
 }
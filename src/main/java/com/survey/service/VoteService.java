@@ -1,22 +1,34 @@
 package com.survey.service;
 
+import com.survey.dto.ResponseMetadataDTO;
+import com.survey.dto.VoteBatchRequestDTO;
+import com.survey.dto.VoteBatchResponseDTO;
 import com.survey.dto.VoteRequestDTO;
 import com.survey.dto.VoteResponseDTO;
 import com.survey.entity.*;
 import com.survey.exception.BusinessException;
 import com.survey.exception.ResourceNotFoundException;
+import com.survey.exception.ServiceOverloadedException;
 import com.survey.repository.OptionRepository;
 import com.survey.repository.QuestionRepository;
 import com.survey.repository.ResponseSessionRepository;
 import com.survey.repository.SurveyRepository;
 import com.survey.repository.VoteRepository;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -28,8 +40,17 @@ public class VoteService {
     private final VoteRepository voteRepository;
     private final ResponseSessionRepository responseSessionRepository;
     private final ResponseSessionPrivacyService privacyService;
-    private final long duplicateWindowMinutes;
-    private final Counter duplicateVoteBlockedCounter;
+    private final VoteIngestionBuffer ingestionBuffer;
+    private final VoteBatchWriter batchWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final SurveyStructureCache structureCache;
+    private final UserAgentClassifier userAgentClassifier;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DuplicateVoteGuard duplicateGuard;
+    private final SessionEnrichmentStage enrichmentStage;
+    private final SurveyDataVersions dataVersions;
+    private final Counter ingestionFallbackCounter;
+    private final DistributionSummary batchAnswersSummary;
 
     public VoteService(SurveyRepository surveyRepository,
                        QuestionRepository questionRepository,
@@ -37,7 +58,15 @@ public class VoteService {
                        VoteRepository voteRepository,
                        ResponseSessionRepository responseSessionRepository,
                        ResponseSessionPrivacyService privacyService,
-                       @Value("${app.votes.duplicate-window-minutes:10}") long duplicateWindowMinutes,
+                       VoteIngestionBuffer ingestionBuffer,
+                       VoteBatchWriter batchWriter,
+                       TransactionTemplate transactionTemplate,
+                       SurveyStructureCache structureCache,
+                       UserAgentClassifier userAgentClassifier,
+                       ApplicationEventPublisher eventPublisher,
+                       DuplicateVoteGuard duplicateGuard,
+                       SessionEnrichmentStage enrichmentStage,
+                       SurveyDataVersions dataVersions,
                        MeterRegistry meterRegistry) {
         this.surveyRepository = surveyRepository;
         this.questionRepository = questionRepository;
@@ -45,49 +74,236 @@ public class VoteService {
         this.voteRepository = voteRepository;
         this.responseSessionRepository = responseSessionRepository;
         this.privacyService = privacyService;
-        this.duplicateWindowMinutes = duplicateWindowMinutes;
-        this.duplicateVoteBlockedCounter = meterRegistry.counter("vote.duplicate.blocked");
+        this.ingestionBuffer = ingestionBuffer;
+        this.batchWriter = batchWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.structureCache = structureCache;
+        this.userAgentClassifier = userAgentClassifier;
+        this.eventPublisher = eventPublisher;
+        this.duplicateGuard = duplicateGuard;
+        this.enrichmentStage = enrichmentStage;
+        this.dataVersions = dataVersions;
+        this.ingestionFallbackCounter = meterRegistry.counter("vote.ingestion.fallback");
+        this.batchAnswersSummary = DistributionSummary.builder("vote.batch.answers")
+                .description("Respostas por envio em POST /api/votes/batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica se os votos devem ser enfileirados ({@link #enqueueVote}) em vez de gravados na requisição.
+     */
+    public boolean isAsyncIngestionEnabled() {
+        return ingestionBuffer.isEnabled();
     }
 
     public VoteResponseDTO registerVote(VoteRequestDTO request, String ipAddress, String userAgent) {
-        Survey survey = surveyRepository.findById(request.getSurveyId())
+        // Aplica políticas de privacidade aos dados sensíveis
+        String anonymizedIp = privacyService.anonymizeIpAddress(ipAddress);
+        String normalizedUserAgent = privacyService.normalizeUserAgent(userAgent, 500);
+        List<Long> questionIds = Collections.singletonList(request.getQuestionId());
+        duplicateGuard.verify(request.getSurveyId(), questionIds, anonymizedIp, normalizedUserAgent);
+
+        ValidatedVote validated = validate(request);
+        duplicateGuard.register(validated.surveyId(), questionIds, anonymizedIp, normalizedUserAgent);
+        try {
+            return persist(validated, request, anonymizedIp, normalizedUserAgent);
+        } catch (RuntimeException ex) {
+            duplicateGuard.forget(validated.surveyId(), questionIds, anonymizedIp, normalizedUserAgent);
+            throw ex;
+        }
+    }
+
+    /**
+     * Valida o voto e o entrega ao buffer write-behind. Quando o buffer está cheio, grava de forma síncrona
+     * (se o fallback estiver habilitado) ou rejeita com {@link ServiceOverloadedException}.
+     *
+     * Sem transação na requisição: abrir uma tomaria uma conexão do pool por voto, que é o que o buffer evita; só o
+     * fallback síncrono grava, numa transação própria.
+     *
+     * @return resposta marcada como enfileirada, ou os ids gravados quando houve fallback síncrono
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public VoteResponseDTO enqueueVote(VoteRequestDTO request, String ipAddress, String userAgent) {
+        String anonymizedIp = privacyService.anonymizeIpAddress(ipAddress);
+        String normalizedUserAgent = privacyService.normalizeUserAgent(userAgent, 500);
+        List<Long> questionIds = Collections.singletonList(request.getQuestionId());
+        duplicateGuard.verify(request.getSurveyId(), questionIds, anonymizedIp, normalizedUserAgent);
+
+        ValidatedVote validated = validate(request);
+        duplicateGuard.register(validated.surveyId(), questionIds, anonymizedIp, normalizedUserAgent);
+        PendingResponse.PendingSession session = privacyService.isAudienceCollectionEnabled()
+                ? buildSession(request, validated.questionId(), normalizedUserAgent)
+                : null;
+        PendingResponse pending = new PendingResponse(
+                validated.surveyId(),
+                anonymizedIp,
+                normalizedUserAgent,
+                LocalDateTime.now(),
+                session,
+                List.of(new PendingResponse.Answer(validated.questionId(), validated.optionId())));
+
+        if (ingestionBuffer.offer(pending)) {
+            return VoteResponseDTO.queued();
+        }
+        if (!ingestionBuffer.isSyncFallbackEnabled()) {
+            duplicateGuard.forget(validated.surveyId(), questionIds, anonymizedIp, normalizedUserAgent);
+            throw new ServiceOverloadedException("Muitos votos em processamento, tente novamente em instantes",
+                    ingestionBuffer.getRetryAfterSeconds());
+        }
+        ingestionFallbackCounter.increment();
+        try {
+            return transactionTemplate.execute(
+                    status -> persist(validated, request, anonymizedIp, normalizedUserAgent));
+        } catch (RuntimeException ex) {
+            duplicateGuard.forget(validated.surveyId(), questionIds, anonymizedIp, normalizedUserAgent);
+            throw ex;
+        }
+    }
+
+    /**
+     * Registra a resposta completa de um respondente: uma única sessão e todos os votos gravados num batch JDBC,
+     * na mesma transação.
+     */
+    public VoteBatchResponseDTO registerResponse(VoteBatchRequestDTO request, String ipAddress, String userAgent) {
+        PendingResponse pending = prepareResponse(request, ipAddress, userAgent);
+        try {
+            return writeResponse(pending);
+        } catch (RuntimeException ex) {
+            forget(pending);
+            throw ex;
+        }
+    }
+
+    /**
+     * Variante write-behind de {@link #registerResponse}, com o mesmo tratamento de buffer cheio de {@link #enqueueVote}.
+     * Também sem transação na requisição: o fallback grava pelo {@link VoteBatchWriter}, que abre a sua.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public VoteBatchResponseDTO enqueueResponse(VoteBatchRequestDTO request, String ipAddress, String userAgent) {
+        PendingResponse pending = prepareResponse(request, ipAddress, userAgent);
+        if (ingestionBuffer.offer(pending)) {
+            return VoteBatchResponseDTO.queued();
+        }
+        if (!ingestionBuffer.isSyncFallbackEnabled()) {
+            forget(pending);
+            throw new ServiceOverloadedException("Muitos votos em processamento, tente novamente em instantes",
+                    ingestionBuffer.getRetryAfterSeconds());
+        }
+        ingestionFallbackCounter.increment();
+        try {
+            return writeResponse(pending);
+        } catch (RuntimeException ex) {
+            forget(pending);
+            throw ex;
+        }
+    }
+
+    private PendingResponse prepareResponse(VoteBatchRequestDTO request, String ipAddress, String userAgent) {
+        String anonymizedIp = privacyService.anonymizeIpAddress(ipAddress);
+        String normalizedUserAgent = privacyService.normalizeUserAgent(userAgent, 500);
+        List<Long> questionIds = new ArrayList<>(request.getAnswers().size());
+        for (VoteBatchRequestDTO.Answer answer : request.getAnswers()) {
+            questionIds.add(answer.getQuestionId());
+        }
+        duplicateGuard.verify(request.getSurveyId(), questionIds, anonymizedIp, normalizedUserAgent);
+
+        SurveyStructureCache.SurveySnapshot survey = loadOpenSurvey(request.getSurveyId());
+        Set<Long> answeredQuestions = new HashSet<>();
+        List<PendingResponse.Answer> answers = new ArrayList<>(request.getAnswers().size());
+        for (VoteBatchRequestDTO.Answer answer : request.getAnswers()) {
+            if (!answeredQuestions.add(answer.getQuestionId())) {
+                throw new BusinessException("Pergunta respondida mais de uma vez: " + answer.getQuestionId());
+            }
+            validateAnswer(survey, answer.getQuestionId(), answer.getOptionId());
+            answers.add(new PendingResponse.Answer(answer.getQuestionId(), answer.getOptionId()));
+        }
+        batchAnswersSummary.record(answers.size());
+        duplicateGuard.register(survey.surveyId(), questionIds, anonymizedIp, normalizedUserAgent);
+
+        // A sessão cobre várias perguntas, por isso não fica vinculada a nenhuma delas
+        PendingResponse.PendingSession session = privacyService.isAudienceCollectionEnabled()
+                ? buildSession(request, null, normalizedUserAgent)
+                : null;
+        return new PendingResponse(survey.surveyId(), anonymizedIp, normalizedUserAgent, LocalDateTime.now(),
+                session, List.copyOf(answers));
+    }
+
+    private void forget(PendingResponse pending) {
+        List<Long> questionIds = new ArrayList<>(pending.answers().size());
+        for (PendingResponse.Answer answer : pending.answers()) {
+            questionIds.add(answer.questionId());
+        }
+        duplicateGuard.forget(pending.surveyId(), questionIds, pending.ipAddress(), pending.userAgent());
+    }
+
+    private VoteBatchResponseDTO writeResponse(PendingResponse pending) {
+        VoteBatchWriter.WrittenResponse written = batchWriter.write(List.of(pending)).get(0);
+        String antifraudToken = written.sessionId() != null ? "session-" + written.sessionId() : null;
+        return new VoteBatchResponseDTO(written.sessionId(), written.voteIds(), antifraudToken);
+    }
+
+    /**
+     * Valida o voto contra o snapshot em cache da pesquisa. O banco só é consultado novamente em caso de erro,
+     * para distinguir "não encontrada" de "não pertence".
+     */
+    private ValidatedVote validate(VoteRequestDTO request) {
+        SurveyStructureCache.SurveySnapshot survey = loadOpenSurvey(request.getSurveyId());
+        validateAnswer(survey, request.getQuestionId(), request.getOptionId());
+        return new ValidatedVote(survey.surveyId(), request.getQuestionId(), request.getOptionId());
+    }
+
+    private SurveyStructureCache.SurveySnapshot loadOpenSurvey(Long surveyId) {
+        SurveyStructureCache.SurveySnapshot survey = structureCache.get(surveyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pesquisa não encontrada"));
 
-        if (Boolean.FALSE.equals(survey.getAtivo())) {
+        if (!survey.ativo()) {
             throw new BusinessException("Pesquisa está inativa");
         }
-        if (survey.getDataValidade() != null && survey.getDataValidade().isBefore(LocalDateTime.now())) {
+        if (survey.isExpired(LocalDateTime.now())) {
             throw new BusinessException("Pesquisa expirada");
         }
+        return survey;
+    }
 
-        Question question = questionRepository.findById(request.getQuestionId())
-                .orElseThrow(() -> new ResourceNotFoundException("Pergunta não encontrada"));
-        if (!question.getSurvey().getId().equals(survey.getId())) {
+    private void validateAnswer(SurveyStructureCache.SurveySnapshot survey, Long questionId, Long optionId) {
+        if (survey.question(questionId).isEmpty()) {
+            if (questionId == null || !questionRepository.existsById(questionId)) {
+                throw new ResourceNotFoundException("Pergunta não encontrada");
+            }
             throw new BusinessException("Pergunta não pertence à pesquisa");
         }
 
-        Option option = optionRepository.findById(request.getOptionId())
-                .orElseThrow(() -> new ResourceNotFoundException("Opção não encontrada"));
-        if (!option.getQuestion().getId().equals(question.getId())) {
+        SurveyStructureCache.OptionSnapshot option = survey.option(optionId).orElse(null);
+        if (option == null) {
+            if (optionId == null || !optionRepository.existsById(optionId)) {
+                throw new ResourceNotFoundException("Opção não encontrada");
+            }
             throw new BusinessException("Opção não pertence à pergunta");
         }
-        if (Boolean.FALSE.equals(option.getAtivo())) {
+        if (!option.questionId().equals(questionId)) {
+            throw new BusinessException("Opção não pertence à pergunta");
+        }
+        if (!option.ativo()) {
             throw new BusinessException("Opção está inativa");
         }
+    }
 
-        // Aplica políticas de privacidade aos dados sensíveis
-        String anonymizedIp = privacyService.anonymizeIpAddress(ipAddress);
-        String normalizedUserAgent = privacyService.normalizeUserAgent(userAgent, 500);
-
+    private VoteResponseDTO persist(ValidatedVote validated,
+                                    VoteRequestDTO request,
+                                    String anonymizedIp,
+                                    String normalizedUserAgent) {
         Vote vote = new Vote();
-        vote.setSurvey(survey);
-        vote.setQuestion(question);
-        vote.setOption(option);
+        vote.setSurvey(surveyRepository.getReferenceById(validated.surveyId()));
+        vote.setQuestion(questionRepository.getReferenceById(validated.questionId()));
+        vote.setOption(optionRepository.getReferenceById(validated.optionId()));
         vote.setIpAddress(anonymizedIp);
         vote.setUserAgent(normalizedUserAgent);
-        
-        ResponseSession session = privacyService.isAudienceCollectionEnabled()
-                ? buildSession(request, survey, question, anonymizedIp, normalizedUserAgent)
+
+        PendingResponse.PendingSession draft = privacyService.isAudienceCollectionEnabled()
+                ? buildSession(request, validated.questionId(), normalizedUserAgent)
+                : null;
+        ResponseSession session = draft != null
+                ? toEntity(draft, validated, anonymizedIp, normalizedUserAgent)
                 : null;
         if (session != null) {
             responseSessionRepository.save(session);
@@ -95,36 +311,69 @@ public class VoteService {
         }
 
         Vote savedVote = voteRepository.save(vote);
+        dataVersions.bump(List.of(validated.surveyId()));
+        eventPublisher.publishEvent(VotesRecordedEvent.of(validated.surveyId(), validated.questionId(), validated.optionId()));
+        if (draft != null) {
+            eventPublisher.publishEvent(ResponsesRecordedEvent.of(validated.surveyId(), draft, normalizedUserAgent));
+        }
+        if (draft != null && draft.needsEnrichment()) {
+            eventPublisher.publishEvent(SessionsRecordedEvent.of(session.getId(), validated.surveyId(), normalizedUserAgent));
+        }
         String antifraudToken = session != null ? "session-" + session.getId() : null;
         Long sessionId = session != null ? session.getId() : null;
         return new VoteResponseDTO(savedVote.getId(), sessionId, antifraudToken);
     }
 
-    private ResponseSession buildSession(VoteRequestDTO request,
-                                         Survey survey,
-                                         Question question,
-                                         String ip,
-                                         String userAgent) {
-        ResponseSession session = new ResponseSession();
-        session.setSurvey(survey);
-        session.setQuestion(question);
-        session.setIpAddress(ip);
-        session.setUserAgent(userAgent);
-        session.setDeviceType(firstNonBlank(request.getDeviceType(), detectDevice(userAgent)));
-        session.setOperatingSystem(firstNonBlank(request.getOperatingSystem(), detectOperatingSystem(userAgent)));
-        session.setBrowser(firstNonBlank(request.getBrowser(), detectBrowser(userAgent)));
-        session.setSource(firstNonBlank(request.getSource(), "unknown"));
-        session.setCountry(firstNonBlank(request.getCountry(), "unknown"));
-        session.setState(firstNonBlank(request.getState(), null));
-        session.setCity(firstNonBlank(request.getCity(), null));
+    /**
+     * Monta a sessão com os metadados informados pelo cliente. Com enriquecimento assíncrono, as colunas derivadas
+     * que o cliente não informou ficam nulas e são preenchidas por {@link SessionEnrichmentStage} após o commit.
+     */
+    private PendingResponse.PendingSession buildSession(ResponseMetadataDTO request, Long questionId, String userAgent) {
         ResponseStatus status = request.getStatus() != null ? request.getStatus() : ResponseStatus.COMPLETED;
-        session.setStatus(status);
-        session.setStartedAt(request.getStartedAt() != null ? request.getStartedAt() : java.time.LocalDateTime.now());
+        LocalDateTime startedAt = request.getStartedAt() != null ? request.getStartedAt() : LocalDateTime.now();
+        LocalDateTime completedAt = null;
         if (status == ResponseStatus.COMPLETED) {
-            session.setCompletedAt(request.getCompletedAt() != null ? request.getCompletedAt() : java.time.LocalDateTime.now());
+            completedAt = request.getCompletedAt() != null ? request.getCompletedAt() : LocalDateTime.now();
         } else if (status == ResponseStatus.ABANDONED) {
-            session.setCompletedAt(request.getCompletedAt());
+            completedAt = request.getCompletedAt();
         }
+        boolean deferred = enrichmentStage.isEnabled();
+        UserAgentClassifier.UserAgentInfo agent = deferred ? null : userAgentClassifier.classify(userAgent);
+        return new PendingResponse.PendingSession(
+                questionId,
+                firstNonBlank(request.getDeviceType(), deferred ? null : agent.deviceType()),
+                firstNonBlank(request.getOperatingSystem(), deferred ? null : agent.operatingSystem()),
+                firstNonBlank(request.getBrowser(), deferred ? null : agent.browser()),
+                deferred || firstNonBlank(request.getBrowser(), null) != null ? null : agent.browserVersion(),
+                firstNonBlank(request.getSource(), deferred ? null : "unknown"),
+                firstNonBlank(request.getCountry(), deferred ? null : "unknown"),
+                firstNonBlank(request.getState(), null),
+                firstNonBlank(request.getCity(), null),
+                status,
+                startedAt,
+                completedAt);
+    }
+
+    private ResponseSession toEntity(PendingResponse.PendingSession draft,
+                                     ValidatedVote validated,
+                                     String ip,
+                                     String userAgent) {
+        ResponseSession session = new ResponseSession();
+        session.setSurvey(surveyRepository.getReferenceById(validated.surveyId()));
+        session.setQuestion(questionRepository.getReferenceById(validated.questionId()));
+        session.setIpAddress(ip);
+        session.setUserAgent(userAgent);
+        session.setDeviceType(draft.deviceType());
+        session.setOperatingSystem(draft.operatingSystem());
+        session.setBrowser(draft.browser());
+        session.setBrowserVersion(draft.browserVersion());
+        session.setSource(draft.source());
+        session.setCountry(draft.country());
+        session.setState(draft.state());
+        session.setCity(draft.city());
+        session.setStatus(draft.status());
+        session.setStartedAt(draft.startedAt());
+        session.setCompletedAt(draft.completedAt());
         return session;
     }
 
@@ -135,45 +384,6 @@ public class VoteService {
         return fallback;
     }
 
-    private String detectDevice(String userAgent) {
-        if (userAgent == null) {
-            return "unknown";
-        }
-        String ua = userAgent.toLowerCase();
-        if (ua.contains("mobile")) {
-            if (ua.contains("tablet") || ua.contains("ipad")) {
-                return "tablet";
-            }
-            return "mobile";
-        }
-        return "desktop";
-    }
-
-    private String detectOperatingSystem(String userAgent) {
-        if (userAgent == null) {
-            return "unknown";
-        }
-        String ua = userAgent.toLowerCase();
-        if (ua.contains("windows")) return "Windows";
-        if (ua.contains("mac os") || ua.contains("macintosh")) return "macOS";
-        if (ua.contains("android")) return "Android";
-        if (ua.contains("iphone") || ua.contains("ipad") || ua.contains("ios")) return "iOS";
-        if (ua.contains("linux")) return "Linux";
-        return "unknown";
+    private record ValidatedVote(Long surveyId, Long questionId, Long optionId) {
     }
-
-    private String detectBrowser(String userAgent) {
-        if (userAgent == null) {
-            return "unknown";
-        }
-        String ua = userAgent.toLowerCase();
-        if (ua.contains("chrome")) return "Chrome";
-        if (ua.contains("safari") && !ua.contains("chrome")) return "Safari";
-        if (ua.contains("firefox")) return "Firefox";
-        if (ua.contains("edge")) return "Edge";
-        if (ua.contains("opera") || ua.contains("opr")) return "Opera";
-        if (ua.contains("msie") || ua.contains("trident")) return "Internet Explorer";
-        return "unknown";
-    }
-
 }
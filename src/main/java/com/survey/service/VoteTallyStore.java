@@ -0,0 +1,249 @@
+package com.survey.service;
+
+import com.survey.repository.VoteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contagem de votos por opção mantida em memória para o resumo público de votos.
+ *
+ * Cada pesquisa é semeada sob demanda com {@link VoteRepository#aggregateBySurvey} e, a partir daí, incrementada
+ * por {@link VotesRecordedEvent} após o commit (um {@link LongAdder} por opção, sem locks no caminho do voto).
+ * A consulta roda fora do mapa: a contagem nova fica registrada em {@code seeding} antes da consulta e recebe os
+ * votos que chegam enquanto ela roda, então nada se perde na troca. Um voto cujo commit precede a consulta mas
+ * cujo evento chega depois do registro é contado duas vezes; a reconciliação periódica recarrega as contagens do
+ * banco e corrige esse desvio (exposto em {@code vote.tally.drift}). Pesquisas sem leitura dentro de
+ * {@code idle-ttl} são descartadas.
+ */
+@Component
+public class VoteTallyStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VoteTallyStore.class);
+
+    private final VoteRepository voteRepository;
+    private final SurveyStructureCache structureCache;
+    private final Clock clock;
+    private final Duration idleTtl;
+    private final ConcurrentMap<Long, SurveyTally> tallies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, SurveyTally> seeding = new ConcurrentHashMap<>();
+    private final Counter seedCounter;
+    private final Counter reconcileCounter;
+    private final Counter driftCounter;
+
+    public VoteTallyStore(VoteRepository voteRepository,
+                          SurveyStructureCache structureCache,
+                          Clock clock,
+                          @Value("${app.analytics.tallies.idle-ttl-minutes:30}") long idleTtlMinutes,
+                          MeterRegistry meterRegistry) {
+        this.voteRepository = voteRepository;
+        this.structureCache = structureCache;
+        this.clock = clock;
+        this.idleTtl = Duration.ofMinutes(Math.max(1, idleTtlMinutes));
+        this.seedCounter = meterRegistry.counter("vote.tally.seeds");
+        this.reconcileCounter = meterRegistry.counter("vote.tally.reconciliations");
+        this.driftCounter = meterRegistry.counter("vote.tally.drift");
+        Gauge.builder("vote.tally.surveys", tallies, Map::size)
+                .description("Pesquisas com contagem de votos em memória")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Contagens atuais da pesquisa, ordenadas por pergunta e opção. Apenas opções com votos aparecem.
+     */
+    public List<OptionCount> counts(Long surveyId) {
+        SurveyTally tally = tallies.get(surveyId);
+        if (tally == null) {
+            tally = seedAndInstall(surveyId);
+        }
+        tally.lastAccess = clock.instant();
+        List<OptionCount> counts = new ArrayList<>(tally.options.size());
+        for (Map.Entry<Long, OptionTally> entry : tally.options.entrySet()) {
+            OptionTally option = entry.getValue();
+            long total = option.count.sum();
+            if (total > 0) {
+                counts.add(new OptionCount(option.questionId, option.questionText, entry.getKey(), option.optionText, total));
+            }
+        }
+        counts.sort(Comparator.comparing(OptionCount::questionId).thenComparing(OptionCount::optionId));
+        return counts;
+    }
+
+    /**
+     * Só incrementa pesquisas já semeadas ou em semeadura; as demais lerão o voto do banco quando forem consultadas.
+     * {@code seeding} é lido antes de {@code tallies}: se a troca acontecer entre as duas leituras, ambas apontam
+     * para a contagem nova e o voto entra uma vez só.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onVotesRecorded(VotesRecordedEvent event) {
+        for (VotesRecordedEvent.RecordedVote vote : event.votes()) {
+            SurveyTally pending = seeding.get(vote.surveyId());
+            SurveyTally tally = tallies.get(vote.surveyId());
+            if (tally != null) {
+                increment(tally, vote);
+            }
+            if (pending != null && pending != tally) {
+                increment(pending, vote);
+            }
+        }
+    }
+
+    /**
+     * Descarta a contagem da pesquisa para que textos e perguntas/opções removidas apareçam na próxima leitura.
+     * Chamado pelos serviços de cadastro junto com {@link SurveyStructureCache#invalidate}; dentro de uma transação
+     * descarta de novo após o término, para que uma leitura concorrente não reinstale o que ainda não foi gravado.
+     */
+    public void evict(Long surveyId) {
+        if (surveyId == null) {
+            return;
+        }
+        tallies.remove(surveyId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    tallies.remove(surveyId);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.tallies.reconcile-interval-ms:60000}",
+            initialDelayString = "${app.analytics.tallies.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        Instant idleThreshold = clock.instant().minus(idleTtl);
+        for (Map.Entry<Long, SurveyTally> entry : tallies.entrySet()) {
+            Long surveyId = entry.getKey();
+            SurveyTally current = entry.getValue();
+            if (current.lastAccess.isBefore(idleThreshold)) {
+                tallies.remove(surveyId, current);
+                continue;
+            }
+            SurveyTally fresh = new SurveyTally(current.lastAccess);
+            if (seeding.putIfAbsent(surveyId, fresh) != null) {
+                continue;
+            }
+            try {
+                seed(surveyId, fresh);
+                long drift = drift(current, fresh);
+                if (tallies.replace(surveyId, current, fresh)) {
+                    reconcileCounter.increment();
+                    if (drift > 0) {
+                        driftCounter.increment(drift);
+                        LOGGER.debug("Vote tally for survey {} reconciled with drift {}", surveyId, drift);
+                    }
+                }
+            } catch (RuntimeException ex) {
+                LOGGER.warn("Failed to reconcile vote tally for survey {}: {}", surveyId, ex.getMessage());
+            } finally {
+                seeding.remove(surveyId, fresh);
+            }
+        }
+    }
+
+    /**
+     * Semeia fora do mapa e instala com {@code putIfAbsent}. Se outra semeadura da mesma pesquisa já estiver em
+     * andamento, esta apenas responde com a própria leitura e deixa a instalação para a outra.
+     */
+    private SurveyTally seedAndInstall(Long surveyId) {
+        SurveyTally fresh = new SurveyTally(clock.instant());
+        if (seeding.putIfAbsent(surveyId, fresh) != null) {
+            return seed(surveyId, fresh);
+        }
+        try {
+            seed(surveyId, fresh);
+            SurveyTally existing = tallies.putIfAbsent(surveyId, fresh);
+            return existing != null ? existing : fresh;
+        } finally {
+            seeding.remove(surveyId, fresh);
+        }
+    }
+
+    private SurveyTally seed(Long surveyId, SurveyTally tally) {
+        for (VoteRepository.QuestionOptionCount row : voteRepository.aggregateBySurvey(surveyId)) {
+            tally.options
+                    .computeIfAbsent(row.getOptionId(),
+                            optionId -> new OptionTally(row.getQuestionId(), row.getQuestionText(), row.getOptionText()))
+                    .count.add(row.getTotal() != null ? row.getTotal() : 0L);
+        }
+        seedCounter.increment();
+        return tally;
+    }
+
+    private void increment(SurveyTally tally, VotesRecordedEvent.RecordedVote vote) {
+        tally.options
+                .computeIfAbsent(vote.optionId(), optionId -> describe(vote))
+                .count.increment();
+    }
+
+    private OptionTally describe(VotesRecordedEvent.RecordedVote vote) {
+        String questionText = null;
+        String optionText = null;
+        SurveyStructureCache.SurveySnapshot snapshot = structureCache.get(vote.surveyId()).orElse(null);
+        if (snapshot != null) {
+            questionText = snapshot.question(vote.questionId()).map(SurveyStructureCache.QuestionSnapshot::texto).orElse(null);
+            optionText = snapshot.option(vote.optionId()).map(SurveyStructureCache.OptionSnapshot::texto).orElse(null);
+        }
+        return new OptionTally(vote.questionId(), questionText, optionText);
+    }
+
+    private static long drift(SurveyTally current, SurveyTally fresh) {
+        long drift = 0;
+        for (Map.Entry<Long, OptionTally> entry : fresh.options.entrySet()) {
+            OptionTally previous = current.options.get(entry.getKey());
+            long before = previous != null ? previous.count.sum() : 0L;
+            drift += Math.abs(entry.getValue().count.sum() - before);
+        }
+        for (Map.Entry<Long, OptionTally> entry : current.options.entrySet()) {
+            if (!fresh.options.containsKey(entry.getKey())) {
+                drift += entry.getValue().count.sum();
+            }
+        }
+        return drift;
+    }
+
+    public record OptionCount(Long questionId, String questionText, Long optionId, String optionText, long total) {
+    }
+
+    private static final class SurveyTally {
+        private final ConcurrentMap<Long, OptionTally> options = new ConcurrentHashMap<>();
+        private volatile Instant lastAccess;
+
+        private SurveyTally(Instant lastAccess) {
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private static final class OptionTally {
+        private final Long questionId;
+        private final String questionText;
+        private final String optionText;
+        private final LongAdder count = new LongAdder();
+
+        private OptionTally(Long questionId, String questionText, String optionText) {
+            this.questionId = questionId;
+            this.questionText = questionText;
+            this.optionText = optionText;
+        }
+    }
+}
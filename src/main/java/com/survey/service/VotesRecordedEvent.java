@@ -0,0 +1,17 @@
+package com.survey.service;
+
+import java.util.List;
+
+/**
+ * Publicado quando votos são gravados (requisição síncrona ou lote write-behind). Os ouvintes usam
+ * {@code @TransactionalEventListener} para reagir somente após o commit.
+ */
+public record VotesRecordedEvent(List<RecordedVote> votes) {
+
+    public static VotesRecordedEvent of(Long surveyId, Long questionId, Long optionId) {
+        return new VotesRecordedEvent(List.of(new RecordedVote(surveyId, questionId, optionId)));
+    }
+
+    public record RecordedVote(Long surveyId, Long questionId, Long optionId) {
+    }
+}
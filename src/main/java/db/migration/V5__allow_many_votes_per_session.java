@@ -0,0 +1,61 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Remove a restrição UNIQUE de {@code votes.response_session_id} para que uma sessão agrupe todos os votos de
+ * uma resposta completa. A restrição foi criada sem nome na V1, então o nome gerado (MySQL: nome da coluna;
+ * H2: CONSTRAINT_xx) é lido do INFORMATION_SCHEMA. Um índice não único passa a sustentar a FK
+ * {@code fk_votes_session}, que é removida e recriada em volta da troca.
+ */
+public class V5__allow_many_votes_per_session extends BaseJavaMigration {
+
+    private static final String FIND_UNIQUE_CONSTRAINTS = "SELECT tc.CONSTRAINT_NAME "
+            + "FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS tc "
+            + "JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE kcu "
+            + "ON kcu.CONSTRAINT_NAME = tc.CONSTRAINT_NAME AND kcu.TABLE_SCHEMA = tc.TABLE_SCHEMA "
+            + "AND kcu.TABLE_NAME = tc.TABLE_NAME "
+            + "WHERE tc.CONSTRAINT_TYPE = 'UNIQUE' AND UPPER(tc.TABLE_NAME) = 'VOTES' "
+            + "AND UPPER(kcu.COLUMN_NAME) = 'RESPONSE_SESSION_ID' AND tc.TABLE_SCHEMA = ";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX idx_votes_session ON votes (response_session_id)");
+            // A FK é recriada porque o H2 a mantém presa ao índice único mesmo após o DROP CONSTRAINT
+            statement.execute(mysql
+                    ? "ALTER TABLE votes DROP FOREIGN KEY fk_votes_session"
+                    : "ALTER TABLE votes DROP CONSTRAINT fk_votes_session");
+            for (String name : findUniqueConstraints(connection, mysql ? "DATABASE()" : "SCHEMA()")) {
+                statement.execute(mysql
+                        ? "ALTER TABLE votes DROP INDEX `" + name + "`"
+                        : "ALTER TABLE votes DROP CONSTRAINT \"" + name + "\"");
+            }
+            statement.execute("ALTER TABLE votes ADD CONSTRAINT fk_votes_session FOREIGN KEY (response_session_id) "
+                    + "REFERENCES response_sessions(id) ON DELETE SET NULL");
+        }
+    }
+
+    private List<String> findUniqueConstraints(Connection connection, String schemaFunction) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(FIND_UNIQUE_CONSTRAINTS + schemaFunction);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+}
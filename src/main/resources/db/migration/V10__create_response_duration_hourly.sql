@@ -0,0 +1,12 @@
+-- Histogramas (HdrHistogram comprimido, em segundos) das durações por pesquisa e hora, lidos pelos dashboards
+-- para percentis e distribuição. kind: COMPLETION (início até conclusão) ou ABANDONMENT (início até o abandono).
+-- Refeitos por hora junto com response_rollup_hourly (DELETE + INSERT), então somar horas nunca duplica.
+CREATE TABLE response_duration_hourly (
+    survey_id BIGINT NOT NULL,
+    bucket_hour DATETIME NOT NULL,
+    kind VARCHAR(20) NOT NULL,
+    histogram BLOB NOT NULL,
+    PRIMARY KEY (survey_id, bucket_hour, kind)
+);
+
+CREATE INDEX idx_duration_hour ON response_duration_hourly (bucket_hour);
@@ -0,0 +1,2 @@
+-- Versão principal do navegador (ex.: "120", "11" no IE11), extraída do user-agent junto com o nome do navegador.
+ALTER TABLE response_sessions ADD COLUMN browser_version VARCHAR(20) NULL AFTER browser;
@@ -0,0 +1,7 @@
+-- Versão do enriquecimento assíncrono de sessões por pesquisa: cada lote de UPDATEs de SessionEnrichmentStage
+-- incrementa a linha das pesquisas afetadas na mesma transação. Entra na versão dos dados do cache de exportações
+-- por chave primária, sem varrer response_sessions.
+CREATE TABLE survey_enrichment_versions (
+    survey_id BIGINT NOT NULL PRIMARY KEY,
+    version BIGINT NOT NULL
+);
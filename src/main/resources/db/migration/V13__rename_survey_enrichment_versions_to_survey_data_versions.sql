@@ -0,0 +1,4 @@
+-- A versão por pesquisa deixa de ser só do enriquecimento: passa a ser incrementada, na mesma transação, por toda
+-- gravação ou remoção de votos e sessões (voto síncrono, lote write-behind, enriquecimento e limpeza de retenção).
+-- O cache de exportações lê só essa linha, por chave primária, em vez de contar votos e sessões a cada pedido.
+ALTER TABLE survey_enrichment_versions RENAME TO survey_data_versions;
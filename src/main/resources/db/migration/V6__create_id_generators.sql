@@ -0,0 +1,11 @@
+-- Geração de IDs em blocos (pooled-lo) para votes e response_sessions, permitindo batch de inserts.
+-- Os registros existentes mantêm seus IDs; os próximos blocos começam após o maior ID atual.
+-- A partir daqui nada deve gravar nessas tabelas sem id explícito reservado em id_generators: um id do
+-- AUTO_INCREMENT cai dentro de um bloco já reservado pela aplicação (ver scripts/seed_sample_data.sql).
+CREATE TABLE id_generators (
+    name VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);
+
+INSERT INTO id_generators (name, next_val) SELECT 'votes', COALESCE(MAX(id), 0) + 1 FROM votes;
+INSERT INTO id_generators (name, next_val) SELECT 'response_sessions', COALESCE(MAX(id), 0) + 1 FROM response_sessions;
@@ -0,0 +1,3 @@
+-- Cobre a verificação de votos duplicados entre instâncias (pesquisa + IP dentro da janela).
+-- O user-agent fica fora do índice (VARCHAR(500)) e é filtrado nas poucas linhas restantes.
+CREATE INDEX idx_votes_duplicate ON votes (survey_id, ip_address, created_at);
@@ -0,0 +1,32 @@
+-- Agregado por hora das sessões de resposta, lido pelos dashboards de pesquisa no lugar das sessões brutas.
+-- Dimensões já normalizadas: 'unknown' para vazio, status 'UNKNOWN' e question_id 0 quando ausentes.
+-- Cada hora é recalculada inteira (DELETE + INSERT ... SELECT), então a tabela não precisa de chave única.
+CREATE TABLE response_rollup_hourly (
+    survey_id BIGINT NOT NULL,
+    bucket_hour DATETIME NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    question_id BIGINT NOT NULL,
+    device_type VARCHAR(50) NOT NULL,
+    operating_system VARCHAR(100) NOT NULL,
+    browser VARCHAR(100) NOT NULL,
+    traffic_source VARCHAR(100) NOT NULL,
+    country VARCHAR(80) NOT NULL,
+    state VARCHAR(80) NOT NULL,
+    city VARCHAR(80) NOT NULL,
+    responses BIGINT NOT NULL,
+    timed_responses BIGINT NOT NULL,
+    duration_seconds BIGINT NOT NULL,
+    elapsed_responses BIGINT NOT NULL,
+    elapsed_seconds BIGINT NOT NULL
+);
+
+CREATE INDEX idx_rollup_survey_hour ON response_rollup_hourly (survey_id, bucket_hour);
+CREATE INDEX idx_rollup_hour ON response_rollup_hourly (bucket_hour);
+
+-- Até onde (exclusivo) as horas já foram consolidadas; antes disso os dashboards leem só o agregado.
+CREATE TABLE rollup_watermarks (
+    name VARCHAR(64) NOT NULL PRIMARY KEY,
+    rolled_until DATETIME NULL
+);
+
+INSERT INTO rollup_watermarks (name, rolled_until) VALUES ('response_rollup_hourly', NULL);
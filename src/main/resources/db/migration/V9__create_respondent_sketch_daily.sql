@@ -0,0 +1,10 @@
+-- Sketch HyperLogLog dos respondentes (IPs) por pesquisa e dia, mantido junto com response_rollup_hourly.
+-- Respondentes distintos de qualquer intervalo saem da união dos dias cobertos mais as pontas brutas.
+CREATE TABLE respondent_sketch_daily (
+    survey_id BIGINT NOT NULL,
+    bucket_date DATE NOT NULL,
+    registers VARBINARY(3074) NOT NULL,
+    PRIMARY KEY (survey_id, bucket_date)
+);
+
+CREATE INDEX idx_respondent_sketch_date ON respondent_sketch_daily (bucket_date);
@@ -0,0 +1,94 @@
+package com.survey.controller;
+
+import com.survey.dto.DashboardOverviewResponse;
+import com.survey.dto.SurveyAudienceResponse;
+import com.survey.service.DashboardOverviewSnapshot;
+import com.survey.service.DashboardResultCache;
+import com.survey.service.DashboardSeriesService;
+import com.survey.service.DashboardStreamHub;
+import com.survey.service.ResponseRollupStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DashboardControllerTest {
+
+    private static final String ETAG = "\"0123456789abcdef\"";
+    private static final String OVERVIEW_ETAG = "W/\"0123456789abcdef\"";
+
+    private MockMvc mockMvc;
+    private DashboardOverviewSnapshot overviewSnapshot;
+    private DashboardResultCache resultCache;
+
+    @BeforeEach
+    void setUp() {
+        overviewSnapshot = mock(DashboardOverviewSnapshot.class);
+        resultCache = mock(DashboardResultCache.class);
+        DashboardController controller = new DashboardController(
+                resultCache, overviewSnapshot, mock(ResponseRollupStore.class),
+                mock(DashboardStreamHub.class), mock(DashboardSeriesService.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        DashboardOverviewResponse response = new DashboardOverviewResponse(
+                new DashboardOverviewResponse.Totals(2, 1, 1, 10),
+                new DashboardOverviewResponse.Growth(1, 2),
+                new DashboardOverviewResponse.Rates(0.5, 0.25),
+                12.5,
+                new DashboardOverviewResponse.Rankings(List.of(), List.of(), List.of(), List.of(), List.of()),
+                LocalDateTime.of(2024, 1, 1, 10, 0));
+        when(overviewSnapshot.get()).thenReturn(new DashboardOverviewSnapshot.Snapshot(response, OVERVIEW_ETAG, 0));
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/overview deve devolver o snapshot com ETag")
+    void getOverview_shouldReturnSnapshotWithEtag() throws Exception {
+        mockMvc.perform(get("/api/dashboard/overview"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, OVERVIEW_ETAG))
+                .andExpect(jsonPath("$.totals.totalResponses").value(10))
+                .andExpect(jsonPath("$.generatedAt").exists());
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/overview deve responder 304 quando o If-None-Match coincide")
+    void getOverview_withMatchingEtag_shouldReturn304() throws Exception {
+        mockMvc.perform(get("/api/dashboard/overview").header(HttpHeaders.IF_NONE_MATCH, OVERVIEW_ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/surveys/{id}/audience deve devolver ETag e Cache-Control do cache de resultados")
+    void getSurveyAudience_shouldReturnCachedResultWithEtag() throws Exception {
+        SurveyAudienceResponse audience = new SurveyAudienceResponse(Map.of("mobile", 3L), Map.of(), Map.of(),
+                Map.of(), Map.of(), Map.of(), Map.of(), List.of(), List.of(), 0, null, 3, 0, 0, List.of());
+        when(resultCache.getAudience(eq(1L), isNull(), isNull(), eq(false)))
+                .thenReturn(new DashboardResultCache.Cached<>(audience, ETAG));
+        when(resultCache.cacheControl()).thenReturn(CacheControl.noCache().cachePrivate());
+
+        mockMvc.perform(get("/api/dashboard/surveys/1/audience"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(jsonPath("$.devices.mobile").value(3));
+        mockMvc.perform(get("/api/dashboard/surveys/1/audience").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -216,7 +216,7 @@ class OptionControllerTest {
         private Long lastDeleteId;
 
         TestOptionService() {
-            super(null, null);
+            super(null, null, null, null);
         }
 
         void setFindAllResult(List<OptionResponseDTO> result) {
@@ -46,7 +46,7 @@ class SurveyControllerTest {
         objectMapper = new ObjectMapper();
         objectMapper.findAndRegisterModules();
 
-        SurveyController controller = new SurveyController(surveyService, null);
+        SurveyController controller = new SurveyController(surveyService, null, null);
         LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
         validator.afterPropertiesSet();
 
@@ -316,7 +316,7 @@ class SurveyControllerTest {
         private Integer lastPageSize;
 
         TestSurveyService() {
-            super(null, null, null, new SimpleMeterRegistry());
+            super(null, null, null, null, null, new SimpleMeterRegistry());
         }
 
         void setFindAllResult(List<SurveyResponseDTO> result) {
@@ -1,6 +1,8 @@
 package com.survey.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.survey.dto.VoteBatchRequestDTO;
+import com.survey.dto.VoteBatchResponseDTO;
 import com.survey.dto.VoteRequestDTO;
 import com.survey.dto.VoteResponseDTO;
 import com.survey.service.VoteService;
@@ -12,11 +14,14 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.List;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class VoteControllerTest {
@@ -30,7 +35,7 @@ class VoteControllerTest {
     void setUp() {
         voteService = mock(VoteService.class);
         voteRateLimiter = mock(VoteRateLimiter.class);
-        when(voteRateLimiter.allow(any())).thenReturn(true);
+        when(voteRateLimiter.tryAcquire(any(), any())).thenReturn(new VoteRateLimiter.Decision(true, null, 0));
         VoteController controller = new VoteController(voteService, voteRateLimiter);
         objectMapper = new ObjectMapper();
         mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
@@ -50,4 +55,61 @@ class VoteControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(header().string("Location", "/api/votes/10"));
     }
+
+    @Test
+    @DisplayName("POST /api/votes deve retornar 202 quando o voto é enfileirado")
+    void registerVote_whenQueued_shouldReturn202() throws Exception {
+        when(voteService.isAsyncIngestionEnabled()).thenReturn(true);
+        when(voteService.enqueueVote(any(VoteRequestDTO.class), any(), any()))
+                .thenReturn(VoteResponseDTO.queued());
+
+        VoteRequestDTO request = new VoteRequestDTO(1L, 2L, 3L);
+
+        mockMvc.perform(post("/api/votes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().doesNotExist("Location"));
+    }
+
+    @Test
+    @DisplayName("POST /api/votes/batch deve registrar resposta completa retornando 201")
+    void registerResponse_shouldReturn201() throws Exception {
+        when(voteService.registerResponse(any(VoteBatchRequestDTO.class), any(), any()))
+                .thenReturn(new VoteBatchResponseDTO(20L, List.of(10L, 11L), "session-20"));
+
+        VoteBatchRequestDTO request = new VoteBatchRequestDTO(1L, List.of(
+                new VoteBatchRequestDTO.Answer(2L, 3L),
+                new VoteBatchRequestDTO.Answer(4L, 5L)));
+
+        mockMvc.perform(post("/api/votes/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.sessionId").value(20))
+                .andExpect(jsonPath("$.voteIds.length()").value(2));
+    }
+
+    @Test
+    @DisplayName("POST /api/votes/batch deve rejeitar envio sem respostas")
+    void registerResponse_withoutAnswers_shouldReturn400() throws Exception {
+        VoteBatchRequestDTO request = new VoteBatchRequestDTO(1L, List.of());
+
+        mockMvc.perform(post("/api/votes/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/votes deve retornar 429 com Retry-After quando o limite é excedido")
+    void registerVote_whenRateLimited_shouldReturn429() throws Exception {
+        when(voteRateLimiter.tryAcquire(any(), any())).thenReturn(new VoteRateLimiter.Decision(false, "ip", 7));
+
+        mockMvc.perform(post("/api/votes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new VoteRequestDTO(1L, 2L, 3L))))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "7"));
+    }
 }
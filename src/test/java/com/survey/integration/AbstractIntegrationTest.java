@@ -21,6 +21,8 @@ abstract class AbstractIntegrationTest {
         // Ordem importa por FKs
         jdbcTemplate.execute("DELETE FROM votes");
         jdbcTemplate.execute("DELETE FROM response_sessions");
+        jdbcTemplate.execute("DELETE FROM response_rollup_hourly");
+        jdbcTemplate.execute("UPDATE rollup_watermarks SET rolled_until = NULL");
         jdbcTemplate.execute("DELETE FROM options");
         jdbcTemplate.execute("DELETE FROM questions");
         jdbcTemplate.execute("DELETE FROM surveys");
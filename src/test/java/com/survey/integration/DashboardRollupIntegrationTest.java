@@ -0,0 +1,175 @@
+package com.survey.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.survey.dto.SurveyAudienceResponse;
+import com.survey.dto.SurveyDashboardResponse;
+import com.survey.dto.SurveySeriesResponse;
+import com.survey.entity.Question;
+import com.survey.entity.Survey;
+import com.survey.repository.QuestionRepository;
+import com.survey.repository.SurveyRepository;
+import com.survey.service.DashboardSeriesService;
+import com.survey.service.DashboardService;
+import com.survey.service.HyperLogLog;
+import com.survey.service.ResponseRollupStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DashboardRollupIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private ResponseRollupStore rollupStore;
+
+    @Autowired
+    private DashboardSeriesService seriesService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private long nextSessionId = 900_000;
+
+    @Test
+    @DisplayName("Dashboard e audiência devem ser iguais lendo sessões brutas ou o agregado horário")
+    void dashboards_shouldMatchBeforeAndAfterBackfill() {
+        Survey survey = surveyRepository.save(
+                new Survey("Pesquisa Rollup " + UUID.randomUUID(), true, LocalDateTime.now().plusDays(1)));
+        Question question = questionRepository.save(new Question("Pergunta abandonada", 1, survey));
+
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(5);
+        insertSession(survey.getId(), null, "10.0.0.1", "mobile", "COMPLETED", base.plusMinutes(10), 120);
+        insertSession(survey.getId(), null, "10.0.0.1", "mobile", "COMPLETED", base.plusMinutes(20), 3);
+        insertSession(survey.getId(), null, "10.0.0.2", " desktop ", "COMPLETED", base.plusHours(1).plusMinutes(5), 60);
+        insertSession(survey.getId(), question.getId(), "10.0.0.3", null, "ABANDONED", base.plusHours(2), 30);
+        insertSession(survey.getId(), null, "10.0.0.4", "mobile", "COMPLETED", LocalDateTime.now(), 10);
+
+        LocalDateTime from = base.minusDays(1);
+        LocalDateTime to = LocalDateTime.now().plusMinutes(1);
+        JsonNode rawDashboard = json(dashboardService.getSurveyDashboard(survey.getId(), from, to, false));
+        JsonNode rawAudience = json(dashboardService.getSurveyAudience(survey.getId(), from, to, false));
+
+        assertThat(rollupStore.backfill(null, null)).isPositive();
+        Integer rolled = jdbcTemplate.queryForObject(
+                "SELECT SUM(responses) FROM response_rollup_hourly WHERE survey_id = ?", Integer.class, survey.getId());
+        assertThat(rolled).isEqualTo(4);
+        Integer sketches = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM respondent_sketch_daily WHERE survey_id = ?", Integer.class, survey.getId());
+        assertThat(sketches).isPositive();
+
+        SurveyDashboardResponse dashboard = dashboardService.getSurveyDashboard(survey.getId(), from, to, false);
+        SurveyAudienceResponse audience = dashboardService.getSurveyAudience(survey.getId(), from, to, false);
+        assertThat(json(dashboard)).isEqualTo(rawDashboard);
+        assertThat(json(audience)).isEqualTo(rawAudience);
+
+        assertThat(dashboard.getOverview().getTotalResponses()).isEqualTo(5);
+        assertThat(dashboard.getOverview().getMostAbandonedQuestion()).isEqualTo("Pergunta abandonada");
+        assertThat(dashboard.getOverview().getPredominantDevice()).isEqualTo("mobile");
+        assertThat(dashboard.getAudience().getDevices())
+                .containsEntry("mobile", 3L)
+                .containsEntry("desktop", 1L)
+                .containsEntry("unknown", 1L);
+        assertThat(audience.getUniqueRespondents()).isEqualTo(4);
+        assertThat(audience.getUniqueRespondentsRelativeError()).isEqualTo(HyperLogLog.RELATIVE_STANDARD_ERROR);
+        assertThat(audience.getDuplicateResponses()).isEqualTo(1);
+        assertThat(audience.getAverageAbandonmentTimeSeconds()).isEqualTo(30.0);
+        assertThat(audience.getSuspiciousIndicators()).hasSize(1);
+        assertThat(dashboard.getResponseTimes().getCompletion().getCount()).isEqualTo(4);
+        assertThat(dashboard.getResponseTimes().getCompletion().getP50Seconds()).isEqualTo(10);
+        assertThat(dashboard.getResponseTimes().getCompletion().getMaxSeconds()).isEqualTo(120);
+        assertThat(audience.getAbandonmentTime().getP50Seconds()).isEqualTo(30);
+        Integer histograms = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM response_duration_hourly WHERE survey_id = ?", Integer.class, survey.getId());
+        assertThat(histograms).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Série horária e por minuto devem ser iguais lendo sessões brutas ou o agregado horário")
+    void series_shouldMatchBeforeAndAfterBackfill() {
+        Survey survey = surveyRepository.save(
+                new Survey("Pesquisa Série " + UUID.randomUUID(), true, LocalDateTime.now().plusDays(1)));
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(6);
+        insertSession(survey.getId(), null, "10.2.0.1", "mobile", "COMPLETED", base.plusMinutes(5), 10);
+        insertSession(survey.getId(), null, "10.2.0.2", "mobile", "COMPLETED", base.plusMinutes(5).plusSeconds(20), 10);
+        insertSession(survey.getId(), null, "10.2.0.3", "mobile", "COMPLETED", base.plusHours(2).plusMinutes(30), 10);
+
+        LocalDateTime from = base.minusHours(1).plusMinutes(30);
+        LocalDateTime to = base.plusHours(4);
+        JsonNode raw = json(seriesService.getSeries(survey.getId(), "hour", null, from, to));
+
+        rollupStore.backfill(null, null);
+
+        SurveySeriesResponse hourly = seriesService.getSeries(survey.getId(), "hour", null, from, to);
+        assertThat(json(hourly)).isEqualTo(raw);
+        assertThat(hourly.getTotal()).isEqualTo(3);
+        assertThat(hourly.getPoints()).hasSize(5);
+        assertThat(hourly.getPoints()).extracting(SurveySeriesResponse.Point::getResponses)
+                .containsExactly(0L, 2L, 0L, 1L, 0L);
+        SurveySeriesResponse minutes = seriesService.getSeries(survey.getId(), "minute", null,
+                base, base.plusMinutes(10));
+        assertThat(minutes.getPoints().get(5).getResponses()).isEqualTo(2);
+        assertThat(minutes.getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Respondentes distintos devem sair da união dos sketches diários mais as pontas brutas")
+    void uniqueRespondents_shouldMergeDailySketches() {
+        Survey survey = surveyRepository.save(
+                new Survey("Pesquisa Sketch " + UUID.randomUUID(), true, LocalDateTime.now().plusDays(1)));
+        LocalDateTime today = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        insertSession(survey.getId(), null, "10.1.0.1", "mobile", "COMPLETED", today.minusDays(3).plusHours(23), 10);
+        insertSession(survey.getId(), null, "10.1.0.1", "mobile", "COMPLETED", today.minusDays(2).plusHours(1), 10);
+        insertSession(survey.getId(), null, "10.1.0.2", "mobile", "COMPLETED", today.minusDays(2).plusHours(8), 10);
+        insertSession(survey.getId(), null, "10.1.0.3", "mobile", "COMPLETED", today.minusDays(1).plusHours(12), 10);
+        insertSession(survey.getId(), null, null, "mobile", "COMPLETED", today.minusDays(1).plusHours(13), 10);
+        insertSession(survey.getId(), null, "10.1.0.2", "mobile", "COMPLETED", LocalDateTime.now(), 10);
+
+        LocalDateTime from = today.minusDays(3).plusHours(12);
+        LocalDateTime to = LocalDateTime.now().plusMinutes(1);
+        long raw = rollupStore.readRespondents(survey.getId(), from, to).estimate();
+
+        rollupStore.backfill(null, null);
+        Integer sketches = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM respondent_sketch_daily WHERE survey_id = ?", Integer.class, survey.getId());
+
+        assertThat(raw).isEqualTo(4);
+        assertThat(sketches).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT rolled_until FROM rollup_watermarks WHERE name = ?",
+                Timestamp.class, "response_rollup_hourly").toLocalDateTime()).isAfterOrEqualTo(today.minusDays(1));
+        assertThat(rollupStore.readRespondents(survey.getId(), from, to).estimate()).isEqualTo(4);
+        assertThat(rollupStore.readRespondents(survey.getId(), today.minusDays(2), today.minusNanos(1_000)).estimate())
+                .isEqualTo(4);
+    }
+
+    private void insertSession(Long surveyId, Long questionId, String ip, String deviceType, String status,
+                               LocalDateTime createdAt, int durationSeconds) {
+        LocalDateTime startedAt = createdAt.minusSeconds(durationSeconds);
+        jdbcTemplate.update("INSERT INTO response_sessions (id, survey_id, question_id, ip_address, device_type, "
+                        + "status, started_at, completed_at, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                nextSessionId++, surveyId, questionId, ip, deviceType, status, Timestamp.valueOf(startedAt),
+                "COMPLETED".equals(status) ? Timestamp.valueOf(createdAt) : null, Timestamp.valueOf(createdAt));
+    }
+
+    private JsonNode json(Object value) {
+        return objectMapper.valueToTree(value);
+    }
+}
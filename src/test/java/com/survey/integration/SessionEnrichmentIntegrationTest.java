@@ -0,0 +1,114 @@
+package com.survey.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.survey.dto.VoteBatchRequestDTO;
+import com.survey.dto.VoteRequestDTO;
+import com.survey.entity.Option;
+import com.survey.entity.Question;
+import com.survey.entity.ResponseSession;
+import com.survey.entity.Survey;
+import com.survey.repository.OptionRepository;
+import com.survey.repository.QuestionRepository;
+import com.survey.repository.ResponseSessionRepository;
+import com.survey.repository.SurveyRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "app.sessions.enrichment.async-enabled=true",
+        "app.sessions.enrichment.flush-interval-ms=20"
+})
+class SessionEnrichmentIntegrationTest extends AbstractIntegrationTest {
+
+    private static final String IPHONE_UA = "Mozilla/5.0 (iPhone; CPU iPhone OS 17_0 like Mac OS X) "
+            + "AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.0 Mobile/15E148 Safari/604.1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private OptionRepository optionRepository;
+
+    @Autowired
+    private ResponseSessionRepository responseSessionRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    @DisplayName("Sessões devem ser enriquecidas após o commit, preservando o que o cliente informou")
+    void registerVote_shouldEnrichSessionInBackground() throws Exception {
+        Survey survey = surveyRepository.save(
+                new Survey("Pesquisa Enriquecimento " + UUID.randomUUID(), true, LocalDateTime.now().plusDays(1)));
+        Question question = questionRepository.save(new Question("Pergunta 1", 1, survey));
+        Option option = optionRepository.save(new Option("Opção A", true, question));
+
+        VoteRequestDTO single = new VoteRequestDTO(survey.getId(), question.getId(), option.getId());
+        single.setCountry("BR");
+        mockMvc.perform(post("/api/votes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("User-Agent", IPHONE_UA)
+                        .content(objectMapper.writeValueAsString(single)))
+                .andExpect(status().isCreated());
+
+        VoteBatchRequestDTO batch = new VoteBatchRequestDTO();
+        batch.setSurveyId(survey.getId());
+        batch.setAnswers(List.of(new VoteBatchRequestDTO.Answer(question.getId(), option.getId())));
+        mockMvc.perform(post("/api/votes/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("User-Agent", IPHONE_UA)
+                        .with(req -> {
+                            req.setRemoteAddr("203.0.113.30");
+                            return req;
+                        })
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isCreated());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pendingSessions() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        List<ResponseSession> sessions = responseSessionRepository.findAll();
+        assertThat(sessions).hasSize(2);
+        assertThat(sessions).allSatisfy(session -> {
+            assertThat(session.getDeviceType()).isEqualTo("mobile");
+            assertThat(session.getOperatingSystem()).isEqualTo("iOS");
+            assertThat(session.getBrowser()).isEqualTo("Safari");
+            assertThat(session.getBrowserVersion()).isEqualTo("17");
+            assertThat(session.getSource()).isEqualTo("unknown");
+        });
+        assertThat(sessions).extracting(ResponseSession::getCountry).containsExactlyInAnyOrder("BR", "unknown");
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM survey_data_versions WHERE survey_id = ?",
+                Long.class, survey.getId())).isPositive();
+    }
+
+    private int pendingSessions() {
+        Integer pending = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM response_sessions WHERE device_type IS NULL OR country IS NULL", Integer.class);
+        return pending != null ? pending : 0;
+    }
+}
@@ -0,0 +1,415 @@
+package com.survey.integration;
+
+import com.jayway.jsonpath.JsonPath;
+import com.survey.entity.Option;
+import com.survey.entity.Question;
+import com.survey.entity.ResponseStatus;
+import com.survey.entity.Survey;
+import com.survey.entity.UserAccount;
+import com.survey.repository.OptionRepository;
+import com.survey.repository.QuestionRepository;
+import com.survey.repository.SurveyRepository;
+import com.survey.repository.UserRepository;
+import com.survey.security.JwtTokenProvider;
+import com.survey.service.ResponseSessionScanner;
+import com.survey.service.SurveyDataVersions;
+import com.survey.service.SurveyExportService;
+import org.apache.parquet.format.ColumnMetaData;
+import org.apache.parquet.format.Encoding;
+import org.apache.parquet.format.FileMetaData;
+import org.apache.parquet.format.SchemaElement;
+import org.apache.parquet.format.Util;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SurveyExportIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private SurveyExportService surveyExportService;
+
+    @Autowired
+    private ResponseSessionScanner sessionScanner;
+
+    @Autowired
+    private SurveyDataVersions dataVersions;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private OptionRepository optionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private long nextSessionId = 950_000;
+
+    @Test
+    @DisplayName("Cursor de sessões deve trazer o texto da pergunta e alimentar as abas Sessions e Overview")
+    void exportSurveyAsXlsx_shouldStreamSessionRows() throws IOException {
+        Survey survey = surveyRepository.save(
+                new Survey("Pesquisa Export " + UUID.randomUUID(), true, LocalDateTime.now().plusDays(1)));
+        Question question = questionRepository.save(new Question("Qual sua cidade?", 1, survey));
+        LocalDateTime base = LocalDateTime.of(2024, 3, 4, 10, 0);
+        insertSession(survey.getId(), null, "mobile", "COMPLETED", base, 30);
+        insertSession(survey.getId(), question.getId(), "desktop", "ABANDONED", base.plusMinutes(5), 12);
+        insertSession(survey.getId(), question.getId(), "desktop", "ABANDONED", base.plusMinutes(9), 4);
+
+        List<ResponseSessionScanner.SessionRow> rows;
+        try (Stream<ResponseSessionScanner.SessionRow> stream = sessionScanner.streamBySurvey(survey.getId())) {
+            rows = stream.toList();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        surveyExportService.writeXlsx(surveyExportService.prepareXlsx(survey.getId(), false), out);
+        byte[] bytes = out.toByteArray();
+
+        assertThat(rows).extracting(ResponseSessionScanner.SessionRow::status)
+                .containsExactly(ResponseStatus.COMPLETED, ResponseStatus.ABANDONED, ResponseStatus.ABANDONED);
+        assertThat(rows.get(1).questionText()).isEqualTo("Qual sua cidade?");
+        assertThat(rows.get(1).startedAt()).isEqualTo(base.plusMinutes(5).minusSeconds(12));
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))) {
+            assertThat(workbook.getSheetAt(0).getSheetName()).isEqualTo("Overview");
+            assertThat(workbook.getActiveSheetIndex()).isZero();
+            Sheet sessions = workbook.getSheet("Sessions");
+            assertThat(sessions.getLastRowNum()).isEqualTo(3);
+            assertThat(sessions.getRow(2).getCell(2).getNumericCellValue()).isEqualTo(question.getId().doubleValue());
+            assertThat(sessions.getRow(2).getCell(3).getStringCellValue()).isEqualTo("ABANDONED");
+            Map<String, String> overview = metrics(workbook.getSheet("Overview"));
+            assertThat(overview).containsEntry("Respostas totais", "3")
+                    .containsEntry("Abandonadas", "2")
+                    .containsEntry("Pergunta com mais abandono", "Qual sua cidade?")
+                    .containsEntry("Dispositivo predominante", "desktop");
+        }
+    }
+
+    @Test
+    @DisplayName("GET /api/surveys/{id}/export deve escrever o XLSX em streaming mantendo abas e gráfico")
+    void exportEndpoint_shouldStreamWorkbook() throws Exception {
+        Survey survey = surveyRepository.save(
+                new Survey("Pesquisa Stream " + UUID.randomUUID(), true, LocalDateTime.now().plusDays(1)));
+        Question question = questionRepository.save(new Question("Pergunta", 1, survey));
+        Option option = optionRepository.save(new Option("Sim", true, question));
+        jdbcTemplate.update("INSERT INTO votes (survey_id, question_id, option_id, created_at) VALUES (?, ?, ?, ?)",
+                survey.getId(), question.getId(), option.getId(), Timestamp.valueOf(LocalDateTime.now()));
+        for (int i = 0; i < 250; i++) {
+            insertSession(survey.getId(), null, "mobile", "COMPLETED", LocalDateTime.of(2024, 3, 4, 10, 0).plusMinutes(i), 20);
+        }
+
+        MvcResult started = mockMvc.perform(get("/api/surveys/{id}/export", survey.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] bytes = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=survey-" + survey.getId() + ".xlsx"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))) {
+            assertThat(workbook).extracting(Sheet::getSheetName)
+                    .containsExactly("Overview", "Survey", "Estrutura", "Votos", "Sessions");
+            assertThat(workbook.getSheet("Sessions").getLastRowNum()).isEqualTo(250);
+            assertThat(workbook.getSheet("Votos").getDrawingPatriarch().getCharts()).hasSize(1);
+            assertThat(metrics(workbook.getSheet("Overview"))).containsEntry("Respostas totais", "250")
+                    .containsEntry("Total de votos", "1");
+        }
+        mockMvc.perform(get("/api/surveys/{id}/export", 999_999L)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Downloads repetidos do XLSX devem sair do cache, com 304 para o mesmo ETag, até os dados mudarem")
+    void exportEndpoint_shouldServeCachedWorkbookUntilDataChanges() throws Exception {
+        Survey survey = surveyRepository.save(
+                new Survey("Pesquisa Cache " + UUID.randomUUID(), true, LocalDateTime.now().plusDays(1)));
+        LocalDateTime base = LocalDateTime.of(2024, 3, 4, 10, 0);
+        for (int i = 0; i < 3; i++) {
+            insertSession(survey.getId(), null, "mobile", "COMPLETED", base.plusMinutes(i), 20);
+        }
+
+        MvcResult first = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/surveys/{id}/export", survey.getId()))
+                        .andExpect(request().asyncStarted())
+                        .andReturn()))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        MvcResult second = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/surveys/{id}/export", survey.getId()))
+                        .andExpect(request().asyncStarted())
+                        .andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andReturn();
+        // O XLSX gerado de novo teria outros horários no zip: bytes iguais só vêm do cache
+        assertThat(second.getResponse().getContentAsByteArray())
+                .isEqualTo(first.getResponse().getContentAsByteArray());
+        mockMvc.perform(get("/api/surveys/{id}/export", survey.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // Os gravadores incrementam a versão na transação da gravação; aqui a sessão entra por JDBC direto
+        insertSession(survey.getId(), null, "tablet", "COMPLETED", base.plusMinutes(10), 20);
+        dataVersions.bump(List.of(survey.getId()));
+        MvcResult changed = mockMvc.perform(get("/api/surveys/{id}/export", survey.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] bytes = mockMvc.perform(asyncDispatch(changed))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(changed.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))) {
+            assertThat(workbook.getSheet("Sessions").getLastRowNum()).isEqualTo(4);
+        }
+
+        // Enriquecimento assíncrono: não muda ids nem contagens, só a versão da pesquisa
+        String changedEtag = changed.getResponse().getHeader(HttpHeaders.ETAG);
+        jdbcTemplate.update("UPDATE response_sessions SET country = 'BR' WHERE survey_id = ?", survey.getId());
+        dataVersions.bump(List.of(survey.getId()));
+        MvcResult enriched = mockMvc.perform(get("/api/surveys/{id}/export", survey.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, changedEtag))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(enriched)).andExpect(status().isOk());
+        assertThat(enriched.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(changedEtag);
+    }
+
+    @Test
+    @DisplayName("Exportação assíncrona deve rodar em segundo plano e servir o arquivo pelo job")
+    void exportJob_shouldRunInBackgroundAndServeFile() throws Exception {
+        Survey survey = surveyRepository.save(
+                new Survey("Pesquisa Job " + UUID.randomUUID(), true, LocalDateTime.now().plusDays(1)));
+        for (int i = 0; i < 30; i++) {
+            insertSession(survey.getId(), null, "tablet", "COMPLETED", LocalDateTime.of(2024, 3, 4, 10, 0).plusMinutes(i), 20);
+        }
+        String token = adminToken();
+
+        MvcResult submitted = mockMvc.perform(post("/api/surveys/{id}/exports", survey.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.surveyId").value(survey.getId()))
+                .andReturn();
+        String jobId = JsonPath.read(submitted.getResponse().getContentAsString(), "$.jobId");
+        assertThat(submitted.getResponse().getHeader(HttpHeaders.LOCATION)).isEqualTo("/api/exports/" + jobId);
+
+        String status = null;
+        for (int attempt = 0; attempt < 100 && !"COMPLETED".equals(status); attempt++) {
+            Thread.sleep(50);
+            status = JsonPath.read(mockMvc.perform(get("/api/exports/{jobId}", jobId)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), "$.status");
+        }
+        assertThat(status).isEqualTo("COMPLETED");
+
+        byte[] bytes = mockMvc.perform(get("/api/exports/{jobId}/file", jobId)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"survey-" + survey.getId() + ".xlsx\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))) {
+            assertThat(workbook.getSheet("Sessions").getLastRowNum()).isEqualTo(30);
+            assertThat(metrics(workbook.getSheet("Overview"))).containsEntry("Dispositivo predominante", "tablet");
+        }
+        mockMvc.perform(get("/api/exports/{jobId}", jobId)).andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/surveys/{id}/exports", 999_999L)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("CSV e NDJSON crus devem sair do cursor, com gzip quando aceito")
+    void rawExport_shouldStreamCsvAndNdjson() throws Exception {
+        Survey survey = surveyRepository.save(
+                new Survey("Pesquisa Raw " + UUID.randomUUID(), true, LocalDateTime.now().plusDays(1)));
+        Question question = questionRepository.save(new Question("Pergunta", 1, survey));
+        Option option = optionRepository.save(new Option("Sim", true, question));
+        LocalDateTime base = LocalDateTime.of(2024, 3, 4, 10, 0);
+        insertSession(survey.getId(), null, "mobile", "COMPLETED", base, 30);
+        insertSession(survey.getId(), question.getId(), "desktop, 4k", "ABANDONED", base.plusMinutes(1), 5);
+        jdbcTemplate.update("INSERT INTO votes (survey_id, question_id, option_id, created_at) VALUES (?, ?, ?, ?)",
+                survey.getId(), question.getId(), option.getId(), Timestamp.valueOf(base));
+        String token = adminToken();
+
+        MvcResult csvStarted = mockMvc.perform(get("/api/surveys/{id}/export.csv", survey.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] gzipped = mockMvc.perform(asyncDispatch(csvStarted))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        String[] csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\r\n");
+        }
+        assertThat(csv).hasSize(3);
+        assertThat(csv[0]).startsWith("id,survey_id,question_id,status,device_type");
+        assertThat(csv[2]).contains(",ABANDONED,\"desktop, 4k\",").contains(",2024-03-04T10:00:55,,2024-03-04T10:01:00,");
+
+        MvcResult ndjsonStarted = mockMvc.perform(get("/api/surveys/{id}/export.ndjson", survey.getId())
+                        .param("dataset", "votes")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String ndjson = mockMvc.perform(asyncDispatch(ndjsonStarted))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(ndjson.lines()).singleElement().satisfies(line -> {
+            assertThat((Integer) JsonPath.read(line, "$.option_id")).isEqualTo(option.getId().intValue());
+            assertThat((Object) JsonPath.read(line, "$.response_session_id")).isNull();
+            assertThat((String) JsonPath.read(line, "$.created_at")).isEqualTo("2024-03-04T10:00:00");
+        });
+
+        mockMvc.perform(get("/api/surveys/{id}/export.csv", 999_999L)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/surveys/{id}/export.csv", survey.getId())).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Parquet deve sair com dicionário nas categorias, de forma síncrona ou por job")
+    void parquetExport_shouldWriteColumnsSyncAndAsJob() throws Exception {
+        Survey survey = surveyRepository.save(
+                new Survey("Pesquisa Parquet " + UUID.randomUUID(), true, LocalDateTime.now().plusDays(1)));
+        Question question = questionRepository.save(new Question("Pergunta", 1, survey));
+        Option option = optionRepository.save(new Option("Sim", true, question));
+        LocalDateTime base = LocalDateTime.of(2024, 3, 4, 10, 0);
+        for (int i = 0; i < 5; i++) {
+            insertSession(survey.getId(), null, i % 2 == 0 ? "mobile" : "desktop", "COMPLETED", base.plusMinutes(i), 10);
+        }
+        jdbcTemplate.update("INSERT INTO votes (survey_id, question_id, option_id, created_at) VALUES (?, ?, ?, ?)",
+                survey.getId(), question.getId(), option.getId(), Timestamp.valueOf(base));
+        String token = adminToken();
+
+        MvcResult started = mockMvc.perform(get("/api/surveys/{id}/export.parquet", survey.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] sessions = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"survey-" + survey.getId() + "-sessions.parquet\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        FileMetaData footer = footer(sessions);
+        assertThat(footer.getNum_rows()).isEqualTo(5);
+        assertThat(footer.getSchema()).extracting(SchemaElement::getName)
+                .contains("id", "device_type", "source", "started_at", "user_agent");
+        ColumnMetaData device = footer.getRow_groups().get(0).getColumns().get(4).getMeta_data();
+        assertThat(device.getPath_in_schema()).containsExactly("device_type");
+        assertThat(device.getEncodings()).contains(Encoding.PLAIN_DICTIONARY);
+        assertThat(device.isSetDictionary_page_offset()).isTrue();
+
+        MvcResult submitted = mockMvc.perform(post("/api/surveys/{id}/exports", survey.getId())
+                        .param("format", "parquet")
+                        .param("dataset", "votes")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.dataset").value("VOTES"))
+                .andReturn();
+        String jobId = JsonPath.read(submitted.getResponse().getContentAsString(), "$.jobId");
+        String status = null;
+        for (int attempt = 0; attempt < 100 && !"COMPLETED".equals(status); attempt++) {
+            Thread.sleep(50);
+            status = JsonPath.read(mockMvc.perform(get("/api/exports/{jobId}", jobId)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andReturn().getResponse().getContentAsString(), "$.status");
+        }
+        assertThat(status).isEqualTo("COMPLETED");
+        byte[] votes = mockMvc.perform(get("/api/exports/{jobId}/file", jobId)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"survey-" + survey.getId() + "-votes.parquet\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(footer(votes).getNum_rows()).isEqualTo(1);
+
+        mockMvc.perform(get("/api/surveys/{id}/export.parquet", survey.getId())).andExpect(status().isForbidden());
+    }
+
+    /**
+     * Rodapé Thrift do arquivo: {@code ... <metadados> <tamanho LE de 4 bytes> PAR1}.
+     */
+    private static FileMetaData footer(byte[] parquet) throws IOException {
+        assertThat(new String(parquet, 0, 4, StandardCharsets.US_ASCII)).isEqualTo("PAR1");
+        assertThat(new String(parquet, parquet.length - 4, 4, StandardCharsets.US_ASCII)).isEqualTo("PAR1");
+        int length = ByteBuffer.wrap(parquet, parquet.length - 8, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        return Util.readFileMetaData(new ByteArrayInputStream(parquet, parquet.length - 8 - length, length));
+    }
+
+    private String adminToken() {
+        UserAccount admin = new UserAccount();
+        admin.setUsername("export-admin");
+        admin.setPassword("n/a");
+        admin.setRole("ADMIN");
+        userRepository.save(admin);
+        User principal = new User("export-admin", "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        return jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static Map<String, String> metrics(Sheet sheet) {
+        Map<String, String> metrics = new HashMap<>();
+        for (Row row : sheet) {
+            metrics.put(row.getCell(0).getStringCellValue(), row.getCell(1).getStringCellValue());
+        }
+        return metrics;
+    }
+
+    private void insertSession(Long surveyId, Long questionId, String deviceType, String status,
+                               LocalDateTime createdAt, int durationSeconds) {
+        jdbcTemplate.update("INSERT INTO response_sessions (id, survey_id, question_id, ip_address, device_type, "
+                        + "status, started_at, completed_at, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                nextSessionId++, surveyId, questionId, "10.0.0.1", deviceType, status,
+                Timestamp.valueOf(createdAt.minusSeconds(durationSeconds)),
+                "COMPLETED".equals(status) ? Timestamp.valueOf(createdAt) : null, Timestamp.valueOf(createdAt));
+    }
+}
@@ -0,0 +1,103 @@
+package com.survey.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.survey.dto.VoteRequestDTO;
+import com.survey.entity.Option;
+import com.survey.entity.Question;
+import com.survey.entity.ResponseSession;
+import com.survey.entity.Survey;
+import com.survey.entity.Vote;
+import com.survey.repository.OptionRepository;
+import com.survey.repository.QuestionRepository;
+import com.survey.repository.ResponseSessionRepository;
+import com.survey.repository.SurveyRepository;
+import com.survey.repository.VoteRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "app.privacy.ip-anonymize=false",
+        "app.votes.ingestion.async-enabled=true",
+        "app.votes.ingestion.flush-interval-ms=20"
+})
+class VoteAsyncIngestionIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private OptionRepository optionRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private ResponseSessionRepository responseSessionRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    @DisplayName("POST /api/votes com ingestão assíncrona deve responder 202 e gravar voto e sessão em lote")
+    void registerVote_async_shouldPersistInBackground() throws Exception {
+        Survey survey = new Survey("Pesquisa Async " + UUID.randomUUID(), true, LocalDateTime.now().plusDays(1));
+        survey = surveyRepository.save(survey);
+        Question question = questionRepository.save(new Question("Pergunta 1", 1, survey));
+        Option option = optionRepository.save(new Option("Opção A", true, question));
+
+        VoteRequestDTO request = new VoteRequestDTO(survey.getId(), question.getId(), option.getId());
+        request.setDeviceType("mobile");
+
+        mockMvc.perform(post("/api/votes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("User-Agent", "JUnit/Async")
+                        .with(req -> {
+                            req.setRemoteAddr("203.0.113.20");
+                            return req;
+                        })
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().doesNotExist("Location"))
+                .andExpect(jsonPath("$.queued").value(true));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (voteRepository.count() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(voteRepository.count()).isEqualTo(1);
+        assertThat(responseSessionRepository.count()).isEqualTo(1);
+        ResponseSession session = responseSessionRepository.findAll().get(0);
+        assertThat(session.getDeviceType()).isEqualTo("mobile");
+        assertThat(session.getIpAddress()).isEqualTo("203.0.113.20");
+        Vote vote = voteRepository.findAll().get(0);
+        assertThat(vote.getIpAddress()).isEqualTo("203.0.113.20");
+        Long linkedSessionId = jdbcTemplate.queryForObject(
+                "SELECT response_session_id FROM votes WHERE id = ?", Long.class, vote.getId());
+        assertThat(linkedSessionId).isEqualTo(session.getId());
+    }
+}
@@ -1,6 +1,7 @@
 package com.survey.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.survey.dto.VoteBatchRequestDTO;
 import com.survey.dto.VoteRequestDTO;
 import com.survey.dto.VoteResponseDTO;
 import com.survey.entity.Option;
@@ -13,6 +14,7 @@ import com.survey.repository.QuestionRepository;
 import com.survey.repository.ResponseSessionRepository;
 import com.survey.repository.SurveyRepository;
 import com.survey.repository.VoteRepository;
+import com.survey.service.VoteTallyStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -57,6 +59,9 @@ class VoteIntegrationTest extends AbstractIntegrationTest {
     @Autowired
     private ResponseSessionRepository responseSessionRepository;
 
+    @Autowired
+    private VoteTallyStore voteTallyStore;
+
     private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
 
     // limpeza física fica no AbstractIntegrationTest (hardCleanDatabase)
@@ -100,6 +105,31 @@ class VoteIntegrationTest extends AbstractIntegrationTest {
         assertThat(session.getIpAddress()).isEqualTo("203.0.113.10");
         assertThat(session.getUserAgent()).isEqualTo("JUnit/Test");
         assertThat(session.getStatus()).isEqualTo(ResponseStatus.COMPLETED);
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM survey_data_versions WHERE survey_id = ?",
+                Long.class, survey.getId())).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Contagem em memória deve refletir o voto após o commit")
+    void registerVote_shouldIncrementLiveTally() throws Exception {
+        Survey survey = createSurvey(true, LocalDateTime.now().plusDays(1));
+        Question question = createQuestion(survey, "Pergunta 1", 1);
+        Option option = createOption(question, "Opção A", true);
+        assertThat(voteTallyStore.counts(survey.getId())).isEmpty();
+
+        VoteRequestDTO request = new VoteRequestDTO(survey.getId(), question.getId(), option.getId());
+        mockMvc.perform(post("/api/votes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        assertThat(voteTallyStore.counts(survey.getId()))
+                .singleElement()
+                .satisfies(count -> {
+                    assertThat(count.optionId()).isEqualTo(option.getId());
+                    assertThat(count.optionText()).isEqualTo("Opção A");
+                    assertThat(count.total()).isEqualTo(1L);
+                });
     }
 
     @Test
@@ -184,6 +214,61 @@ class VoteIntegrationTest extends AbstractIntegrationTest {
                 .andExpect(jsonPath("$.message").value("Opção não pertence à pergunta"));
     }
 
+    @Test
+    @DisplayName("POST /api/votes/batch deve gravar uma sessão com todos os votos da resposta")
+    void registerResponse_shouldShareOneSession() throws Exception {
+        Survey survey = createSurvey(true, LocalDateTime.now().plusDays(1));
+        Question q1 = createQuestion(survey, "Pergunta 1", 1);
+        Question q2 = createQuestion(survey, "Pergunta 2", 2);
+        Option o1 = createOption(q1, "Opção A", true);
+        Option o2 = createOption(q2, "Opção B", true);
+
+        VoteBatchRequestDTO request = new VoteBatchRequestDTO(survey.getId(), java.util.List.of(
+                new VoteBatchRequestDTO.Answer(q1.getId(), o1.getId()),
+                new VoteBatchRequestDTO.Answer(q2.getId(), o2.getId())));
+        request.setDeviceType("mobile");
+
+        mockMvc.perform(post("/api/votes/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.sessionId").isNumber())
+                .andExpect(jsonPath("$.voteIds.length()").value(2));
+
+        assertThat(responseSessionRepository.count()).isEqualTo(1);
+        assertThat(voteRepository.count()).isEqualTo(2);
+        ResponseSession session = responseSessionRepository.findAll().get(0);
+        assertThat(session.getDeviceType()).isEqualTo("mobile");
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT response_session_id FROM votes", Long.class))
+                .containsExactly(session.getId());
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM survey_data_versions WHERE survey_id = ?",
+                Long.class, survey.getId())).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Votos gravados via JPA e via batch JDBC devem receber IDs distintos do mesmo gerador")
+    void jpaAndBatchInserts_shouldShareIdGenerator() throws Exception {
+        Survey survey = createSurvey(true, LocalDateTime.now().plusDays(1));
+        Question q1 = createQuestion(survey, "Pergunta 1", 1);
+        Option o1 = createOption(q1, "Opção A", true);
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/votes")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new VoteRequestDTO(survey.getId(), q1.getId(), o1.getId()))))
+                    .andExpect(status().isCreated());
+            VoteBatchRequestDTO batch = new VoteBatchRequestDTO(survey.getId(),
+                    java.util.List.of(new VoteBatchRequestDTO.Answer(q1.getId(), o1.getId())));
+            mockMvc.perform(post("/api/votes/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(batch)))
+                    .andExpect(status().isCreated());
+        }
+
+        assertThat(voteRepository.count()).isEqualTo(6);
+        assertThat(responseSessionRepository.count()).isEqualTo(6);
+    }
+
     private Survey createSurvey(boolean ativo, LocalDateTime validade) {
         Survey survey = new Survey();
         // Título precisa ser único (há índice UNIQUE no schema e soft delete em survey)
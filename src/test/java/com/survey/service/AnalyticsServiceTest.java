@@ -18,7 +18,7 @@ class AnalyticsServiceTest {
     @DisplayName("summarizeVotes deve agrupar por pergunta e opção")
     void summarizeVotes_shouldGroupByQuestion() {
         VoteRepository voteRepository = Mockito.mock(VoteRepository.class);
-        AnalyticsService service = new AnalyticsService(voteRepository);
+        AnalyticsService service = new AnalyticsService(voteRepository, Mockito.mock(VoteTallyStore.class), false);
 
         VoteRepository.VoteSummary summary1 = mockSummary(1L, "Pergunta 1", 10L, "Opção 1", 5L);
         VoteRepository.VoteSummary summary2 = mockSummary(1L, "Pergunta 1", 11L, "Opção 2", 3L);
@@ -34,6 +34,27 @@ class AnalyticsServiceTest {
         assertThat(response.getQuestions().get(0).getOptions()).hasSize(2);
     }
 
+    @Test
+    @DisplayName("summarizeVotes deve usar as contagens em memória quando habilitadas")
+    void summarizeVotes_withLiveTallies_shouldNotQueryRepository() {
+        VoteRepository voteRepository = Mockito.mock(VoteRepository.class);
+        VoteTallyStore tallyStore = Mockito.mock(VoteTallyStore.class);
+        AnalyticsService service = new AnalyticsService(voteRepository, tallyStore, true);
+
+        when(tallyStore.counts(99L)).thenReturn(List.of(
+                new VoteTallyStore.OptionCount(1L, "Pergunta 1", 10L, "Opção 1", 5L),
+                new VoteTallyStore.OptionCount(1L, "Pergunta 1", 11L, "Opção 2", 3L),
+                new VoteTallyStore.OptionCount(2L, "Pergunta 2", 20L, "Opção A", 7L)));
+
+        VoteSummaryResponseDTO response = service.summarizeVotes(99L);
+
+        assertThat(response.getQuestions()).hasSize(2);
+        assertThat(response.getQuestions().get(0).getQuestionTitulo()).isEqualTo("Pergunta 1");
+        assertThat(response.getQuestions().get(0).getOptions()).hasSize(2);
+        assertThat(response.getQuestions().get(1).getOptions().get(0).getTotal()).isEqualTo(7L);
+        Mockito.verifyNoInteractions(voteRepository);
+    }
+
     private VoteRepository.VoteSummary mockSummary(Long questionId, String questionTitulo,
                                                    Long optionId, String optionTitulo,
                                                    Long total) {
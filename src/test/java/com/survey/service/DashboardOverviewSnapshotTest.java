@@ -0,0 +1,112 @@
+package com.survey.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.survey.dto.DashboardOverviewResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardOverviewSnapshotTest {
+
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private Clock clock;
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private DashboardOverviewSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new DashboardOverviewSnapshot(dashboardService, new ObjectMapper().findAndRegisterModules(),
+                clock, 1_000, scheduled::add, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Primeira leitura calcula; as seguintes reaproveitam o snapshot sem consultar o banco")
+    void get_shouldComputeOnceAndReuse() {
+        when(clock.millis()).thenReturn(0L, 500L);
+        when(dashboardService.getOverview()).thenReturn(overview(10, LocalDateTime.of(2024, 1, 1, 10, 0)));
+
+        DashboardOverviewSnapshot.Snapshot first = snapshot.get();
+        DashboardOverviewSnapshot.Snapshot second = snapshot.get();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.etag()).startsWith("W/\"").endsWith("\"");
+        assertThat(scheduled).isEmpty();
+        verify(dashboardService, times(1)).getOverview();
+    }
+
+    @Test
+    @DisplayName("Snapshot vencido deve ser servido enquanto um único recálculo roda em segundo plano")
+    void get_whenStale_shouldServeOldAndRefreshAsync() {
+        DashboardOverviewResponse old = overview(10, LocalDateTime.of(2024, 1, 1, 10, 0));
+        DashboardOverviewResponse fresh = overview(11, LocalDateTime.of(2024, 1, 1, 10, 5));
+        when(clock.millis()).thenReturn(0L, 5_000L, 5_000L, 5_000L);
+        when(dashboardService.getOverview()).thenReturn(old, fresh);
+        snapshot.get();
+
+        assertThat(snapshot.get().response()).isSameAs(old);
+        assertThat(snapshot.get().response()).isSameAs(old);
+        assertThat(scheduled).hasSize(1);
+
+        scheduled.get(0).run();
+        assertThat(snapshot.get().response()).isSameAs(fresh);
+    }
+
+    @Test
+    @DisplayName("ETag ignora generatedAt e muda quando os números mudam")
+    void etag_shouldDependOnContentOnly() {
+        when(dashboardService.getOverview()).thenReturn(
+                overview(10, LocalDateTime.of(2024, 1, 1, 10, 0)),
+                overview(10, LocalDateTime.of(2024, 1, 1, 10, 1)),
+                overview(12, LocalDateTime.of(2024, 1, 1, 10, 2)));
+
+        String first = snapshot.get().etag();
+        snapshot.scheduledRefresh();
+        String sameNumbers = snapshot.get().etag();
+        snapshot.scheduledRefresh();
+        String changed = snapshot.get().etag();
+
+        assertThat(sameNumbers).isEqualTo(first);
+        assertThat(changed).isNotEqualTo(first);
+    }
+
+    @Test
+    @DisplayName("Falha no recálculo deve manter o snapshot anterior")
+    void scheduledRefresh_whenFails_shouldKeepPrevious() {
+        DashboardOverviewResponse old = overview(10, LocalDateTime.of(2024, 1, 1, 10, 0));
+        when(dashboardService.getOverview()).thenReturn(old).thenThrow(new IllegalStateException("db down"));
+        snapshot.get();
+
+        snapshot.scheduledRefresh();
+
+        assertThat(snapshot.get().response()).isSameAs(old);
+    }
+
+    static DashboardOverviewResponse overview(long totalResponses, LocalDateTime generatedAt) {
+        return new DashboardOverviewResponse(
+                new DashboardOverviewResponse.Totals(2, 1, 1, totalResponses),
+                new DashboardOverviewResponse.Growth(1, 2),
+                new DashboardOverviewResponse.Rates(0.5, 0.25),
+                12.5,
+                new DashboardOverviewResponse.Rankings(List.of(), List.of(), List.of(), List.of(), List.of()),
+                generatedAt);
+    }
+}
@@ -0,0 +1,114 @@
+package com.survey.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.survey.dto.SurveyAudienceResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DashboardResultCacheTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-10T10:00:30Z");
+
+    private DashboardService dashboardService;
+    private SurveyStructureCache structureCache;
+    private SimpleMeterRegistry meterRegistry;
+    private DashboardResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        dashboardService = mock(DashboardService.class);
+        structureCache = mock(SurveyStructureCache.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(dashboardService.getSurveyAudience(any(), any(), any(), anyBoolean()))
+                .thenAnswer(invocation -> audience(7));
+        cache = newCache(10);
+    }
+
+    @Test
+    @DisplayName("Leituras até agora no mesmo intervalo devem usar a mesma entrada com o fim arredondado")
+    void getAudience_shouldSnapOpenEndAndReuseEntry() {
+        LocalDateTime localNow = LocalDateTime.ofInstant(NOW, ZoneId.systemDefault());
+
+        DashboardResultCache.Cached<SurveyAudienceResponse> first = cache.getAudience(1L, null, null, false);
+        DashboardResultCache.Cached<SurveyAudienceResponse> second = cache.getAudience(1L, null, localNow, false);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.etag()).matches("\"[0-9a-f]{32}\"");
+        verify(dashboardService, times(1)).getSurveyAudience(1L, null, localNow.plusSeconds(30), false);
+        assertThat(meterRegistry.get("dashboard.cache").tags("endpoint", "audience", "result", "hit")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("dashboard.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("Novas respostas ou alteração de estrutura devem tornar a entrada obsoleta")
+    void getAudience_shouldReloadAfterVersionChange() {
+        LocalDateTime to = LocalDateTime.of(2024, 5, 1, 0, 0);
+        DashboardResultCache.Cached<SurveyAudienceResponse> first = cache.getAudience(1L, null, to, false);
+
+        cache.onResponsesRecorded(ResponsesRecordedEvent.of(1L, null, null));
+        cache.onVotesRecorded(VotesRecordedEvent.of(2L, 20L, 200L));
+        DashboardResultCache.Cached<SurveyAudienceResponse> afterResponse = cache.getAudience(1L, null, to, false);
+        when(structureCache.generation(1L)).thenReturn(1L);
+        cache.getAudience(1L, null, to, false);
+        cache.getAudience(1L, null, to, false);
+
+        assertThat(afterResponse).isNotSameAs(first);
+        // Mesmo conteúdo, mesmo ETag: o navegador continua recebendo 304
+        assertThat(afterResponse.etag()).isEqualTo(first.etag());
+        assertThat(cache.version(1L)).isEqualTo(1);
+        assertThat(cache.version(2L)).isEqualTo(1);
+        verify(dashboardService, times(3)).getSurveyAudience(1L, null, to, false);
+        assertThat(meterRegistry.get("dashboard.cache").tags("endpoint", "audience", "result", "stale")
+                .counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve descartar a entrada menos usada ao passar do limite")
+    void getAudience_shouldEvictLeastRecentlyUsed() {
+        cache = newCache(2);
+        LocalDateTime to = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+        cache.getAudience(1L, null, to, false);
+        cache.getAudience(2L, null, to, false);
+        cache.getAudience(1L, null, to, false);
+        cache.getAudience(3L, null, to, false);
+        cache.getAudience(1L, null, to, false);
+        cache.getAudience(2L, null, to, false);
+
+        verify(dashboardService, times(1)).getSurveyAudience(eq(1L), any(), any(), anyBoolean());
+        verify(dashboardService, times(2)).getSurveyAudience(eq(2L), any(), any(), anyBoolean());
+        assertThat(meterRegistry.get("dashboard.cache.evictions").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("dashboard.cache.size").gauge().value()).isEqualTo(2);
+    }
+
+    private DashboardResultCache newCache(int maxEntries) {
+        meterRegistry = new SimpleMeterRegistry();
+        return new DashboardResultCache(dashboardService, structureCache, new ObjectMapper().findAndRegisterModules(),
+                Clock.fixed(NOW, ZoneOffset.UTC), 120, maxEntries, 60, 0, meterRegistry);
+    }
+
+    private static SurveyAudienceResponse audience(long devices) {
+        return new SurveyAudienceResponse(Map.of("mobile", devices), Map.of(), Map.of(), Map.of(), Map.of(),
+                Map.of(), Map.of(), List.of(), List.of(), 0, null, devices, 0, 0, List.of());
+    }
+}
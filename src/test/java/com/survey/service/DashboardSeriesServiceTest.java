@@ -0,0 +1,124 @@
+package com.survey.service;
+
+import com.survey.dto.SurveySeriesResponse;
+import com.survey.exception.BusinessException;
+import com.survey.exception.ResourceNotFoundException;
+import com.survey.repository.SurveyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DashboardSeriesServiceTest {
+
+    private SurveyRepository surveyRepository;
+    private ResponseRollupStore rollupStore;
+    private DashboardSeriesService service;
+
+    @BeforeEach
+    void setUp() {
+        surveyRepository = mock(SurveyRepository.class);
+        rollupStore = mock(ResponseRollupStore.class);
+        when(surveyRepository.existsById(1L)).thenReturn(true);
+        Clock clock = Clock.fixed(Instant.parse("2024-03-10T12:00:00Z"), ZoneOffset.UTC);
+        service = new DashboardSeriesService(surveyRepository, rollupStore, clock, 100, ZoneOffset.UTC);
+    }
+
+    @Test
+    @DisplayName("Contagens horárias em UTC devem cair no dia local do fuso pedido, com zeros nos dias vazios")
+    void getSeries_shouldBucketInRequestedZoneAndFillGaps() {
+        TreeMap<LocalDateTime, Long> hours = new TreeMap<>();
+        hours.put(LocalDateTime.of(2024, 1, 2, 2, 0), 3L);  // 01/01 23h em São Paulo
+        hours.put(LocalDateTime.of(2024, 1, 2, 3, 0), 2L);  // 02/01 00h em São Paulo
+        hours.put(LocalDateTime.of(2024, 1, 4, 15, 0), 1L);
+        when(rollupStore.readHourlyCounts(eq(1L), any(), any())).thenReturn(hours);
+
+        SurveySeriesResponse series = service.getSeries(1L, "DAY", "America/Sao_Paulo",
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 5, 0, 0));
+
+        assertThat(series.getTimeZone()).isEqualTo("America/Sao_Paulo");
+        assertThat(series.getTotal()).isEqualTo(6);
+        assertThat(series.getPoints())
+                .extracting(SurveySeriesResponse.Point::getStart, SurveySeriesResponse.Point::getResponses)
+                .containsExactly(
+                        tuple(OffsetDateTime.parse("2024-01-01T00:00-03:00"), 3L),
+                        tuple(OffsetDateTime.parse("2024-01-02T00:00-03:00"), 2L),
+                        tuple(OffsetDateTime.parse("2024-01-03T00:00-03:00"), 0L),
+                        tuple(OffsetDateTime.parse("2024-01-04T00:00-03:00"), 1L));
+        verify(rollupStore).readHourlyCounts(1L, LocalDateTime.of(2024, 1, 1, 3, 0), LocalDateTime.of(2024, 1, 5, 3, 0));
+    }
+
+    @Test
+    @DisplayName("from no meio de um intervalo deve ser alinhado ao início dele, que é o que total cobre")
+    void getSeries_withFromInsideBucket_shouldAlignFromToBucketStart() {
+        TreeMap<LocalDateTime, Long> hours = new TreeMap<>();
+        hours.put(LocalDateTime.of(2024, 1, 1, 5, 0), 4L);
+        hours.put(LocalDateTime.of(2024, 1, 1, 18, 0), 1L);
+        when(rollupStore.readHourlyCounts(eq(1L), any(), any())).thenReturn(hours);
+
+        SurveySeriesResponse series = service.getSeries(1L, "DAY", "UTC",
+                LocalDateTime.of(2024, 1, 1, 15, 30), LocalDateTime.of(2024, 1, 3, 0, 0));
+
+        assertThat(series.getFrom()).isEqualTo(OffsetDateTime.parse("2024-01-01T00:00Z"));
+        assertThat(series.getTotal()).isEqualTo(5);
+        assertThat(series.getPoints()).extracting(SurveySeriesResponse.Point::getResponses).containsExactly(5L, 0L);
+    }
+
+    @Test
+    @DisplayName("Semanas devem começar na segunda-feira e minutos devem ler as contagens por minuto")
+    void getSeries_shouldSupportWeeksAndMinutes() {
+        TreeMap<LocalDateTime, Long> hours = new TreeMap<>();
+        hours.put(LocalDateTime.of(2024, 1, 7, 10, 0), 4L);  // domingo
+        hours.put(LocalDateTime.of(2024, 1, 8, 10, 0), 1L);  // segunda
+        when(rollupStore.readHourlyCounts(eq(1L), any(), any())).thenReturn(hours);
+        TreeMap<LocalDateTime, Long> minutes = new TreeMap<>();
+        minutes.put(LocalDateTime.of(2024, 1, 1, 10, 1), 7L);
+        when(rollupStore.readMinuteCounts(eq(1L), any(), any())).thenReturn(minutes);
+
+        SurveySeriesResponse weeks = service.getSeries(1L, "week", null,
+                LocalDateTime.of(2024, 1, 3, 0, 0), LocalDateTime.of(2024, 1, 10, 0, 0));
+        SurveySeriesResponse byMinute = service.getSeries(1L, "minute", "UTC",
+                LocalDateTime.of(2024, 1, 1, 10, 0), LocalDateTime.of(2024, 1, 1, 10, 3));
+
+        assertThat(weeks.getPoints())
+                .extracting(SurveySeriesResponse.Point::getStart, SurveySeriesResponse.Point::getResponses)
+                .containsExactly(
+                        tuple(OffsetDateTime.parse("2024-01-01T00:00Z"), 4L),
+                        tuple(OffsetDateTime.parse("2024-01-08T00:00Z"), 1L));
+        assertThat(byMinute.getPoints()).extracting(SurveySeriesResponse.Point::getResponses)
+                .containsExactly(0L, 7L, 0L);
+    }
+
+    @Test
+    @DisplayName("Deve recusar séries acima do limite de pontos, parâmetros inválidos e pesquisa inexistente")
+    void getSeries_shouldRejectInvalidRequests() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        assertThatThrownBy(() -> service.getSeries(1L, "hour", null, from, from.plusDays(30)))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("100 pontos");
+        assertThatThrownBy(() -> service.getSeries(1L, "month", null, from, from.plusDays(30)))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.getSeries(1L, "day", "Mars/Olympus", from, from.plusDays(30)))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.getSeries(2L, "day", null, from, from.plusDays(30)))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(rollupStore, never()).readHourlyCounts(any(), any(), any());
+    }
+}
@@ -0,0 +1,296 @@
+package com.survey.service;
+
+import com.survey.dto.DashboardStreamFrame;
+import com.survey.entity.ResponseStatus;
+import com.survey.exception.ResourceNotFoundException;
+import com.survey.exception.ServiceOverloadedException;
+import com.survey.repository.SurveyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+
+class DashboardStreamHubTest {
+
+    private SurveyRepository surveyRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private UserAgentClassifier userAgentClassifier;
+    private Clock clock;
+
+    @BeforeEach
+    void setUp() {
+        surveyRepository = mock(SurveyRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        userAgentClassifier = new UserAgentClassifier(100, meterRegistry);
+        clock = Clock.fixed(Instant.parse("2024-01-01T10:00:00Z"), ZoneOffset.UTC);
+    }
+
+    @Test
+    @DisplayName("Commits entre dois ciclos devem virar um único frame por pesquisa")
+    void tick_shouldCoalesceCommitsIntoOneFrame() {
+        DashboardStreamHub hub = hub(10, 8, Runnable::run);
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.register(1L, emitter);
+
+        hub.onVotesRecorded(VotesRecordedEvent.of(1L, 10L, 100L));
+        hub.onVotesRecorded(VotesRecordedEvent.of(1L, 10L, 100L));
+        hub.onVotesRecorded(VotesRecordedEvent.of(1L, 10L, 101L));
+        hub.onVotesRecorded(VotesRecordedEvent.of(2L, 20L, 200L));
+        hub.onResponsesRecorded(ResponsesRecordedEvent.of(1L, session(ResponseStatus.COMPLETED, "mobile", "SP"), null));
+        hub.onResponsesRecorded(ResponsesRecordedEvent.of(1L, session(ResponseStatus.COMPLETED, "mobile", null), null));
+        hub.onResponsesRecorded(ResponsesRecordedEvent.of(1L, session(null, "desktop", "RJ"), null));
+        hub.tick();
+        hub.tick();
+
+        List<DashboardStreamFrame> frames = emitter.frames();
+        assertThat(frames).hasSize(1);
+        DashboardStreamFrame frame = frames.get(0);
+        assertThat(frame.getSurveyId()).isEqualTo(1L);
+        assertThat(frame.getResponses()).isEqualTo(3);
+        assertThat(frame.getResponsesByStatus())
+                .containsExactlyInAnyOrderEntriesOf(Map.of("COMPLETED", 2L, "UNKNOWN", 1L));
+        assertThat(frame.getOptions())
+                .extracting(DashboardStreamFrame.OptionDelta::getOptionId, DashboardStreamFrame.OptionDelta::getVotes)
+                .containsExactly(tuple(100L, 2L), tuple(101L, 1L));
+        assertThat(frame.getAudience().get("devices"))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("mobile", 2L, "desktop", 1L));
+        assertThat(frame.getAudience().get("states"))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("SP", 1L, "RJ", 1L, "unknown", 1L));
+        assertThat(frame.getAudience().get("browsers"))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("unknown", 3L));
+        assertThat(meterRegistry.counter("dashboard.stream.frames").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Sessão com enriquecimento adiado deve ter a audiência classificada pelo user-agent")
+    void onResponsesRecorded_withDeferredEnrichment_shouldClassifyUserAgent() {
+        DashboardStreamHub hub = hub(10, 8, Runnable::run);
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.register(1L, emitter);
+        String chromeOnWindows = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+                + "(KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+
+        hub.onResponsesRecorded(ResponsesRecordedEvent.of(1L, session(ResponseStatus.COMPLETED, null, null),
+                chromeOnWindows));
+        hub.tick();
+
+        Map<String, Map<String, Long>> audience = emitter.frames().get(0).getAudience();
+        assertThat(audience.get("devices")).containsExactlyEntriesOf(Map.of("desktop", 1L));
+        assertThat(audience.get("operatingSystems")).containsExactlyEntriesOf(Map.of("Windows", 1L));
+        assertThat(audience.get("browsers")).containsExactlyEntriesOf(Map.of("Chrome", 1L));
+    }
+
+    @Test
+    @DisplayName("Frame deve ser datado no fuso da JVM, como as sessões são gravadas")
+    void tick_shouldStampFrameInSystemZone() {
+        TimeZone original = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/Sao_Paulo"));
+        try {
+            DashboardStreamHub hub = hub(10, 8, Runnable::run);
+            RecordingEmitter emitter = new RecordingEmitter();
+            hub.register(1L, emitter);
+
+            hub.onVotesRecorded(VotesRecordedEvent.of(1L, 10L, 100L));
+            hub.tick();
+
+            assertThat(emitter.frames().get(0).getGeneratedAt()).isEqualTo(LocalDateTime.of(2024, 1, 1, 7, 0));
+        } finally {
+            TimeZone.setDefault(original);
+        }
+    }
+
+    @Test
+    @DisplayName("Assinante que não consome deve ser desconectado quando a fila enche")
+    void tick_shouldEvictSlowConsumer() {
+        List<Runnable> pendingSends = new ArrayList<>();
+        DashboardStreamHub hub = hub(10, 2, pendingSends::add);
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.register(1L, emitter);
+
+        for (int i = 0; i < 3; i++) {
+            hub.onVotesRecorded(VotesRecordedEvent.of(1L, 10L, 100L));
+            hub.tick();
+        }
+
+        assertThat(hub.getSubscriberCount()).isZero();
+        assertThat(emitter.completed).isTrue();
+        assertThat(meterRegistry.counter("dashboard.stream.evictions").count()).isEqualTo(1.0);
+
+        hub.onVotesRecorded(VotesRecordedEvent.of(1L, 10L, 100L));
+        hub.tick();
+        pendingSends.forEach(Runnable::run);
+        assertThat(emitter.frames()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Falha de envio deve remover o assinante")
+    void send_whenClientGone_shouldRemoveSubscriber() {
+        DashboardStreamHub hub = hub(10, 8, Runnable::run);
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.register(1L, emitter);
+        emitter.failing = true;
+
+        hub.onVotesRecorded(VotesRecordedEvent.of(1L, 10L, 100L));
+        hub.tick();
+
+        assertThat(hub.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve recusar conexões acima do limite e pesquisas inexistentes")
+    void register_shouldEnforceLimits() {
+        DashboardStreamHub hub = hub(1, 8, Runnable::run);
+        hub.register(1L, new RecordingEmitter());
+
+        assertThatThrownBy(() -> hub.register(2L, new RecordingEmitter()))
+                .isInstanceOf(ServiceOverloadedException.class);
+        assertThatThrownBy(() -> hub.subscribe(99L))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(hub.getSubscriberCount()).isEqualTo(1);
+        assertThat(meterRegistry.counter("dashboard.stream.rejected").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Conexão aberta enquanto a última da pesquisa fecha deve continuar recebendo frames")
+    void register_whileLastSubscriberLeaves_shouldKeepChannel() throws Exception {
+        RecordingEmitter leaving = new RecordingEmitter();
+        RecordingEmitter joining = new RecordingEmitter();
+        ExecutorService closer = Executors.newSingleThreadExecutor();
+        AtomicBoolean armed = new AtomicBoolean();
+        AtomicReference<Future<?>> closing = new AtomicReference<>();
+        // Dispara o fechamento da última conexão no meio do registro da nova, dentro da seção atômica do mapa
+        Runnable closeLeaving = () -> {
+            if (armed.compareAndSet(true, false)) {
+                closing.set(closer.submit(leaving.completion));
+                try {
+                    closing.get().get(100, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Esperado quando o registro segura o canal: o fechamento roda depois
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        ConcurrentMap<Long, DashboardStreamHub.Channel> channels = new ConcurrentHashMap<>() {
+            @Override
+            public DashboardStreamHub.Channel compute(Long key, BiFunction<? super Long, ? super DashboardStreamHub.Channel,
+                    ? extends DashboardStreamHub.Channel> remapping) {
+                return super.compute(key, (id, channel) -> {
+                    DashboardStreamHub.Channel result = remapping.apply(id, channel);
+                    closeLeaving.run();
+                    return result;
+                });
+            }
+
+            @Override
+            public DashboardStreamHub.Channel computeIfAbsent(Long key, Function<? super Long,
+                    ? extends DashboardStreamHub.Channel> mapping) {
+                DashboardStreamHub.Channel result = super.computeIfAbsent(key, mapping);
+                closeLeaving.run();
+                return result;
+            }
+        };
+        DashboardStreamHub hub = new DashboardStreamHub(surveyRepository, userAgentClassifier, clock, 1000, 15000, 10, 8,
+                Runnable::run, 60000, meterRegistry, channels);
+        try {
+            hub.register(1L, leaving);
+            armed.set(true);
+            hub.register(1L, joining);
+            closing.get().get(5, TimeUnit.SECONDS);
+        } finally {
+            closer.shutdownNow();
+        }
+
+        hub.onVotesRecorded(VotesRecordedEvent.of(1L, 10L, 100L));
+        hub.tick();
+
+        assertThat(hub.getSubscriberCount()).isEqualTo(1);
+        assertThat(joining.frames()).hasSize(1);
+    }
+
+    private DashboardStreamHub hub(int maxSubscribers, int queueCapacity, Executor senders) {
+        return new DashboardStreamHub(surveyRepository, userAgentClassifier, clock, 1000, 15000, maxSubscribers, queueCapacity,
+                senders, 60000, meterRegistry);
+    }
+
+    private static PendingResponse.PendingSession session(ResponseStatus status, String device, String state) {
+        return new PendingResponse.PendingSession(null, device, null, null, null, null, null, state, null, status, null, null);
+    }
+
+    /**
+     * Emitter sem servlet: registra os eventos enviados em vez de escrevê-los na resposta.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<SseEventBuilder> events = new ArrayList<>();
+        private boolean failing;
+        private boolean completed;
+        private Runnable completion;
+
+        /**
+         * Sem container o callback nunca é chamado; o teste o dispara para simular o cliente desconectando.
+         */
+        @Override
+        public synchronized void onCompletion(Runnable callback) {
+            completion = callback;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            events.add(builder);
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable ex) {
+            completed = true;
+        }
+
+        private List<DashboardStreamFrame> frames() {
+            List<DashboardStreamFrame> frames = new ArrayList<>();
+            for (SseEventBuilder event : events) {
+                event.build().stream()
+                        .map(DataWithMediaType::getData)
+                        .filter(DashboardStreamFrame.class::isInstance)
+                        .map(DashboardStreamFrame.class::cast)
+                        .forEach(frames::add);
+            }
+            return frames;
+        }
+    }
+}
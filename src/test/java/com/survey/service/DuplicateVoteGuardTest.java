@@ -0,0 +1,157 @@
+package com.survey.service;
+
+import com.survey.exception.BusinessException;
+import com.survey.repository.VoteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DuplicateVoteGuardTest {
+
+    private final VoteRepository voteRepository = mock(VoteRepository.class);
+    private final SettableClock clock = new SettableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Deve bloquear a mesma pergunta dentro da janela e liberar outras perguntas")
+    void shouldBlockSameQuestionWithinWindow() {
+        DuplicateVoteGuard guard = newGuard(100, 0, false);
+
+        guard.register(1L, List.of(2L), "203.0.113.0", "UA");
+
+        assertThatThrownBy(() -> guard.verify(1L, List.of(2L), "203.0.113.0", "UA"))
+                .isInstanceOf(BusinessException.class);
+        assertThatCode(() -> guard.verify(1L, List.of(4L), "203.0.113.0", "UA")).doesNotThrowAnyException();
+        assertThatCode(() -> guard.verify(1L, List.of(2L), "203.0.113.0", "Outro UA")).doesNotThrowAnyException();
+        assertThat(meterRegistry.counter("vote.duplicate.blocked").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Impressões devem expirar junto com a fatia de tempo")
+    void shouldForgetAfterWindow() {
+        DuplicateVoteGuard guard = newGuard(100, 1024, false);
+        guard.register(1L, List.of(2L), "203.0.113.0", "UA");
+
+        clock.advance(Duration.ofMinutes(9));
+        assertThatThrownBy(() -> guard.verify(1L, List.of(2L), "203.0.113.0", "UA"))
+                .isInstanceOf(BusinessException.class);
+
+        clock.advance(Duration.ofMinutes(2));
+        assertThatCode(() -> guard.register(1L, List.of(2L), "203.0.113.0", "UA")).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Resposta com pergunta repetida não deve deixar as demais registradas")
+    void register_whenOneQuestionDuplicated_shouldRollBackOthers() {
+        DuplicateVoteGuard guard = newGuard(100, 0, false);
+        guard.register(1L, List.of(4L), "203.0.113.0", "UA");
+
+        assertThatThrownBy(() -> guard.register(1L, List.of(2L, 4L), "203.0.113.0", "UA"))
+                .isInstanceOf(BusinessException.class);
+        assertThatCode(() -> guard.verify(1L, List.of(2L), "203.0.113.0", "UA")).doesNotThrowAnyException();
+        assertThat(meterRegistry.get("vote.duplicate.fingerprints").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Limite de entradas deve descartar as fatias mais antigas")
+    void shouldEvictOldestSlicesWhenFull() {
+        DuplicateVoteGuard guard = newGuard(3, 0, false);
+        guard.register(1L, List.of(1L, 2L), "203.0.113.0", "UA");
+        clock.advance(Duration.ofMinutes(1));
+
+        guard.register(1L, List.of(3L, 4L), "203.0.113.0", "UA");
+
+        assertThat(meterRegistry.get("vote.duplicate.fingerprints").gauge().value()).isEqualTo(2.0);
+        assertThat(meterRegistry.counter("vote.duplicate.evictions").count()).isEqualTo(1.0);
+        assertThatCode(() -> guard.verify(1L, List.of(1L), "203.0.113.0", "UA")).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Com db-check deve consultar o banco antes de registrar")
+    void register_withDbCheck_shouldConsultDatabase() {
+        DuplicateVoteGuard guard = newGuard(100, 0, true);
+        when(voteRepository.existsBySurveyIdAndQuestionIdInAndIpAddressAndUserAgentAndCreatedAtAfter(
+                eq(1L), anyCollection(), eq("203.0.113.0"), eq("UA"), any())).thenReturn(true);
+
+        assertThatThrownBy(() -> guard.register(1L, List.of(2L), "203.0.113.0", "UA"))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    @DisplayName("db-check deve comparar created_at no fuso da JVM, como os votos são gravados")
+    void register_withDbCheck_shouldUseSystemZoneForWindowStart() {
+        TimeZone original = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/Sao_Paulo"));
+        try {
+            DuplicateVoteGuard guard = newGuard(100, 0, true);
+
+            guard.register(1L, List.of(2L), "203.0.113.0", "UA");
+
+            verify(voteRepository).existsBySurveyIdAndQuestionIdInAndIpAddressAndUserAgentAndCreatedAtAfter(
+                    eq(1L), anyCollection(), eq("203.0.113.0"), eq("UA"), eq(LocalDateTime.of(2024, 12, 31, 20, 50)));
+        } finally {
+            TimeZone.setDefault(original);
+        }
+    }
+
+    @Test
+    @DisplayName("forget deve liberar um novo voto após falha na gravação")
+    void forget_shouldAllowRetry() {
+        DuplicateVoteGuard guard = newGuard(100, 0, false);
+        guard.register(1L, List.of(2L), "203.0.113.0", "UA");
+
+        guard.forget(1L, List.of(2L), "203.0.113.0", "UA");
+
+        assertThatCode(() -> guard.register(1L, List.of(2L), "203.0.113.0", "UA")).doesNotThrowAnyException();
+    }
+
+    private DuplicateVoteGuard newGuard(int maxEntries, int bloomBits, boolean dbCheck) {
+        return new DuplicateVoteGuard(10, maxEntries, bloomBits, dbCheck, voteRepository, clock, meterRegistry);
+    }
+
+    private static final class SettableClock extends Clock {
+        private Instant now;
+
+        private SettableClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return Clock.fixed(now, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
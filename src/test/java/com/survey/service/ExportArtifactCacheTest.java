@@ -0,0 +1,169 @@
+package com.survey.service;
+
+import com.survey.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExportArtifactCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("O endereço deve mudar com a versão dos dados, o formato e o includeDeleted")
+    void resolve_shouldHashKeyWithDataVersion() {
+        stubVersion(1L, "live|2024-03-04 10:00:00|null|3|10");
+        stubVersion(2L, "deleted|2024-03-04 10:00:00|2024-03-05 10:00:00");
+        ExportArtifactCache cache = newCache(1024);
+
+        ExportArtifactCache.Artifact xlsx = cache.resolve(1L, ExportFormat.XLSX, null, false);
+
+        assertThat(cache.resolve(1L, ExportFormat.XLSX, null, false)).isEqualTo(xlsx);
+        assertThat(xlsx.etag()).matches("\"[0-9a-f]{32}\"");
+        assertThat(cache.resolve(1L, ExportFormat.XLSX, null, true).id()).isNotEqualTo(xlsx.id());
+        assertThat(cache.resolve(1L, ExportFormat.PARQUET, SurveyRawExportService.Dataset.VOTES, false).id())
+                .isNotEqualTo(xlsx.id());
+        stubVersion(1L, "live|2024-03-04 10:00:00|null|3|11");
+        assertThat(cache.resolve(1L, ExportFormat.XLSX, null, false).id()).isNotEqualTo(xlsx.id());
+
+        assertThat(cache.resolve(2L, ExportFormat.XLSX, null, true)).isNotNull();
+        assertThatThrownBy(() -> cache.resolve(2L, ExportFormat.XLSX, null, false))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> cache.resolve(3L, ExportFormat.XLSX, null, false))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("A primeira geração deve ir para a resposta e para o cache; as seguintes saem do disco")
+    void write_shouldTeeIntoCacheAndServeHits() throws IOException {
+        ExportArtifactCache cache = newCache(1024);
+        ExportArtifactCache.Artifact artifact = new ExportArtifactCache.Artifact("a1", ExportFormat.XLSX);
+
+        assertThat(cache.open(artifact)).isEmpty();
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        cache.write(artifact, response, out -> out.write("planilha".getBytes(StandardCharsets.UTF_8)));
+        Optional<ExportArtifactCache.CachedFile> cached = cache.open(artifact);
+        cache.notModified(artifact);
+
+        assertThat(response.toString(StandardCharsets.UTF_8)).isEqualTo("planilha");
+        assertThat(cached).isPresent();
+        assertThat(cached.get().sizeBytes()).isEqualTo(8);
+        try (InputStream stream = cached.get().stream()) {
+            assertThat(new String(stream.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("planilha");
+        }
+        assertThat(dir.resolve("a1.xlsx")).exists();
+        assertThat(meterRegistry.get("export.cache").tags("format", "xlsx", "result", "miss").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("export.cache").tags("format", "xlsx", "result", "hit").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("export.cache.hit.ratio").gauge().value()).isEqualTo(2.0 / 3);
+        assertThat(meterRegistry.get("export.cache.bytes.saved").counter().count()).isEqualTo(16);
+        assertThat(meterRegistry.get("export.cache.size.bytes").gauge().value()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Acima do limite de bytes deve descartar o arquivo menos usado")
+    void write_shouldEvictLeastRecentlyUsed() throws IOException {
+        ExportArtifactCache cache = newCache(10);
+        ExportArtifactCache.Artifact first = new ExportArtifactCache.Artifact("a1", ExportFormat.XLSX);
+        ExportArtifactCache.Artifact second = new ExportArtifactCache.Artifact("b2", ExportFormat.XLSX);
+        ExportArtifactCache.Artifact third = new ExportArtifactCache.Artifact("c3", ExportFormat.PARQUET);
+
+        write(cache, first, "1111");
+        write(cache, second, "2222");
+        cache.open(first).orElseThrow().stream().close();
+        write(cache, third, "3333");
+
+        assertThat(cache.open(second)).isEmpty();
+        assertThat(dir.resolve("b2.xlsx")).doesNotExist();
+        assertThat(dir.resolve("a1.xlsx")).exists();
+        assertThat(dir.resolve("c3.parquet")).exists();
+        assertThat(meterRegistry.get("export.cache.evictions").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("export.cache.size.bytes").gauge().value()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Falhas e arquivos maiores que o limite não devem ficar no cache")
+    void write_shouldSkipFailedAndOversizedArtifacts() throws IOException {
+        ExportArtifactCache cache = newCache(4);
+        ExportArtifactCache.Artifact failed = new ExportArtifactCache.Artifact("a1", ExportFormat.XLSX);
+        ExportArtifactCache.Artifact large = new ExportArtifactCache.Artifact("b2", ExportFormat.XLSX);
+
+        assertThatThrownBy(() -> cache.write(failed, new ByteArrayOutputStream(), out -> {
+            out.write(1);
+            throw new IOException("cliente desconectou");
+        })).isInstanceOf(IOException.class);
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        cache.write(large, response, out -> out.write("grande demais".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(response.size()).isEqualTo(13);
+        assertThat(cache.open(failed)).isEmpty();
+        assertThat(cache.open(large)).isEmpty();
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Arquivos do cache de execuções anteriores devem ser apagados na subida, e só eles")
+    void constructor_shouldDeleteOnlyLeftoverCacheFiles() throws IOException {
+        String id = "0123456789abcdef0123456789abcdef";
+        Path leftover = Files.writeString(dir.resolve(id + ".xlsx"), "x");
+        Path part = Files.writeString(dir.resolve(id + ".parquet.9b2f3c1e-2d4a-4e8b-9c7d-1a2b3c4d5e6f.part"), "x");
+        Path unrelated = Files.writeString(dir.resolve("relatorio.xlsx"), "x");
+        Path shortName = Files.writeString(dir.resolve("a1.xlsx"), "x");
+
+        newCache(1024);
+
+        assertThat(leftover).doesNotExist();
+        assertThat(part).doesNotExist();
+        assertThat(unrelated).exists();
+        assertThat(shortName).exists();
+    }
+
+    private ExportArtifactCache newCache(long maxBytes) {
+        return new ExportArtifactCache(jdbcTemplate, dir, maxBytes, meterRegistry);
+    }
+
+    private void stubVersion(Long surveyId, String version) {
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<String>>any(), eq(surveyId)))
+                .thenReturn(List.of(version));
+    }
+
+    private static void write(ExportArtifactCache cache, ExportArtifactCache.Artifact artifact, String content)
+            throws IOException {
+        cache.write(artifact, new ByteArrayOutputStream(), out -> out.write(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,214 @@
+package com.survey.service;
+
+import com.survey.dto.ExportJobResponse;
+import com.survey.entity.Survey;
+import com.survey.exception.BusinessException;
+import com.survey.exception.ResourceNotFoundException;
+import com.survey.exception.ServiceOverloadedException;
+import com.survey.repository.ResponseSessionRepository;
+import com.survey.repository.SurveyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExportJobServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-10T10:00:00Z");
+
+    @TempDir
+    Path storageDir;
+
+    private SurveyExportService exportService;
+    private SurveyRawExportService rawExportService;
+    private SurveyRepository surveyRepository;
+    private ResponseSessionRepository responseSessionRepository;
+    private Clock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private final List<Runnable> queued = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        exportService = mock(SurveyExportService.class);
+        rawExportService = mock(SurveyRawExportService.class);
+        surveyRepository = mock(SurveyRepository.class);
+        responseSessionRepository = mock(ResponseSessionRepository.class);
+        clock = mock(Clock.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(clock.instant()).thenReturn(NOW);
+        when(surveyRepository.existsById(1L)).thenReturn(true);
+        when(surveyRepository.findByIdIncludingDeleted(1L)).thenReturn(Optional.of(new Survey()));
+        when(responseSessionRepository.countBySurveyId(1L)).thenReturn(4L);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            LongConsumer progress = invocation.getArgument(2);
+            out.write("planilha".getBytes(StandardCharsets.UTF_8));
+            progress.accept(1);
+            progress.accept(2);
+            return null;
+        }).when(exportService).writeXlsx(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Pedidos iguais em andamento devem compartilhar o job e o arquivo só aparece completo")
+    void submit_shouldShareInFlightJobAndPublishFile() throws IOException {
+        ExportJobService service = newService(queued::add);
+
+        ExportJobResponse first = service.submit(1L, "xlsx", false);
+        ExportJobResponse second = service.submit(1L, "XLSX", false);
+        ExportJobResponse other = service.submit(1L, null, true);
+
+        assertThat(second.getJobId()).isEqualTo(first.getJobId());
+        assertThat(other.getJobId()).isNotEqualTo(first.getJobId());
+        assertThat(first.getStatus()).isEqualTo(ExportJobResponse.Status.QUEUED);
+        assertThat(queued).hasSize(2);
+        assertThatThrownBy(() -> service.file(first.getJobId())).isInstanceOf(BusinessException.class);
+
+        queued.get(0).run();
+        ExportJobResponse done = service.get(first.getJobId());
+        ExportJobService.ExportFile file = service.file(first.getJobId());
+
+        assertThat(done.getStatus()).isEqualTo(ExportJobResponse.Status.COMPLETED);
+        assertThat(done.getProgress()).isEqualTo(1.0);
+        assertThat(done.getRowsWritten()).isEqualTo(2);
+        assertThat(done.getTotalRows()).isEqualTo(4);
+        assertThat(done.getDownloadUrl()).isEqualTo("/api/exports/" + first.getJobId() + "/file");
+        assertThat(done.getExpiresAt()).isEqualTo(NOW.plus(Duration.ofMinutes(60)));
+        assertThat(file.fileName()).isEqualTo("survey-1.xlsx");
+        assertThat(Files.readString(file.path())).isEqualTo("planilha");
+        try (Stream<Path> files = Files.list(storageDir)) {
+            assertThat(files).containsExactly(file.path());
+        }
+        // Terminado, um novo pedido gera outro job
+        assertThat(service.submit(1L, "xlsx", false).getJobId()).isNotEqualTo(first.getJobId());
+        assertThat(meterRegistry.get("export.jobs").tag("result", "deduplicated").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("export.jobs").tag("result", "completed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("export.jobs.queued").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Formatos crus devem gerar o conjunto pedido com o nome de arquivo do formato")
+    void run_shouldWriteRawSessionsForCsv() throws IOException {
+        when(rawExportService.write(eq(1L), eq(SurveyRawExportService.Dataset.SESSIONS), eq(ExportFormat.CSV), any(),
+                any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            LongConsumer progress = invocation.getArgument(4);
+            out.write("id\r\n7\r\n".getBytes(StandardCharsets.UTF_8));
+            progress.accept(1);
+            return 1L;
+        });
+        ExportJobService service = newService(Runnable::run);
+
+        String jobId = service.submit(1L, "csv", false).getJobId();
+        ExportJobService.ExportFile file = service.file(jobId);
+
+        assertThat(file.fileName()).isEqualTo("survey-1-sessions.csv");
+        assertThat(file.contentType()).startsWith("text/csv");
+        assertThat(Files.readString(file.path())).isEqualTo("id\r\n7\r\n");
+        assertThat(service.get(jobId).getRowsWritten()).isEqualTo(1);
+        assertThat(service.get(jobId).getDataset()).isEqualTo("SESSIONS");
+        verify(exportService, never()).prepareXlsx(any(), anyBoolean());
+
+        // Votos em Parquet são outro job, com o total vindo do próprio conjunto
+        when(rawExportService.count(1L, SurveyRawExportService.Dataset.VOTES)).thenReturn(9L);
+        String votesJob = service.submit(1L, "parquet", "votes", false).getJobId();
+
+        assertThat(service.file(votesJob).fileName()).isEqualTo("survey-1-votes.parquet");
+        assertThat(service.get(votesJob).getTotalRows()).isEqualTo(9);
+        verify(rawExportService).write(eq(1L), eq(SurveyRawExportService.Dataset.VOTES), eq(ExportFormat.PARQUET),
+                any(), any());
+    }
+
+    @Test
+    @DisplayName("Jobs expirados devem sumir junto com o arquivo")
+    void purgeExpired_shouldRemoveJobAndFile() {
+        ExportJobService service = newService(Runnable::run);
+        String jobId = service.submit(1L, "xlsx", false).getJobId();
+        Path file = service.file(jobId).path();
+
+        when(clock.instant()).thenReturn(NOW.plus(Duration.ofMinutes(61)));
+        assertThatThrownBy(() -> service.get(jobId)).isInstanceOf(ResourceNotFoundException.class);
+        service.purgeExpired();
+
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Falha na escrita deve marcar o job como FAILED sem deixar arquivo parcial")
+    void run_shouldFailWithoutLeavingPartialFile() throws IOException {
+        doThrow(new IOException("disco cheio")).when(exportService).writeXlsx(any(), any(), any());
+        ExportJobService service = newService(Runnable::run);
+
+        ExportJobResponse job = service.get(service.submit(1L, "xlsx", false).getJobId());
+
+        assertThat(job.getStatus()).isEqualTo(ExportJobResponse.Status.FAILED);
+        assertThat(job.getError()).isEqualTo("Falha ao gerar a exportação");
+        assertThat(job.getDownloadUrl()).isNull();
+        assertThat(storageDir).isEmptyDirectory();
+        assertThat(meterRegistry.get("export.jobs").tag("result", "failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve responder sobrecarga com a fila cheia e recusar formato inválido ou pesquisa inexistente")
+    void submit_shouldRejectWhenQueueIsFullOrRequestIsInvalid() {
+        ExportJobService service = newService(runnable -> {
+            throw new RejectedExecutionException("cheio");
+        });
+
+        assertThatThrownBy(() -> service.submit(1L, "xlsx", false))
+                .isInstanceOf(ServiceOverloadedException.class)
+                .extracting("retryAfterSeconds").isEqualTo(30);
+        // A recusa não deixa job em andamento para ser compartilhado
+        assertThatThrownBy(() -> service.submit(1L, "xlsx", false)).isInstanceOf(ServiceOverloadedException.class);
+        assertThatThrownBy(() -> service.submit(1L, "pdf", false)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.submit(2L, "xlsx", false)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> service.get("desconhecido")).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(meterRegistry.get("export.jobs").tag("result", "rejected").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Arquivos de execuções anteriores devem ser apagados na subida")
+    void constructor_shouldDeleteLeftoverFiles() throws IOException {
+        Path leftover = Files.writeString(storageDir.resolve("0b5c3e7e-43a4-4c1e-9d0e-6f3c2a1b9d8e.xlsx.part"), "x");
+        Path unrelated = Files.writeString(storageDir.resolve("notas.txt"), "x");
+
+        newService(queued::add);
+
+        assertThat(leftover).doesNotExist();
+        assertThat(unrelated).exists();
+    }
+
+    private ExportJobService newService(Executor executor) {
+        return new ExportJobService(exportService, rawExportService, surveyRepository, responseSessionRepository, clock, storageDir,
+                executor, Duration.ofMinutes(60), 30, meterRegistry);
+    }
+}
@@ -0,0 +1,85 @@
+package com.survey.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @Test
+    @DisplayName("Poucos valores devem ser contados sem erro e repetições ignoradas")
+    void estimate_shouldBeExactForSmallSets() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 3; i++) {
+            sketch.add("10.0.0.1");
+            sketch.add("10.0.0.2");
+            sketch.add("unknown");
+        }
+
+        assertThat(sketch.estimate()).isEqualTo(3);
+        assertThat(new HyperLogLog().estimate()).isZero();
+    }
+
+    @Test
+    @DisplayName("Estimativa de muitos valores deve ficar dentro de três erros padrão")
+    void estimate_shouldStayWithinErrorBound() {
+        HyperLogLog sketch = new HyperLogLog();
+        int distinct = 200_000;
+        for (int i = 0; i < distinct; i++) {
+            sketch.add("10." + (i >>> 16) + "." + ((i >>> 8) & 0xFF) + "." + (i & 0xFF));
+        }
+
+        assertThat((double) sketch.estimate())
+                .isCloseTo(distinct, within(distinct * 3 * HyperLogLog.RELATIVE_STANDARD_ERROR));
+    }
+
+    @Test
+    @DisplayName("União de sketches deve estimar a união dos conjuntos, contando sobreposições uma vez")
+    void merge_shouldEstimateUnion() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        HyperLogLog both = new HyperLogLog();
+        for (int i = 0; i < 30_000; i++) {
+            monday.add("ip-" + i);
+            both.add("ip-" + i);
+        }
+        for (int i = 20_000; i < 50_000; i++) {
+            tuesday.add("ip-" + i);
+            both.add("ip-" + i);
+        }
+
+        monday.merge(tuesday);
+        long mergedEstimate = monday.estimate();
+        monday.merge(tuesday);
+
+        assertThat(mergedEstimate).isEqualTo(both.estimate());
+        assertThat(monday.estimate()).isEqualTo(mergedEstimate);
+        assertThat((double) mergedEstimate).isCloseTo(50_000, within(50_000 * 3 * HyperLogLog.RELATIVE_STANDARD_ERROR));
+    }
+
+    @Test
+    @DisplayName("Serialização esparsa e densa devem preservar os registradores")
+    void toBytes_shouldRoundTrip() {
+        HyperLogLog small = new HyperLogLog();
+        small.add("10.0.0.1");
+        small.add("10.0.0.2");
+        HyperLogLog large = new HyperLogLog();
+        for (int i = 0; i < 100_000; i++) {
+            large.add("ip-" + i);
+        }
+
+        byte[] sparse = small.toBytes();
+        byte[] dense = large.toBytes();
+
+        assertThat(sparse).hasSize(2 + 2 * 3);
+        assertThat(dense).hasSize(2 + 3072);
+        assertThat(HyperLogLog.fromBytes(sparse).estimate()).isEqualTo(2);
+        assertThat(HyperLogLog.fromBytes(dense).toBytes()).isEqualTo(dense);
+        assertThat(HyperLogLog.fromBytes(dense).estimate()).isEqualTo(large.estimate());
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[]{9, 12}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,52 @@
+package com.survey.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdBlockAllocatorTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private IdBlockAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        allocator = new IdBlockAllocator(jdbcTemplate, mock(PlatformTransactionManager.class), 10);
+    }
+
+    @Test
+    @DisplayName("Deve servir alocações pequenas do mesmo bloco reservado")
+    void allocate_shouldReuseReservedBlock() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("votes"))).thenReturn(100L);
+
+        assertThat(allocator.allocate("votes", 3)).isEqualTo(100L);
+        assertThat(allocator.allocate("votes", 4)).isEqualTo(103L);
+
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Long.class), eq("votes"));
+        verify(jdbcTemplate).update("UPDATE id_generators SET next_val = ? WHERE name = ?", 110L, "votes");
+    }
+
+    @Test
+    @DisplayName("Deve reservar novo bloco quando o atual não comporta a alocação")
+    void allocate_whenBlockExhausted_shouldReserveAgain() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("votes"))).thenReturn(100L, 110L);
+
+        allocator.allocate("votes", 8);
+        long first = allocator.allocate("votes", 25);
+
+        assertThat(first).isEqualTo(110L);
+        verify(jdbcTemplate).update("UPDATE id_generators SET next_val = ? WHERE name = ?", 135L, "votes");
+        verify(jdbcTemplate, times(2)).update(anyString(), anyLong(), eq("votes"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.survey.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpAnonymizerTest {
+
+    private final IpAnonymizer anonymizer = new IpAnonymizer(24, 48, "test-key");
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @DisplayName("Deve mascarar IPv4 em /24 e IPv6 em /48 na forma canônica")
+    @CsvSource({
+            "192.168.1.100, 192.168.1.0",
+            "' 10.0.0.7 ', 10.0.0.0",
+            "2001:0db8:85a3:0000:0000:8a2e:0370:7334, 2001:db8:85a3::",
+            "2001:DB8:1234:ffff::1, 2001:db8:1234::",
+            "[2001:db8:1:2::3], 2001:db8:1::",
+            "fe80::1%eth0, fe80::",
+            "::1, ::",
+            "::ffff:203.0.113.42, 203.0.113.0",
+            "64:ff9b::203.0.113.42, 64:ff9b::"
+    })
+    void mask_shouldKeepOnlyPrefix(String ip, String expected) {
+        assertThat(anonymizer.mask(ip)).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Prefixos configuráveis devem respeitar bits fora do limite de byte")
+    void mask_withCustomPrefix_shouldMaskPartialBytes() {
+        IpAnonymizer custom = new IpAnonymizer(20, 56, "test-key");
+
+        assertThat(custom.mask("192.168.255.1")).isEqualTo("192.168.240.0");
+        assertThat(custom.mask("2001:db8:aaaa:bbcc:1:2:3:4")).isEqualTo("2001:db8:aaaa:bb00::");
+    }
+
+    @ParameterizedTest
+    @DisplayName("Textos que não são IP literal devem ser recusados sem resolver DNS")
+    @ValueSource(strings = {"", "unknown", "localhost", "256.1.1.1", "1.2.3", "1.2.3.4.5", "1..2.3",
+            "2001:db8::1::2", "12345::", "1:2:3:4:5:6:7:8:9", ":1:2", "1:2:3:4:5:6:7:8::", "2001:db8:"})
+    void mask_invalid_shouldReturnNull(String ip) {
+        assertThat(anonymizer.mask(ip)).isNull();
+    }
+
+    @Test
+    @DisplayName("HMAC deve ser estável por chave e independente da forma textual")
+    void hmac_shouldBeKeyedAndCanonical() {
+        String hashed = anonymizer.hmac("203.0.113.42", "hashed:");
+
+        assertThat(hashed).matches("hashed:[0-9a-f]{16}");
+        assertThat(anonymizer.hmac("::ffff:203.0.113.42", "hashed:")).isEqualTo(hashed);
+        assertThat(new IpAnonymizer(24, 48, "other-key").hmac("203.0.113.42", "hashed:")).isNotEqualTo(hashed);
+        assertThat(anonymizer.hmac("not-an-ip", "hashed:")).isNull();
+    }
+}
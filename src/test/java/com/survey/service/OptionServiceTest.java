@@ -39,11 +39,17 @@ class OptionServiceTest {
     @Mock
     private QuestionRepository questionRepository;
 
+    @Mock
+    private SurveyStructureCache structureCache;
+
+    @Mock
+    private VoteTallyStore tallyStore;
+
     private OptionService optionService;
 
     @BeforeEach
     void setUp() {
-        optionService = new OptionService(optionRepository, questionRepository, new SimpleMeterRegistry());
+        optionService = new OptionService(optionRepository, questionRepository, structureCache, tallyStore, new SimpleMeterRegistry());
     }
 
     @Test
@@ -79,6 +85,8 @@ class OptionServiceTest {
 
         assertThat(response.getId()).isEqualTo(10L);
         verify(optionRepository).save(any(Option.class));
+        verify(structureCache).invalidate(1L);
+        verify(tallyStore).evict(1L);
     }
 
     @Test
@@ -0,0 +1,109 @@
+package com.survey.service;
+
+import org.apache.parquet.format.ColumnMetaData;
+import org.apache.parquet.format.CompressionCodec;
+import org.apache.parquet.format.Encoding;
+import org.apache.parquet.format.FieldRepetitionType;
+import org.apache.parquet.format.FileMetaData;
+import org.apache.parquet.format.RowGroup;
+import org.apache.parquet.format.SchemaElement;
+import org.apache.parquet.format.Type;
+import org.apache.parquet.format.Util;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParquetStreamWriterTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 4, 10, 0);
+
+    @Test
+    @DisplayName("Deve dividir as linhas em row groups pelo tamanho e registrar tipos, dicionário e estatísticas")
+    void finish_shouldWriteRowGroupsWithTypedColumns() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ParquetStreamWriter writer = ParquetStreamWriter.builder()
+                .number("id")
+                .dictionary("device_type")
+                .text("user_agent")
+                .timestamp("created_at")
+                .rowGroupBytes(64 * 1024)
+                .gzip(false)
+                .build(out);
+
+        for (int i = 0; i < 5000; i++) {
+            writer.startRow();
+            writer.number(i);
+            writer.text(i % 10 == 0 ? null : i % 2 == 0 ? "mobile" : "desktop");
+            writer.text("Mozilla/5.0 (X11; Linux x86_64) agente " + i);
+            writer.timestamp(BASE.plusSeconds(i));
+            writer.endRow();
+        }
+        writer.finish();
+
+        FileMetaData footer = footer(out.toByteArray());
+        assertThat(footer.getNum_rows()).isEqualTo(5000);
+        assertThat(footer.getRow_groups()).hasSizeGreaterThan(1);
+        assertThat(footer.getRow_groups().stream().mapToLong(RowGroup::getNum_rows).sum()).isEqualTo(5000);
+
+        List<SchemaElement> schema = footer.getSchema();
+        assertThat(schema.get(0).getNum_children()).isEqualTo(4);
+        assertThat(schema.get(2).getType()).isEqualTo(Type.BYTE_ARRAY);
+        assertThat(schema.get(2).getLogicalType().isSetSTRING()).isTrue();
+        assertThat(schema.get(2).getRepetition_type()).isEqualTo(FieldRepetitionType.OPTIONAL);
+        assertThat(schema.get(4).getType()).isEqualTo(Type.INT64);
+        assertThat(schema.get(4).getLogicalType().getTIMESTAMP().isIsAdjustedToUTC()).isFalse();
+        assertThat(schema.get(4).getLogicalType().getTIMESTAMP().getUnit().isSetMILLIS()).isTrue();
+
+        RowGroup first = footer.getRow_groups().get(0);
+        ColumnMetaData device = first.getColumns().get(1).getMeta_data();
+        assertThat(device.getEncodings()).contains(Encoding.PLAIN_DICTIONARY);
+        assertThat(device.getDictionary_page_offset()).isLessThan(device.getData_page_offset());
+        assertThat(device.getCodec()).isEqualTo(CompressionCodec.UNCOMPRESSED);
+        assertThat(device.getStatistics().getNull_count()).isPositive();
+        assertThat(first.getColumns().get(2).getMeta_data().getEncodings()).doesNotContain(Encoding.PLAIN_DICTIONARY);
+
+        ColumnMetaData createdAt = first.getColumns().get(3).getMeta_data();
+        assertThat(littleEndianLong(createdAt.getStatistics().getMin_value()))
+                .isEqualTo(BASE.toInstant(ZoneOffset.UTC).toEpochMilli());
+        assertThat(createdAt.getNum_values()).isEqualTo(first.getNum_rows());
+    }
+
+    @Test
+    @DisplayName("Sem linhas deve gerar um arquivo válido sem row groups")
+    void finish_shouldWriteEmptyFile() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ParquetStreamWriter writer = ParquetStreamWriter.builder().number("id").text("status").build(out);
+
+        writer.finish();
+
+        FileMetaData footer = footer(out.toByteArray());
+        assertThat(footer.getNum_rows()).isZero();
+        assertThat(footer.getRow_groups()).isEmpty();
+        assertThat(footer.getSchema()).extracting(SchemaElement::getName).containsExactly("row", "id", "status");
+    }
+
+    /**
+     * Rodapé Thrift do arquivo: {@code ... <metadados> <tamanho LE de 4 bytes> PAR1}.
+     */
+    private static FileMetaData footer(byte[] parquet) throws IOException {
+        assertThat(new String(parquet, 0, 4, StandardCharsets.US_ASCII)).isEqualTo("PAR1");
+        assertThat(new String(parquet, parquet.length - 4, 4, StandardCharsets.US_ASCII)).isEqualTo("PAR1");
+        int length = ByteBuffer.wrap(parquet, parquet.length - 8, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        return Util.readFileMetaData(new ByteArrayInputStream(parquet, parquet.length - 8 - length, length));
+    }
+
+    private static long littleEndianLong(byte[] value) {
+        return ByteBuffer.wrap(value).order(ByteOrder.LITTLE_ENDIAN).getLong();
+    }
+}
@@ -38,11 +38,17 @@ class QuestionServiceTest {
     @Mock
     private SurveyRepository surveyRepository;
 
+    @Mock
+    private SurveyStructureCache structureCache;
+
+    @Mock
+    private VoteTallyStore tallyStore;
+
     private QuestionService questionService;
 
     @BeforeEach
     void setUp() {
-        questionService = new QuestionService(questionRepository, surveyRepository, new SimpleMeterRegistry());
+        questionService = new QuestionService(questionRepository, surveyRepository, structureCache, tallyStore, new SimpleMeterRegistry());
     }
 
     @Test
@@ -147,6 +153,8 @@ class QuestionServiceTest {
         questionService.delete(10L);
 
         verify(questionRepository).save(argThat(q -> q.getDeletedAt() != null));
+        verify(structureCache).invalidate(1L);
+        verify(tallyStore).evict(1L);
     }
 
     private Survey buildSurvey(Long id, String title, boolean active) {
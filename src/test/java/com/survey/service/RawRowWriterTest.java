@@ -0,0 +1,54 @@
+package com.survey.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RawRowWriterTest {
+
+    @Test
+    @DisplayName("CSV deve escrever cabeçalho, campos vazios para nulos e aspas só quando necessário")
+    void csv_shouldQuoteOnlyWhenNeeded() throws IOException {
+        StringWriter out = new StringWriter();
+        RawRowWriter rows = RawRowWriter.of(ExportFormat.CSV, out, "id", "city", "user_agent", "created_at");
+
+        rows.begin();
+        writeRow(rows, 1, "Rio", "Mozilla/5.0 (X11, Linux)", LocalDateTime.of(2024, 3, 4, 10, 0, 5));
+        writeRow(rows, 2, null, "diz \"oi\"\nsegunda linha", null);
+
+        assertThat(out.toString()).isEqualTo("id,city,user_agent,created_at\r\n"
+                + "1,Rio,\"Mozilla/5.0 (X11, Linux)\",2024-03-04T10:00:05\r\n"
+                + "2,,\"diz \"\"oi\"\"\nsegunda linha\",\r\n");
+    }
+
+    @Test
+    @DisplayName("NDJSON deve escrever um objeto por linha com escapes JSON e null explícito")
+    void ndjson_shouldEscapeStrings() throws IOException {
+        StringWriter out = new StringWriter();
+        RawRowWriter rows = RawRowWriter.of(ExportFormat.NDJSON, out, "id", "city", "user_agent", "created_at");
+
+        rows.begin();
+        writeRow(rows, 1, "São Paulo", "a\\b \"c\"\t\u0001", LocalDateTime.of(2024, 3, 4, 10, 0));
+        writeRow(rows, 2, null, "", null);
+
+        assertThat(out.toString()).isEqualTo(
+                "{\"id\":1,\"city\":\"São Paulo\",\"user_agent\":\"a\\\\b \\\"c\\\"\\t\\u0001\","
+                        + "\"created_at\":\"2024-03-04T10:00:00\"}\n"
+                        + "{\"id\":2,\"city\":null,\"user_agent\":\"\",\"created_at\":null}\n");
+    }
+
+    private static void writeRow(RawRowWriter rows, long id, String city, String userAgent, LocalDateTime createdAt)
+            throws IOException {
+        rows.startRow();
+        rows.number(id);
+        rows.text(city);
+        rows.text(userAgent);
+        rows.timestamp(createdAt);
+        rows.endRow();
+    }
+}
@@ -35,13 +35,27 @@ class ResponseSessionPrivacyServiceTest {
     }
 
     @Test
-    @DisplayName("Deve anonimizar IPv6 truncando último bloco quando habilitado")
-    void anonymizeIpAddress_ipv6_shouldTruncateLastBlock() {
+    @DisplayName("Deve anonimizar IPv6 mantendo apenas o prefixo /48 quando habilitado")
+    void anonymizeIpAddress_ipv6_shouldMaskTo48BitPrefix() {
         privacyService = new ResponseSessionPrivacyService(true, privacyConfig, "");
         
         String result = privacyService.anonymizeIpAddress("2001:0db8:85a3:0000:0000:8a2e:0370:7334");
         
-        assertThat(result).isEqualTo("2001:0db8:85a3:0000:0000:8a2e:0370:0000");
+        assertThat(result).isEqualTo("2001:db8:85a3::");
+    }
+
+    @Test
+    @DisplayName("Modo HMAC deve gerar o mesmo valor para formas diferentes do mesmo IP")
+    void anonymizeIpAddress_hmacMode_shouldHashAddressBytes() {
+        privacyService = new ResponseSessionPrivacyService(true, privacyConfig, "test-salt",
+                ResponseSessionPrivacyService.MODE_HMAC, 24, 48);
+
+        String result = privacyService.anonymizeIpAddress("2001:db8::1");
+
+        assertThat(result).matches("hashed:[0-9a-f]{16}");
+        assertThat(privacyService.anonymizeIpAddress("2001:0DB8:0:0:0:0:0:0001")).isEqualTo(result);
+        assertThat(new ResponseSessionPrivacyService(true, privacyConfig, "other-salt",
+                ResponseSessionPrivacyService.MODE_HMAC, 24, 48).anonymizeIpAddress("2001:db8::1")).isNotEqualTo(result);
     }
 
     @Test
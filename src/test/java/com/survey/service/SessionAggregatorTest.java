@@ -0,0 +1,148 @@
+package com.survey.service;
+
+import com.survey.dto.DurationStats;
+import com.survey.entity.Question;
+import com.survey.entity.ResponseStatus;
+import com.survey.service.SessionAggregator.AudienceDimension;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+
+class SessionAggregatorTest {
+
+    private static final LocalDateTime MONDAY_10H = LocalDateTime.of(2024, 1, 1, 10, 15);
+
+    @Test
+    @DisplayName("Deve calcular totais, taxas e médias numa única passada sobre as sessões")
+    void addSessions_shouldComputeOverview() {
+        Question q1 = question(1L);
+        Question q2 = question(2L);
+        SessionAggregator aggregator = new SessionAggregator();
+
+        aggregator.add(session(ResponseStatus.COMPLETED, null, "mobile", MONDAY_10H, 3));
+        aggregator.add(session(ResponseStatus.COMPLETED, null, "mobile", MONDAY_10H, 30));
+        aggregator.add(session(ResponseStatus.ABANDONED, q1, "desktop", MONDAY_10H.plusDays(1), 0));
+        aggregator.add(session(ResponseStatus.ABANDONED, q2, " ", MONDAY_10H.plusDays(1).plusHours(5), 0));
+        aggregator.add(session(ResponseStatus.ABANDONED, q2, null, MONDAY_10H.plusDays(1).plusHours(5), 0));
+
+        assertThat(aggregator.total()).isEqualTo(5);
+        assertThat(aggregator.count(ResponseStatus.COMPLETED)).isEqualTo(2);
+        assertThat(aggregator.count(ResponseStatus.ABANDONED)).isEqualTo(3);
+        assertThat(aggregator.completionRate()).isCloseTo(0.4, within(1e-9));
+        assertThat(aggregator.abandonmentRate()).isCloseTo(0.6, within(1e-9));
+        assertThat(aggregator.averageDurationSeconds()).isCloseTo(16.5, within(1e-9));
+        assertThat(aggregator.fastResponses()).isEqualTo(1);
+        assertThat(aggregator.completionTime().getCount()).isEqualTo(2);
+        assertThat(aggregator.completionTime().getP50Seconds()).isEqualTo(3);
+        assertThat(aggregator.completionTime().getP99Seconds()).isEqualTo(30);
+        assertThat(aggregator.completionTime().getHistogram())
+                .extracting(DurationStats.Bucket::getLabel, DurationStats.Bucket::getCount)
+                .contains(tuple("<5s", 1L), tuple("30-60s", 1L), tuple(">=30min", 0L));
+        assertThat(aggregator.abandonmentTime().getCount()).isEqualTo(3);
+        assertThat(aggregator.mostAbandonedQuestionId()).isEqualTo(2L);
+        assertThat(aggregator.predominant(AudienceDimension.DEVICE)).isEqualTo("mobile");
+        assertThat(aggregator.counts(AudienceDimension.DEVICE))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("mobile", 2L, "desktop", 1L, "unknown", 2L));
+    }
+
+    @Test
+    @DisplayName("Deve agrupar por dia, hora do dia e dia da semana")
+    void addSessions_shouldBuildTimeBuckets() {
+        SessionAggregator aggregator = new SessionAggregator();
+        aggregator.add(session(ResponseStatus.COMPLETED, null, "mobile", MONDAY_10H, 10));
+        aggregator.add(session(ResponseStatus.COMPLETED, null, "mobile", MONDAY_10H.plusDays(1), 10));
+        aggregator.add(session(ResponseStatus.STARTED, null, "mobile", MONDAY_10H.plusDays(1).plusHours(5), 10));
+
+        assertThat(aggregator.daily()).containsExactly(
+                Map.entry(LocalDate.of(2024, 1, 1), 1L),
+                Map.entry(LocalDate.of(2024, 1, 2), 2L));
+        assertThat(aggregator.hourOfDay()).containsExactly(Map.entry(10, 2L), Map.entry(15, 1L));
+        assertThat(aggregator.dayOfWeek())
+                .containsExactlyInAnyOrderEntriesOf(Map.of("MONDAY", 1L, "TUESDAY", 2L));
+    }
+
+    @Test
+    @DisplayName("Contagens por faceta devem reconstituir totais, séries e dimensões")
+    void addFacetRows_shouldSumFacets() {
+        SessionAggregator aggregator = new SessionAggregator();
+        aggregator.add(facet("STATUS", "ABANDONED", 4, 0, 0, 4, 40));
+        aggregator.add(facet("STATUS", "COMPLETED", 2, 2, 20, 2, 20));
+        aggregator.add(facet("STATUS", "UNKNOWN", 1, 0, 0, 0, 0));
+        aggregator.add(facet("STATUS", "COMPLETED", 1, 1, 10, 1, 10));
+        aggregator.add(facet("QUESTION", "7", 3, 0, 0, 0, 0));
+        aggregator.add(facet("QUESTION", "9", 1, 0, 0, 0, 0));
+        aggregator.add(facet("HOUR", "10", 8, 0, 0, 0, 0));
+        aggregator.add(facet("DATE", "2024-01-01", 5, 0, 0, 0, 0));
+        aggregator.add(facet("DATE", "2024-01-02", 3, 0, 0, 0, 0));
+        aggregator.add(facet("DEVICE", "desktop", 4, 0, 0, 0, 0));
+        aggregator.add(facet("DEVICE", "mobile", 3, 0, 0, 0, 0));
+        aggregator.add(facet("DEVICE", "desktop", 1, 0, 0, 0, 0));
+        aggregator.add(facet("STATE", "SP", 8, 0, 0, 0, 0));
+        ResponseRollupStore.Durations durations = ResponseRollupStore.Durations.empty();
+        durations.record(ResponseRollupStore.Durations.COMPLETION, 3, 1);
+        durations.record(ResponseRollupStore.Durations.COMPLETION, 12, 2);
+        durations.record(ResponseRollupStore.Durations.ABANDONMENT, 10, 4);
+        aggregator.add(durations);
+
+        assertThat(aggregator.total()).isEqualTo(8);
+        assertThat(aggregator.count(ResponseStatus.COMPLETED)).isEqualTo(3);
+        assertThat(aggregator.count(ResponseStatus.ABANDONED)).isEqualTo(4);
+        assertThat(aggregator.averageDurationSeconds()).isCloseTo(10.0, within(1e-9));
+        assertThat(aggregator.averageAbandonmentSeconds()).isCloseTo(10.0, within(1e-9));
+        assertThat(aggregator.fastResponses()).isEqualTo(1);
+        assertThat(aggregator.completionTime().getP90Seconds()).isEqualTo(12);
+        assertThat(aggregator.abandonmentTime().getP50Seconds()).isEqualTo(10);
+        assertThat(aggregator.mostAbandonedQuestionId()).isEqualTo(7L);
+        assertThat(aggregator.predominant(AudienceDimension.DEVICE)).isEqualTo("desktop");
+        assertThat(aggregator.counts(AudienceDimension.DEVICE))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("desktop", 5L, "mobile", 3L));
+        assertThat(aggregator.counts(AudienceDimension.STATE)).containsExactly(Map.entry("SP", 8L));
+        assertThat(aggregator.hourOfDay()).containsExactly(Map.entry(10, 8L));
+        assertThat(aggregator.daily()).containsExactly(
+                Map.entry(LocalDate.of(2024, 1, 1), 5L),
+                Map.entry(LocalDate.of(2024, 1, 2), 3L));
+        assertThat(aggregator.dayOfWeek())
+                .containsExactlyInAnyOrderEntriesOf(Map.of("MONDAY", 5L, "TUESDAY", 3L));
+    }
+
+    @Test
+    @DisplayName("Sem sessões, deve devolver zeros e valores padrão")
+    void empty_shouldReturnDefaults() {
+        SessionAggregator aggregator = new SessionAggregator();
+
+        assertThat(aggregator.total()).isZero();
+        assertThat(aggregator.completionRate()).isZero();
+        assertThat(aggregator.averageDurationSeconds()).isZero();
+        assertThat(aggregator.mostAbandonedQuestionId()).isNull();
+        assertThat(aggregator.completionTime().getCount()).isZero();
+        assertThat(aggregator.completionTime().getP99Seconds()).isZero();
+        assertThat(aggregator.predominant(AudienceDimension.DEVICE)).isEqualTo("unknown");
+        assertThat(aggregator.counts(AudienceDimension.CITY)).isEmpty();
+        assertThat(aggregator.daily()).isEmpty();
+    }
+
+    private static ResponseRollupStore.FacetRow facet(String facet, String label, long responses, long timed,
+                                                      long duration, long elapsed, long elapsedSeconds) {
+        return new ResponseRollupStore.FacetRow(facet, label, responses, timed, duration, elapsed, elapsedSeconds);
+    }
+
+    private static Question question(Long id) {
+        Question question = new Question();
+        question.setId(id);
+        return question;
+    }
+
+    private static ResponseSessionScanner.SessionRow session(ResponseStatus status, Question question, String device,
+                                                             LocalDateTime createdAt, long durationSeconds) {
+        return new ResponseSessionScanner.SessionRow(null, 1L, question != null ? question.getId() : null, null,
+                status, device, null, null, null, null, null, null, createdAt.minusSeconds(durationSeconds),
+                status == ResponseStatus.COMPLETED ? createdAt : null, createdAt, null, null);
+    }
+}
@@ -0,0 +1,95 @@
+package com.survey.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionEnrichmentStageTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SessionEnrichmentStage stage;
+
+    @AfterEach
+    void tearDown() {
+        if (stage != null) {
+            stage.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve repetir o lote quando o UPDATE falha e contar o atraso ao concluir")
+    void shouldRetryFailedBatch() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenThrow(new TransientDataAccessResourceException("lock wait timeout"))
+                .thenReturn(new int[]{1, 1});
+        stage = newStage(true, 3);
+
+        stage.flush(List.of(task(1L), task(2L)));
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        verify(jdbcTemplate).batchUpdate(contains("survey_data_versions"),
+                argThat((List<Object[]> versions) -> versions.size() == 1 && versions.get(0)[0].equals(5L)));
+        assertThat(meterRegistry.counter("session.enrichment.retries").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("session.enrichment.enriched").count()).isEqualTo(2.0);
+        assertThat(meterRegistry.timer("session.enrichment.lag").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve desistir do lote após max-attempts e deixá-lo para a varredura")
+    void shouldGiveUpAfterMaxAttempts() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenThrow(new TransientDataAccessResourceException("down"));
+        stage = newStage(true, 2);
+
+        stage.flush(List.of(task(1L)));
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        assertThat(meterRegistry.counter("session.enrichment.failed").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("session.enrichment.enriched").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Desligado, não deve iniciar workers nem aceitar sessões")
+    void shouldRejectWhenDisabled() {
+        stage = newStage(false, 3);
+        stage.start();
+
+        stage.onSessionsRecorded(SessionsRecordedEvent.of(1L, 5L, "JUnit"));
+
+        assertThat(stage.isRunning()).isFalse();
+        assertThat(stage.getBacklog()).isZero();
+        assertThat(meterRegistry.counter("session.enrichment.rejected").count()).isEqualTo(1.0);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+    }
+
+    private SessionEnrichmentStage newStage(boolean enabled, int maxAttempts) {
+        return new SessionEnrichmentStage(jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                new UserAgentClassifier(100, meterRegistry),
+                enabled, 1, 100, 50, 20, maxAttempts, 1, 60, 24, 1000, meterRegistry);
+    }
+
+    private static SessionEnrichmentStage.Task task(Long sessionId) {
+        return new SessionEnrichmentStage.Task(sessionId, 5L, "Mozilla/5.0 (Windows NT 10.0) Chrome/120.0", System.nanoTime());
+    }
+}
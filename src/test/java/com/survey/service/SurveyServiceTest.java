@@ -46,6 +46,12 @@ class SurveyServiceTest {
     @Mock
     private OptionRepository optionRepository;
 
+    @Mock
+    private SurveyStructureCache structureCache;
+
+    @Mock
+    private VoteTallyStore tallyStore;
+
     private SurveyService surveyService;
 
     @BeforeEach
@@ -54,6 +60,8 @@ class SurveyServiceTest {
                 surveyRepository,
                 questionRepository,
                 optionRepository,
+                structureCache,
+                tallyStore,
                 new SimpleMeterRegistry());
     }
 
@@ -194,6 +202,8 @@ class SurveyServiceTest {
         verify(questionRepository).saveAll(argThat(list -> StreamSupport.stream(list.spliterator(), false)
                 .allMatch(q -> q.getDeletedAt() != null)));
         verify(surveyRepository).save(argThat(s -> s.getDeletedAt() != null && Boolean.FALSE.equals(s.getAtivo())));
+        verify(structureCache).invalidate(1L);
+        verify(tallyStore).evict(1L);
     }
 
     private Survey buildSurvey(Long id, String titulo, boolean ativo) {
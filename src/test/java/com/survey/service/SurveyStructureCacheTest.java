@@ -0,0 +1,104 @@
+package com.survey.service;
+
+import com.survey.entity.Option;
+import com.survey.entity.Question;
+import com.survey.entity.Survey;
+import com.survey.repository.OptionRepository;
+import com.survey.repository.QuestionRepository;
+import com.survey.repository.SurveyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SurveyStructureCacheTest {
+
+    @Mock
+    private SurveyRepository surveyRepository;
+    @Mock
+    private QuestionRepository questionRepository;
+    @Mock
+    private OptionRepository optionRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SurveyStructureCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new SurveyStructureCache(surveyRepository, questionRepository, optionRepository,
+                Clock.systemUTC(), 300, 100, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Deve carregar a estrutura uma única vez e servir as próximas leituras do cache")
+    void get_shouldLoadOnceAndServeFromCache() {
+        stubSurvey();
+
+        SurveyStructureCache.SurveySnapshot first = cache.get(1L).orElseThrow();
+        SurveyStructureCache.SurveySnapshot second = cache.get(1L).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.question(2L)).isPresent();
+        assertThat(first.option(3L)).hasValueSatisfying(option -> {
+            assertThat(option.questionId()).isEqualTo(2L);
+            assertThat(option.ativo()).isFalse();
+        });
+        verify(surveyRepository, times(1)).findById(1L);
+        assertThat(meterRegistry.counter("survey.structure.cache", "result", "hit").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("survey.structure.cache", "result", "miss").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("survey.structure.cache.rebuilds").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Invalidação deve forçar nova leitura do banco")
+    void invalidate_shouldForceReload() {
+        stubSurvey();
+
+        cache.get(1L);
+        cache.invalidate(1L);
+        cache.get(1L);
+
+        verify(surveyRepository, times(2)).findById(1L);
+        assertThat(meterRegistry.counter("survey.structure.cache.rebuilds").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Pesquisa inexistente não deve ser cacheada")
+    void get_whenSurveyMissing_shouldNotCache() {
+        when(surveyRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertThat(cache.get(9L)).isEmpty();
+        assertThat(cache.get(9L)).isEmpty();
+
+        verify(surveyRepository, times(2)).findById(9L);
+        verify(questionRepository, never()).findBySurveyIdOrderByOrdemAsc(9L);
+    }
+
+    private void stubSurvey() {
+        Survey survey = new Survey("Pesquisa", true, LocalDateTime.now().plusDays(1));
+        survey.setId(1L);
+        Question question = new Question("Pergunta", 1, survey);
+        question.setId(2L);
+        Option option = new Option("Opção", false, question);
+        option.setId(3L);
+        when(surveyRepository.findById(1L)).thenReturn(Optional.of(survey));
+        when(questionRepository.findBySurveyIdOrderByOrdemAsc(1L)).thenReturn(List.of(question));
+        when(optionRepository.findByQuestionIdIn(List.of(2L))).thenReturn(List.of(option));
+    }
+}
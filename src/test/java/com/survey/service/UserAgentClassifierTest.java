@@ -0,0 +1,53 @@
+package com.survey.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserAgentClassifierTest {
+
+    @ParameterizedTest(name = "{1}/{2}/{3} {4}")
+    @DisplayName("Deve classificar dispositivo, sistema, navegador e versão")
+    @CsvSource(delimiter = '|', value = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36|desktop|Windows|Chrome|120",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36 Edg/120.0.2210.91|desktop|Windows|Edge|120",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/119.0.0.0 Safari/537.36 OPR/105.0.0.0|desktop|Windows|Opera|105",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 14_2) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.2 Safari/605.1.15|desktop|macOS|Safari|17",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_2 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.2 Mobile/15E148 Safari/604.1|mobile|iOS|Safari|17",
+            "Mozilla/5.0 (iPad; CPU OS 17_2 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) CriOS/120.0.6099.119 Mobile/15E148 Safari/604.1|tablet|iOS|Chrome|120",
+            "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.6099.144 Mobile Safari/537.36|mobile|Android|Chrome|120",
+            "Mozilla/5.0 (Linux; Android 13; SM-X700) AppleWebKit/537.36 (KHTML, like Gecko) SamsungBrowser/23.0 Chrome/115.0.0.0 Safari/537.36|tablet|Android|Samsung Internet|23",
+            "Mozilla/5.0 (X11; Ubuntu; Linux x86_64; rv:121.0) Gecko/20100101 Firefox/121.0|desktop|Linux|Firefox|121",
+            "Mozilla/5.0 (Windows NT 6.1; Trident/7.0; rv:11.0) like Gecko|desktop|Windows|Internet Explorer|11",
+            "Mozilla/5.0 (compatible; MSIE 10.0; Windows NT 6.1; Trident/6.0)|desktop|Windows|Internet Explorer|10",
+            "JUnit/Test|desktop|unknown|unknown|"
+    })
+    void parse_shouldClassify(String userAgent, String device, String os, String browser, String version) {
+        UserAgentClassifier.UserAgentInfo info = UserAgentClassifier.parse(userAgent);
+
+        assertThat(info.deviceType()).isEqualTo(device);
+        assertThat(info.operatingSystem()).isEqualTo(os);
+        assertThat(info.browser()).isEqualTo(browser);
+        assertThat(info.browserVersion()).isEqualTo(version);
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar a classificação do cache e respeitar o limite de entradas")
+    void classify_shouldCacheWithinBound() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserAgentClassifier classifier = new UserAgentClassifier(2, meterRegistry);
+
+        UserAgentClassifier.UserAgentInfo first = classifier.classify("Mozilla/5.0 Firefox/121.0");
+        assertThat(classifier.classify("Mozilla/5.0 Firefox/121.0")).isSameAs(first);
+        classifier.classify("agent-2");
+        classifier.classify("agent-3");
+
+        assertThat(meterRegistry.counter("vote.user-agent.cache", "result", "hit").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("vote.user-agent.cache.size").gauge().value()).isEqualTo(2.0);
+        assertThat(classifier.classify(null).browser()).isEqualTo(UserAgentClassifier.UNKNOWN);
+    }
+}
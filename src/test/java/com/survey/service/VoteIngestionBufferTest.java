@@ -0,0 +1,130 @@
+package com.survey.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class VoteIngestionBufferTest {
+
+    private final VoteBatchWriter writer = mock(VoteBatchWriter.class);
+    private final List<Integer> flushedBatchSizes = new CopyOnWriteArrayList<>();
+    private VoteIngestionBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve agrupar respostas em lotes de até batch-size")
+    void shouldFlushInBatches() throws Exception {
+        CountDownLatch latch = new CountDownLatch(5);
+        doAnswer(invocation -> {
+            List<?> batch = invocation.getArgument(0);
+            flushedBatchSizes.add(batch.size());
+            batch.forEach(item -> latch.countDown());
+            return List.of();
+        }).when(writer).write(anyList());
+        buffer = newBuffer(100, 2, 50);
+        buffer.start();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(buffer.offer(pending())).isTrue();
+        }
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(flushedBatchSizes).allMatch(size -> size <= 2);
+        assertThat(flushedBatchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Deve recusar novas respostas quando o buffer está cheio")
+    void shouldRejectWhenFull() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            blocked.await(5, TimeUnit.SECONDS);
+            return List.of();
+        }).when(writer).write(anyList());
+        buffer = newBuffer(1, 1, 10);
+        buffer.start();
+
+        buffer.offer(pending());
+        // aguarda o writer retirar o primeiro item e ficar preso gravando
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(buffer.offer(pending())).isTrue();
+        assertThat(buffer.offer(pending())).isFalse();
+        blocked.countDown();
+    }
+
+    @Test
+    @DisplayName("Deve drenar a fila ao parar")
+    void shouldDrainOnStop() {
+        doAnswer(invocation -> {
+            flushedBatchSizes.add(((List<?>) invocation.getArgument(0)).size());
+            return List.of();
+        }).when(writer).write(anyList());
+        buffer = newBuffer(100, 100, 60_000);
+        buffer.start();
+
+        buffer.offer(pending());
+        buffer.offer(pending());
+        buffer.stop();
+
+        assertThat(flushedBatchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(2);
+        assertThat(buffer.offer(pending())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Falha no lote deve regravar item a item")
+    void shouldRetryIndividuallyWhenBatchFails() {
+        doAnswer(invocation -> {
+            List<?> batch = invocation.getArgument(0);
+            if (batch.size() > 1) {
+                throw new IllegalStateException("batch failed");
+            }
+            flushedBatchSizes.add(batch.size());
+            return List.of();
+        }).when(writer).write(anyList());
+        buffer = newBuffer(10, 10, 10);
+
+        buffer.flush(List.of(pending(), pending(), pending()));
+
+        assertThat(flushedBatchSizes).containsExactly(1, 1, 1);
+    }
+
+    @Test
+    @DisplayName("Buffer desabilitado não deve aceitar respostas")
+    void disabledBufferShouldReject() {
+        doThrow(new IllegalStateException()).when(writer).write(anyList());
+        buffer = new VoteIngestionBuffer(writer, false, true, 10, 10, 10, 1000, 2, new SimpleMeterRegistry());
+        buffer.start();
+
+        assertThat(buffer.isRunning()).isFalse();
+        assertThat(buffer.offer(pending())).isFalse();
+    }
+
+    private VoteIngestionBuffer newBuffer(int capacity, int batchSize, long flushIntervalMs) {
+        return new VoteIngestionBuffer(writer, true, true, capacity, batchSize, flushIntervalMs, 5000, 2,
+                new SimpleMeterRegistry());
+    }
+
+    private PendingResponse pending() {
+        return new PendingResponse(1L, "127.0.0.0", "JUnit", LocalDateTime.now(), null,
+                List.of(new PendingResponse.Answer(2L, 3L)));
+    }
+}
@@ -1,6 +1,10 @@
 package com.survey.service;
 
 import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -17,4 +21,70 @@ class VoteRateLimiterTest {
         assertThat(limiter.allow("1.1.1.1")).isTrue();
         assertThat(limiter.allow("1.1.1.1")).isFalse();
     }
+
+    @Test
+    @DisplayName("Recusa deve informar Retry-After até o próximo token")
+    void shouldReportRetryAfter() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VoteRateLimiter limiter = new VoteRateLimiter(2, 0, 0, 100, fixedClock(), meterRegistry);
+
+        limiter.tryAcquire("1.1.1.1", 1L);
+        limiter.tryAcquire("1.1.1.1", 1L);
+        VoteRateLimiter.Decision decision = limiter.tryAcquire("1.1.1.1", 1L);
+
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.scope()).isEqualTo("ip");
+        assertThat(decision.retryAfterSeconds()).isEqualTo(30);
+        assertThat(meterRegistry.counter("vote.rate-limit.rejections", "scope", "ip").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Limites por rede e por pesquisa devem valer entre IPs diferentes")
+    void shouldLimitByPrefixAndSurvey() {
+        VoteRateLimiter limiter = new VoteRateLimiter(10, 2, 3, 100, fixedClock(), new SimpleMeterRegistry());
+
+        assertThat(limiter.tryAcquire("10.0.0.1", 1L).allowed()).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.2", 1L).allowed()).isTrue();
+        VoteRateLimiter.Decision sameNetwork = limiter.tryAcquire("10.0.0.3", 1L);
+        assertThat(sameNetwork.allowed()).isFalse();
+        assertThat(sameNetwork.scope()).isEqualTo("prefix");
+
+        assertThat(limiter.tryAcquire("10.0.1.1", 1L).allowed()).isTrue();
+        VoteRateLimiter.Decision sameSurvey = limiter.tryAcquire("10.0.2.1", 1L);
+        assertThat(sameSurvey.allowed()).isFalse();
+        assertThat(sameSurvey.scope()).isEqualTo("survey");
+        // o token de IP/rede consumido antes da recusa é devolvido
+        assertThat(limiter.tryAcquire("10.0.2.1", 2L).allowed()).isTrue();
+        assertThat(limiter.tryAcquire("10.0.2.2", 2L).allowed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Prefixo de rede deve agrupar /24 no IPv4 e /64 no IPv6")
+    void networkPrefix_shouldGroupByNetwork() {
+        assertThat(VoteRateLimiter.networkPrefix("203.0.113.42")).isEqualTo("203.0.113.0/24");
+        assertThat(VoteRateLimiter.networkPrefix("2001:db8:1:2:aaaa::1"))
+                .isEqualTo(VoteRateLimiter.networkPrefix("2001:0db8:0001:0002:ffff:0:0:9"));
+        assertThat(VoteRateLimiter.networkPrefix("[2001:DB8:1:2::7]")).isEqualTo("2001:db8:1:2::/64");
+        assertThat(VoteRateLimiter.networkPrefix("::ffff:203.0.113.42")).isEqualTo("203.0.113.0/24");
+        assertThat(VoteRateLimiter.networkPrefix("unknown")).isEqualTo("unknown");
+    }
+
+    @Test
+    @DisplayName("Número de buckets deve ficar limitado a max-buckets")
+    void shouldEvictWhenOverCapacity() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VoteRateLimiter limiter = new VoteRateLimiter(5, 0, 0, 100, fixedClock(), meterRegistry);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire("198.51." + (i / 256) + "." + (i % 256), null);
+        }
+
+        assertThat(limiter.bucketCount()).isLessThanOrEqualTo(100);
+        assertThat(meterRegistry.counter("vote.rate-limit.evictions", "reason", "capacity").count()).isPositive();
+        assertThat(meterRegistry.get("vote.rate-limit.buckets").gauge().value()).isEqualTo(limiter.bucketCount());
+    }
+
+    private static Clock fixedClock() {
+        return Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+    }
 }
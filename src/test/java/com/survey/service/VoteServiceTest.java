@@ -1,12 +1,14 @@
 package com.survey.service;
 
+import com.survey.dto.VoteBatchRequestDTO;
+import com.survey.dto.VoteBatchResponseDTO;
 import com.survey.dto.VoteRequestDTO;
-import com.survey.entity.Option;
-import com.survey.entity.Question;
 import com.survey.entity.ResponseSession;
-import com.survey.entity.Survey;
 import com.survey.entity.Vote;
+import com.survey.dto.VoteResponseDTO;
 import com.survey.exception.BusinessException;
+import com.survey.exception.ResourceNotFoundException;
+import com.survey.exception.ServiceOverloadedException;
 import com.survey.repository.ResponseSessionRepository;
 import com.survey.repository.OptionRepository;
 import com.survey.repository.QuestionRepository;
@@ -16,13 +18,21 @@ import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -41,6 +51,18 @@ class VoteServiceTest {
     private ResponseSessionRepository responseSessionRepository;
     @Mock
     private ResponseSessionPrivacyService privacyService;
+    @Mock
+    private VoteIngestionBuffer ingestionBuffer;
+    @Mock
+    private VoteBatchWriter batchWriter;
+    @Mock
+    private SurveyStructureCache structureCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private SessionEnrichmentStage enrichmentStage;
+    @Mock
+    private SurveyDataVersions dataVersions;
 
     private VoteService voteService;
 
@@ -52,28 +74,15 @@ class VoteServiceTest {
         lenient().when(privacyService.normalizeUserAgent(anyString(), anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
         lenient().when(privacyService.isAudienceCollectionEnabled()).thenReturn(true);
         
-        voteService = new VoteService(
-                surveyRepository,
-                questionRepository,
-                optionRepository,
-                voteRepository,
-                responseSessionRepository,
-                privacyService,
-                0L, // janela desabilitada para testes unitários
-                new SimpleMeterRegistry()
-        );
+        // janela desabilitada para testes unitários
+        voteService = newVoteService(new DuplicateVoteGuard(0, 100, 0, false, voteRepository, Clock.systemUTC(),
+                new SimpleMeterRegistry()));
     }
 
     @Test
     @DisplayName("registerVote deve validar relacionamentos pertencentes")
     void registerVote_shouldValidateRelationships() {
-        Survey survey = buildSurvey(1L, true);
-        Question question = buildQuestion(2L, survey);
-        Option option = buildOption(3L, question);
-
-        when(surveyRepository.findById(1L)).thenReturn(Optional.of(survey));
-        when(questionRepository.findById(2L)).thenReturn(Optional.of(question));
-        when(optionRepository.findById(3L)).thenReturn(Optional.of(option));
+        stubValidVote();
         when(responseSessionRepository.save(any())).thenAnswer(invocation -> {
             ResponseSession saved = invocation.getArgument(0);
             ReflectionTestUtils.setField(saved, "id", 99L);
@@ -91,13 +100,44 @@ class VoteServiceTest {
 
         verify(responseSessionRepository).save(any());
         verify(voteRepository).save(any());
+        verify(dataVersions).bump(List.of(1L));
+        verify(eventPublisher).publishEvent(VotesRecordedEvent.of(1L, 2L, 3L));
+        verify(eventPublisher).publishEvent(any(ResponsesRecordedEvent.class));
+        verify(surveyRepository, never()).findById(any());
+        verify(questionRepository, never()).findById(any());
+        verify(optionRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("registerVote com enriquecimento assíncrono deve gravar sessão mínima e publicar para enriquecer")
+    void registerVote_withAsyncEnrichment_shouldDeferDerivedColumns() {
+        stubValidVote();
+        when(enrichmentStage.isEnabled()).thenReturn(true);
+        when(responseSessionRepository.save(any())).thenAnswer(invocation -> {
+            ResponseSession saved = invocation.getArgument(0);
+            ReflectionTestUtils.setField(saved, "id", 99L);
+            return saved;
+        });
+        when(voteRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        VoteRequestDTO request = new VoteRequestDTO(1L, 2L, 3L);
+        request.setDeviceType("kiosk");
+
+        voteService.registerVote(request, "127.0.0.1", "Mozilla/5.0 (iPhone) Mobile");
+
+        ArgumentCaptor<ResponseSession> session = ArgumentCaptor.forClass(ResponseSession.class);
+        verify(responseSessionRepository).save(session.capture());
+        assertThat(session.getValue().getDeviceType()).isEqualTo("kiosk");
+        assertThat(session.getValue().getOperatingSystem()).isNull();
+        assertThat(session.getValue().getBrowser()).isNull();
+        assertThat(session.getValue().getCountry()).isNull();
+        verify(eventPublisher).publishEvent(SessionsRecordedEvent.of(99L, 1L, "Mozilla/5.0 (iPhone) Mobile"));
     }
 
     @Test
     @DisplayName("registerVote deve lançar quando pesquisa estiver inativa")
     void registerVote_whenSurveyInactive_shouldThrow() {
-        Survey survey = buildSurvey(1L, false);
-        when(surveyRepository.findById(1L)).thenReturn(Optional.of(survey));
+        when(structureCache.get(1L)).thenReturn(Optional.of(snapshot(false, true)));
 
         VoteRequestDTO request = new VoteRequestDTO(1L, 2L, 3L);
 
@@ -105,29 +145,183 @@ class VoteServiceTest {
                 () -> voteService.registerVote(request, "127.0.0.1", "UA"));
     }
 
-    private Survey buildSurvey(Long id, boolean active) {
-        Survey survey = new Survey();
-        survey.setId(id);
-        survey.setTitulo("Pesquisa");
-        survey.setAtivo(active);
-        survey.setDataValidade(LocalDateTime.now().plusDays(1));
-        return survey;
+    @Test
+    @DisplayName("registerVote deve recusar pergunta existente de outra pesquisa")
+    void registerVote_whenQuestionFromAnotherSurvey_shouldThrow() {
+        stubValidVote();
+        when(questionRepository.existsById(7L)).thenReturn(true);
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> voteService.registerVote(new VoteRequestDTO(1L, 7L, 3L), "127.0.0.1", "UA"));
+        assertThat(ex.getMessage()).isEqualTo("Pergunta não pertence à pesquisa");
+    }
+
+    @Test
+    @DisplayName("registerVote deve lançar ResourceNotFound quando a opção não existe")
+    void registerVote_whenOptionMissing_shouldThrow() {
+        stubValidVote();
+        when(optionRepository.existsById(8L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> voteService.registerVote(new VoteRequestDTO(1L, 2L, 8L), "127.0.0.1", "UA"));
+    }
+
+    @Test
+    @DisplayName("registerVote deve recusar opção inativa do snapshot")
+    void registerVote_whenOptionInactive_shouldThrow() {
+        when(structureCache.get(1L)).thenReturn(Optional.of(snapshot(true, false)));
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> voteService.registerVote(new VoteRequestDTO(1L, 2L, 3L), "127.0.0.1", "UA"));
+        assertThat(ex.getMessage()).isEqualTo("Opção está inativa");
+    }
+
+    @Test
+    @DisplayName("enqueueVote deve responder como enfileirado sem gravar na requisição")
+    void enqueueVote_whenBufferAccepts_shouldNotPersist() {
+        stubValidVote();
+        when(ingestionBuffer.offer(any())).thenReturn(true);
+
+        VoteResponseDTO response = voteService.enqueueVote(new VoteRequestDTO(1L, 2L, 3L), "127.0.0.1", "JUnit");
+
+        assertThat(response.isQueued()).isTrue();
+        verify(voteRepository, never()).save(any());
+        verify(responseSessionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("enqueueVote deve rejeitar com 503 quando o buffer está cheio e o fallback está desligado")
+    void enqueueVote_whenBufferFullWithoutFallback_shouldThrow() {
+        stubValidVote();
+        when(ingestionBuffer.offer(any())).thenReturn(false);
+        when(ingestionBuffer.isSyncFallbackEnabled()).thenReturn(false);
+
+        assertThrows(ServiceOverloadedException.class,
+                () -> voteService.enqueueVote(new VoteRequestDTO(1L, 2L, 3L), "127.0.0.1", "JUnit"));
+        verify(voteRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("enqueueVote deve gravar de forma síncrona quando o buffer está cheio e o fallback está ligado")
+    void enqueueVote_whenBufferFullWithFallback_shouldPersist() {
+        stubValidVote();
+        when(ingestionBuffer.offer(any())).thenReturn(false);
+        when(ingestionBuffer.isSyncFallbackEnabled()).thenReturn(true);
+        when(voteRepository.save(any())).thenAnswer(invocation -> {
+            Vote saved = invocation.getArgument(0);
+            ReflectionTestUtils.setField(saved, "id", 100L);
+            return saved;
+        });
+
+        VoteResponseDTO response = voteService.enqueueVote(new VoteRequestDTO(1L, 2L, 3L), "127.0.0.1", "JUnit");
+
+        assertThat(response.isQueued()).isFalse();
+        assertThat(response.getVoteId()).isEqualTo(100L);
+    }
+
+    @Test
+    @DisplayName("registerResponse deve gravar uma sessão e todos os votos num único lote")
+    void registerResponse_shouldWriteOneSessionWithAllAnswers() {
+        when(structureCache.get(1L)).thenReturn(Optional.of(twoQuestionSnapshot()));
+        when(batchWriter.write(anyList())).thenReturn(List.of(new VoteBatchWriter.WrittenResponse(50L, List.of(60L, 61L))));
+
+        VoteBatchRequestDTO request = new VoteBatchRequestDTO(1L, List.of(
+                new VoteBatchRequestDTO.Answer(2L, 3L),
+                new VoteBatchRequestDTO.Answer(4L, 5L)));
+        VoteBatchResponseDTO response = voteService.registerResponse(request, "127.0.0.1", "JUnit");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PendingResponse>> captor = ArgumentCaptor.forClass(List.class);
+        verify(batchWriter).write(captor.capture());
+        PendingResponse pending = captor.getValue().get(0);
+        assertThat(captor.getValue()).hasSize(1);
+        assertThat(pending.answers()).containsExactly(
+                new PendingResponse.Answer(2L, 3L), new PendingResponse.Answer(4L, 5L));
+        assertThat(pending.session()).isNotNull();
+        assertThat(pending.session().questionId()).isNull();
+        assertThat(response.getSessionId()).isEqualTo(50L);
+        assertThat(response.getVoteIds()).containsExactly(60L, 61L);
+        assertThat(response.getAntifraudToken()).isEqualTo("session-50");
+    }
+
+    @Test
+    @DisplayName("registerResponse deve recusar a mesma pergunta respondida duas vezes")
+    void registerResponse_withRepeatedQuestion_shouldThrow() {
+        when(structureCache.get(1L)).thenReturn(Optional.of(twoQuestionSnapshot()));
+
+        VoteBatchRequestDTO request = new VoteBatchRequestDTO(1L, List.of(
+                new VoteBatchRequestDTO.Answer(2L, 3L),
+                new VoteBatchRequestDTO.Answer(2L, 3L)));
+
+        assertThrows(BusinessException.class, () -> voteService.registerResponse(request, "127.0.0.1", "JUnit"));
+        verify(batchWriter, never()).write(anyList());
+    }
+
+    @Test
+    @DisplayName("registerVote deve bloquear o mesmo respondente na mesma pergunta antes de acessar o banco")
+    void registerVote_whenDuplicateWithinWindow_shouldThrow() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VoteService guarded = newVoteService(new DuplicateVoteGuard(10, 100, 0, false, voteRepository,
+                Clock.systemUTC(), meterRegistry));
+        stubValidVote();
+        when(voteRepository.save(any())).thenAnswer(invocation -> {
+            Vote saved = invocation.getArgument(0);
+            ReflectionTestUtils.setField(saved, "id", 100L);
+            return saved;
+        });
+
+        guarded.registerVote(new VoteRequestDTO(1L, 2L, 3L), "127.0.0.1", "JUnit");
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> guarded.registerVote(new VoteRequestDTO(1L, 2L, 3L), "127.0.0.1", "JUnit"));
+
+        assertThat(ex.getMessage()).isEqualTo("Voto já registrado recentemente para esta pergunta");
+        assertThat(meterRegistry.counter("vote.duplicate.blocked").count()).isEqualTo(1.0);
+        verify(structureCache, times(1)).get(1L);
+        verify(voteRepository, times(1)).save(any());
+    }
+
+    private VoteService newVoteService(DuplicateVoteGuard duplicateGuard) {
+        return new VoteService(
+                surveyRepository,
+                questionRepository,
+                optionRepository,
+                voteRepository,
+                responseSessionRepository,
+                privacyService,
+                ingestionBuffer,
+                batchWriter,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                structureCache,
+                new UserAgentClassifier(100, new SimpleMeterRegistry()),
+                eventPublisher,
+                duplicateGuard,
+                enrichmentStage,
+                dataVersions,
+                new SimpleMeterRegistry()
+        );
+    }
+
+    private void stubValidVote() {
+        when(structureCache.get(1L)).thenReturn(Optional.of(snapshot(true, true)));
     }
 
-    private Question buildQuestion(Long id, Survey survey) {
-        Question question = new Question();
-        question.setId(id);
-        question.setTexto("Pergunta");
-        question.setSurvey(survey);
-        return question;
+    private SurveyStructureCache.SurveySnapshot snapshot(boolean surveyActive, boolean optionActive) {
+        return new SurveyStructureCache.SurveySnapshot(
+                1L,
+                surveyActive,
+                LocalDateTime.now().plusDays(1),
+                Map.of(2L, new SurveyStructureCache.QuestionSnapshot(2L, "Pergunta", 1)),
+                Map.of(3L, new SurveyStructureCache.OptionSnapshot(3L, 2L, "Opção", optionActive)));
     }
 
-    private Option buildOption(Long id, Question question) {
-        Option option = new Option();
-        option.setId(id);
-        option.setTexto("Opção");
-        option.setQuestion(question);
-        option.setAtivo(true);
-        return option;
+    private SurveyStructureCache.SurveySnapshot twoQuestionSnapshot() {
+        return new SurveyStructureCache.SurveySnapshot(
+                1L,
+                true,
+                LocalDateTime.now().plusDays(1),
+                Map.of(2L, new SurveyStructureCache.QuestionSnapshot(2L, "Pergunta 1", 1),
+                        4L, new SurveyStructureCache.QuestionSnapshot(4L, "Pergunta 2", 2)),
+                Map.of(3L, new SurveyStructureCache.OptionSnapshot(3L, 2L, "Opção A", true),
+                        5L, new SurveyStructureCache.OptionSnapshot(5L, 4L, "Opção B", true)));
     }
 }
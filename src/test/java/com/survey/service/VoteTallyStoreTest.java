@@ -0,0 +1,166 @@
+package com.survey.service;
+
+import com.survey.repository.VoteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VoteTallyStoreTest {
+
+    @Mock
+    private VoteRepository voteRepository;
+    @Mock
+    private SurveyStructureCache structureCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VoteTallyStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new VoteTallyStore(voteRepository, structureCache, Clock.systemUTC(), 30, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Deve semear do banco uma vez e somar votos registrados depois")
+    void counts_shouldSeedOnceAndApplyIncrements() {
+        VoteRepository.QuestionOptionCount row = row(1L, "Pergunta", 10L, "Opção", 4L);
+        when(voteRepository.aggregateBySurvey(5L)).thenReturn(List.of(row));
+
+        assertThat(store.counts(5L)).extracting(VoteTallyStore.OptionCount::total).containsExactly(4L);
+        store.onVotesRecorded(VotesRecordedEvent.of(5L, 1L, 10L));
+        store.onVotesRecorded(VotesRecordedEvent.of(5L, 1L, 10L));
+
+        assertThat(store.counts(5L)).extracting(VoteTallyStore.OptionCount::total).containsExactly(6L);
+        verify(voteRepository, times(1)).aggregateBySurvey(5L);
+    }
+
+    @Test
+    @DisplayName("Voto em opção ainda sem contagem deve usar os textos do cache de estrutura")
+    void onVotesRecorded_forNewOption_shouldDescribeFromStructureCache() {
+        when(voteRepository.aggregateBySurvey(5L)).thenReturn(List.of());
+        when(structureCache.get(5L)).thenReturn(Optional.of(new SurveyStructureCache.SurveySnapshot(
+                5L, true, LocalDateTime.now().plusDays(1),
+                Map.of(1L, new SurveyStructureCache.QuestionSnapshot(1L, "Pergunta", 1)),
+                Map.of(11L, new SurveyStructureCache.OptionSnapshot(11L, 1L, "Nova", true)))));
+        store.counts(5L);
+
+        store.onVotesRecorded(VotesRecordedEvent.of(5L, 1L, 11L));
+
+        assertThat(store.counts(5L)).singleElement().satisfies(count -> {
+            assertThat(count.questionText()).isEqualTo("Pergunta");
+            assertThat(count.optionText()).isEqualTo("Nova");
+            assertThat(count.total()).isEqualTo(1L);
+        });
+    }
+
+    @Test
+    @DisplayName("Votos de pesquisas não semeadas devem ser ignorados")
+    void onVotesRecorded_forUnseededSurvey_shouldBeIgnored() {
+        store.onVotesRecorded(VotesRecordedEvent.of(7L, 1L, 10L));
+
+        verify(structureCache, never()).get(7L);
+        assertThat(meterRegistry.get("vote.tally.surveys").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Evict deve descartar a contagem agora e de novo ao fim da transação")
+    void evict_shouldDropTallyNowAndAfterTransaction() {
+        VoteRepository.QuestionOptionCount row = row(1L, "Pergunta", 10L, "Opção", 4L);
+        when(voteRepository.aggregateBySurvey(5L)).thenReturn(List.of(row));
+        store.counts(5L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.evict(5L);
+            store.counts(5L);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        store.counts(5L);
+
+        verify(voteRepository, times(3)).aggregateBySurvey(5L);
+    }
+
+    @Test
+    @DisplayName("Reconciliação deve substituir as contagens pelas do banco e registrar o desvio")
+    void reconcile_shouldReplaceWithDatabaseCounts() {
+        VoteRepository.QuestionOptionCount seeded = row(1L, "Pergunta", 10L, "Opção", 4L);
+        VoteRepository.QuestionOptionCount actual = row(1L, "Pergunta", 10L, "Opção", 7L);
+        when(voteRepository.aggregateBySurvey(5L)).thenReturn(List.of(seeded), List.of(actual));
+        store.counts(5L);
+
+        store.reconcile();
+
+        assertThat(store.counts(5L)).extracting(VoteTallyStore.OptionCount::total).containsExactly(7L);
+        assertThat(meterRegistry.counter("vote.tally.reconciliations").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("vote.tally.drift").count()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Votos registrados durante a semeadura devem entrar na contagem instalada")
+    void counts_shouldKeepIncrementsRecordedWhileSeeding() {
+        VoteRepository.QuestionOptionCount row = row(1L, "Pergunta", 10L, "Opção", 4L);
+        when(voteRepository.aggregateBySurvey(5L)).thenAnswer(invocation -> {
+            store.onVotesRecorded(VotesRecordedEvent.of(5L, 1L, 10L));
+            return List.of(row);
+        });
+
+        assertThat(store.counts(5L)).extracting(VoteTallyStore.OptionCount::total).containsExactly(5L);
+        store.onVotesRecorded(VotesRecordedEvent.of(5L, 1L, 10L));
+
+        assertThat(store.counts(5L)).extracting(VoteTallyStore.OptionCount::total).containsExactly(6L);
+    }
+
+    @Test
+    @DisplayName("Votos registrados durante a reconciliação devem sobreviver à troca")
+    void reconcile_shouldKeepIncrementsRecordedWhileReloading() {
+        VoteRepository.QuestionOptionCount seeded = row(1L, "Pergunta", 10L, "Opção", 4L);
+        when(voteRepository.aggregateBySurvey(5L)).thenReturn(List.of(seeded));
+        store.counts(5L);
+        when(voteRepository.aggregateBySurvey(5L)).thenAnswer(invocation -> {
+            store.onVotesRecorded(VotesRecordedEvent.of(5L, 1L, 10L));
+            return List.of(seeded);
+        });
+
+        store.reconcile();
+
+        assertThat(store.counts(5L)).extracting(VoteTallyStore.OptionCount::total).containsExactly(5L);
+        assertThat(meterRegistry.counter("vote.tally.drift").count()).isZero();
+    }
+
+    private VoteRepository.QuestionOptionCount row(Long questionId, String questionText,
+                                                   Long optionId, String optionText, Long total) {
+        VoteRepository.QuestionOptionCount row = mock(VoteRepository.QuestionOptionCount.class);
+        lenient().when(row.getQuestionId()).thenReturn(questionId);
+        lenient().when(row.getQuestionText()).thenReturn(questionText);
+        lenient().when(row.getOptionId()).thenReturn(optionId);
+        lenient().when(row.getOptionText()).thenReturn(optionText);
+        lenient().when(row.getTotal()).thenReturn(total);
+        return row;
+    }
+}